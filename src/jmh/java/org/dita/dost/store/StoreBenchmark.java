@@ -0,0 +1,105 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.store;
+
+import net.sf.saxon.s9api.XdmNode;
+import org.apache.commons.io.FileUtils;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.util.XMLUtils;
+import org.openjdk.jmh.annotations.*;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Read and transform round trips of file and memory based stores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreBenchmark {
+
+    @Param({"file", "memory"})
+    public String storeType;
+    @Param({"10", "1000"})
+    public int paragraphs;
+
+    private File tempDir;
+    private Store store;
+    private URI src;
+    private URI dst;
+    private XdmNode node;
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory(StoreBenchmark.class.getSimpleName()).toFile();
+        final XMLUtils xmlUtils = new XMLUtils();
+        switch (storeType) {
+            case "memory":
+                store = new CacheStore(tempDir, xmlUtils);
+                break;
+            case "file":
+                store = new StreamStore(tempDir, xmlUtils);
+                break;
+            default:
+                throw new IllegalArgumentException(storeType);
+        }
+        src = new File(tempDir, "src.dita").toURI();
+        dst = new File(tempDir, "dst.dita").toURI();
+        try (OutputStream out = store.getOutputStream(src);
+             Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            w.write("<topic id='topic' class='- topic/topic ' xmlns:ditaarch='http://dita.oasis-open.org/architecture/2005/'"
+                    + " ditaarch:DITAArchVersion='1.3'>"
+                    + "<title class='- topic/title '>Title</title><body class='- topic/body '>");
+            for (int i = 0; i < paragraphs; i++) {
+                w.write("<p class='- topic/p ' id='p" + i + "'>Paragraph <ph class='- topic/ph '>" + i + "</ph> text.</p>");
+            }
+            w.write("</body></topic>");
+        }
+        node = store.getImmutableNode(src);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public XdmNode read() throws IOException {
+        return store.getImmutableNode(src);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        store.writeDocument(node, dst);
+    }
+
+    @Benchmark
+    public void transform() throws DITAOTException {
+        store.transform(src, dst, singletonList(new XMLFilterImpl()));
+    }
+
+    @Benchmark
+    public XdmNode roundTrip() throws IOException {
+        store.writeDocument(node, dst);
+        return store.getImmutableNode(dst);
+    }
+}
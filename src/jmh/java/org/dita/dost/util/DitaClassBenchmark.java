@@ -0,0 +1,71 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.dita.dost.util.XMLUtils.AttributesBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.xml.sax.Attributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.dita.dost.util.Constants.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DitaClassBenchmark {
+
+    private static final String CLS = "- topic/ph hi-d/b ";
+
+    private String fresh;
+    private DitaClass cls;
+    private Attributes atts;
+
+    @Setup
+    public void setUp() {
+        // new string instance to avoid identity shortcuts
+        fresh = new String(CLS);
+        cls = DitaClass.getInstance(CLS);
+        atts = new AttributesBuilder()
+                .add(ATTRIBUTE_NAME_CLASS, CLS)
+                .build();
+    }
+
+    @Benchmark
+    public DitaClass getInstance() {
+        return DitaClass.getInstance(fresh);
+    }
+
+    @Benchmark
+    public DitaClass getInstanceAttributes() {
+        return DitaClass.getInstance(atts);
+    }
+
+    @Benchmark
+    public boolean matchesString() {
+        return TOPIC_PH.matches(fresh);
+    }
+
+    @Benchmark
+    public boolean matchesClass() {
+        return TOPIC_PH.matches(cls);
+    }
+
+    @Benchmark
+    public boolean matchesAttributes() {
+        return TOPIC_PH.matches(atts);
+    }
+
+    @Benchmark
+    public boolean matchesAttributesMiss() {
+        return TOPIC_XREF.matches(atts);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import com.google.common.collect.ImmutableMap;
+import org.dita.dost.TestUtils;
+import org.dita.dost.util.FilterUtils.Action;
+import org.dita.dost.util.FilterUtils.FilterKey;
+import org.dita.dost.util.FilterUtils.Flag;
+import org.dita.dost.util.XMLUtils.AttributesBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.xml.sax.Attributes;
+
+import javax.xml.namespace.QName;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.dita.dost.util.Constants.ATTRIBUTE_NAME_CLASS;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterUtilsBenchmark {
+
+    private static final QName PLATFORM = QName.valueOf("platform");
+    private static final QName AUDIENCE = QName.valueOf("audience");
+    private static final QName PROPS = QName.valueOf("props");
+    private static final QName OS = QName.valueOf("os");
+
+    private FilterUtils filterUtils;
+    private FilterUtils flagUtils;
+    private QName[][] extProps;
+    private Attributes none;
+    private Attributes included;
+    private Attributes excluded;
+    private Attributes specialized;
+
+    @Setup
+    public void setUp() {
+        final Map<FilterKey, Action> filterMap = ImmutableMap.<FilterKey, Action>builder()
+                .put(new FilterKey(PLATFORM, "unix"), Action.INCLUDE)
+                .put(new FilterKey(PLATFORM, "osx"), Action.INCLUDE)
+                .put(new FilterKey(PLATFORM, "linux"), Action.INCLUDE)
+                .put(new FilterKey(PLATFORM, "windows"), Action.EXCLUDE)
+                .put(new FilterKey(AUDIENCE, "expert"), Action.INCLUDE)
+                .put(new FilterKey(AUDIENCE, "novice"), Action.EXCLUDE)
+                .put(new FilterKey(OS, "amiga"), Action.EXCLUDE)
+                .build();
+        filterUtils = new FilterUtils(false, filterMap, null, null);
+        filterUtils.setLogger(new TestUtils.TestLogger(false));
+        final Map<FilterKey, Action> flagMap = ImmutableMap.<FilterKey, Action>builder()
+                .put(new FilterKey(PLATFORM, "unix"), new Flag("platform", "red", null, null, null, null, null, null))
+                .put(new FilterKey(AUDIENCE, "expert"), new Flag("audience", null, "yellow", null, null, null, null, null))
+                .put(new FilterKey(OS, "amiga"), new Flag("os", "blue", null, null, null, null, null, null))
+                .build();
+        flagUtils = new FilterUtils(true, flagMap, null, null);
+        flagUtils.setLogger(new TestUtils.TestLogger(false));
+        extProps = new QName[][] {{PROPS, OS}};
+
+        none = new AttributesBuilder()
+                .add(ATTRIBUTE_NAME_CLASS, "- topic/p ")
+                .build();
+        included = new AttributesBuilder()
+                .add(ATTRIBUTE_NAME_CLASS, "- topic/p ")
+                .add(PLATFORM, "amiga unix windows")
+                .add(AUDIENCE, "expert")
+                .build();
+        excluded = new AttributesBuilder()
+                .add(ATTRIBUTE_NAME_CLASS, "- topic/p ")
+                .add(PLATFORM, "windows")
+                .build();
+        specialized = new AttributesBuilder()
+                .add(ATTRIBUTE_NAME_CLASS, "- topic/p ")
+                .add(PROPS, "os(amiga unix)")
+                .add(OS, "amiga")
+                .build();
+    }
+
+    @Benchmark
+    public boolean needExcludeNoAttributes() {
+        return filterUtils.needExclude(none, extProps);
+    }
+
+    @Benchmark
+    public boolean needExcludeIncluded() {
+        return filterUtils.needExclude(included, extProps);
+    }
+
+    @Benchmark
+    public boolean needExcludeExcluded() {
+        return filterUtils.needExclude(excluded, extProps);
+    }
+
+    @Benchmark
+    public boolean needExcludeSpecialized() {
+        return filterUtils.needExclude(specialized, extProps);
+    }
+
+    @Benchmark
+    public Set<Flag> getFlagsNoAttributes() {
+        return flagUtils.getFlags(none, extProps);
+    }
+
+    @Benchmark
+    public Set<Flag> getFlags() {
+        return flagUtils.getFlags(included, extProps);
+    }
+
+    @Benchmark
+    public Set<Flag> getFlagsSpecialized() {
+        return flagUtils.getFlags(specialized, extProps);
+    }
+}
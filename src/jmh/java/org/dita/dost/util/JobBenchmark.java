@@ -0,0 +1,83 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.apache.commons.io.FileUtils;
+import org.dita.dost.store.StreamStore;
+import org.dita.dost.util.Job.FileInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.dita.dost.util.Constants.*;
+
+/**
+ * Job configuration serialization and parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class JobBenchmark {
+
+    @Param({"10000", "100000"})
+    public int files;
+
+    private File tempDir;
+    private StreamStore store;
+    private Job job;
+    /** File modified before each write, so that the job is dirty and is serialized. */
+    private FileInfo modified;
+
+    @Setup
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory(JobBenchmark.class.getSimpleName()).toFile();
+        store = new StreamStore(tempDir, new XMLUtils());
+        job = new Job(tempDir, store);
+        job.setInputDir(URI.create("file:/Users/writer/project/"));
+        job.setInputMap(URI.create("main.ditamap"));
+        final URI inputDir = job.getInputDir();
+        for (int i = 0; i < files; i++) {
+            final URI uri = URI.create("topics/section" + (i % 100) + "/topic" + i + ".dita");
+            job.add(new FileInfo.Builder()
+                    .src(inputDir.resolve(uri))
+                    .uri(uri)
+                    .result(inputDir.resolve(uri))
+                    .format(ATTR_FORMAT_VALUE_DITA)
+                    .hasLink(i % 2 == 0)
+                    .hasKeyref(i % 3 == 0)
+                    .hasConref(i % 10 == 0)
+                    .build());
+        }
+        job.write();
+        modified = job.getFileInfo(URI.create("topics/section0/topic0.dita"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        modified.hasCoderef = !modified.hasCoderef;
+        job.add(modified);
+        job.write();
+    }
+
+    @Benchmark
+    public Job read() throws IOException {
+        return new Job(tempDir, store);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class URLUtilsBenchmark {
+
+    private static final String PLAIN = "topics/installing/configuring-the-server.dita#config/step-1";
+    private static final String ESCAPED = "topics/Installation guide/caf\u00E9 \u00FCber [draft].dita#topic";
+    private static final String WINDOWS = "C:\\Users\\writer\\docs\\topics\\installing.dita";
+
+    private final URI base = URI.create("file:/Users/writer/project/maps/user-guide/main.ditamap");
+    private final URI sibling = URI.create("file:/Users/writer/project/maps/user-guide/topics/a.dita#a");
+    private final URI distant = URI.create("file:/Users/writer/project/topics/shared/reference/b.dita#b/c");
+
+    @Benchmark
+    public URI toURIPlain() {
+        return URLUtils.toURI(PLAIN);
+    }
+
+    @Benchmark
+    public URI toURIEscaped() {
+        return URLUtils.toURI(ESCAPED);
+    }
+
+    @Benchmark
+    public URI toURIWindows() {
+        return URLUtils.toURI(WINDOWS);
+    }
+
+    @Benchmark
+    public String cleanPlain() {
+        return URLUtils.clean(PLAIN);
+    }
+
+    @Benchmark
+    public String cleanEscaped() {
+        return URLUtils.clean(ESCAPED);
+    }
+
+    @Benchmark
+    public URI getRelativePathSibling() {
+        return URLUtils.getRelativePath(base, sibling);
+    }
+
+    @Benchmark
+    public URI getRelativePathDistant() {
+        return URLUtils.getRelativePath(base, distant);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.writer;
+
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import org.apache.commons.io.FileUtils;
+import org.dita.dost.TestUtils;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.reader.KeyrefReader;
+import org.dita.dost.store.StreamStore;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.KeyScope;
+import org.dita.dost.util.XMLUtils;
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Key reference resolution over a keyref heavy topic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyrefPaserBenchmark {
+
+    @Param({"100", "1000"})
+    public int keys;
+
+    private File tempDir;
+    private Job job;
+    private KeyScope keyDefinition;
+    private URI src;
+    private URI dst;
+
+    @Setup
+    public void setUp() throws IOException, SaxonApiException {
+        tempDir = Files.createTempDirectory(KeyrefPaserBenchmark.class.getSimpleName()).toFile();
+        final XMLUtils xmlUtils = new XMLUtils();
+        job = new Job(tempDir, new StreamStore(tempDir, xmlUtils));
+
+        final File map = new File(tempDir, "keys.ditamap");
+        try (Writer w = Files.newBufferedWriter(map.toPath(), StandardCharsets.UTF_8)) {
+            w.write("<map xmlns:ditaarch='http://dita.oasis-open.org/architecture/2005/' class='- map/map '"
+                    + " ditaarch:DITAArchVersion='1.3'>");
+            for (int i = 0; i < keys; i++) {
+                w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='link" + i + "' href='target" + i + ".dita'"
+                        + " processing-role='resource-only'>"
+                        + "<topicmeta class='- map/topicmeta '>"
+                        + "<navtitle class='- topic/navtitle '>Target " + i + "</navtitle>"
+                        + "<linktext class='- map/linktext '>Link text " + i + "</linktext>"
+                        + "<shortdesc class='- map/shortdesc '>Short description " + i + "</shortdesc>"
+                        + "</topicmeta></keydef>");
+                w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='var" + i + "'>"
+                        + "<topicmeta class='- map/topicmeta '><keywords class='- topic/keywords '>"
+                        + "<keyword class='- topic/keyword '>Variable " + i + "</keyword>"
+                        + "</keywords></topicmeta></keydef>");
+            }
+            w.write("</map>");
+        }
+        final File topic = new File(tempDir, "topic.dita");
+        try (Writer w = Files.newBufferedWriter(topic.toPath(), StandardCharsets.UTF_8)) {
+            w.write("<topic xmlns:ditaarch='http://dita.oasis-open.org/architecture/2005/' class='- topic/topic '"
+                    + " id='topic' ditaarch:DITAArchVersion='1.3'>"
+                    + "<title class='- topic/title '>Keyrefs</title><body class='- topic/body '>");
+            for (int i = 0; i < keys; i++) {
+                w.write("<p class='- topic/p '>See <xref class='- topic/xref ' keyref='link" + i + "'/> for"
+                        + " <ph class='- topic/ph ' keyref='var" + i + "'/> and"
+                        + " <keyword class='- topic/keyword ' keyref='var" + i + "'/>.</p>");
+            }
+            w.write("</body><related-links class='- topic/related-links '>");
+            for (int i = 0; i < keys; i += 10) {
+                w.write("<link class='- topic/link ' keyref='link" + i + "'/>");
+            }
+            w.write("</related-links></topic>");
+        }
+
+        final URI mapUri = map.toURI();
+        final StreamSource source = new StreamSource(mapUri.toString());
+        final XdmNode document = xmlUtils.getProcessor().newDocumentBuilder().build(source);
+        final KeyrefReader reader = new KeyrefReader();
+        reader.read(mapUri, document);
+        keyDefinition = reader.getKeyDefinition();
+
+        src = topic.toURI();
+        dst = new File(tempDir, "topic.out.dita").toURI();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public void resolve() throws DITAOTException {
+        final KeyrefPaser parser = new KeyrefPaser();
+        parser.setLogger(new TestUtils.TestLogger(false));
+        parser.setJob(job);
+        parser.setKeyDefinition(keyDefinition);
+        parser.setCurrentFile(src);
+        job.getStore().transform(src, dst, singletonList(parser));
+    }
+}
@@ -190,9 +190,10 @@ public final class Processor {
 
         final ch.qos.logback.classic.Logger debugLogger = createDebugLog ? openDebugLogger(tempDir) : null;
 
+        final Project project = new Project();
+        Throwable error = null;
         try {
             final File buildFile = new File(ditaDir, "build.xml");
-            final Project project = new Project();
             project.setCoreLoader(this.getClass().getClassLoader());
 
             if (logger != null) {
@@ -215,9 +216,11 @@ public final class Processor {
             targets.addElement("dita2" + args.get("transtype"));
             project.executeTargets(targets);
         } catch (final BuildException e) {
+            error = e;
             cleanTemp = cleanOnFailure;
             throw new DITAOTException(e);
         } finally {
+            project.fireBuildFinished(error);
             if (debugLogger != null) {
                 closeDebugLogger(debugLogger);
             }
@@ -7,35 +7,71 @@
  */
 package org.dita.dost.ant;
 
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.dita.dost.util.Constants.*;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
-import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.types.ResourceCollection;
+import org.apache.tools.ant.types.resources.FileProvider;
+import org.apache.tools.ant.types.resources.FileResource;
+import org.apache.tools.ant.util.FileNameMapper;
 import org.dita.dost.util.Job;
 
 /**
- * Class description goes here.
+ * Copy resources to output directory.
+ *
+ * <p>Files are copied with NIO, which lets the platform use zero-copy transfer where available, and file
+ * modification times are preserved. Existing destination files are overwritten, unless skipping unchanged files is
+ * enabled, in which case destination files whose size and modification time match the source are not copied again.
+ * Copies are run on a bounded thread pool.</p>
+ *
+ * <p>Optionally files are hard-linked instead of copied, falling back to copy if the source and destination are on
+ * different file systems. A linked destination file shares its content with the source file, so rewriting the
+ * destination in place also rewrites the source. Only enable linking for files that are not modified after they
+ * have been copied.</p>
  *
  * @author Wu, Zhi Qiang
  */
 public final class DITAOTCopy extends Task {
 
+    /** Result of a single file copy. */
+    enum Result {
+        COPIED, LINKED, SKIPPED
+    }
+
     private String includes = null;
     private File includesFile = null;
     private String relativePaths = null;
     /** Destination directory */
     private File destDir = null;
+    private final List<ResourceCollection> resources = new ArrayList<>();
+    private FileNameMapper mapper = null;
+    private int threads = 4;
+    private boolean link = false;
+    private boolean skipUnchanged = false;
+    private boolean failOnError = true;
 
     /**
      * Default Constructor.
@@ -78,12 +114,67 @@ public final class DITAOTCopy extends Task {
         }
     }
 
+    /**
+     * Set the maximum number of concurrent copies.
+     * @param threads number of copy threads, at least 1
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new BuildException("Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Hard-link files instead of copying when source and destination share a file system. Linked files must not be
+     * modified in place after copying, because the change would also apply to the source file.
+     * @param link {@code true} to hard-link files, defaults to {@code false}
+     */
+    public void setLink(final boolean link) {
+        this.link = link;
+    }
+
+    /**
+     * Skip files whose size and modification time match at the destination.
+     * @param skipUnchanged {@code true} to skip unchanged files, defaults to {@code false}
+     */
+    public void setSkipUnchanged(final boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * Fail build if copying a file fails.
+     * @param failOnError {@code true} to fail build, defaults to {@code true}
+     */
+    public void setFailOnError(final boolean failOnError) {
+        this.failOnError = failOnError;
+    }
+
+    /**
+     * Add resources to copy.
+     * @param rc resource collection
+     */
+    public void add(final ResourceCollection rc) {
+        resources.add(rc);
+    }
+
+    /**
+     * Add mapper to map resource names to destination files.
+     * @param fileNameMapper file name mapper
+     */
+    public void add(final FileNameMapper fileNameMapper) {
+        if (mapper != null) {
+            throw new BuildException("Cannot define more than one mapper");
+        }
+        mapper = fileNameMapper;
+    }
+
     /**
      * @see org.apache.tools.ant.Task#execute()
      */
     @Override
     public void execute() throws BuildException {
-        if (includes == null && includesFile == null) {
+        if (includes == null && includesFile == null && resources.isEmpty()) {
             return;
         }
         if (destDir == null) {
@@ -92,15 +183,58 @@ public final class DITAOTCopy extends Task {
         if (!destDir.exists() && !destDir.mkdirs()) {
             throw new BuildException(new IOException("Destination directory " + destDir + " cannot be created"));
         }
+        final List<Copy> copies;
+        try {
+            copies = getCopies();
+        } catch (final IOException e) {
+            throw new BuildException(e.getMessage(), e);
+        }
+        if (copies.isEmpty()) {
+            return;
+        }
+        log("Copying " + copies.size() + " files to " + destDir, Project.MSG_INFO);
+        final Map<Result, Integer> counts = new EnumMap<>(Result.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, copies.size()), r -> {
+            final Thread thread = new Thread(r, "dita-ot-copy");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            final FileUtils fileUtils = FileUtils.newFileUtils();
+            final List<Future<Result>> futures = new ArrayList<>(copies.size());
+            for (final Copy copy : copies) {
+                futures.add(executor.submit(copy));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    counts.merge(futures.get(i).get(), 1, Integer::sum);
+                } catch (final ExecutionException e) {
+                    final String msg = "Failed to copy " + copies.get(i).src + " to " + copies.get(i).dst + ": "
+                            + e.getCause().getMessage();
+                    if (failOnError) {
+                        throw new BuildException(msg, e.getCause());
+                    }
+                    log(msg, Project.MSG_WARN);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        log("Copied " + counts.getOrDefault(Result.COPIED, 0) + ", linked " + counts.getOrDefault(Result.LINKED, 0)
+                + " and skipped " + counts.getOrDefault(Result.SKIPPED, 0) + " unchanged files", Project.MSG_VERBOSE);
+    }
+
+    private List<Copy> getCopies() throws IOException {
+        final List<Copy> res = new ArrayList<>();
+        if (includes != null || includesFile != null) {
             final List<String> incs = getIncludes();
             if (relativePaths == null) {
                 for (final String inc: incs) {
                     final File srcFile = new File(inc);
                     if (srcFile.exists()) {
-                        final File destFile = new File(destDir, srcFile.getName());
-                        fileUtils.copyFile(srcFile, destFile);
+                        res.add(new Copy(new FileResource(srcFile), new File(destDir, srcFile.getName())));
                     }
                 }
             } else {
@@ -115,13 +249,27 @@ public final class DITAOTCopy extends Task {
                         }
                     }
                     if (srcFile.exists() && destFile != null) {
-                        fileUtils.copyFile(srcFile, destFile);
+                        res.add(new Copy(new FileResource(srcFile), destFile));
                     }
                 }
             }
-        } catch (final IOException e) {
-            throw new BuildException(e.getMessage(), e);
         }
+        for (final ResourceCollection rc : resources) {
+            for (final Resource r : rc) {
+                if (!r.isExists() || r.isDirectory()) {
+                    log("Skip " + r.getName(), Project.MSG_VERBOSE);
+                    continue;
+                }
+                final String[] names = mapper != null ? mapper.mapFileName(r.getName()) : new String[] {r.getName()};
+                if (names == null) {
+                    continue;
+                }
+                for (final String name : names) {
+                    res.add(new Copy(r, new File(destDir, name)));
+                }
+            }
+        }
+        return res;
     }
 
     private List<String> getIncludes() throws IOException {
@@ -149,4 +297,87 @@ public final class DITAOTCopy extends Task {
         }
     }
 
-}
\ No newline at end of file
+    /** Copy of a single resource. */
+    private final class Copy implements Callable<Result> {
+        final Resource src;
+        final File dst;
+
+        Copy(final Resource src, final File dst) {
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        public Result call() throws IOException {
+            final FileProvider fp = src.as(FileProvider.class);
+            if (fp != null) {
+                return copy(fp.getFile().toPath(), dst.toPath(), link, skipUnchanged);
+            }
+            return copy(src, dst.toPath(), skipUnchanged);
+        }
+    }
+
+    /**
+     * Copy file.
+     *
+     * @param src source file
+     * @param dst destination file
+     * @param link hard-link file if possible
+     * @param skipUnchanged skip file if destination size and modification time match source
+     * @return copy result
+     */
+    static Result copy(final Path src, final Path dst, final boolean link, final boolean skipUnchanged)
+            throws IOException {
+        final BasicFileAttributes srcAttrs = Files.readAttributes(src, BasicFileAttributes.class);
+        final BasicFileAttributes dstAttrs = readAttributes(dst);
+        if (dstAttrs != null) {
+            if (link && Files.isSameFile(src, dst)) {
+                return Result.SKIPPED;
+            }
+            if (skipUnchanged && srcAttrs.size() == dstAttrs.size()
+                    && srcAttrs.lastModifiedTime().toMillis() == dstAttrs.lastModifiedTime().toMillis()) {
+                return Result.SKIPPED;
+            }
+        }
+        Files.createDirectories(dst.toAbsolutePath().getParent());
+        if (link) {
+            try {
+                Files.deleteIfExists(dst);
+                Files.createLink(dst, src);
+                return Result.LINKED;
+            } catch (final IOException | UnsupportedOperationException e) {
+                // Different file system or links not supported, fall back to copy
+            }
+        }
+        Files.copy(src, dst, REPLACE_EXISTING, COPY_ATTRIBUTES);
+        return Result.COPIED;
+    }
+
+    /**
+     * Copy resource that is not backed by a file.
+     */
+    private static Result copy(final Resource src, final Path dst, final boolean skipUnchanged) throws IOException {
+        final BasicFileAttributes dstAttrs = readAttributes(dst);
+        if (skipUnchanged && dstAttrs != null && src.getSize() == dstAttrs.size()
+                && src.getLastModified() > 0 && src.getLastModified() == dstAttrs.lastModifiedTime().toMillis()) {
+            return Result.SKIPPED;
+        }
+        Files.createDirectories(dst.toAbsolutePath().getParent());
+        try (InputStream in = src.getInputStream()) {
+            Files.copy(in, dst, REPLACE_EXISTING);
+        }
+        if (src.getLastModified() > 0) {
+            Files.setLastModifiedTime(dst, FileTime.fromMillis(src.getLastModified()));
+        }
+        return Result.COPIED;
+    }
+
+    private static BasicFileAttributes readAttributes(final Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+
+}
@@ -22,6 +22,9 @@ import org.dita.dost.module.ModuleFactory;
 import org.dita.dost.module.XmlFilterModule;
 import org.dita.dost.module.XmlFilterModule.FilterPair;
 import org.dita.dost.module.XsltModule;
+import org.dita.dost.pipeline.BuildMetrics;
+import org.dita.dost.pipeline.PipelineExecutor;
+import org.dita.dost.pipeline.Profiler;
 import org.dita.dost.pipeline.PipelineHashIO;
 import org.dita.dost.store.Store;
 import org.dita.dost.store.StreamStore;
@@ -69,6 +72,10 @@ public final class ExtensibleAntInvoker extends Task {
      * Temporary directory.
      */
     private File tempDir;
+    /**
+     * Number of threads for parallel modules, overrides build default.
+     */
+    private Integer threads;
 
     /**
      * Constructor.
@@ -108,6 +115,18 @@ public final class ExtensibleAntInvoker extends Task {
         attrs.put(ANT_INVOKER_PARAM_TEMPDIR, tempdir.getAbsolutePath());
     }
 
+    /**
+     * Set number of threads for parallel modules in this pipeline.
+     *
+     * @param threads number of threads
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new BuildException("Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
+    }
+
     /**
      * Handle nested parameters. Add the key/value to the pipeline hash, unless
      * the "if" attribute is set and refers to a unset property.
@@ -172,7 +191,20 @@ public final class ExtensibleAntInvoker extends Task {
 
         final Job job = getJob(getProject());
         final XMLUtils xmlUtils = getXmlUtils();
+        final Profiler profiler = getProject().getReference(ANT_REFERENCE_PROFILER);
+        final PipelineExecutor executor = getExecutor();
+        final BuildMetrics metrics = BuildMetrics.get();
+        if (ShardTask.getShardFilter(getProject()) != null) {
+            for (final ModuleElem m : modules) {
+                if (!isSharded(m)) {
+                    throw new BuildException("Pipeline module without a file set cannot be run in a shard worker process");
+                }
+            }
+        }
 
+        // Coalesce job writes by modules into a single write at the end of the pipeline
+        job.setDeferWrite(true);
+        boolean completed = false;
         try {
             for (final ModuleElem m : modules) {
                 m.setProject(getProject());
@@ -182,17 +214,71 @@ public final class ExtensibleAntInvoker extends Task {
                     pipelineInput.setAttribute(e.getKey(), e.getValue());
                 }
                 AbstractPipelineModule mod = getPipelineModule(m, pipelineInput);
+                if (m instanceof XsltElem) {
+                    // Stylesheets may read job configuration from file
+                    job.flush();
+                }
                 long start = System.currentTimeMillis();
                 mod.setLogger(logger);
                 mod.setJob(job);
                 mod.setXmlUtils(xmlUtils);
-                mod.execute(pipelineInput);
+                mod.setExecutor(executor);
+                final String stageName = getStageName(m, mod);
+                if (profiler != null) {
+                    profiler.startStage(stageName);
+                }
+                metrics.startStage(stageName);
+                try {
+                    mod.execute(pipelineInput);
+                } finally {
+                    if (profiler != null) {
+                        profiler.endStage();
+                    }
+                    metrics.endStage(mod.getClass().getSimpleName(), System.currentTimeMillis() - start);
+                }
                 long end = System.currentTimeMillis();
                 logger.debug("{0} processing took {1} ms", mod.getClass().getSimpleName(), end - start);
             }
-        } catch (final DITAOTException e) {
+            completed = true;
+        } catch (final DITAOTException | IOException e) {
             throw new BuildException("Failed to run pipeline: " + e.getMessage(), e);
+        } finally {
+            job.setDeferWrite(false);
+            try {
+                job.flush();
+            } catch (final IOException e) {
+                if (completed) {
+                    throw new BuildException("Failed to write job configuration: " + e.getMessage(), e);
+                }
+                logger.error("Failed to write job configuration: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Get pipeline executor from Ant project reference, with pipeline specific parallelism.
+     */
+    private PipelineExecutor getExecutor() {
+        PipelineExecutor executor = getProject().getReference(ANT_REFERENCE_EXECUTOR);
+        if (executor == null) {
+            executor = PipelineExecutor.getDefault();
         }
+        return threads != null ? executor.withParallelism(threads) : executor;
+    }
+
+    /**
+     * Get profiler stage name for module.
+     */
+    private String getStageName(final ModuleElem m, final AbstractPipelineModule mod) {
+        final StringBuilder buf = new StringBuilder();
+        if (getTaskName() != null) {
+            buf.append(getTaskName()).append('/');
+        }
+        buf.append(mod.getClass().getSimpleName());
+        if (m instanceof XsltElem && ((XsltElem) m).style != null) {
+            buf.append(':').append(((XsltElem) m).style.getName());
+        }
+        return buf.toString();
     }
 
     private AbstractPipelineModule getPipelineModule(final ModuleElem m, final PipelineHashIO pipelineInput) throws DITAOTException {
@@ -210,7 +296,7 @@ public final class ExtensibleAntInvoker extends Task {
                 module.setSource(xm.in);
                 module.setResult(xm.out);
             } else if (!xm.fileInfoFilters.isEmpty()) {
-                module.setFileInfoFilter(combine(xm.fileInfoFilters));
+                module.setFileInfoFilter(shard(combine(xm.fileInfoFilters)));
                 module.setDestinationDir(xm.destDir != null ? xm.destDir : tempDir);
             } else {
                 final Set<File> inc = readListFile(xm.includes, logger);
@@ -251,7 +337,7 @@ public final class ExtensibleAntInvoker extends Task {
             module.setParallel(fm.parallel);
             final List<FileInfoFilterElem> predicates = new ArrayList<>(fm.getFormat());
             predicates.addAll(m.fileInfoFilters);
-            module.setFileInfoFilter(combine(predicates));
+            module.setFileInfoFilter(shard(combine(predicates)));
             module.setProcessingPipe(fm.getFilters());
             return module;
         } else {
@@ -266,7 +352,7 @@ public final class ExtensibleAntInvoker extends Task {
             final AbstractPipelineModule module = factory.createModule(m.getImplementation());
             module.setProcessingPipe(m.getFilters());
             if (!m.fileInfoFilters.isEmpty()) {
-                module.setFileInfoFilter(combine(m.fileInfoFilters));
+                module.setFileInfoFilter(shard(combine(m.fileInfoFilters)));
             }
             module.setParallel(m.parallel);
             return module;
@@ -290,6 +376,31 @@ public final class ExtensibleAntInvoker extends Task {
         };
     }
 
+    /**
+     * Test if module only processes files in the shard of a worker process. Modules without a file set would
+     * process all files in every worker process.
+     */
+    private static boolean isSharded(final ModuleElem m) {
+        if (m instanceof XsltElem) {
+            return ((XsltElem) m).in == null && !m.fileInfoFilters.isEmpty();
+        } else if (m instanceof SaxPipeElem) {
+            return true;
+        }
+        return !m.fileInfoFilters.isEmpty();
+    }
+
+    /**
+     * Restrict file filter to files in the shard of a worker process of a sharded build.
+     *
+     * @param filter file filter
+     * @return file filter that only accepts files in the shard, or the argument filter if not a worker process
+     * @see ShardTask
+     */
+    private Predicate<FileInfo> shard(final Predicate<FileInfo> filter) {
+        final Predicate<FileInfo> shardFilter = ShardTask.getShardFilter(getProject());
+        return shardFilter != null ? filter.and(shardFilter) : filter;
+    }
+
     /**
      * Get job configuration from Ant project reference or create new.
      *
@@ -304,12 +415,13 @@ public final class ExtensibleAntInvoker extends Task {
         if (tempDir == null) {
             throw new IllegalStateException(String.format("Ant property %s not set", ANT_TEMP_DIR));
         }
+        final String jobFileName = ShardTask.getJobFileName(project);
         Job job = project.getReference(ANT_REFERENCE_JOB);
         if (job != null) {
             if (job.isStale()) {
                 project.log("Reload stale job configuration reference", Project.MSG_ERR);
                 try {
-                    job = new Job(tempDir, job.getStore());
+                    job = new Job(tempDir, job.getStore(), jobFileName);
                 } catch (final IOException ioe) {
                     throw new BuildException(ioe);
                 }
@@ -329,7 +441,7 @@ public final class ExtensibleAntInvoker extends Task {
             }
             project.log("Job not found from Ant project reference", Project.MSG_VERBOSE);
             try {
-                job = new Job(tempDir, store);
+                job = new Job(tempDir, store, jobFileName);
             } catch (final IOException ioe) {
                 throw new BuildException(ioe);
             }
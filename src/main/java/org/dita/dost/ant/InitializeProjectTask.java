@@ -7,16 +7,23 @@
  */
 package org.dita.dost.ant;
 
+import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
 import org.dita.dost.log.DITAOTAntLogger;
+import org.dita.dost.log.MetricsListener;
+import org.dita.dost.pipeline.PipelineExecutor;
+import org.dita.dost.pipeline.Profiler;
+import org.dita.dost.store.ProfilingStore;
 import org.dita.dost.store.Store;
 import org.dita.dost.store.StoreBuilder;
 import org.dita.dost.util.CatalogUtils;
 import org.dita.dost.util.XMLUtils;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ServiceLoader;
 
 import static org.dita.dost.util.Constants.*;
@@ -47,15 +54,51 @@ public final class InitializeProjectTask extends Task {
             xmlUtils.setLogger(new DITAOTAntLogger(getProject()));
             getProject().addReference(ANT_REFERENCE_XML_UTILS, xmlUtils);
         }
-        final Store store = getStore(xmlUtils);
+        Store store = getProject().getReference(ANT_REFERENCE_STORE);
+        if (store == null) {
+            store = getStore(xmlUtils);
+            final String profilerFile = getProject().getProperty(ANT_PROFILER_FILE);
+            if (profilerFile != null && getProject().getReference(ANT_REFERENCE_PROFILER) == null) {
+                final Profiler profiler = new Profiler();
+                getProject().addReference(ANT_REFERENCE_PROFILER, profiler);
+                getProject().addBuildListener(new ProfilerListener(profiler, new File(profilerFile)));
+                store = new ProfilingStore(store, profiler);
+            }
+        }
         getProject().addReference(ANT_REFERENCE_STORE, store);
+        if (getProject().getBuildListeners().stream().noneMatch(l -> l instanceof MetricsListener)) {
+            getProject().addBuildListener(new MetricsListener());
+        }
+        if (getProject().getReference(ANT_REFERENCE_EXECUTOR) == null) {
+            final PipelineExecutor executor = createExecutor();
+            getProject().addReference(ANT_REFERENCE_EXECUTOR, executor);
+            getProject().addBuildListener(new ExecutorListener(executor));
+        }
     }
 
-    private Store getStore(XMLUtils xmlUtils) {
-        Store store = getProject().getReference(ANT_REFERENCE_STORE);
-        if (store != null) {
-            return store;
+    private PipelineExecutor createExecutor() {
+        final String threads = getProject().getProperty(ANT_PARALLEL_THREADS);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (threads != null && !threads.trim().isEmpty()) {
+            try {
+                parallelism = Integer.parseInt(threads.trim());
+            } catch (final NumberFormatException e) {
+                throw new BuildException("Invalid value for property " + ANT_PARALLEL_THREADS + ": " + threads);
+            }
+            if (parallelism < 1) {
+                throw new BuildException("Invalid value for property " + ANT_PARALLEL_THREADS + ": " + threads);
+            }
+        }
+        final boolean virtualThreads = Project.toBoolean(getProject().getProperty(ANT_PARALLEL_VIRTUAL_THREADS));
+        final PipelineExecutor executor = new PipelineExecutor(parallelism, virtualThreads);
+        if (virtualThreads && !executor.isVirtualThreads()) {
+            log("Virtual threads are not supported by this JVM, using platform threads", Project.MSG_WARN);
         }
+        log("Using " + parallelism + " threads for parallel processing", Project.MSG_VERBOSE);
+        return executor;
+    }
+
+    private Store getStore(XMLUtils xmlUtils) {
         File tempDir = toFile(getProject().getUserProperty(ANT_TEMP_DIR));
         if (tempDir == null) {
             tempDir = toFile(getProject().getProperty(ANT_TEMP_DIR));
@@ -71,4 +114,96 @@ public final class InitializeProjectTask extends Task {
     public void setStoreType(final String storeType) {
         this.storeType = storeType;
     }
-}
\ No newline at end of file
+
+    /**
+     * Write profiler trace and summary when build finishes.
+     */
+    private static final class ProfilerListener implements BuildListener {
+
+        private final Profiler profiler;
+        private final File file;
+
+        private ProfilerListener(final Profiler profiler, final File file) {
+            this.profiler = profiler;
+            this.file = file;
+        }
+
+        @Override
+        public void buildFinished(final BuildEvent event) {
+            final Project project = event.getProject();
+            profiler.endStage();
+            try {
+                profiler.writeTrace(file);
+                project.log("Profiler trace written to " + file.getAbsolutePath(), Project.MSG_WARN);
+            } catch (final IOException e) {
+                project.log("Failed to write profiler trace " + file.getAbsolutePath() + ": " + e.getMessage(), e, Project.MSG_ERR);
+            }
+            project.log(profiler.getSummary(), Project.MSG_WARN);
+        }
+
+        @Override
+        public void buildStarted(final BuildEvent event) {
+        }
+
+        @Override
+        public void targetStarted(final BuildEvent event) {
+        }
+
+        @Override
+        public void targetFinished(final BuildEvent event) {
+        }
+
+        @Override
+        public void taskStarted(final BuildEvent event) {
+        }
+
+        @Override
+        public void taskFinished(final BuildEvent event) {
+        }
+
+        @Override
+        public void messageLogged(final BuildEvent event) {
+        }
+    }
+
+    /**
+     * Shut down pipeline executor when build finishes.
+     */
+    private static final class ExecutorListener implements BuildListener {
+
+        private final PipelineExecutor executor;
+
+        private ExecutorListener(final PipelineExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void buildFinished(final BuildEvent event) {
+            executor.close();
+        }
+
+        @Override
+        public void buildStarted(final BuildEvent event) {
+        }
+
+        @Override
+        public void targetStarted(final BuildEvent event) {
+        }
+
+        @Override
+        public void targetFinished(final BuildEvent event) {
+        }
+
+        @Override
+        public void taskStarted(final BuildEvent event) {
+        }
+
+        @Override
+        public void taskFinished(final BuildEvent event) {
+        }
+
+        @Override
+        public void messageLogged(final BuildEvent event) {
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.ant;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.helper.IgnoreDependenciesExecutor;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.Job.FileInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.dita.dost.ant.ExtensibleAntInvoker.getJob;
+import static org.dita.dost.util.Constants.*;
+
+/**
+ * Run targets in local worker processes that each process a shard of the files in the job.
+ *
+ * <p>The coordinator writes the job configuration, starts worker JVMs that run the targets against the shared
+ * temporary directory, and merges the job configuration changes of the workers back into its own job. Each worker
+ * reads and writes its own copy of the job configuration, and pipeline modules with a file set only process the
+ * files whose URI hashes to the worker's shard. Pipeline modules without a file set fail in worker processes,
+ * because every worker would process the same files. Targets are run without their dependencies, so they should
+ * contain only per-file stages that don't depend on each other's output across files.</p>
+ *
+ * <p>Targets are run in the current process if shard count is less than two, if the store doesn't keep temporary
+ * files on disk, or if the current process is already a worker.</p>
+ *
+ * @since 3.7
+ */
+public final class ShardTask extends Task {
+
+    /** Ant property for store type, workers can only share file based stores. */
+    private static final String ANT_STORE_TYPE = "store-type";
+    private static final String STORE_TYPE_FILE = "file";
+    private static final String SHARD_JOB_FILE_PREFIX = ".job-shard-";
+    private static final String SHARD_PROPERTIES_FILE = ".shard.properties";
+
+    private int count = 1;
+    private final List<String> targets = new ArrayList<>();
+    private String initTarget = "init-properties";
+
+    @Override
+    public void execute() throws BuildException {
+        if (targets.isEmpty()) {
+            throw new BuildException("Attribute targets must be set");
+        }
+        if (count < 2 || getShardFilter(getProject()) != null) {
+            runTargets();
+            return;
+        }
+        if (!STORE_TYPE_FILE.equals(getProject().getProperty(ANT_STORE_TYPE))) {
+            log("Store type does not support worker processes, running targets in a single process", Project.MSG_INFO);
+            runTargets();
+            return;
+        }
+
+        final Job job = getJob(getProject());
+        final Map<String, String> baseProps = new HashMap<>(job.getProperties());
+        final Map<URI, FileInfo> baseFiles = new HashMap<>();
+        for (final FileInfo fi : job.getFileInfo()) {
+            baseFiles.put(fi.uri, FileInfo.builder(fi).build());
+        }
+        final File propertyFile = new File(job.tempDir, SHARD_PROPERTIES_FILE);
+        try {
+            job.flush();
+            final URI jobFile = new File(job.tempDir, Job.JOB_FILE).toURI();
+            for (int i = 0; i < count; i++) {
+                job.getStore().copy(jobFile, new File(job.tempDir, getJobFileName(i)).toURI());
+            }
+            writeProperties(propertyFile);
+        } catch (final IOException e) {
+            throw new BuildException("Failed to write shard configuration: " + e.getMessage(), e);
+        }
+
+        log("Running targets " + targets + " in " + count + " worker processes", Project.MSG_INFO);
+        runWorkers(propertyFile);
+
+        try {
+            final List<Job> shards = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                shards.add(new Job(job.tempDir, job.getStore(), getJobFileName(i)));
+            }
+            merge(job, baseProps, baseFiles, shards);
+            for (int i = 0; i < count; i++) {
+                job.getStore().delete(new File(job.tempDir, getJobFileName(i)).toURI());
+            }
+            job.flush();
+            Files.deleteIfExists(propertyFile.toPath());
+        } catch (final IOException e) {
+            throw new BuildException("Failed to merge shard job configuration: " + e.getMessage(), e);
+        }
+    }
+
+    private void runTargets() {
+        for (final String name : targets) {
+            final Target target = getProject().getTargets().get(name);
+            if (target == null) {
+                throw new BuildException("Target " + name + " does not exist");
+            }
+            target.performTasks();
+        }
+    }
+
+    private void runWorkers(final File propertyFile) {
+        final List<Process> processes = new ArrayList<>(count);
+        final List<Integer> failed = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                processes.add(new ProcessBuilder(getCommand(i, propertyFile))
+                        .directory(getProject().getBaseDir())
+                        .inheritIO()
+                        .start());
+            }
+            for (int i = 0; i < count; i++) {
+                if (processes.get(i).waitFor() != 0) {
+                    failed.add(i);
+                }
+            }
+        } catch (final IOException e) {
+            throw new BuildException("Failed to start worker process: " + e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while waiting for worker processes", e);
+        } finally {
+            for (final Process process : processes) {
+                if (process.isAlive()) {
+                    process.destroy();
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new BuildException("Worker processes for shards " + failed + " failed");
+        }
+    }
+
+    /**
+     * Get worker process command line. The worker inherits JVM arguments, class path and project properties.
+     */
+    private List<String> getCommand(final int index, final File propertyFile) {
+        final List<String> cmd = new ArrayList<>();
+        cmd.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getAbsolutePath());
+        for (final String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!arg.startsWith("-agentlib:jdwp") && !arg.startsWith("-Xrunjdwp") && !arg.equals("-Xdebug")) {
+                cmd.add(arg);
+            }
+        }
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(org.apache.tools.ant.Main.class.getName());
+        cmd.add("-buildfile");
+        cmd.add(getProject().getProperty("ant.file"));
+        cmd.add("-propertyfile");
+        cmd.add(propertyFile.getAbsolutePath());
+        cmd.add("-D" + ANT_SHARD_INDEX + "=" + index);
+        cmd.add("-D" + ANT_SHARD_COUNT + "=" + count);
+        final String profilerFile = getProject().getProperty(ANT_PROFILER_FILE);
+        if (profilerFile != null) {
+            cmd.add("-D" + ANT_PROFILER_FILE + "=" + getShardFileName(profilerFile, index));
+        }
+        cmd.add("-Dant.executor.class=" + IgnoreDependenciesExecutor.class.getName());
+        if (initTarget != null && !initTarget.isEmpty()) {
+            cmd.add(initTarget);
+        }
+        cmd.addAll(targets);
+        return cmd;
+    }
+
+    /**
+     * Get file name for a shard by adding shard index before the file extension.
+     */
+    static String getShardFileName(final String file, final int index) {
+        final int sep = file.lastIndexOf('.');
+        return sep > Math.max(file.lastIndexOf('/'), file.lastIndexOf(File.separatorChar))
+                ? file.substring(0, sep) + "-shard-" + index + file.substring(sep)
+                : file + "-shard-" + index;
+    }
+
+    /**
+     * Write project properties for worker processes, excluding system and Ant built-in properties. Profiler trace
+     * file is passed to each worker separately so that workers don't overwrite the coordinator's trace.
+     */
+    private void writeProperties(final File propertyFile) throws IOException {
+        final Properties props = new Properties();
+        for (final Map.Entry<String, Object> e : getProject().getProperties().entrySet()) {
+            final String key = e.getKey();
+            if (e.getValue() != null
+                    && !System.getProperties().containsKey(key)
+                    && !key.startsWith("ant.")
+                    && !key.equals(ANT_SHARD_INDEX) && !key.equals(ANT_SHARD_COUNT)
+                    && !key.equals(ANT_PROFILER_FILE)) {
+                props.setProperty(key, e.getValue().toString());
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(propertyFile.toPath())) {
+            props.store(out, null);
+        }
+    }
+
+    /**
+     * Merge changes workers made to their job configurations. File info objects and string properties that differ
+     * from the state the workers started from are copied to the coordinator job, and file info objects and string
+     * properties the workers removed are removed.
+     *
+     * @param job coordinator job configuration
+     * @param baseProps string properties when workers were started
+     * @param baseFiles file info objects when workers were started
+     * @param shards worker job configurations
+     * @throws BuildException if workers made different changes to the same file info or property
+     */
+    static void merge(final Job job, final Map<String, String> baseProps, final Map<URI, FileInfo> baseFiles,
+                      final List<Job> shards) {
+        final Map<URI, FileInfo> fileChanges = new HashMap<>();
+        final Map<URI, Integer> fileChangedBy = new HashMap<>();
+        final Map<String, String> propChanges = new HashMap<>();
+        final Map<String, Integer> propChangedBy = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final Job shard = shards.get(i);
+            for (final FileInfo fi : shard.getFileInfo()) {
+                if (!fi.equals(baseFiles.get(fi.uri))) {
+                    addChange(fileChanges, fileChangedBy, fi.uri, fi, i, "file " + fi.uri);
+                }
+            }
+            for (final URI uri : baseFiles.keySet()) {
+                if (shard.getFileInfo(uri) == null) {
+                    addChange(fileChanges, fileChangedBy, uri, null, i, "file " + uri);
+                }
+            }
+            final Map<String, String> props = shard.getProperties();
+            for (final Map.Entry<String, String> e : props.entrySet()) {
+                if (!e.getValue().equals(baseProps.get(e.getKey()))) {
+                    addChange(propChanges, propChangedBy, e.getKey(), e.getValue(), i, "property " + e.getKey());
+                }
+            }
+            for (final String key : baseProps.keySet()) {
+                if (!props.containsKey(key)) {
+                    addChange(propChanges, propChangedBy, key, null, i, "property " + key);
+                }
+            }
+        }
+
+        for (final Map.Entry<URI, FileInfo> e : fileChanges.entrySet()) {
+            if (e.getValue() != null) {
+                job.add(e.getValue());
+            } else {
+                final FileInfo fi = job.getFileInfo(e.getKey());
+                if (fi != null) {
+                    job.remove(fi);
+                }
+            }
+        }
+        for (final Map.Entry<String, String> e : propChanges.entrySet()) {
+            if (e.getValue() != null) {
+                job.setProperty(e.getKey(), e.getValue());
+            } else {
+                job.removeProperty(e.getKey());
+            }
+        }
+    }
+
+    /**
+     * Add change made by a worker, {@code null} value for removal.
+     *
+     * @throws BuildException if another worker made a different change to the same key
+     */
+    private static <K, V> void addChange(final Map<K, V> changes, final Map<K, Integer> changedBy,
+                                         final K key, final V value, final int shard, final String desc) {
+        final Integer prev = changedBy.get(key);
+        if (prev == null) {
+            changes.put(key, value);
+            changedBy.put(key, shard);
+        } else if (!Objects.equals(changes.get(key), value)) {
+            throw new BuildException("Conflicting changes to " + desc + " in shards " + prev + " and " + shard);
+        }
+    }
+
+    /**
+     * Get filter for files in the shard of a worker process.
+     *
+     * @param project Ant project
+     * @return filter that accepts files in the shard, {@code null} if not a worker process
+     */
+    static Predicate<FileInfo> getShardFilter(final Project project) {
+        final String index = project.getProperty(ANT_SHARD_INDEX);
+        final String count = project.getProperty(ANT_SHARD_COUNT);
+        if (index == null || count == null) {
+            return null;
+        }
+        final int i = Integer.parseInt(index);
+        final int c = Integer.parseInt(count);
+        return fi -> isInShard(fi, i, c);
+    }
+
+    /**
+     * Test if file belongs to a shard. Files are assigned by a hash of the file URI that is stable across processes.
+     *
+     * @param fi file info
+     * @param index shard index
+     * @param count shard count
+     * @return {@code true} if file belongs to the shard
+     */
+    static boolean isInShard(final FileInfo fi, final int index, final int count) {
+        return Math.floorMod(fi.uri.toString().hashCode(), count) == index;
+    }
+
+    /**
+     * Get job configuration file name for project.
+     *
+     * @param project Ant project
+     * @return shard job configuration file name for worker processes, otherwise default job configuration file name
+     */
+    static String getJobFileName(final Project project) {
+        final String index = project.getProperty(ANT_SHARD_INDEX);
+        return index != null ? getJobFileName(Integer.parseInt(index)) : Job.JOB_FILE;
+    }
+
+    private static String getJobFileName(final int index) {
+        return SHARD_JOB_FILE_PREFIX + index + ".xml";
+    }
+
+    public void setCount(final int count) {
+        this.count = count;
+    }
+
+    /**
+     * Set comma separated list of targets to run.
+     */
+    public void setTargets(final String targets) {
+        this.targets.clear();
+        for (final String target : targets.split(",")) {
+            if (!target.trim().isEmpty()) {
+                this.targets.add(target.trim());
+            }
+        }
+    }
+
+    /**
+     * Set target that initializes worker processes, empty to not run an initialization target.
+     */
+    public void setInitTarget(final String initTarget) {
+        this.initTarget = initTarget;
+    }
+}
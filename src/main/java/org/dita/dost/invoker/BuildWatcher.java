@@ -0,0 +1,119 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+
+package org.dita.dost.invoker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watch source files of builds for changes.
+ *
+ * <p>Each build is identified by a key and tracks the set of source files the build read. Parent directories of the
+ * tracked files are watched, and a change to a file is reported for the builds that track it. Events are collected
+ * until no new events arrive within a quiet period, so that an editor save that touches a file multiple times
+ * results in a single rebuild.</p>
+ *
+ * @param <K> build key type
+ * @since 3.7
+ */
+final class BuildWatcher<K> implements Closeable {
+
+    /** Quiet period in milliseconds after the last change event before changes are reported. */
+    static final long QUIET_PERIOD = 300;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Set<Path> registered = new HashSet<>();
+    private final Map<K, Set<Path>> builds = new LinkedHashMap<>();
+
+    BuildWatcher() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Set files tracked by a build, replacing previously tracked files.
+     *
+     * @param build build key
+     * @param files absolute normalized source file paths
+     * @throws IOException if registering directory for watching failed
+     */
+    void watch(final K build, final Set<Path> files) throws IOException {
+        builds.put(build, new HashSet<>(files));
+        for (final Path file : files) {
+            final Path dir = file.getParent();
+            if (dir != null && !registered.contains(dir) && Files.isDirectory(dir)) {
+                final WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                directories.put(key, dir);
+                registered.add(dir);
+            }
+        }
+    }
+
+    /**
+     * Wait for changes to tracked files. If change events were lost, all builds are reported as affected.
+     *
+     * @return changed files by build, only builds that track a changed file are included unless events were lost
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Map<K, Set<Path>> take() throws InterruptedException {
+        while (true) {
+            final Set<Path> changed = new HashSet<>();
+            boolean overflow = false;
+            WatchKey key = watchService.take();
+            while (key != null) {
+                final Path dir = directories.get(key);
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        overflow = true;
+                    } else if (dir != null) {
+                        changed.add(dir.resolve((Path) event.context()).toAbsolutePath().normalize());
+                    }
+                }
+                if (!key.reset()) {
+                    directories.remove(key);
+                    registered.remove(dir);
+                }
+                key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+            }
+            final Map<K, Set<Path>> affected = getAffected(changed, overflow);
+            if (!affected.isEmpty()) {
+                return affected;
+            }
+        }
+    }
+
+    /**
+     * Get builds that track changed files.
+     *
+     * @param changed absolute normalized paths of changed files
+     * @param overflow {@code true} if change events were lost
+     * @return changed files by build, only builds that track a changed file are included unless events were lost
+     */
+    Map<K, Set<Path>> getAffected(final Set<Path> changed, final boolean overflow) {
+        final Map<K, Set<Path>> affected = new LinkedHashMap<>();
+        for (final Map.Entry<K, Set<Path>> build : builds.entrySet()) {
+            final Set<Path> files = new TreeSet<>(changed);
+            files.retainAll(build.getValue());
+            if (overflow || !files.isEmpty()) {
+                affected.put(build.getKey(), files);
+            }
+        }
+        return affected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -24,6 +24,8 @@ import java.util.stream.Collectors;
 
 import static org.dita.dost.invoker.ArgumentParser.getPluginArguments;
 import static org.dita.dost.invoker.Main.locale;
+import static org.dita.dost.util.Constants.ANT_PARALLEL_THREADS;
+import static org.dita.dost.util.Constants.ANT_PROFILER_FILE;
 import static org.dita.dost.util.Constants.ANT_TEMP_DIR;
 import static org.dita.dost.util.XMLUtils.toList;
 
@@ -60,6 +62,8 @@ public class ConversionArguments extends Arguments {
         ARGUMENTS.put("--temp", new AbsoluteFileArgument(ANT_TEMP_DIR, null));
         ARGUMENTS.put("-p", new AbsoluteFileArgument("project.file", null));
         ARGUMENTS.put("--project", new AbsoluteFileArgument("project.file", null));
+        ARGUMENTS.put("--profile", new AbsoluteFileArgument(ANT_PROFILER_FILE, null));
+        ARGUMENTS.put("--threads", new StringArgument(ANT_PARALLEL_THREADS, null));
         for (final Map.Entry<String, Argument> e : new HashSet<>(ARGUMENTS.entrySet())) {
             if (e.getKey().startsWith("--")) {
                 ARGUMENTS.put(e.getKey().substring(1), e.getValue());
@@ -80,6 +84,10 @@ public class ConversionArguments extends Arguments {
      */
     File projectFile;
     int repeat = 1;
+    /**
+     * Rebuild when source files change
+     */
+    boolean watch;
 
     public final List<String> inputs = new ArrayList<>();
     private final List<String> resources = new ArrayList<>();
@@ -145,6 +153,8 @@ public class ConversionArguments extends Arguments {
                 handleArgResource(arg, args, ARGUMENTS.get(getArgumentName(arg)));
             } else if (isLongForm(arg, "-repeat")) {
                 handleArgRepeat(arg, args);
+            } else if (isLongForm(arg, "-watch")) {
+                watch = true;
             } else if (ARGUMENTS.containsKey(getArgumentName(arg))) {
                 definedProps.putAll(handleParameterArg(arg, args, ARGUMENTS.get(getArgumentName(arg))));
             } else if (getPluginArguments().containsKey(getArgumentName(arg))) {
@@ -388,9 +398,12 @@ public class ConversionArguments extends Arguments {
         if (!compact) {
             buf
                     .options("l", "logfile", "file", locale.getString("conversion.option.logfile"))
+                    .options(null, "profile", "file", locale.getString("conversion.option.profile"))
                     .options(null, "propertyfile", "file", locale.getString("conversion.option.propertyfile"))
                     .options(null, "repeat", "num", locale.getString("conversion.option.repeat"))
-                    .options("t", "temp", "dir", locale.getString("conversion.option.temp"));
+                    .options("t", "temp", "dir", locale.getString("conversion.option.temp"))
+                    .options(null, "threads", "num", locale.getString("conversion.option.threads"))
+                    .options(null, "watch", null, locale.getString("conversion.option.watch"));
             final Set<String> builtin = ARGUMENTS.values().stream().map(arg -> arg.property).collect(Collectors.toSet());
             final List<Element> params = toList(Plugins.getPluginConfiguration().getElementsByTagName("param"));
             params.stream()
@@ -42,6 +42,7 @@ import org.dita.dost.project.Project.Context;
 import org.dita.dost.project.Project.Publication;
 import org.dita.dost.project.ProjectFactory;
 import org.dita.dost.util.Configuration;
+import org.dita.dost.util.Job;
 import org.dita.dost.util.URLUtils;
 
 import java.io.*;
@@ -49,11 +50,14 @@ import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.dita.dost.invoker.Arguments.*;
 import static org.dita.dost.util.Configuration.transtypes;
+import static org.dita.dost.util.Constants.ANT_REFERENCE_JOB;
 import static org.dita.dost.util.Constants.ANT_TEMP_DIR;
+import static org.dita.dost.util.URLUtils.stripFragment;
 
 /**
  * Command line entry point into DITA-OT. This class is entered via the canonical
@@ -63,6 +67,8 @@ import static org.dita.dost.util.Constants.ANT_TEMP_DIR;
 public class Main extends org.apache.tools.ant.Main implements AntMain {
 
     private static final String ANT_ARGS_INPUT = "args.input";
+    /** URI with a scheme that is not a Windows drive letter. */
+    private static final Pattern NON_FILE_URI = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]+:/.*");
     static final String ANT_ARGS_RESOURCES = "args.resources";
     static final String ANT_ARGS_INPUTS = "args.inputs";
     protected static final String ANT_OUTPUT_DIR = "output.dir";
@@ -96,6 +102,14 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
      */
     private List<Map<String, Object>> projectProps;
     private int repeat;
+    /**
+     * Keep running and rebuild when source files change.
+     */
+    private boolean watch;
+    /**
+     * Source files read by the last build of each deliverable.
+     */
+    private final Map<Map<String, Object>, Set<Path>> sourceFiles = new IdentityHashMap<>();
 
     /**
      * Whether or not this instance has successfully been constructed and is
@@ -227,11 +241,115 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
             exc.printStackTrace();
             printMessage(exc);
         } finally {
-            handleLogfile();
+            if (!watch) {
+                handleLogfile();
+            }
+        }
+        if (watch) {
+            try {
+                exitCode = watch(coreLoader);
+            } finally {
+                handleLogfile();
+            }
         }
         exit(exitCode);
     }
 
+    /**
+     * Rebuild deliverables whenever source files read by their previous build change. Only deliverables that read a
+     * changed file are rebuilt. Build failures are reported and watching continues.
+     *
+     * <p>Each rebuild is a full build in a new temporary directory. Rebuilds reuse process wide parser, grammar and
+     * catalog caches, but not the previous job, temporary files or compiled stylesheets.</p>
+     *
+     * @param coreLoader core class loader
+     * @return exit code
+     */
+    private int watch(final ClassLoader coreLoader) {
+        try (BuildWatcher<Integer> watcher = new BuildWatcher<>()) {
+            for (int i = 0; i < projectProps.size(); i++) {
+                watcher.watch(i, getSourceFiles(projectProps.get(i)));
+            }
+            while (true) {
+                System.out.println(locale.getString("conversion.watch.waiting"));
+                final Map<Integer, Set<Path>> affected = watcher.take();
+                for (final Map.Entry<Integer, Set<Path>> build : affected.entrySet()) {
+                    final Map<String, Object> props = projectProps.get(build.getKey());
+                    if (build.getValue().isEmpty()) {
+                        System.out.println(locale.getString("conversion.watch.overflow"));
+                    }
+                    for (final Path file : build.getValue()) {
+                        System.out.println(String.format(locale.getString("conversion.watch.changed"), file));
+                    }
+                    final long start = System.currentTimeMillis();
+                    try {
+                        runBuild(coreLoader, props);
+                    } catch (final BuildException e) {
+                        if (err != System.err) {
+                            printMessage(e);
+                        }
+                    } catch (final RuntimeException e) {
+                        e.printStackTrace();
+                        printMessage(e);
+                    }
+                    System.out.println(String.format(locale.getString("conversion.watch.duration"),
+                            System.currentTimeMillis() - start));
+                    watcher.watch(build.getKey(), getSourceFiles(props));
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (final IOException e) {
+            printMessage(e);
+            return 1;
+        }
+    }
+
+    /**
+     * Get source files read by the last build of a deliverable. If the build failed before the input was read, only
+     * the input and filter files are returned.
+     */
+    private Set<Path> getSourceFiles(final Map<String, Object> props) {
+        final Set<Path> files = sourceFiles.get(props);
+        return files != null ? files : Collections.emptySet();
+    }
+
+    /**
+     * Collect source files read by build from the job configuration of the build.
+     */
+    private Set<Path> collectSourceFiles(final Project project, final Map<String, Object> props) {
+        final Set<Path> files = new HashSet<>();
+        addSourceFile(files, props.get(ANT_ARGS_INPUT));
+        final Object filters = props.get("args.filter");
+        if (filters != null) {
+            for (final String filter : filters.toString().split(File.pathSeparator)) {
+                addSourceFile(files, filter);
+            }
+        }
+        final Job job = project.getReference(ANT_REFERENCE_JOB);
+        if (job != null) {
+            for (final Job.FileInfo fi : job.getFileInfo()) {
+                if (fi.src != null && "file".equals(fi.src.getScheme())) {
+                    files.add(Paths.get(stripFragment(fi.src)).toAbsolutePath().normalize());
+                }
+            }
+        }
+        return files;
+    }
+
+    private void addSourceFile(final Set<Path> files, final Object value) {
+        if (value == null || value.toString().isEmpty()) {
+            return;
+        }
+        final String path = value.toString();
+        if (path.startsWith("file:")) {
+            files.add(Paths.get(stripFragment(URLUtils.toURI(path))).toAbsolutePath().normalize());
+        } else if (!NON_FILE_URI.matcher(path).matches()) {
+            files.add(Paths.get(path).toAbsolutePath().normalize());
+        }
+    }
+
     /**
      * This operation is expected to call {@link System#exit(int)}, which is
      * what the base version does. However, it is possible to do something else.
@@ -359,6 +477,7 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
                 projectProps = handleProject(conversionArgs.projectFile, definedProps);
             }
             repeat = conversionArgs.repeat;
+            watch = conversionArgs.watch;
             // default values
             if (!definedProps.containsKey(ANT_OUTPUT_DIR)) {
                 definedProps.put(ANT_OUTPUT_DIR, new File(new File("."), "out").getAbsolutePath());
@@ -688,6 +807,9 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
             error = exc;
             throw exc;
         } finally {
+            if (watch) {
+                sourceFiles.put(definedProps, collectSourceFiles(project, definedProps));
+            }
             try {
                 project.fireBuildFinished(error);
             } catch (final Throwable t) {
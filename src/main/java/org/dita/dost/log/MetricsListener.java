@@ -0,0 +1,71 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.log;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.dita.dost.pipeline.BuildMetrics;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Count logged error and warning messages into {@link BuildMetrics}.
+ *
+ * <p>Messages are classified by the message ID and type prefix written by {@link MessageBean#toString()}. Error and
+ * warning messages without a message ID are counted by Ant priority.</p>
+ *
+ * @since 3.7
+ */
+public final class MetricsListener implements BuildListener {
+
+    private static final Pattern MESSAGE_PATTERN = Pattern.compile("\\[(\\w+)]\\[(FATAL|ERROR|WARN)]");
+
+    private final BuildMetrics metrics = BuildMetrics.get();
+
+    @Override
+    public void messageLogged(final BuildEvent event) {
+        final String message = event.getMessage();
+        if (message == null) {
+            return;
+        }
+        final Matcher matcher = MESSAGE_PATTERN.matcher(message);
+        if (matcher.find()) {
+            metrics.message(matcher.group(1), !matcher.group(2).equals("WARN"));
+        } else if (event.getPriority() == Project.MSG_ERR) {
+            metrics.message(null, true);
+        } else if (event.getPriority() == Project.MSG_WARN) {
+            metrics.message(null, false);
+        }
+    }
+
+    @Override
+    public void buildStarted(final BuildEvent event) {
+    }
+
+    @Override
+    public void buildFinished(final BuildEvent event) {
+    }
+
+    @Override
+    public void targetStarted(final BuildEvent event) {
+    }
+
+    @Override
+    public void targetFinished(final BuildEvent event) {
+    }
+
+    @Override
+    public void taskStarted(final BuildEvent event) {
+    }
+
+    @Override
+    public void taskFinished(final BuildEvent event) {
+    }
+}
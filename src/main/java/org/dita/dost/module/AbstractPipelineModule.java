@@ -12,6 +12,7 @@ import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
+import org.dita.dost.pipeline.PipelineExecutor;
 import org.dita.dost.pipeline.PipelineHashIO;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo;
@@ -72,4 +73,13 @@ public interface AbstractPipelineModule {
     }
 
     void setParallel(boolean parallel);
+
+    /**
+     * Set executor for parallel processing.
+     *
+     * @param executor pipeline executor
+     * @since 3.7
+     */
+    default void setExecutor(PipelineExecutor executor) {
+    }
 }
@@ -11,10 +11,15 @@ import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
+import org.dita.dost.pipeline.BuildMetrics;
+import org.dita.dost.pipeline.PipelineExecutor;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo;
 import org.dita.dost.util.XMLUtils;
 
+import java.io.File;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -27,6 +32,7 @@ public abstract class AbstractPipelineModuleImpl implements AbstractPipelineModu
     protected Job job;
     protected XMLUtils xmlUtils;
     protected boolean parallel;
+    protected PipelineExecutor executor = PipelineExecutor.getDefault();
     Predicate<FileInfo> fileInfoFilter;
     List<XmlFilterModule.FilterPair> filters;
 
@@ -63,4 +69,62 @@ public abstract class AbstractPipelineModuleImpl implements AbstractPipelineModu
     public void setParallel(boolean parallel) {
         this.parallel = parallel;
     }
+
+    @Override
+    public void setExecutor(final PipelineExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Get size of temporary file for scheduling parallel processing.
+     *
+     * @param fi file info
+     * @return file size in bytes, or 0 if not known
+     */
+    protected long getSize(final FileInfo fi) {
+        return new File(job.tempDir, fi.file.getPath()).length();
+    }
+
+    /**
+     * Track serial processing of items as files of current stage in {@link BuildMetrics}, like
+     * {@link PipelineExecutor} does for parallel processing. An item is counted done when the next item is
+     * requested or iteration ends.
+     *
+     * @param items items to process
+     * @return items to iterate
+     */
+    protected <T> Iterable<T> trackProgress(final Collection<T> items) {
+        return () -> {
+            final BuildMetrics metrics = BuildMetrics.get();
+            metrics.addFiles(items.size());
+            final Iterator<T> it = items.iterator();
+            return new Iterator<T>() {
+                private boolean started;
+
+                @Override
+                public boolean hasNext() {
+                    final boolean hasNext = it.hasNext();
+                    if (!hasNext) {
+                        done();
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public T next() {
+                    done();
+                    final T next = it.next();
+                    started = true;
+                    return next;
+                }
+
+                private void done() {
+                    if (started) {
+                        metrics.fileDone();
+                        started = false;
+                    }
+                }
+            };
+        };
+    }
 }
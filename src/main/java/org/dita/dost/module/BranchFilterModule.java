@@ -36,6 +36,7 @@ import static org.dita.dost.util.Constants.*;
 import static org.dita.dost.util.StringUtils.getExtProps;
 import static org.dita.dost.util.StringUtils.getExtPropsFromSpecializations;
 import static org.dita.dost.util.URLUtils.stripFragment;
+import static org.dita.dost.util.URLUtils.toFile;
 import static org.dita.dost.util.URLUtils.toURI;
 import static org.dita.dost.util.XMLUtils.*;
 
@@ -52,6 +53,10 @@ import static org.dita.dost.util.XMLUtils.*;
  *   <li>Filter topics that were not branch generated</li>
  * </ol>
  *
+ * <p>Topic copies and topic filtering are first collected from the map and then run as a batch, in parallel if
+ * parallel processing is enabled. Copies of the same topic with the same filters into the same directory are
+ * identical, so the topic is filtered once and the result is copied to other targets.</p>
+ *
  * @since 2.2
  */
 public class BranchFilterModule extends AbstractPipelineModuleImpl {
@@ -72,6 +77,12 @@ public class BranchFilterModule extends AbstractPipelineModuleImpl {
     private final Set<URI> renamedTopics = new HashSet<>();
     private final Set<URI> sameNameTopics = new HashSet<>();
     private final Set<URI> filteredTopics = new HashSet<>();
+    /** Pending topic filter operations for current map. */
+    private final List<FilterTask> filterTasks = new ArrayList<>();
+    /** Targets of pending copy operations for current map, keyed by source, target directory and filter content. */
+    private final Map<List<Object>, URI> copyTargets = new HashMap<>();
+    /** Pending copies of filtered topics, from filtered target to duplicate target. */
+    private final Map<URI, URI> sharedCopies = new LinkedHashMap<>();
 
     public BranchFilterModule() {
         ditaValReader = new DitaValReader();
@@ -114,7 +125,7 @@ public class BranchFilterModule extends AbstractPipelineModuleImpl {
     /**
      * Process map for branch replication.
      */
-    protected void processMap(final URI map) {
+    protected void processMap(final URI map) throws DITAOTException {
         assert !map.isAbsolute();
         this.map = map;
         currentFile = job.tempDirURI.resolve(map);
@@ -137,10 +148,13 @@ public class BranchFilterModule extends AbstractPipelineModuleImpl {
         rewriteDuplicates(doc.getDocumentElement());
         logger.debug("Filter topics and generate copies");
         generateCopies(doc.getDocumentElement(), Collections.emptyList());
+        runFilterTasks();
+        copySharedCopies();
         logger.debug("Remove obsolete references");
         removeObsoleteReferences();
         logger.debug("Filter existing topics");
         filterTopics(doc.getDocumentElement(), Collections.emptyList());
+        runFilterTasks();
 
         logger.debug("Writing " + currentFile);
 
@@ -367,18 +381,13 @@ public class BranchFilterModule extends AbstractPipelineModuleImpl {
 //                 TODO: Maybe Job should be updated earlier?
 //                job.add(fi);
                 renamedTopics.add(srcUri);
-                logger.info("Filtering " + srcAbsUri + " to " + dstAbsUri);
-                final ProfilingFilter writer = new ProfilingFilter();
-                writer.setLogger(logger);
-                writer.setJob(job);
-                writer.setFilterUtils(fs);
-                writer.setCurrentFile(dstAbsUri);
-                final List<XMLFilter> pipe = singletonList(writer);
-
-                try {
-                    job.getStore().transform(srcAbsUri, dstAbsUri, pipe);
-                } catch (final DITAOTException e) {
-                    logger.error("Failed to filter " + srcAbsUri + " to " + dstAbsUri + ": " + e.getMessage(), e);
+                // flag image paths are relative to target directory, so same directory copies are identical
+                final List<Object> key = Arrays.asList(srcAbsUri, dstAbsUri.resolve("."), fs);
+                final URI sharedDstAbsUri = copyTargets.putIfAbsent(key, dstAbsUri);
+                if (sharedDstAbsUri == null) {
+                    filterTasks.add(new FilterTask(srcAbsUri, dstAbsUri, fs));
+                } else if (!sharedDstAbsUri.equals(dstAbsUri)) {
+                    sharedCopies.put(dstAbsUri, sharedDstAbsUri);
                 }
                 topicref.setAttribute(ATTRIBUTE_NAME_HREF, copyTo);
                 topicref.removeAttribute(BRANCH_COPY_TO);
@@ -426,19 +435,7 @@ public class BranchFilterModule extends AbstractPipelineModuleImpl {
                 && !ATTR_SCOPE_VALUE_EXTERNAL.equals(topicref.getAttribute(ATTRIBUTE_NAME_SCOPE))
                 && !ATTR_PROCESSING_ROLE_VALUE_RESOURCE_ONLY.equals(topicref.getAttribute(ATTRIBUTE_NAME_PROCESSING_ROLE))
                 && isDitaFormat(topicref.getAttributeNode(ATTRIBUTE_NAME_FORMAT))) {
-            final ProfilingFilter writer = new ProfilingFilter();
-            writer.setLogger(logger);
-            writer.setJob(job);
-            writer.setFilterUtils(fs);
-            writer.setCurrentFile(srcAbsUri);
-            final List<XMLFilter> pipe = singletonList(writer);
-
-            logger.info("Filtering " + srcAbsUri);
-            try {
-                job.getStore().transform(srcAbsUri, pipe);
-            } catch (final DITAOTException e) {
-                logger.error("Failed to filter " + srcAbsUri + ": " + e.getMessage(), e);
-            }
+            filterTasks.add(new FilterTask(srcAbsUri, srcAbsUri, fs));
             filtered.add(srcAbsUri);
         }
         if (skipFilter != null) {
@@ -453,6 +450,75 @@ public class BranchFilterModule extends AbstractPipelineModuleImpl {
         }
     }
 
+    /** Topic filter operation. */
+    private static final class FilterTask {
+        /** Absolute source URI. */
+        final URI src;
+        /** Absolute target URI, same as source when filtering in place. */
+        final URI dst;
+        final List<FilterUtils> filters;
+
+        FilterTask(final URI src, final URI dst, final List<FilterUtils> filters) {
+            this.src = src;
+            this.dst = dst;
+            this.filters = filters;
+        }
+    }
+
+    /** Run and clear pending filter operations. */
+    private void runFilterTasks() throws DITAOTException {
+        final List<FilterTask> tasks = new ArrayList<>(filterTasks);
+        filterTasks.clear();
+        if (parallel) {
+            executor.forEach(tasks, task -> toFile(task.src).length(), this::filter);
+        } else {
+            for (final FilterTask task : trackProgress(tasks)) {
+                filter(task);
+            }
+        }
+    }
+
+    private void filter(final FilterTask task) {
+        final ProfilingFilter writer = new ProfilingFilter();
+        writer.setLogger(logger);
+        writer.setJob(job);
+        writer.setFilterUtils(task.filters);
+        writer.setCurrentFile(task.dst);
+        final List<XMLFilter> pipe = singletonList(writer);
+
+        if (task.src.equals(task.dst)) {
+            logger.info("Filtering " + task.src);
+            try {
+                job.getStore().transform(task.src, pipe);
+            } catch (final DITAOTException e) {
+                logger.error("Failed to filter " + task.src + ": " + e.getMessage(), e);
+            }
+        } else {
+            logger.info("Filtering " + task.src + " to " + task.dst);
+            try {
+                job.getStore().transform(task.src, task.dst, pipe);
+            } catch (final DITAOTException e) {
+                logger.error("Failed to filter " + task.src + " to " + task.dst + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Copy filtered topics to duplicate targets and clear pending copies. */
+    private void copySharedCopies() {
+        for (final Map.Entry<URI, URI> e : sharedCopies.entrySet()) {
+            final URI dst = e.getKey();
+            final URI src = e.getValue();
+            logger.info("Copying " + src + " to " + dst);
+            try {
+                job.getStore().copy(src, dst);
+            } catch (final IOException ex) {
+                logger.error("Failed to copy " + src + " to " + dst + ": " + ex.getMessage(), ex);
+            }
+        }
+        sharedCopies.clear();
+        copyTargets.clear();
+    }
+
     /**
      * Read and cache filter.
      **/
@@ -310,22 +310,26 @@ final public class ChunkModule extends AbstractPipelineModuleImpl {
             // FIXME
             final FileInfo ff = job.getOrCreateFileInfo(stripFragment(file));
             ff.format = ATTR_FORMAT_VALUE_DITA;
+            job.add(ff);
         }
         for (final URI file : ditamapList) {
             final FileInfo ff = job.getOrCreateFileInfo(file);
             ff.format = ATTR_FORMAT_VALUE_DITAMAP;
+            job.add(ff);
         }
 
         for (final URI file : chunkedDitamapSet) {
             final FileInfo f = job.getOrCreateFileInfo(file);
             f.format = ATTR_FORMAT_VALUE_DITAMAP;
             f.isResourceOnly = false;
+            job.add(f);
         }
         for (final URI file : chunkedTopicSet) {
             // FIXME
             final FileInfo f = job.getOrCreateFileInfo(stripFragment(file));
             f.format = ATTR_FORMAT_VALUE_DITA;
             f.isResourceOnly = false;
+            job.add(f);
         }
 
         try {
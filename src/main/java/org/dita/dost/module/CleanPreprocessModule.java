@@ -11,7 +11,6 @@ package org.dita.dost.module;
 import com.google.common.annotations.VisibleForTesting;
 import net.sf.saxon.s9api.*;
 import net.sf.saxon.trans.UncheckedXPathException;
-import org.apache.commons.io.FileUtils;
 import org.apache.xml.resolver.tools.CatalogResolver;
 import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
@@ -19,23 +18,13 @@ import org.dita.dost.util.CatalogUtils;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo;
 import org.dita.dost.util.URLUtils;
-import org.dita.dost.util.XMLUtils;
 import org.dita.dost.writer.AbstractXMLFilter;
 import org.dita.dost.writer.LinkFilter;
 import org.dita.dost.writer.MapCleanFilter;
-import org.w3c.dom.Document;
 import org.xml.sax.XMLFilter;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.dom.DOMResult;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamSource;
-import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.*;
@@ -56,10 +45,8 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
 
     private static final String PARAM_USE_RESULT_FILENAME = "use-result-filename";
 
-    private final LinkFilter filter = new LinkFilter();
-    private final MapCleanFilter mapFilter = new MapCleanFilter();
-
     private boolean useResultFilename;
+    private Job tempJob;
     private XsltTransformer rewriteTransformer;
     private RewriteRule rewriteClass;
 
@@ -81,7 +68,7 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
                         final Processor processor = xmlUtils.getProcessor();
                         final XsltCompiler xsltCompiler = processor.newXsltCompiler();
                         xsltCompiler.setErrorListener(toErrorListener(logger));
-                        final XsltExecutable xsltExecutable = xsltCompiler.compile(new StreamSource(f.toString()));
+                        final XsltExecutable xsltExecutable = xsltCompiler.compile(f);
                         return xsltExecutable.load();
                     } catch (UncheckedXPathException e) {
                         throw new RuntimeException("Failed to compile XSLT: " + e.getXPathException().getMessageAndLocation(), e);
@@ -100,10 +87,6 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
                     }
                 })
                 .orElse(null);
-
-        filter.setLogger(logger);
-
-        mapFilter.setLogger(logger);
     }
 
     @Override
@@ -120,39 +103,12 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
             // rewrite results
             final Collection<FileInfo> rewritten = rewrite(original);
             // move temp files and update links
-            final Job tempJob = new Job(job, emptyMap(), rewritten);
-            filter.setJob(tempJob);
-            mapFilter.setJob(tempJob);
-            for (final FileInfo fi : rewritten) {
-                try {
-                    assert !fi.result.isAbsolute();
-                    if (fi.format != null && (fi.format.equals("coderef") || fi.format.equals("image"))) {
-                        logger.debug("Skip format " + fi.format);
-                    } else {
-                        final File srcFile = new File(job.tempDirURI.resolve(fi.uri));
-                        if (job.getStore().exists(srcFile.toURI())) {
-                            final File destFile = new File(job.tempDirURI.resolve(fi.result));
-                            final List<XMLFilter> processingPipe = getProcessingPipe(fi, srcFile, destFile);
-                            if (!processingPipe.isEmpty()) {
-                                logger.info("Processing " + srcFile.toURI() + " to " + destFile.toURI());
-                                job.getStore().transform(srcFile.toURI(), destFile.toURI(), processingPipe);
-                                if (!srcFile.equals(destFile)) {
-                                    logger.debug("Deleting " + srcFile.toURI());
-                                    FileUtils.deleteQuietly(srcFile);
-                                }
-                            } else if (!srcFile.equals(destFile)) {
-                                logger.info("Moving " + srcFile.toURI() + " to " + destFile.toURI());
-                                FileUtils.moveFile(srcFile, destFile);
-                            }
-                        }
-                    }
-                    final FileInfo res = FileInfo.builder(fi)
-                            .uri(fi.result)
-                            .result(base.resolve(fi.result))
-                            .build();
-                    job.add(res);
-                } catch (final IOException e) {
-                    logger.error("Failed to clean " + job.tempDirURI.resolve(fi.uri) + ": " + e.getMessage(), e);
+            tempJob = new Job(job, emptyMap(), rewritten);
+            if (parallel) {
+                executor.forEach(rewritten, this::getSize, fi -> processFile(base, fi));
+            } else {
+                for (final FileInfo fi : trackProgress(rewritten)) {
+                    processFile(base, fi);
                 }
             }
         }
@@ -175,16 +131,49 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
         return null;
     }
 
+    private void processFile(final URI base, final FileInfo fi) {
+        try {
+            assert !fi.result.isAbsolute();
+            if (fi.format != null && (fi.format.equals("coderef") || fi.format.equals("image"))) {
+                logger.debug("Skip format " + fi.format);
+            } else {
+                final URI srcFile = job.tempDirURI.resolve(fi.uri);
+                if (job.getStore().exists(srcFile)) {
+                    final URI destFile = job.tempDirURI.resolve(fi.result);
+                    final List<XMLFilter> processingPipe = getProcessingPipe(fi, srcFile, destFile);
+                    if (!processingPipe.isEmpty()) {
+                        logger.info("Processing " + srcFile + " to " + destFile);
+                        job.getStore().transform(srcFile, destFile, processingPipe);
+                        if (!srcFile.equals(destFile)) {
+                            logger.debug("Deleting " + srcFile);
+                            job.getStore().delete(srcFile);
+                        }
+                    } else if (!srcFile.equals(destFile)) {
+                        logger.info("Moving " + srcFile + " to " + destFile);
+                        job.getStore().move(srcFile, destFile);
+                    }
+                }
+            }
+            final FileInfo res = FileInfo.builder(fi)
+                    .uri(fi.result)
+                    .result(base.resolve(fi.result))
+                    .build();
+            job.add(res);
+        } catch (final IOException | DITAOTException e) {
+            logger.error("Failed to clean " + job.tempDirURI.resolve(fi.uri) + ": " + e.getMessage(), e);
+        }
+    }
+
     private Collection<FileInfo> rewrite(final Collection<FileInfo> fis) throws DITAOTException {
         if (rewriteClass != null) {
             return rewriteClass.rewrite(fis);
         }
         if (rewriteTransformer != null) {
             try {
-                final DOMSource source = new DOMSource(serialize(fis));
+                final XdmNode source = serialize(fis);
                 final Map<URI, FileInfo> files = new HashMap<>();
                 final Destination result = new SAXDestination(new Job.JobHandler(new HashMap<>(), files));
-                rewriteTransformer.setSource(source);
+                rewriteTransformer.setSource(source.asSource());
                 rewriteTransformer.setDestination(result);
                 rewriteTransformer.transform();
                 return files.values();
@@ -195,14 +184,15 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
         return fis;
     }
 
-    private Document serialize(final Collection<FileInfo> fis) throws IOException {
+    /**
+     * Serialize file infos directly into a Saxon tree without an intermediate DOM.
+     */
+    private XdmNode serialize(final Collection<FileInfo> fis) throws IOException {
         try {
-            final Document doc = XMLUtils.getDocumentBuilder().newDocument();
-            final DOMResult result = new DOMResult(doc);
-            XMLStreamWriter out = XMLOutputFactory.newInstance().createXMLStreamWriter(result);
+            final BuildingStreamWriter out = xmlUtils.getProcessor().newDocumentBuilder().newBuildingStreamWriter();
             job.serialize(out, emptyMap(), fis);
-            return (Document) result.getNode();
-        } catch (final XMLStreamException e) {
+            return out.getDocumentNode();
+        } catch (final XMLStreamException | SaxonApiException e) {
             throw new IOException("Failed to serialize job file: " + e.getMessage());
         }
     }
@@ -273,24 +263,25 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
         return null;
     }
 
-    private void init() {
-        filter.setJob(job);
-        filter.setLogger(logger);
-
-        mapFilter.setJob(job);
-        mapFilter.setLogger(logger);
-    }
-
-    private List<XMLFilter> getProcessingPipe(final FileInfo fi, final File srcFile, final File destFile) {
+    /**
+     * Get processing pipe for a file. Filters are created per file so that the pipe can be used concurrently.
+     */
+    private List<XMLFilter> getProcessingPipe(final FileInfo fi, final URI srcFile, final URI destFile) {
         final List<XMLFilter> res = new ArrayList<>();
 
         if (fi.format == null || fi.format.equals(ATTR_FORMAT_VALUE_DITA) || fi.format.equals(ATTR_FORMAT_VALUE_DITAMAP)) {
-            filter.setCurrentFile(srcFile.toURI());
-            filter.setDestFile(destFile.toURI());
+            final LinkFilter filter = new LinkFilter();
+            filter.setJob(tempJob);
+            filter.setLogger(logger);
+            filter.setCurrentFile(srcFile);
+            filter.setDestFile(destFile);
             res.add(filter);
         }
 
         if (fi.format != null && fi.format.equals(ATTR_FORMAT_VALUE_DITAMAP)) {
+            final MapCleanFilter mapFilter = new MapCleanFilter();
+            mapFilter.setJob(tempJob);
+            mapFilter.setLogger(logger);
             res.add(mapFilter);
         }
 
@@ -298,7 +289,7 @@ public class CleanPreprocessModule extends AbstractPipelineModuleImpl {
             if (p.predicate.test(fi)) {
                 final AbstractXMLFilter f = p.newInstance();
                 logger.debug("Configure filter " + f.getClass().getCanonicalName());
-                f.setCurrentFile(srcFile.toURI());
+                f.setCurrentFile(srcFile);
                 f.setJob(job);
                 f.setLogger(logger);
                 res.add(f);
@@ -0,0 +1,734 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import net.sf.saxon.event.NamespaceReducer;
+import net.sf.saxon.event.PipelineConfiguration;
+import net.sf.saxon.event.Receiver;
+import net.sf.saxon.om.FingerprintedQName;
+import net.sf.saxon.om.InScopeNamespaces;
+import net.sf.saxon.om.NameOfNode;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.om.NodeName;
+import net.sf.saxon.s9api.*;
+import net.sf.saxon.serialize.SerializationProperties;
+import net.sf.saxon.trans.XPathException;
+import net.sf.saxon.tree.util.FastStringBuffer;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.MessageUtils;
+import org.dita.dost.pipeline.AbstractPipelineInput;
+import org.dita.dost.pipeline.AbstractPipelineOutput;
+import org.dita.dost.util.Job.FileInfo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static net.sf.saxon.event.ReceiverOptions.REJECT_DUPLICATES;
+import static net.sf.saxon.expr.parser.ExplicitLocation.UNKNOWN_LOCATION;
+import static net.sf.saxon.s9api.streams.Steps.attribute;
+import static net.sf.saxon.s9api.streams.Steps.descendant;
+import static net.sf.saxon.s9api.streams.Steps.followingSibling;
+import static net.sf.saxon.type.BuiltInAtomicType.STRING;
+import static org.dita.dost.util.Constants.*;
+import static org.dita.dost.util.URLUtils.getRelativePath;
+import static org.dita.dost.util.URLUtils.toURI;
+
+/**
+ * Conref resolution module. Native alternative to the {@code conref.xsl} preprocessing stylesheet.
+ *
+ * <p>Resolves {@code conref}, {@code conrefend} ranges and {@code conaction} in files marked with the conref flag.
+ * Target documents are parsed once and shared between all referencing files. Referencing files are parsed before
+ * any of them is rewritten, so targets are always resolved against unresolved content like in the XSLT
+ * implementation. Files are processed in parallel when {@code parallel} is set.</p>
+ *
+ * <p>Constraint compatibility of target documents is not checked.</p>
+ *
+ * @since 3.7
+ */
+final class ConrefModule extends AbstractPipelineModuleImpl {
+
+    private static final QName QNAME_ID = new QName(ATTRIBUTE_NAME_ID);
+    private static final QName QNAME_HREF = new QName(ATTRIBUTE_NAME_HREF);
+    private static final QName QNAME_IMAGEREF = new QName(ATTRIBUTE_NAME_IMAGEREF);
+    private static final QName QNAME_IMAGEREF_URI = new QName(DITA_OT_NS, ATTRIBUTE_NAME_IMAGEREF_URI);
+    private static final QName QNAME_ORIGINAL_IMAGEREF = new QName(DITA_OT_NS, "original-imageref");
+
+    /** Parsed documents, empty if document is not available. Keyed by absolute URI. */
+    private final Map<URI, Optional<TargetDocument>> documents = new ConcurrentHashMap<>();
+
+    @Override
+    public AbstractPipelineOutput execute(final AbstractPipelineInput input) throws DITAOTException {
+        final Collection<FileInfo> fis = job.getFileInfo(fileInfoFilter != null ? fileInfoFilter : f -> f.hasConref);
+        if (fis.isEmpty()) {
+            return null;
+        }
+        try {
+            if (parallel) {
+                executor.forEach(fis, this::getSize, f -> getDocument(job.tempDirURI.resolve(f.uri)));
+                executor.forEach(fis, this::getSize, this::processFile);
+            } else {
+                for (final FileInfo f : trackProgress(fis)) {
+                    getDocument(job.tempDirURI.resolve(f.uri));
+                }
+                for (final FileInfo f : trackProgress(fis)) {
+                    processFile(f);
+                }
+            }
+        } finally {
+            documents.clear();
+        }
+        return null;
+    }
+
+    private void processFile(final FileInfo f) {
+        final URI file = job.tempDirURI.resolve(f.uri);
+        final Optional<TargetDocument> doc = getDocument(file);
+        if (!doc.isPresent()) {
+            return;
+        }
+        logger.info("Processing " + file);
+        try {
+            final Destination destination = job.getStore().getDestination(file);
+            final XdmNode node = doc.get().node;
+            final PipelineConfiguration pipe = node.getUnderlyingNode().getConfiguration().makePipelineConfiguration();
+            final Receiver receiver = new NamespaceReducer(destination.getReceiver(pipe, new SerializationProperties()));
+            receiver.open();
+            new Resolver(file, doc.get(), receiver).copy(node, new Context(doc.get()));
+            receiver.close();
+        } catch (final IOException | SaxonApiException | XPathException e) {
+            logger.error("Failed to resolve conref in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get parsed document from cache or parse it.
+     *
+     * @param file absolute document URI
+     * @return document, empty if document doesn't exist or parsing failed
+     */
+    private Optional<TargetDocument> getDocument(final URI file) {
+        final Optional<TargetDocument> cached = documents.get(file);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<TargetDocument> doc = Optional.empty();
+        if (job.getStore().exists(file)) {
+            try {
+                doc = Optional.of(new TargetDocument(file, job.getStore().getImmutableNode(file)));
+            } catch (final IOException e) {
+                logger.error("Failed to parse " + file + ": " + e.getMessage(), e);
+            }
+        }
+        final Optional<TargetDocument> prev = documents.putIfAbsent(file, doc);
+        return prev != null ? prev : doc;
+    }
+
+    /**
+     * Resolution context of a node.
+     */
+    private static final class Context {
+        /** Document that contains the node. */
+        final TargetDocument doc;
+        /** Directory path from referencing file to {@link #doc}, {@code null} if node is not pulled in by conref. */
+        final String relativePath;
+        /** File name of {@link #doc}, {@code null} if node is not pulled in by conref. */
+        final String conrefFilename;
+        /** Referencing elements followed to reach the node. */
+        final List<XdmNode> conrefIds;
+        /** ID of the topic that contains the outermost referencing element. */
+        final String conrefSourceTopicId;
+
+        Context(final TargetDocument doc) {
+            this(doc, null, null, Collections.emptyList(), null);
+        }
+
+        Context(final TargetDocument doc, final String relativePath, final String conrefFilename,
+                final List<XdmNode> conrefIds, final String conrefSourceTopicId) {
+            this.doc = doc;
+            this.relativePath = relativePath;
+            this.conrefFilename = conrefFilename;
+            this.conrefIds = conrefIds;
+            this.conrefSourceTopicId = conrefSourceTopicId;
+        }
+
+        boolean isPulled() {
+            return conrefFilename != null;
+        }
+    }
+
+    /**
+     * Writer for a single referencing file.
+     */
+    private final class Resolver {
+
+        private final URI file;
+        private final String originalDomains;
+        private final Receiver out;
+
+        Resolver(final URI file, final TargetDocument doc, final Receiver out) {
+            this.file = file;
+            this.originalDomains = doc.domains;
+            this.out = out;
+        }
+
+        void copy(final XdmNode node, final Context ctx) throws XPathException {
+            switch (node.getNodeKind()) {
+                case DOCUMENT:
+                    out.startDocument(0);
+                    for (final XdmNode c : node.children()) {
+                        copy(c, ctx);
+                    }
+                    out.endDocument();
+                    break;
+                case ELEMENT:
+                    element(node, ctx);
+                    break;
+                default:
+                    out.append(node.getUnderlyingNode());
+                    break;
+            }
+        }
+
+        private void element(final XdmNode node, final Context ctx) throws XPathException {
+            final String conaction = node.attribute(ATTRIBUTE_NAME_CONACTION);
+            if (conaction != null) {
+                // Marked elements only give the context of pushed content
+                if (!conaction.equals("mark")) {
+                    startElement(node, NameOfNode.makeName(node.getUnderlyingNode()));
+                    for (final XdmNode attr : getAttributes(node)) {
+                        final String name = attr.getNodeName().getLocalName();
+                        if (!(isNoNamespace(attr) && (name.equals(ATTRIBUTE_NAME_CONACTION)
+                                || name.equals(ATTRIBUTE_NAME_CONREF)))) {
+                            out.append(attr.getUnderlyingNode());
+                        }
+                    }
+                    for (final XdmNode c : node.children()) {
+                        copy(c, ctx);
+                    }
+                    out.endElement();
+                }
+            } else if (hasConref(node)) {
+                resolve(node, ctx, null, null, null);
+            } else {
+                final String cls = node.attribute(ATTRIBUTE_NAME_CLASS);
+                final NodeName name;
+                if (cls != null && cls.startsWith("+ ") && !Objects.equals(ctx.doc.domains, originalDomains)) {
+                    name = new FingerprintedQName("", "", generalizeDomain(node));
+                } else {
+                    name = NameOfNode.makeName(node.getUnderlyingNode());
+                }
+                startElement(node, name);
+                for (final XdmNode attr : getAttributes(node)) {
+                    copyAttribute(attr, node, ctx);
+                }
+                for (final XdmNode c : node.children()) {
+                    copy(c, ctx);
+                }
+                out.endElement();
+            }
+        }
+
+        /**
+         * Replace referencing element with its target.
+         *
+         * @param node referencing element
+         * @param ctx context of referencing element
+         * @param sourceAttributes attributes names specified on the outermost referencing element, {@code null} to use {@code node}
+         * @param originalElement element name of the outermost referencing element, {@code null} to use {@code node}
+         * @param originalAttributes element whose attributes override target attributes, {@code null} to use {@code node}
+         */
+        private void resolve(final XdmNode node, final Context ctx, final Set<String> sourceAttributes,
+                             final String originalElement, final XdmNode originalAttributes) throws XPathException {
+            final String conref = node.attribute(ATTRIBUTE_NAME_CONREF);
+            if (ctx.conrefIds.contains(node)) {
+                logger.error(MessageUtils.getMessage("DOTX013E", conref).setLocation(node).toString());
+                return;
+            }
+            final String topicId = getTopicId(conref);
+            final String elemId = getElementId(conref);
+            if (!(elemId != null
+                    || TOPIC_TOPIC.matches(node)
+                    || MAP_TOPICREF.matches(node)
+                    || MAP_MAP.matches(ctx.doc.root)
+                    || topicId != null)) {
+                logger.error(MessageUtils.getMessage("DOTX015E", conref).setLocation(node).toString());
+                return;
+            }
+            final Optional<TargetDocument> targetDoc;
+            if (conref.startsWith("#")) {
+                targetDoc = Optional.of(ctx.doc);
+            } else {
+                final int i = conref.indexOf('#');
+                final String path = i != -1 ? conref.substring(0, i) : conref;
+                targetDoc = getDocument(ctx.doc.uri.resolve(toURI(path)));
+            }
+            if (!targetDoc.isPresent()) {
+                logger.error(MessageUtils.getMessage("DOTX010E", conref).setLocation(node).toString());
+                return;
+            }
+            final List<XdmNode> targets = findTargets(node, targetDoc.get(), topicId, elemId);
+            if (targets.isEmpty()) {
+                logger.error(MessageUtils.getMessage("DOTX010E", conref).setLocation(node).toString());
+                return;
+            }
+
+            final List<XdmNode> conrefIds = new ArrayList<>(ctx.conrefIds);
+            conrefIds.add(node);
+            final String conrefSourceTopicId;
+            if (ctx.conrefSourceTopicId != null && !ctx.conrefSourceTopicId.trim().isEmpty()) {
+                conrefSourceTopicId = ctx.conrefSourceTopicId;
+            } else {
+                final XdmNode topic = TOPIC_TOPIC.matches(node) ? node : getTopic(node);
+                conrefSourceTopicId = topic != null && topic.attribute(ATTRIBUTE_NAME_ID) != null
+                        ? topic.attribute(ATTRIBUTE_NAME_ID)
+                        : "";
+            }
+            final String rel = getRelativePath(file, targetDoc.get().uri).toString();
+            final int i = rel.lastIndexOf('/');
+            final Context targetCtx = new Context(targetDoc.get(),
+                    rel.substring(0, i + 1), rel.substring(i + 1),
+                    conrefIds, conrefSourceTopicId);
+
+            pullTarget(targets.get(0), targetCtx,
+                    sourceAttributes != null ? sourceAttributes : getSourceAttributes(node),
+                    originalElement != null ? originalElement : node.getNodeName().getLocalName(),
+                    originalAttributes != null ? originalAttributes : node,
+                    getConrefendId(node.attribute(ATTRIBUTE_NAME_CONREFEND)));
+
+            if (targets.size() > 1) {
+                logger.warn(MessageUtils.getMessage("DOTX011W", conref).setLocation(node).toString());
+            }
+        }
+
+        /**
+         * Write conref target with the name and attributes of the referencing element.
+         */
+        private void pullTarget(final XdmNode target, final Context ctx, final Set<String> sourceAttributes,
+                                final String originalElement, final XdmNode originalAttributes,
+                                final String conrefend) throws XPathException {
+            if (target.attribute(ATTRIBUTE_NAME_CONREF) != null) {
+                // Chained conref, keep name and source attributes of the outermost referencing element
+                if (hasConref(target)) {
+                    resolve(target, ctx, sourceAttributes, originalElement, null);
+                } else {
+                    element(target, ctx);
+                }
+            } else {
+                startElement(target, new FingerprintedQName("", "", originalElement));
+                for (final XdmNode attr : getAttributes(originalAttributes)) {
+                    if (!isOverride(attr, originalAttributes)
+                            && !(isNoNamespace(attr) && attr.getNodeName().getLocalName().equals(ATTRIBUTE_NAME_CONREFEND))) {
+                        out.append(attr.getUnderlyingNode());
+                    }
+                }
+                for (final XdmNode attr : getAttributes(target)) {
+                    if (!attr.getNodeName().equals(QNAME_ID)
+                            && !sourceAttributes.contains(attr.getUnderlyingNode().getDisplayName())) {
+                        copyAttribute(attr, target, ctx);
+                    }
+                }
+                for (final XdmNode c : target.children()) {
+                    copy(c, ctx);
+                }
+                out.endElement();
+            }
+
+            if (conrefend != null) {
+                final List<XdmNode> siblings = target.select(followingSibling())
+                        .filter(n -> n.getNodeKind() == XdmNodeKind.ELEMENT)
+                        .collect(Collectors.toList());
+                int end = -1;
+                for (int i = 0; i < siblings.size(); i++) {
+                    if (conrefend.equals(siblings.get(i).attribute(ATTRIBUTE_NAME_ID))) {
+                        end = i;
+                        break;
+                    }
+                }
+                if (end == -1) {
+                    logger.error(MessageUtils.getMessage("DOTX071E", conrefend).setLocation(target).toString());
+                    return;
+                }
+                for (final XdmNode sibling : siblings.subList(0, end + 1)) {
+                    if (sibling.attribute(ATTRIBUTE_NAME_CONREF) != null) {
+                        if (hasConref(sibling) && sibling.attribute(ATTRIBUTE_NAME_CONACTION) == null) {
+                            resolve(sibling, ctx, sourceAttributes, null, null);
+                        } else {
+                            element(sibling, ctx);
+                        }
+                    } else {
+                        copyRangeElement(sibling, ctx);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Write element in conref range. Only topic IDs are kept, as generated IDs.
+         */
+        private void copyRangeElement(final XdmNode node, final Context ctx) throws XPathException {
+            startElement(node, NameOfNode.makeName(node.getUnderlyingNode()));
+            if (node.attribute(ATTRIBUTE_NAME_ID) != null && TOPIC_TOPIC.matches(node)) {
+                attribute(QNAME_ID, generateId(node));
+            }
+            for (final XdmNode attr : getAttributes(node)) {
+                final QName name = attr.getNodeName();
+                if (name.equals(QNAME_HREF)) {
+                    attribute(name, rewriteHref(attr.getStringValue(), node, ctx));
+                } else if (isImageref(name)) {
+                    attribute(name, rewriteImageref(attr.getStringValue(), ctx));
+                } else if (!name.equals(QNAME_ID)) {
+                    out.append(attr.getUnderlyingNode());
+                }
+            }
+            for (final XdmNode c : node.children()) {
+                copy(c, ctx);
+            }
+            out.endElement();
+        }
+
+        private void copyAttribute(final XdmNode attr, final XdmNode owner, final Context ctx) throws XPathException {
+            if (!ctx.isPulled()) {
+                out.append(attr.getUnderlyingNode());
+                return;
+            }
+            final QName name = attr.getNodeName();
+            if (name.equals(QNAME_ID)) {
+                attribute(name, generateId(owner));
+            } else if (name.equals(QNAME_HREF)) {
+                attribute(name, rewriteHref(attr.getStringValue(), owner, ctx));
+            } else if (isImageref(name)) {
+                attribute(name, rewriteImageref(attr.getStringValue(), ctx));
+            } else {
+                out.append(attr.getUnderlyingNode());
+            }
+        }
+
+        private String rewriteHref(final String href, final XdmNode owner, final Context ctx) {
+            if (ATTR_SCOPE_VALUE_EXTERNAL.equals(owner.attribute(ATTRIBUTE_NAME_SCOPE))
+                    || href.startsWith("http://") || href.startsWith("https://") || href.startsWith("ftp://")
+                    || href.equals("#.") || href.startsWith("#./")) {
+                return href;
+            } else if (href.startsWith("#")) {
+                return generateHref(href, ctx);
+            } else {
+                return ctx.relativePath + href;
+            }
+        }
+
+        private String rewriteImageref(final String imageref, final Context ctx) {
+            if (imageref.contains("://") || imageref.startsWith("/")) {
+                return imageref;
+            }
+            return ctx.relativePath + imageref;
+        }
+
+        /**
+         * Rewrite same file reference in pulled content. References to elements in the first topic of the target
+         * document point to the pulled copy, other references point to the target document.
+         */
+        private String generateHref(final String href, final Context ctx) {
+            final String hrefTopicId = getTopicId(href);
+            final String hrefElemId = getElementId(href);
+            String conrefGenId = null;
+            String hrefGenId = null;
+            if (hrefElemId != null) {
+                for (final XdmNode elem : ctx.doc.get(hrefElemId)) {
+                    if (conrefGenId == null && ctx.doc.firstTopicId != null && hasAncestorTopic(elem, ctx.doc.firstTopicId)) {
+                        conrefGenId = generateId(elem);
+                    }
+                    if (hrefGenId == null && hrefTopicId != null) {
+                        final XdmNode topic = getTopic(elem);
+                        if (topic != null && hrefTopicId.equals(topic.attribute(ATTRIBUTE_NAME_ID))) {
+                            hrefGenId = generateId(elem);
+                        }
+                    }
+                }
+            }
+            if (conrefGenId == null || !conrefGenId.equals(hrefGenId)) {
+                return ctx.relativePath + ctx.conrefFilename + href;
+            }
+            return "#" + ctx.conrefSourceTopicId + "/" + conrefGenId;
+        }
+
+        /**
+         * Generalize domain element to the most specialized element whose domain is in the referencing document.
+         */
+        private String generalizeDomain(final XdmNode node) {
+            final String[] tokens = node.attribute(ATTRIBUTE_NAME_CLASS).substring(1).trim().split("\\s+");
+            for (int i = tokens.length - 1; i >= 0; i--) {
+                final int sep = tokens[i].indexOf('/');
+                if (sep == -1) {
+                    continue;
+                }
+                final String module = tokens[i].substring(0, sep);
+                if ((originalDomains != null && originalDomains.contains(" " + module + ")"))
+                        || module.equals("topic") || module.equals("map")) {
+                    return tokens[i].substring(sep + 1);
+                }
+            }
+            return node.getNodeName().getLocalName();
+        }
+
+        private void startElement(final XdmNode node, final NodeName name) throws XPathException {
+            final NodeInfo ni = node.getUnderlyingNode();
+            out.startElement(name, ni.getSchemaType(), ni.saveLocation(), 0);
+            out.namespace(new InScopeNamespaces(ni), REJECT_DUPLICATES);
+        }
+
+        private void attribute(final QName name, final String value) throws XPathException {
+            out.attribute(
+                    new FingerprintedQName(name.getPrefix(), name.getNamespaceURI(), name.getLocalName()),
+                    STRING,
+                    value,
+                    UNKNOWN_LOCATION,
+                    0
+            );
+        }
+    }
+
+    /**
+     * Find conref target elements in document order.
+     */
+    private static List<XdmNode> findTargets(final XdmNode node, final TargetDocument doc,
+                                             final String topicId, final String elemId) {
+        final String cls = node.attribute(ATTRIBUTE_NAME_CLASS);
+        final String[] tokens = cls != null ? cls.trim().split("\\s+") : new String[0];
+        final String lastClassToken = " " + (tokens.length > 0 ? tokens[tokens.length - 1] : "") + " ";
+        final List<XdmNode> res = new ArrayList<>();
+        if (elemId != null) {
+            for (final XdmNode elem : doc.get(elemId)) {
+                final XdmNode topic = getTopic(elem);
+                if (containsClass(elem, lastClassToken)
+                        && topic != null && Objects.equals(topicId, topic.attribute(ATTRIBUTE_NAME_ID))) {
+                    res.add(elem);
+                }
+            }
+        } else if (topicId != null) {
+            for (final XdmNode elem : doc.get(topicId)) {
+                if (containsClass(elem, lastClassToken)
+                        && (!TOPIC_TOPIC.matches(node) || TOPIC_TOPIC.matches(elem))
+                        && (!MAP_TOPICREF.matches(node) || MAP_TOPICREF.matches(elem))) {
+                    res.add(elem);
+                }
+            }
+        } else {
+            // First topic of each parent
+            doc.node.select(descendant())
+                    .filter(n -> TOPIC_TOPIC.matches(n) && isFirstTopic(n) && containsClass(n, lastClassToken))
+                    .forEach(res::add);
+        }
+        return res;
+    }
+
+    private static boolean isFirstTopic(final XdmNode topic) {
+        for (final XdmNode sibling : topic.getParent().children()) {
+            if (TOPIC_TOPIC.matches(sibling)) {
+                return sibling.equals(topic);
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsClass(final XdmNode node, final String token) {
+        final String cls = node.attribute(ATTRIBUTE_NAME_CLASS);
+        return cls != null && cls.contains(token);
+    }
+
+    /**
+     * Get nearest ancestor topic.
+     *
+     * @return ancestor topic, {@code null} if not inside a topic
+     */
+    private static XdmNode getTopic(final XdmNode node) {
+        for (XdmNode n = node.getParent(); n != null; n = n.getParent()) {
+            if (TOPIC_TOPIC.matches(n)) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasAncestorTopic(final XdmNode node, final String topicId) {
+        for (XdmNode n = node.getParent(); n != null; n = n.getParent()) {
+            if (TOPIC_TOPIC.matches(n) && topicId.equals(n.attribute(ATTRIBUTE_NAME_ID))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasConref(final XdmNode node) {
+        final String conref = node.attribute(ATTRIBUTE_NAME_CONREF);
+        return conref != null && !conref.isEmpty();
+    }
+
+    /**
+     * Get names of attributes on referencing element that override target attributes.
+     */
+    private static Set<String> getSourceAttributes(final XdmNode node) {
+        final Set<String> res = new HashSet<>();
+        for (final XdmNode attr : getAttributes(node)) {
+            if (!isOverride(attr, node)) {
+                res.add(attr.getUnderlyingNode().getDisplayName());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Test if attribute of referencing element must not override target attributes. Required attributes may use
+     * {@value org.dita.dost.util.Constants#ATTR_VALUE_DITA_USE_CONREF_TARGET} to use the target value.
+     */
+    private static boolean isOverride(final XdmNode attr, final XdmNode owner) {
+        if (ATTR_VALUE_DITA_USE_CONREF_TARGET.equals(attr.getStringValue())) {
+            return true;
+        }
+        if (!isNoNamespace(attr)) {
+            return false;
+        }
+        switch (attr.getNodeName().getLocalName()) {
+            case ATTRIBUTE_NAME_XTRC:
+            case ATTRIBUTE_NAME_XTRF:
+            case ATTRIBUTE_NAME_CONREF:
+                return true;
+            case ATTRIBUTE_NAME_HREF:
+                return TOPIC_IMAGE.matches(owner) || SVG_D_SVGREF.matches(owner);
+            case ATTRIBUTE_NAME_COLS:
+                return TOPIC_TGROUP.matches(owner);
+            case "state":
+                return TOPIC_BOOLEAN.matches(owner);
+            case ATTRIBUTE_NAME_NAME:
+            case ATTRIBUTE_NAME_VALUE:
+                return TOPIC_STATE.matches(owner);
+            case ATTRIBUTE_NAME_NAVTITLE:
+                return MAPGROUP_D_TOPICHEAD.matches(owner);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isImageref(final QName name) {
+        return name.equals(QNAME_IMAGEREF) || name.equals(QNAME_IMAGEREF_URI) || name.equals(QNAME_ORIGINAL_IMAGEREF);
+    }
+
+    private static boolean isNoNamespace(final XdmNode attr) {
+        return attr.getNodeName().getNamespaceURI().isEmpty();
+    }
+
+    private static List<XdmNode> getAttributes(final XdmNode node) {
+        return node.select(attribute()).collect(Collectors.toList());
+    }
+
+    private static String generateId(final XdmNode node) {
+        final FastStringBuffer buf = new FastStringBuffer(FastStringBuffer.C16);
+        node.getUnderlyingNode().generateId(buf);
+        return buf.toString();
+    }
+
+    /**
+     * Get topic ID from reference.
+     *
+     * @return topic ID, {@code null} if reference has no fragment
+     */
+    private static String getTopicId(final String href) {
+        final int i = href.indexOf('#');
+        if (i == -1 || i == href.length() - 1) {
+            return null;
+        }
+        final String fragment = href.substring(i + 1);
+        final int sep = fragment.indexOf('/');
+        return sep != -1 ? fragment.substring(0, sep) : fragment;
+    }
+
+    /**
+     * Get element ID from reference.
+     *
+     * @return element ID, {@code null} if reference has no element ID
+     */
+    private static String getElementId(final String href) {
+        final int i = href.indexOf('#');
+        if (i == -1) {
+            return null;
+        }
+        final int sep = href.indexOf('/', i);
+        return sep != -1 && sep != href.length() - 1 ? href.substring(sep + 1) : null;
+    }
+
+    private static String getConrefendId(final String conrefend) {
+        if (conrefend == null) {
+            return null;
+        }
+        final int i = conrefend.indexOf('#');
+        if (i != -1) {
+            final int sep = conrefend.indexOf('/', i);
+            return sep != -1 ? conrefend.substring(sep + 1) : conrefend.substring(i + 1);
+        }
+        final int sep = conrefend.indexOf('/');
+        return sep != -1 ? conrefend.substring(sep + 1) : conrefend;
+    }
+
+    /**
+     * Parsed document with an ID index.
+     */
+    private static final class TargetDocument {
+        final URI uri;
+        final XdmNode node;
+        final XdmNode root;
+        final String domains;
+        /** ID of the first topic in document order, {@code null} if document has no topics. */
+        final String firstTopicId;
+        private final Map<String, List<XdmNode>> ids = new HashMap<>();
+
+        TargetDocument(final URI uri, final XdmNode node) {
+            this.uri = uri;
+            this.node = node;
+            String firstTopicId = null;
+            for (final XdmNode elem : node.select(descendant()).collect(Collectors.toList())) {
+                if (elem.getNodeKind() != XdmNodeKind.ELEMENT) {
+                    continue;
+                }
+                final String id = elem.attribute(ATTRIBUTE_NAME_ID);
+                if (id != null) {
+                    ids.computeIfAbsent(id, k -> new ArrayList<>(1)).add(elem);
+                    if (firstTopicId == null && TOPIC_TOPIC.matches(elem)) {
+                        firstTopicId = id;
+                    }
+                }
+            }
+            this.firstTopicId = firstTopicId;
+            XdmNode root = null;
+            for (final XdmNode c : node.children()) {
+                if (c.getNodeKind() == XdmNodeKind.ELEMENT) {
+                    root = c;
+                    break;
+                }
+            }
+            this.root = root;
+            String domains = root != null ? root.attribute(ATTRIBUTE_NAME_DOMAINS) : null;
+            if (domains == null && root != null && root.getNodeName().getLocalName().equals(ELEMENT_NAME_DITA)) {
+                for (final XdmNode c : root.children()) {
+                    if (c.getNodeKind() == XdmNodeKind.ELEMENT && c.attribute(ATTRIBUTE_NAME_DOMAINS) != null) {
+                        domains = c.attribute(ATTRIBUTE_NAME_DOMAINS);
+                        break;
+                    }
+                }
+            }
+            this.domains = domains;
+        }
+
+        /**
+         * Get elements with ID in document order.
+         */
+        List<XdmNode> get(final String id) {
+            return ids.getOrDefault(id, Collections.emptyList());
+        }
+    }
+}
@@ -63,19 +63,12 @@ public final class DebugAndFilterModule extends SourceReaderModule {
     private boolean profilingEnabled;
     private String transtype;
     private File ditavalFile;
-    private FilterUtils filterUtils;
-    /** Absolute path to current destination file. */
-    private File outputFile;
-    private Map<QName, Map<String, Set<String>>> validateMap;
-    private Map<QName, Map<String, String>> defaultValueMap;
-    /** Absolute path to current source file. */
-    private URI currentFile;
     private List<URI> resources;
     private Map<URI, Set<URI>> dic;
     private SubjectSchemeReader subjectSchemeReader;
     private FilterUtils baseFilterUtils;
-    private DitaWriterFilter ditaWriterFilter;
-    private TopicFragmentFilter topicFragmentFilter;
+    /** Loaded subject schemes and refined filters, keyed by subject scheme set. */
+    private final Map<Set<URI>, SubjectSchemeSet> subjectSchemeCache = new HashMap<>();
     private TempFileNameScheme tempFileNameScheme;
 
     @Override
@@ -98,9 +91,26 @@ public final class DebugAndFilterModule extends SourceReaderModule {
             readArguments(input);
             init();
 
-            job.getFileInfo().stream()
+            final List<FileInfo> fis = job.getFileInfo().stream()
                     .filter(f -> isFormatDita(f.format) || ATTR_FORMAT_VALUE_DITAMAP.equals(f.format))
-                    .forEach(this::processFile);
+                    .collect(Collectors.toList());
+            loadSubjectSchemes(fis);
+            final List<Boolean> processed;
+            if (parallel) {
+                processed = executor.map(fis, this::getSize, this::processFile);
+            } else {
+                processed = new ArrayList<>(fis.size());
+                for (final FileInfo f : trackProgress(fis)) {
+                    processed.add(processFile(f));
+                }
+            }
+            for (int i = 0; i < fis.size(); i++) {
+                final FileInfo f = fis.get(i);
+                if (processed.get(i) && isFormatDita(f.format)) {
+                    f.format = ATTR_FORMAT_VALUE_DITA;
+                    job.add(f);
+                }
+            }
 
             job.write();
         } catch (final RuntimeException e) {
@@ -113,39 +123,35 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         return null;
     }
 
-    private void processFile(final FileInfo f) {
-        currentFile = f.src;
+    /**
+     * Process file. Each invocation creates its own filter pipe, so files can be processed concurrently.
+     *
+     * @param f file to process
+     * @return {@code true} if file was processed, {@code false} if it was ignored
+     */
+    private boolean processFile(final FileInfo f) {
+        final URI currentFile = f.src;
         if (f.src == null || !exists(f.src) || !f.src.equals(f.result)) {
             logger.warn("Ignoring a copy-to file " + f.result);
-            return;
+            return false;
         }
-        outputFile = new File(job.tempDir, f.file.getPath());
+        final File outputFile = new File(job.tempDir, f.file.getPath());
         logger.info("Processing " + f.src + " to " + outputFile.toURI());
 
         final Set<URI> schemaSet = dic.get(f.uri);
-        if (schemaSet != null && !schemaSet.isEmpty()) {
-            logger.debug("Loading subject schemes");
-            subjectSchemeReader.reset();
-            for (final URI schema : schemaSet) {
-                subjectSchemeReader.loadSubjectScheme(new File(job.tempDirURI.resolve(schema.getPath() + SUBJECT_SCHEME_EXTENSION)));
-            }
-            validateMap = subjectSchemeReader.getValidValuesMap();
-            defaultValueMap = subjectSchemeReader.getDefaultValueMap();
-        } else {
-            validateMap = Collections.emptyMap();
-            defaultValueMap = Collections.emptyMap();
-        }
-        if (profilingEnabled) {
-            filterUtils = baseFilterUtils.refine(subjectSchemeReader.getSubjectSchemeMap());
-        }
+        final SubjectSchemeSet schemes = schemaSet != null && !schemaSet.isEmpty()
+                ? subjectSchemeCache.get(schemaSet)
+                : new SubjectSchemeSet(Collections.emptyMap(), Collections.emptyMap(), baseFilterUtils);
 
+        final ParserPool.Config config = getReaderConfig(f.format);
+        XMLReader parser = null;
         InputSource in = null;
         try {
-            reader.setErrorHandler(new DITAOTXMLErrorHandler(currentFile.toString(), logger));
+            parser = ParserPool.borrowXMLReader(config);
+            parser.setErrorHandler(new DITAOTXMLErrorHandler(currentFile.toString(), logger));
 
-            XMLReader parser = getXmlReader(f.format);
             XMLReader xmlSource = parser;
-            for (final XMLFilter filter: getProcessingPipe(currentFile)) {
+            for (final XMLFilter filter: getProcessingPipe(currentFile, outputFile, schemes, CatalogUtils.getCatalogResolver())) {
                 filter.setParent(xmlSource);
                 xmlSource = filter;
             }
@@ -170,16 +176,60 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         } catch (final Exception e) {
             logger.error(e.getMessage(), e) ;
         } finally {
+            ParserPool.returnXMLReader(config, parser);
             try {
                 close(in);
             } catch (final IOException e) {
                 logger.error(e.getMessage(), e) ;
             }
         }
+        return true;
+    }
+
+    /** Subject schemes loaded from a set of subject scheme files. */
+    private static final class SubjectSchemeSet {
+        final Map<QName, Map<String, Set<String>>> validateMap;
+        final Map<QName, Map<String, String>> defaultValueMap;
+        /** Filter refined with subject scheme, {@code null} if profiling is disabled. */
+        final FilterUtils filterUtils;
+
+        SubjectSchemeSet(final Map<QName, Map<String, Set<String>>> validateMap,
+                         final Map<QName, Map<String, String>> defaultValueMap,
+                         final FilterUtils filterUtils) {
+            this.validateMap = validateMap;
+            this.defaultValueMap = defaultValueMap;
+            this.filterUtils = filterUtils;
+        }
+    }
+
+    /**
+     * Load subject schemes for all files before processing, so that cache is only read during processing.
+     */
+    private void loadSubjectSchemes(final Collection<FileInfo> fis) {
+        for (final FileInfo f : fis) {
+            final Set<URI> schemaSet = dic.get(f.uri);
+            if (schemaSet != null && !schemaSet.isEmpty()) {
+                subjectSchemeCache.computeIfAbsent(schemaSet, this::loadSubjectSchemes);
+            }
+        }
+    }
 
-        if (isFormatDita(f.format)) {
-            f.format = ATTR_FORMAT_VALUE_DITA;
+    /**
+     * Load subject schemes and refine base filter with them.
+     *
+     * @param schemaSet subject scheme files relative to temporary directory
+     */
+    private SubjectSchemeSet loadSubjectSchemes(final Set<URI> schemaSet) {
+        logger.debug("Loading subject schemes");
+        subjectSchemeReader.reset();
+        for (final URI schema : schemaSet) {
+            subjectSchemeReader.loadSubjectScheme(new File(job.tempDirURI.resolve(schema.getPath() + SUBJECT_SCHEME_EXTENSION)));
         }
+        // reader reuses its maps, so copy them before the next reset
+        return new SubjectSchemeSet(
+                new HashMap<>(subjectSchemeReader.getValidValuesMap()),
+                new HashMap<>(subjectSchemeReader.getDefaultValueMap()),
+                profilingEnabled ? baseFilterUtils.refine(subjectSchemeReader.getSubjectSchemeMap()) : null);
     }
 
     private void init() throws IOException, DITAOTException, SAXException {
@@ -206,20 +256,6 @@ public final class DebugAndFilterModule extends SourceReaderModule {
             baseFilterUtils.setLogger(logger);
         }
 
-        initFilters();
-    }
-
-    /**
-     * Initialize reusable filters.
-     */
-    private void initFilters() {
-        ditaWriterFilter = new DitaWriterFilter();
-        ditaWriterFilter.setLogger(logger);
-        ditaWriterFilter.setJob(job);
-        ditaWriterFilter.setEntityResolver(reader.getEntityResolver());
-
-        topicFragmentFilter = new TopicFragmentFilter(ATTRIBUTE_NAME_CONREF, ATTRIBUTE_NAME_CONREFEND);
-
         tempFileNameScheme.setBaseDir(job.getInputDir());
     }
 
@@ -227,9 +263,14 @@ public final class DebugAndFilterModule extends SourceReaderModule {
      * Get pipe line filters
      *
      * @param fileToParse absolute URI to current file being processed
+     * @param outputFile absolute path to destination file
+     * @param schemes subject schemes of current file
+     * @param entityResolver entity resolver of the parser
      */
-    @Override
-    List<XMLFilter> getProcessingPipe(final URI fileToParse) {
+    private List<XMLFilter> getProcessingPipe(final URI fileToParse, final File outputFile,
+                                              final SubjectSchemeSet schemes, final EntityResolver entityResolver) {
+        final URI currentFile = fileToParse;
+        final FilterUtils filterUtils = schemes.filterUtils;
         final List<XMLFilter> pipe = new ArrayList<>();
 
         if (genDebugInfo) {
@@ -258,7 +299,7 @@ public final class DebugAndFilterModule extends SourceReaderModule {
 
         final ValidationFilter validationFilter = new ValidationFilter();
         validationFilter.setLogger(logger);
-        validationFilter.setValidateMap(validateMap);
+        validationFilter.setValidateMap(schemes.validateMap);
         validationFilter.setCurrentFile(fileToParse);
         validationFilter.setJob(job);
         validationFilter.setProcessingMode(processingMode);
@@ -268,13 +309,17 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         normalizeFilter.setLogger(logger);
         pipe.add(normalizeFilter);
 
-        pipe.add(topicFragmentFilter);
+        pipe.add(new TopicFragmentFilter(ATTRIBUTE_NAME_CONREF, ATTRIBUTE_NAME_CONREFEND));
 
         pipe.addAll(super.getProcessingPipe(fileToParse));
 //        linkRewriteFilter.setCurrentFile(currentFile);
 //        pipe.add(linkRewriteFilter);
 
-        ditaWriterFilter.setDefaultValueMap(defaultValueMap);
+        final DitaWriterFilter ditaWriterFilter = new DitaWriterFilter();
+        ditaWriterFilter.setLogger(logger);
+        ditaWriterFilter.setJob(job);
+        ditaWriterFilter.setEntityResolver(entityResolver);
+        ditaWriterFilter.setDefaultValueMap(schemes.defaultValueMap);
         ditaWriterFilter.setCurrentFile(currentFile);
         ditaWriterFilter.setOutputFile(outputFile);
         pipe.add(ditaWriterFilter);
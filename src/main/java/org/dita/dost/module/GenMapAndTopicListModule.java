@@ -60,6 +60,8 @@ public final class GenMapAndTopicListModule extends SourceReaderModule {
     /** Generate {@code xtrf} and {@code xtrc} attributes */
     private boolean genDebugInfo;
     private Mode processingMode;
+    /** Interned paths shared by path sets. */
+    private final PathTable paths = new PathTable();
     /** FileInfos keyed by src. */
     private final Map<URI, FileInfo> fileinfos = new HashMap<>();
     /** Set of all topic files */
@@ -161,31 +163,31 @@ public final class GenMapAndTopicListModule extends SourceReaderModule {
      */
     public GenMapAndTopicListModule() {
         super();
-        fullTopicSet = new HashSet<>(128);
-        fullMapSet = new HashSet<>(128);
-        hrefTopicSet = new HashSet<>(128);
-        schemeSet = new HashSet<>(128);
-        conrefSet = new HashSet<>(128);
+        fullTopicSet = new PathSet(paths);
+        fullMapSet = new PathSet(paths);
+        hrefTopicSet = new PathSet(paths);
+        schemeSet = new PathSet(paths);
+        conrefSet = new PathSet(paths);
         formatSet = new HashSet<>();
         flagImageSet = new LinkedHashSet<>(128);
         htmlSet = SetMultimapBuilder.hashKeys().hashSetValues().build();
-        hrefTargetSet = new HashSet<>(128);
-        coderefTargetSet = new HashSet<>(16);
+        hrefTargetSet = new PathSet(paths);
+        coderefTargetSet = new PathSet(paths);
         waitList = new ConcurrentSkipListMap<>();
-        doneList = ConcurrentHashMap.newKeySet();
-        failureList = ConcurrentHashMap.newKeySet();
-        conrefTargetSet = new HashSet<>(128);
-        nonConrefCopytoTargetSet = new HashSet<>(128);
-        outDitaFilesSet = new HashSet<>(128);
+        doneList = new PathSet(paths);
+        failureList = new PathSet(paths);
+        conrefTargetSet = new PathSet(paths);
+        nonConrefCopytoTargetSet = new PathSet(paths);
+        outDitaFilesSet = new PathSet(paths);
         relFlagImagesSet = new LinkedHashSet<>(128);
-        conrefpushSet = new HashSet<>(128);
-        keyrefSet = new HashSet<>(128);
-        coderefSet = new HashSet<>(128);
+        conrefpushSet = new PathSet(paths);
+        keyrefSet = new PathSet(paths);
+        coderefSet = new PathSet(paths);
 
         schemeDictionary = new HashMap<>();
 
         // @processing-role
-        resourceOnlySet = new HashSet<>(128);
+        resourceOnlySet = new PathSet(paths);
     }
 
     @Override
@@ -407,8 +409,11 @@ public final class GenMapAndTopicListModule extends SourceReaderModule {
         logger.info("Processing " + currentFile);
         final String[] params = { currentFile.toString() };
 
+        final ParserPool.Config config = getReaderConfig(ref.format);
+        XMLReader parser = null;
         try {
-            XMLReader xmlSource = getXmlReader(ref.format);
+            parser = ParserPool.borrowXMLReader(config);
+            XMLReader xmlSource = parser;
             for (final XMLFilter f: getProcessingPipe(currentFile)) {
                 f.setParent(xmlSource);
                 f.setEntityResolver(CatalogUtils.getCatalogResolver());
@@ -466,6 +471,8 @@ public final class GenMapAndTopicListModule extends SourceReaderModule {
                 logger.error(MessageUtils.getMessage("DOTJ013E", params).toString() + ": " + e.getMessage(), e);
             }
             failureList.add(currentFile);
+        } finally {
+            ParserPool.returnXMLReader(config, parser);
         }
 
         if (!listFilter.isValidInput() && currentFile.equals(rootFile)) {
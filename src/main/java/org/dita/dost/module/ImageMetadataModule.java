@@ -66,22 +66,19 @@ final class ImageMetadataModule extends AbstractPipelineModuleImpl {
                     writer.setJob(job);
                     return writer;
                 });
-                job.getFileInfo(filter).stream()
-                        .parallel()
-                        .map(f -> new File(job.tempDir, f.file.getPath()).getAbsoluteFile())
-                        .forEach(filename -> {
-                            final ImageMetadataFilter writer = pool.borrowObject();
-                            try {
-                                writer.write(filename);
-                            } finally {
-                                pool.returnObject(writer);
-                            }
-                        });
+                executor.forEach(job.getFileInfo(filter), this::getSize, f -> {
+                    final ImageMetadataFilter writer = pool.borrowObject();
+                    try {
+                        writer.write(new File(job.tempDir, f.file.getPath()).getAbsoluteFile());
+                    } finally {
+                        pool.returnObject(writer);
+                    }
+                });
             } else {
                 final ImageMetadataFilter writer = new ImageMetadataFilter(outputDir, job, cache);
                 writer.setLogger(logger);
                 writer.setJob(job);
-                for (final FileInfo f : job.getFileInfo(filter)) {
+                for (final FileInfo f : trackProgress(job.getFileInfo(filter))) {
                     writer.write(new File(job.tempDir, f.file.getPath()).getAbsoluteFile());
                 }
             }
@@ -31,7 +31,9 @@ import org.dita.dost.util.KeyScope;
 import org.dita.dost.writer.ConkeyrefFilter;
 import org.dita.dost.writer.KeyrefPaser;
 import org.dita.dost.writer.TopicFragmentFilter;
+import org.xml.sax.Attributes;
 import org.xml.sax.XMLFilter;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.File;
 import java.io.IOException;
@@ -66,6 +68,12 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
     private String transtype;
     final Set<URI> normalProcessingRole = new HashSet<>();
     final Map<URI, Integer> usage = new HashMap<>();
+    /** Keys referenced by topics, empty if topic cannot be shared between key scopes. */
+    private final Map<URI, Optional<Set<String>>> referencedKeys = new HashMap<>();
+    /** Resolve tasks by topic and key scope, including tasks shared from an equivalent scope. */
+    private final Map<URI, Map<KeyScope, ResolveTask>> scopeTasks = new HashMap<>();
+    /** Topic renames of tasks shared from an equivalent scope, by key scope. */
+    private final Map<KeyScope, Map<URI, URI>> sharedRewrites = new HashMap<>();
 
     @Override
     public void setJob(final Job job) {
@@ -145,13 +153,12 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
             } else {
                 delayConrefUtils = null;
             }
-            (parallel ? jobs.stream().parallel() : jobs.stream())
+            processFiles(jobs.stream()
                     .filter(r -> r.out != null)
-                    .forEach(this::processFile);
-
-            (parallel ? jobs.stream().parallel() : jobs.stream())
+                    .collect(Collectors.toList()));
+            processFiles(jobs.stream()
                     .filter(r -> r.out == null)
-                    .forEach(this::processFile);
+                    .collect(Collectors.toList()));
 
             // Store job configuration updates
             for (final URI file : normalProcessingRole) {
@@ -181,6 +188,8 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
         assert doc.getNodeKind() == XdmNodeKind.DOCUMENT;
         final List<ResolveTask> res = new ArrayList<>();
         res.add(new ResolveTask(rootScope, map, null));
+        scopeTasks.clear();
+        sharedRewrites.clear();
 
         try {
             final URI file = job.tempDirURI.resolve(map.uri);
@@ -245,6 +254,7 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
                             t -> t.in.uri,
                             t -> t.out.uri
                     ));
+            sharedRewrites.getOrDefault(scope, Collections.emptyMap()).forEach(rewrites::putIfAbsent);
             final KeyScope resScope = rewriteScopeTargets(scope, rewrites);
             tasks.stream().map(t -> new ResolveTask(resScope, t.in, t.out)).forEach(res::add);
         }
@@ -259,17 +269,142 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
             URI href = oldKey.href;
             if (href != null && rewrites.containsKey(stripFragment(href))) {
                 href = setFragment(rewrites.get(stripFragment(href)), href.getFragment());
+                final KeyDef newKey = new KeyDef(oldKey.keys, href, oldKey.scope, oldKey.format, oldKey.source, oldKey.element);
+                newKeys.put(key.getKey(), newKey);
             }
-            final KeyDef newKey = new KeyDef(oldKey.keys, href, oldKey.scope, oldKey.format, oldKey.source, oldKey.element);
-            newKeys.put(key.getKey(), newKey);
         }
         return new KeyScope(scope.id, scope.name,
-                newKeys,
+                KeyScope.overlay(Arrays.asList(newKeys, scope.keyDefinition)),
                 scope.childScopes.stream()
                         .map(c -> rewriteScopeTargets(c, rewrites))
                         .collect(Collectors.toList()));
     }
 
+    /**
+     * Find existing resolve task for a topic that produces the same output as resolving the topic in given scope.
+     *
+     * @param fi topic to resolve
+     * @param scope key scope to resolve topic in
+     * @return equivalent resolve task, or empty if not found or topic cannot be shared
+     */
+    private Optional<ResolveTask> findEquivalent(final FileInfo fi, final KeyScope scope) {
+        final Map<KeyScope, ResolveTask> tasks = scopeTasks.get(fi.uri);
+        if (tasks == null) {
+            return Optional.empty();
+        }
+        final Optional<Set<String>> keys = getReferencedKeys(fi);
+        if (!keys.isPresent()) {
+            return Optional.empty();
+        }
+        return tasks.entrySet().stream()
+                .filter(e -> resolvesEqually(keys.get(), e.getKey(), scope))
+                .map(Map.Entry::getValue)
+                .findFirst();
+    }
+
+    /**
+     * Test if keys have the same definitions in both scopes and key targets are renamed the same way in both scopes.
+     */
+    private boolean resolvesEqually(final Set<String> keys, final KeyScope scope1, final KeyScope scope2) {
+        if (scope1 == scope2) {
+            return true;
+        }
+        for (final String key : keys) {
+            final KeyDef keyDef1 = scope1.get(key);
+            final KeyDef keyDef2 = scope2.get(key);
+            if (keyDef1 != keyDef2 &&
+                    (keyDef1 == null || !keyDef1.equals(keyDef2) || !Objects.equals(keyDef1.element, keyDef2.element))) {
+                return false;
+            }
+            if (keyDef1 != null && keyDef1.href != null) {
+                final URI target = stripFragment(keyDef1.href);
+                final URI target1 = getRewrittenTarget(target, scope1);
+                if (target1 == null || !target1.equals(getRewrittenTarget(target, scope2))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get key target after per scope renames.
+     *
+     * @param target key target
+     * @param scope key scope
+     * @return renamed key target, or {@code null} if target has not been assigned to scope yet and may still be renamed
+     */
+    private URI getRewrittenTarget(final URI target, final KeyScope scope) {
+        final FileInfo fi = job.getFileInfo(target);
+        if (fi == null || !fi.hasKeyref) {
+            return target;
+        }
+        final ResolveTask task = scopeTasks.getOrDefault(target, Collections.emptyMap()).get(scope);
+        if (task == null) {
+            return null;
+        }
+        return task.out != null ? task.out.uri : task.in.uri;
+    }
+
+    /**
+     * Get keys referenced by a topic.
+     *
+     * @return referenced keys, or empty if topic output may depend on other than referenced keys
+     */
+    private Optional<Set<String>> getReferencedKeys(final FileInfo fi) {
+        return referencedKeys.computeIfAbsent(fi.uri, uri -> readReferencedKeys(fi));
+    }
+
+    private Optional<Set<String>> readReferencedKeys(final FileInfo fi) {
+        if (fi.format != null && !fi.format.equals(ATTR_FORMAT_VALUE_DITA)) {
+            return Optional.empty();
+        }
+        final URI file = job.tempDirURI.resolve(fi.uri);
+        if (!job.getStore().exists(file)) {
+            return Optional.empty();
+        }
+        final ReferencedKeysHandler handler = new ReferencedKeysHandler();
+        try {
+            job.getStore().transform(file, handler);
+        } catch (final DITAOTException e) {
+            logger.warn("Failed to read key references from " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+        return handler.hasKeyscope ? Optional.empty() : Optional.of(handler.keys);
+    }
+
+    /**
+     * Collect names of keys referenced in a document.
+     */
+    private static final class ReferencedKeysHandler extends DefaultHandler {
+        private static final List<String> KEYREF_ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+                ATTRIBUTE_NAME_KEYREF,
+                ATTRIBUTE_NAME_CONKEYREF,
+                ATTRIBUTE_NAME_ARCHIVEKEYREFS,
+                ATTRIBUTE_NAME_CLASSIDKEYREF,
+                ATTRIBUTE_NAME_CODEBASEKEYREF,
+                ATTRIBUTE_NAME_DATAKEYREF
+        ));
+
+        final Set<String> keys = new HashSet<>();
+        boolean hasKeyscope;
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts) {
+            if (atts.getValue(ATTRIBUTE_NAME_KEYSCOPE) != null) {
+                hasKeyscope = true;
+            }
+            for (final String attr : KEYREF_ATTRIBUTES) {
+                final String value = atts.getValue(attr);
+                if (value != null) {
+                    for (final String keyref : value.trim().split("\\s+")) {
+                        final int sep = keyref.indexOf('/');
+                        keys.add(sep != -1 ? keyref.substring(0, sep) : keyref);
+                    }
+                }
+            }
+        }
+    }
 
     /**
      * Tuple class for key reference processing info.
@@ -345,18 +480,32 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
                                     final FileInfo fi = job.getFileInfo(href);
                                     if (fi != null && fi.hasKeyref) {
                                         final int count = usage.getOrDefault(fi.uri, 0);
-                                        final Optional<ResolveTask> existing = res.stream()
-                                                .filter(rt -> rt.scope.equals(s) && rt.in.uri.equals(fi.uri))
-                                                .findAny();
+                                        final Optional<ResolveTask> existing = Optional.ofNullable(
+                                                scopeTasks.getOrDefault(fi.uri, Collections.emptyMap()).get(s));
+                                        // Share output of another scope if referenced keys resolve the same way
+                                        final Optional<ResolveTask> equivalent = count != 0 && !existing.isPresent()
+                                                ? findEquivalent(fi, s)
+                                                : Optional.empty();
                                         if (count != 0 && existing.isPresent()) {
                                             final ResolveTask resolveTask = existing.get();
                                             if (resolveTask.out != null) {
                                                 final URI value = tempFileNameScheme.generateTempFileName(resolveTask.out.result);
                                                 hrefNode = value.toString();
                                             }
+                                        } else if (equivalent.isPresent()) {
+                                            final ResolveTask resolveTask = equivalent.get();
+                                            scopeTasks.get(fi.uri).put(s, resolveTask);
+                                            if (resolveTask.out != null) {
+                                                sharedRewrites.computeIfAbsent(s, k -> new HashMap<>())
+                                                        .put(fi.uri, resolveTask.out.uri);
+                                                final URI value = tempFileNameScheme.generateTempFileName(resolveTask.out.result);
+                                                fixKeyDefRefs(s, fi.uri, value);
+                                                hrefNode = value.toString();
+                                            }
                                         } else {
                                             final ResolveTask resolveTask = processTopic(fi, s, isResourceOnly);
                                             res.add(resolveTask);
+                                            scopeTasks.computeIfAbsent(fi.uri, k -> new HashMap<>()).put(s, resolveTask);
                                             final Integer used = usage.get(fi.uri);
                                             if (used > 1) {
                                                 final URI value = tempFileNameScheme.generateTempFileName(resolveTask.out.result);
@@ -461,6 +610,21 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
         }
     }
 
+    /**
+     * Process key references in topics, in parallel if enabled.
+     *
+     * @param tasks resolve tasks to process
+     */
+    private void processFiles(final List<ResolveTask> tasks) throws DITAOTException {
+        if (parallel) {
+            executor.forEach(tasks, r -> getSize(r.in), this::processFile);
+        } else {
+            for (final ResolveTask r : trackProgress(tasks)) {
+                processFile(r);
+            }
+        }
+    }
+
     /**
      * Process key references in a topic. Topic is stored with a new name if it's
      * been processed before.
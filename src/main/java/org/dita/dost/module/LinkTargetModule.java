@@ -0,0 +1,170 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.pipeline.AbstractPipelineInput;
+import org.dita.dost.pipeline.AbstractPipelineOutput;
+import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.util.LinkTargetTable;
+import org.dita.dost.util.LinkTargetTable.Target;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+import static org.dita.dost.util.Constants.*;
+
+/**
+ * Build {@link LinkTargetTable} of topics for link text and short description retrieval.
+ *
+ * <p>Topic files are read once with a streaming parser, so that link text retrieval doesn't need to parse
+ * a target topic for every link that points to it.</p>
+ *
+ * @since 3.7
+ */
+final class LinkTargetModule extends AbstractPipelineModuleImpl {
+
+    @Override
+    public AbstractPipelineOutput execute(final AbstractPipelineInput input) throws DITAOTException {
+        final Collection<FileInfo> fis = job.getFileInfo(fileInfoFilter != null
+                ? fileInfoFilter
+                : f -> ATTR_FORMAT_VALUE_DITA.equals(f.format));
+        final LinkTargetTable table = new LinkTargetTable();
+        if (parallel) {
+            executor.forEach(fis, this::getSize, f -> readFile(f, table));
+        } else {
+            for (final FileInfo f : trackProgress(fis)) {
+                readFile(f, table);
+            }
+        }
+        try {
+            table.write(job.getStore(), job.tempDirURI);
+        } catch (final IOException e) {
+            throw new DITAOTException("Failed to write link target table: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private void readFile(final FileInfo f, final LinkTargetTable table) {
+        final URI file = job.tempDirURI.resolve(f.uri);
+        if (!job.getStore().exists(file)) {
+            return;
+        }
+        final TopicHandler handler = new TopicHandler();
+        try {
+            job.getStore().transform(file, handler);
+        } catch (final DITAOTException e) {
+            logger.error("Failed to read link targets from " + file + ": " + e.getMessage(), e);
+            return;
+        }
+        table.put(f.uri, handler.first, handler.targets);
+    }
+
+    /**
+     * Collect topics with plain text title and short description.
+     */
+    private static final class TopicHandler extends DefaultHandler {
+
+        final List<Target> targets = new ArrayList<>();
+        String first;
+        private final Deque<TopicState> topics = new ArrayDeque<>();
+        private int depth;
+        /** Text buffer of the current title or short description, {@code null} if not inside one. */
+        private StringBuilder text;
+        /** Text buffer is for title. */
+        private boolean inTitle;
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName,
+                                 final Attributes atts) {
+            depth++;
+            final String cls = atts.getValue(ATTRIBUTE_NAME_CLASS);
+            final TopicState topic = topics.peek();
+            if (TOPIC_TOPIC.matches(cls)) {
+                final String id = atts.getValue(ATTRIBUTE_NAME_ID);
+                if (first == null && id != null) {
+                    first = id;
+                }
+                topics.push(new TopicState(id, qName, cls, depth));
+            } else if (topic != null && text != null) {
+                // Markup in title or short description
+                topic.simple = false;
+            } else if (topic != null && depth == topic.depth + 1) {
+                if (TOPIC_TITLE.matches(cls) && topic.titleClass == null) {
+                    topic.titleClass = cls;
+                    text = new StringBuilder();
+                    inTitle = true;
+                } else if (TOPIC_SHORTDESC.matches(cls) && topic.shortdescClass == null) {
+                    topic.shortdescClass = cls;
+                    text = new StringBuilder();
+                    inTitle = false;
+                } else if (TOPIC_SHORTDESC.matches(cls) || TOPIC_ABSTRACT.matches(cls)) {
+                    // Multiple short descriptions are joined by link text retrieval
+                    topic.simple = false;
+                }
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            if (text != null) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            final TopicState topic = topics.peek();
+            if (topic != null) {
+                if (depth == topic.depth) {
+                    topics.pop();
+                    if (topic.id != null && topic.title != null && topic.simple) {
+                        targets.add(new Target(topic.id, topic.name, topic.cls,
+                                topic.title, topic.titleClass,
+                                topic.shortdesc, topic.shortdescClass));
+                    }
+                } else if (depth == topic.depth + 1 && text != null) {
+                    if (inTitle) {
+                        topic.title = text.toString();
+                    } else {
+                        topic.shortdesc = text.toString();
+                    }
+                    text = null;
+                }
+            }
+            depth--;
+        }
+    }
+
+    private static final class TopicState {
+        final String id;
+        final String name;
+        final String cls;
+        final int depth;
+        String title;
+        String titleClass;
+        String shortdesc;
+        String shortdescClass;
+        /** Title and short description only contain text. */
+        boolean simple = true;
+
+        TopicState(final String id, final String name, final String cls, final int depth) {
+            this.id = id;
+            this.name = name;
+            this.cls = cls;
+            this.depth = depth;
+        }
+    }
+}
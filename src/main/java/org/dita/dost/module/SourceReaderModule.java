@@ -8,19 +8,13 @@
 package org.dita.dost.module;
 
 import net.sf.saxon.s9api.Processor;
-import org.apache.xerces.xni.grammars.XMLGrammarPool;
-import org.apache.xml.resolver.tools.CatalogResolver;
-import org.dita.dost.reader.GrammarPoolManager;
-import org.dita.dost.util.CatalogUtils;
-import org.dita.dost.util.XMLUtils;
+import org.dita.dost.util.ParserPool;
 import org.dita.dost.writer.AbstractXMLFilter;
-import org.xml.sax.*;
-import org.xml.sax.helpers.XMLReaderFactory;
+import org.xml.sax.XMLFilter;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import static java.util.Collections.emptyMap;
 import static org.dita.dost.util.Configuration.parserFeatures;
@@ -33,12 +27,10 @@ import static org.dita.dost.util.Constants.*;
  */
 abstract class SourceReaderModule extends AbstractPipelineModuleImpl {
 
-    private static final String FEATURE_GRAMMAR_POOL = "http://apache.org/xml/properties/internal/grammar-pool";
-
     /**
-     * XMLReader instance for parsing dita file
+     * Parser configuration for DITA documents
      */
-    XMLReader reader;
+    ParserPool.Config readerConfig;
     /**
      * Validate source documents
      */
@@ -50,81 +42,32 @@ abstract class SourceReaderModule extends AbstractPipelineModuleImpl {
     Processor processor;
 
     /**
-     * Get reader for input format
+     * Get parser configuration for input format. Parsers are borrowed from {@link ParserPool} with the returned
+     * configuration and must be returned to the pool after parsing.
+     *
      * @param format input document format
-     * @return reader for given format
-     * @throws SAXException if creating reader failed
+     * @return parser configuration for given format
      */
-    XMLReader getXmlReader(final String format) throws SAXException {
-        if (format == null || format.equals(ATTR_FORMAT_VALUE_DITA)) {
-            return reader;
-        }
-        for (final Map.Entry<String, String> e : parserMap.entrySet()) {
-            if (format.equals(e.getKey())) {
-                try {
-                    // XMLReaderFactory.createXMLReader cannot be used
-                    final XMLReader r = (XMLReader) Class.forName(e.getValue()).newInstance();
-                    final Map<String, Boolean> features = parserFeatures.getOrDefault(e.getKey(), emptyMap());
-                    for (final Map.Entry<String, Boolean> feature : features.entrySet()) {
-                        try {
-                            r.setFeature(feature.getKey(), feature.getValue());
-                        } catch (final SAXNotRecognizedException ex) {
-                            // Not Xerces, ignore exception
-                        }
-                    }
-                    return r;
-                } catch (final InstantiationException | ClassNotFoundException | IllegalAccessException ex) {
-                    throw new SAXException(ex);
-                }
-            }
+    ParserPool.Config getReaderConfig(final String format) {
+        if (format == null || format.equals(ATTR_FORMAT_VALUE_DITA) || !parserMap.containsKey(format)) {
+            return readerConfig;
         }
-        return reader;
+        return ParserPool.Config.DEFAULT
+                .parser(parserMap.get(format))
+                .features(parserFeatures.getOrDefault(format, emptyMap()));
     }
 
     /**
-     * XML reader used for pipeline parsing DITA documents.
-     *
-     * @throws SAXException if parser configuration failed
+     * Initialize parser configuration used for pipeline parsing DITA documents.
      */
-    void initXmlReader() throws SAXException {
-        if (parserMap.containsKey(ATTR_FORMAT_VALUE_DITA)) {
-            reader = XMLReaderFactory.createXMLReader(parserMap.get(ATTR_FORMAT_VALUE_DITA));
-            final Map<String, Boolean> features = parserFeatures.getOrDefault(ATTR_FORMAT_VALUE_DITA, emptyMap());
-            for (final Map.Entry<String, Boolean> feature : features.entrySet()) {
-                try {
-                    reader.setFeature(feature.getKey(), feature.getValue());
-                } catch (final SAXNotRecognizedException e) {
-                    // Not Xerces, ignore exception
-                }
-            }
-        } else {
-            reader = XMLUtils.getXMLReader();
-        }
-
-        reader.setFeature(FEATURE_NAMESPACE_PREFIX, true);
-        if (validate) {
-            reader.setFeature(FEATURE_VALIDATION, true);
-            try {
-                reader.setFeature(FEATURE_VALIDATION_SCHEMA, true);
-            } catch (final SAXNotRecognizedException e) {
-                // Not Xerces, ignore exception
-            }
-        }
-        if (gramcache) {
-            final XMLGrammarPool grammarPool = GrammarPoolManager.getGrammarPool();
-            try {
-                reader.setProperty(FEATURE_GRAMMAR_POOL, grammarPool);
-                logger.info("Using Xerces grammar pool for DTD and schema caching.");
-            } catch (final NoClassDefFoundError e) {
-                logger.debug("Xerces not available, not using grammar caching");
-            } catch (final SAXNotRecognizedException | SAXNotSupportedException e) {
-                logger.warn("Failed to set Xerces grammar pool for parser: " + e.getMessage());
-            }
-        }
-
-        final CatalogResolver catalogResolver = CatalogUtils.getCatalogResolver();
-        reader.setEntityResolver(catalogResolver);
-
+    void initXmlReader() {
+        readerConfig = ParserPool.Config.DEFAULT
+                .parser(parserMap.get(ATTR_FORMAT_VALUE_DITA))
+                .features(parserFeatures.getOrDefault(ATTR_FORMAT_VALUE_DITA, emptyMap()))
+                .namespacePrefixes(true)
+                .validating(validate)
+                .grammarPool(gramcache)
+                .catalog(true);
         processor = xmlUtils.getProcessor();
     }
 
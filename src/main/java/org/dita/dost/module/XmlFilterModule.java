@@ -40,7 +40,7 @@ public final class XmlFilterModule extends AbstractPipelineModuleImpl {
             throws DITAOTException {
         final Collection<FileInfo> fis = job.getFileInfo(fileInfoFilter);
         if (parallel) {
-            fis.stream().parallel().forEach(f -> {
+            executor.forEach(fis, this::getSize, f -> {
                 final URI file = job.tempDirURI.resolve(f.uri);
                 logger.info("Processing " + file);
                 try {
@@ -50,7 +50,7 @@ public final class XmlFilterModule extends AbstractPipelineModuleImpl {
                 }
             });
         } else {
-            for (final FileInfo f : fis) {
+            for (final FileInfo f : trackProgress(fis)) {
                 final URI file = job.tempDirURI.resolve(f.uri);
                 logger.info("Processing " + file);
                 try {
@@ -7,6 +7,7 @@
  */
 package org.dita.dost.module;
 
+import net.sf.saxon.expr.XPathContext;
 import net.sf.saxon.s9api.*;
 import net.sf.saxon.trans.UncheckedXPathException;
 import net.sf.saxon.trans.XPathException;
@@ -14,9 +15,9 @@ import org.apache.tools.ant.types.XMLCatalog;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.xml.resolver.tools.CatalogResolver;
 import org.dita.dost.exception.DITAOTException;
-import org.dita.dost.exception.UncheckedDITAOTException;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
+import org.dita.dost.pipeline.BuildMetrics;
 import org.dita.dost.util.CatalogUtils;
 import org.dita.dost.util.DelegatingURIResolver;
 import org.dita.dost.util.Job;
@@ -30,7 +31,6 @@ import java.nio.file.Path;
 import java.util.*;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
 
 import static org.dita.dost.util.Constants.FILE_EXTENSION_TEMP;
 import static org.dita.dost.util.FileUtils.replaceExtension;
@@ -50,6 +50,9 @@ import static org.dita.dost.util.XMLUtils.toMessageListener;
  */
 public final class XsltModule extends AbstractPipelineModuleImpl {
 
+    /** Controller user data name for the job of the transformation. */
+    private static final String USER_DATA_JOB = "job";
+
     private XsltExecutable templates;
     private final Map<String, String> params = new HashMap<>();
     private final Properties properties = new Properties();
@@ -102,51 +105,47 @@ public final class XsltModule extends AbstractPipelineModuleImpl {
         xsltCompiler.setURIResolver(uriResolver);
         xsltCompiler.setErrorListener(toErrorListener(logger));
         logger.info("Loading stylesheet " + style.getAbsolutePath());
+        final long compileStart = System.currentTimeMillis();
         try {
             templates = xsltCompiler.compile(new StreamSource(style));
+            BuildMetrics.get().stylesheetCompiled(System.currentTimeMillis() - compileStart);
         } catch (SaxonApiException e) {
             throw new RuntimeException("Failed to compile stylesheet '" + style.getAbsolutePath() + "': " + e.getMessage(), e);
         }
         if (in != null) {
             transform(in, out);
         } else if (parallel) {
-            try {
-                final List<Entry<File, File>> tmps = includes.stream().parallel()
-                        .map(include -> {
-                            try {
-                                final File in = new File(baseDir, include.getPath());
-                                final File out = getOutput(include.getPath());
-                                if (out == null) {
-                                    return null;
-                                }
-                                final XsltTransformer transformer = getTransformer();
-                                if (in.equals(out)) {
-                                    final File tmp = new File(out.getAbsolutePath() + FILE_EXTENSION_TEMP);
-                                    transform(in, tmp, transformer);
-                                    return new SimpleEntry<>(tmp, out);
-                                } else {
-                                    transform(in, out, transformer);
-                                    return null;
-                                }
-                            } catch (DITAOTException e) {
-                                throw new UncheckedDITAOTException(e);
-                            }
-                        })
-                        .filter(entry -> entry != null)
-                        .collect(Collectors.toList());
-                for (Entry<File, File> entry : tmps) {
-                    try {
-                        logger.info("Move " + entry.getKey().toURI() + " to " + entry.getValue().toURI());
-                        job.getStore().move(entry.getKey().toURI(), entry.getValue().toURI());
-                    } catch (IOException e) {
-                        logger.error(String.format("Failed to move %s to %s: %s", entry.getKey().toURI(), entry.getValue().toURI(), e.getMessage()), e);
-                    }
+            final List<Entry<File, File>> tmps = executor.map(includes,
+                    include -> new File(baseDir, include.getPath()).length(),
+                    include -> {
+                        final File in = new File(baseDir, include.getPath());
+                        final File out = getOutput(include.getPath());
+                        if (out == null) {
+                            return null;
+                        }
+                        final XsltTransformer transformer = getTransformer();
+                        if (in.equals(out)) {
+                            final File tmp = new File(out.getAbsolutePath() + FILE_EXTENSION_TEMP);
+                            transform(in, tmp, transformer);
+                            return new SimpleEntry<>(tmp, out);
+                        } else {
+                            transform(in, out, transformer);
+                            return null;
+                        }
+                    });
+            for (Entry<File, File> entry : tmps) {
+                if (entry == null) {
+                    continue;
+                }
+                try {
+                    logger.info("Move " + entry.getKey().toURI() + " to " + entry.getValue().toURI());
+                    job.getStore().move(entry.getKey().toURI(), entry.getValue().toURI());
+                } catch (IOException e) {
+                    logger.error(String.format("Failed to move %s to %s: %s", entry.getKey().toURI(), entry.getValue().toURI(), e.getMessage()), e);
                 }
-            } catch (UncheckedDITAOTException e) {
-                throw e.getDITAOTException();
             }
         } else {
-            for (final File include : includes) {
+            for (final File include : trackProgress(includes)) {
                 final File in = new File(baseDir, include.getPath());
                 final File out = getOutput(include.getPath());
                 if (out == null) {
@@ -184,12 +183,24 @@ public final class XsltModule extends AbstractPipelineModuleImpl {
             transformer.setErrorListener(toErrorListener(logger));
             transformer.setURIResolver(uriResolver);
             transformer.setMessageListener(toMessageListener(logger));
+            transformer.getUnderlyingController().setUserData(XsltModule.class, USER_DATA_JOB, job);
             return transformer;
         } catch (final Exception e) {
             throw new DITAOTException("Failed to create Transformer: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Get job of the transformation an extension function is called from.
+     *
+     * @param context dynamic context of the extension function call
+     * @return job, {@code null} if the transformation was not run by this module
+     */
+    public static Job getJob(final XPathContext context) {
+        final Object job = context.getController().getUserData(XsltModule.class, USER_DATA_JOB);
+        return job instanceof Job ? (Job) job : null;
+    }
+
     private void transform(final File in, final File out) throws DITAOTException {
         if (reloadstylesheet || t == null) {
             t = getTransformer();
@@ -12,7 +12,6 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.MultimapBuilder.SetMultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import org.apache.commons.io.FileUtils;
-import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.MessageUtils;
 import org.dita.dost.module.AbstractPipelineModuleImpl;
@@ -54,48 +53,50 @@ import static org.dita.dost.util.URLUtils.*;
 public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
 
     Predicate<String> formatFilter;
+    /** Interned paths shared by path sets. */
+    private final PathTable paths = new PathTable();
     /** FileInfos keyed by src. */
     private final Map<URI, Collection<FileInfo>> fileinfos = new ConcurrentHashMap<>();
     /** Set of all topic files */
-    final Set<URI> fullTopicSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> fullTopicSet = new PathSet(paths);
     /** Set of all map files */
-    final Set<URI> fullMapSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> fullMapSet = new PathSet(paths);
     /** Set of topic files containing href */
-    private final Set<URI> hrefTopicSet = ConcurrentHashMap.newKeySet();
+    private final Set<URI> hrefTopicSet = new PathSet(paths);
     /** Set of dita files containing conref */
-    final Set<URI> conrefSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> conrefSet = new PathSet(paths);
     /** Set of topic files containing coderef */
-    private final Set<URI> coderefSet = ConcurrentHashMap.newKeySet();
+    private final Set<URI> coderefSet = new PathSet(paths);
     /** Set of all images */
     final Set<Reference> formatSet = ConcurrentHashMap.newKeySet();
     /** Set of all images used for flagging */
-    private final Set<URI> flagImageSet = ConcurrentHashMap.newKeySet();
+    private final Set<URI> flagImageSet = new PathSet(paths);
     /** Set of all HTML and other non-DITA or non-image files */
     final SetMultimap<String, URI> htmlSet = SetMultimapBuilder.hashKeys().hashSetValues().build();
     /** Set of all the href targets */
-    final Set<URI> hrefTargetSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> hrefTargetSet = new PathSet(paths);
     /** Set of all the conref targets */
-    Set<URI> conrefTargetSet = ConcurrentHashMap.newKeySet();
+    Set<URI> conrefTargetSet = new PathSet(paths);
     /** Set of all targets except conref and copy-to */
-    final Set<URI> nonConrefCopytoTargetSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> nonConrefCopytoTargetSet = new PathSet(paths);
     /** Set of subsidiary files */
-    private final Set<URI> coderefTargetSet = ConcurrentHashMap.newKeySet();
+    private final Set<URI> coderefTargetSet = new PathSet(paths);
     /** Set of absolute flag image files */
-    private final Set<URI> relFlagImagesSet = ConcurrentHashMap.newKeySet();
+    private final Set<URI> relFlagImagesSet = new PathSet(paths);
     /** List of files waiting for parsing. Values are absolute URI references. */
     @VisibleForTesting
     final NavigableMap<URI, Reference> waitList = new ConcurrentSkipListMap<>();
     /** List of parsed files */
-    final Set<URI> doneList = ConcurrentHashMap.newKeySet();
-    final Set<URI> failureList = ConcurrentHashMap.newKeySet();
+    final Set<URI> doneList = new PathSet(paths);
+    final Set<URI> failureList = new PathSet(paths);
     /** Set of outer dita files */
-    final Set<URI> outDitaFilesSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> outDitaFilesSet = new PathSet(paths);
     /** Set of sources of conacion */
-    final Set<URI> conrefpushSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> conrefpushSet = new PathSet(paths);
     /** Set of files containing keyref */
-    final Set<URI> keyrefSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> keyrefSet = new PathSet(paths);
     /** Set of files with "@processing-role=resource-only" */
-    final Set<URI> resourceOnlySet = ConcurrentHashMap.newKeySet();
+    final Set<URI> resourceOnlySet = new PathSet(paths);
     /** Absolute basedir for processing */
     private URI baseInputDir;
     GenListModuleReader listFilter;
@@ -108,7 +109,7 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
     URI rootFile;
     List<URI> resources;
     /** Subject scheme absolute file paths. */
-    private final Set<URI> schemeSet = ConcurrentHashMap.newKeySet();
+    private final Set<URI> schemeSet = new PathSet(paths);
     /** Subject scheme usage. Key is absolute file path, value is set of applicable subject schemes. */
     private final Map<URI, Set<URI>> schemeDictionary = new HashMap<>();
     private final Map<URI, URI> copyTo = new ConcurrentHashMap<>();
@@ -126,14 +127,14 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
     File outputFile;
     Map<QName, Map<String, Set<String>>> validateMap;
     Map<QName, Map<String, String>> defaultValueMap;
-    /** XMLReader instance for parsing dita file */
-    private XMLReader reader;
+    /** Parser configuration for parsing dita file */
+    private ParserPool.Config readerConfig;
     /** Absolute path to current source file. */
     URI currentFile;
     DitaWriterFilter ditaWriterFilter;
     TopicFragmentFilter topicFragmentFilter;
     /** Files found during additional resource crawl. **/
-    final Set<URI> additionalResourcesSet = ConcurrentHashMap.newKeySet();
+    final Set<URI> additionalResourcesSet = new PathSet(paths);
 
     public abstract void readStartFile() throws DITAOTException;
 
@@ -192,44 +193,26 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
         ditaWriterFilter.setTempFileNameScheme(tempFileNameScheme);
         ditaWriterFilter.setLogger(logger);
         ditaWriterFilter.setJob(job);
-        ditaWriterFilter.setEntityResolver(reader.getEntityResolver());
+        ditaWriterFilter.setEntityResolver(CatalogUtils.getCatalogResolver());
 
         topicFragmentFilter = new TopicFragmentFilter(ATTRIBUTE_NAME_CONREF, ATTRIBUTE_NAME_CONREFEND);
 
     }
 
     /**
-     * Init xml reader used for pipeline parsing.
+     * Init parser configuration used for pipeline parsing.
      *
      * @param validate whether validate input file
-     * @throws SAXException parsing exception
      */
-    void initXMLReader(final boolean validate) throws SAXException {
-        reader = XMLUtils.getXMLReader();
-        reader.setFeature(FEATURE_NAMESPACE, true);
-        reader.setFeature(FEATURE_NAMESPACE_PREFIX, true);
-        if (validate) {
-            reader.setFeature(FEATURE_VALIDATION, true);
-            try {
-                reader.setFeature(FEATURE_VALIDATION_SCHEMA, true);
-            } catch (final SAXNotRecognizedException e) {
-                // Not Xerces, ignore exception
-            }
-        } else {
+    void initXMLReader(final boolean validate) {
+        if (!validate) {
             logger.warn(MessageUtils.getMessage("DOTJ037W").toString());
         }
-        if (gramcache) {
-            final XMLGrammarPool grammarPool = GrammarPoolManager.getGrammarPool();
-            try {
-                reader.setProperty("http://apache.org/xml/properties/internal/grammar-pool", grammarPool);
-                logger.info("Using Xerces grammar pool for DTD and schema caching.");
-            } catch (final NoClassDefFoundError e) {
-                logger.debug("Xerces not available, not using grammar caching");
-            } catch (final SAXNotRecognizedException | SAXNotSupportedException e) {
-                logger.warn("Failed to set Xerces grammar pool for parser: " + e.getMessage());
-            }
-        }
-        reader.setEntityResolver(CatalogUtils.getCatalogResolver());
+        readerConfig = ParserPool.Config.DEFAULT
+                .namespacePrefixes(true)
+                .validating(validate)
+                .grammarPool(gramcache)
+                .catalog(true);
     }
 
     void parseInputParameters(final AbstractPipelineInput input) {
@@ -357,8 +340,10 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
             job.add(stub);
         }
 
+        final ParserPool.Config config = getReaderConfig(ref.format);
+        XMLReader parser = null;
         try {
-            XMLReader parser = getXmlReader(ref.format);
+            parser = ParserPool.borrowXMLReader(config);
             XMLReader xmlSource = parser;
             for (final XMLFilter f: getProcessingPipe(currentFile)) {
                 f.setParent(xmlSource);
@@ -426,6 +411,7 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
             }
             failureList.add(currentFile);
         } finally {
+            ParserPool.returnXMLReader(config, parser);
             if (failureList.contains(currentFile)) {
                 FileUtils.deleteQuietly(outputFile);
             }
@@ -745,6 +731,7 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
             final FileInfo fi = job.getFileInfo(f);
             if (!fi.isResourceOnly) {
                 fi.isInputResource = true;
+                job.add(fi);
             }
         }
 
@@ -921,17 +908,17 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
         prop.setProperty(REL_FLAGIMAGE_LIST, StringUtils.join(newSet, COMMA));
     }
 
-    private XMLReader getXmlReader(final String format) throws SAXException {
-        for (final Map.Entry<String, String> e: parserMap.entrySet()) {
-            if (format != null && format.equals(e.getKey())) {
-                try {
-                    return (XMLReader) Class.forName(e.getValue()).newInstance();
-                } catch (final InstantiationException | ClassNotFoundException | IllegalAccessException ex) {
-                    throw new SAXException(ex);
-                }
-            }
+    /**
+     * Get parser configuration for input format.
+     *
+     * @param format input document format
+     * @return parser configuration for given format
+     */
+    private ParserPool.Config getReaderConfig(final String format) {
+        if (format != null && parserMap.containsKey(format)) {
+            return ParserPool.Config.DEFAULT.parser(parserMap.get(format));
         }
-        return reader;
+        return readerConfig;
     }
 
     void init() throws SAXException {
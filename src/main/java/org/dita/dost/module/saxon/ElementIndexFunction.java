@@ -0,0 +1,152 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module.saxon;
+
+import net.sf.saxon.expr.StaticProperty;
+import net.sf.saxon.expr.XPathContext;
+import net.sf.saxon.lib.ExtensionFunctionCall;
+import net.sf.saxon.lib.ExtensionFunctionDefinition;
+import net.sf.saxon.ma.map.MapType;
+import net.sf.saxon.om.Sequence;
+import net.sf.saxon.om.StructuredQName;
+import net.sf.saxon.s9api.XdmAtomicValue;
+import net.sf.saxon.s9api.XdmMap;
+import net.sf.saxon.s9api.XdmValue;
+import net.sf.saxon.trans.XPathException;
+import net.sf.saxon.value.EmptySequence;
+import net.sf.saxon.value.SequenceType;
+import org.dita.dost.module.XsltModule;
+import org.dita.dost.store.Store;
+import org.dita.dost.util.ElementIndex;
+import org.dita.dost.util.Job;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.dita.dost.util.Constants.DITA_OT_NS;
+import static org.dita.dost.util.Constants.DITA_OT_NS_PREFIX;
+import static org.dita.dost.util.URLUtils.stripFragment;
+import static org.dita.dost.util.URLUtils.toURI;
+
+/**
+ * Look up element from {@link ElementIndex} without parsing the target document.
+ *
+ * <pre>{@code dita-ot:element-index($href as xs:string) as map(xs:string, xs:anyAtomicType)?}</pre>
+ *
+ * <p>Argument is an absolute URI of a temporary file with a {@code topicid} or {@code topicid/elementid} fragment.
+ * Result map has entries {@code id}, {@code class}, {@code title} and {@code offset}; entries without a value are
+ * omitted. Empty sequence is returned if the file is not indexed or it has no matching element, in which case callers
+ * should fall back to loading the document.</p>
+ *
+ * <p>The index is read through the job store from {@link ElementIndex#FILE_NAME} in the temporary directory of the
+ * job that runs the transformation; files outside the temporary directory are not indexed. The most recently read
+ * index is cached by the function instance, and thereby by the build, until the index file changes. The index is
+ * only available after a stage has written it, see {@link ElementIndex}.</p>
+ *
+ * @since 3.7
+ */
+public class ElementIndexFunction extends ExtensionFunctionDefinition {
+
+    private static final StructuredQName NAME = new StructuredQName(DITA_OT_NS_PREFIX, DITA_OT_NS, "element-index");
+
+    private CachedIndex cached;
+
+    @Override
+    public StructuredQName getFunctionQName() {
+        return NAME;
+    }
+
+    @Override
+    public SequenceType[] getArgumentTypes() {
+        return new SequenceType[] {SequenceType.SINGLE_STRING};
+    }
+
+    @Override
+    public SequenceType getResultType(final SequenceType[] suppliedArgumentTypes) {
+        return SequenceType.makeSequenceType(MapType.ANY_MAP_TYPE, StaticProperty.ALLOWS_ZERO_OR_ONE);
+    }
+
+    @Override
+    public ExtensionFunctionCall makeCallExpression() {
+        return new ExtensionFunctionCall() {
+            @Override
+            @SuppressWarnings("rawtypes") // Argument type is defined raw by ExtensionFunctionCall
+            public Sequence<?> call(final XPathContext context, final Sequence[] arguments) throws XPathException {
+                final URI href = toURI(arguments[0].head().getStringValue());
+                final Job job = XsltModule.getJob(context);
+                if (job == null || href == null || href.getFragment() == null) {
+                    return EmptySequence.getInstance();
+                }
+                final ElementIndex.Element element = find(job, href);
+                if (element == null) {
+                    return EmptySequence.getInstance();
+                }
+                final Map<XdmAtomicValue, XdmValue> res = new HashMap<>();
+                res.put(new XdmAtomicValue("id"), new XdmAtomicValue(element.id));
+                if (element.cls != null) {
+                    res.put(new XdmAtomicValue("class"), new XdmAtomicValue(element.cls));
+                }
+                if (element.title != null) {
+                    res.put(new XdmAtomicValue("title"), new XdmAtomicValue(element.title));
+                }
+                res.put(new XdmAtomicValue("offset"), new XdmAtomicValue(element.offset));
+                return new XdmMap(res).getUnderlyingValue();
+            }
+        };
+    }
+
+    /**
+     * Find element from index of the job temporary directory.
+     *
+     * @param job job of the calling transformation
+     * @param href absolute file URI with a fragment
+     * @return element, {@code null} if not found
+     */
+    private ElementIndex.Element find(final Job job, final URI href) throws XPathException {
+        final URI rel = job.tempDirURI.relativize(stripFragment(href));
+        if (rel.isAbsolute()) {
+            return null;
+        }
+        final ElementIndex index = getIndex(job);
+        return index != null ? index.find(rel, href.getFragment()) : null;
+    }
+
+    private synchronized ElementIndex getIndex(final Job job) throws XPathException {
+        final Store store = job.getStore();
+        final URI indexFile = job.tempDirURI.resolve(ElementIndex.FILE_NAME);
+        if (!store.exists(indexFile)) {
+            cached = null;
+            return null;
+        }
+        final long lastModified = store.getLastModified(indexFile);
+        if (cached != null && cached.file.equals(indexFile) && cached.lastModified == lastModified) {
+            return cached.index;
+        }
+        try {
+            final ElementIndex index = ElementIndex.read(store, job.tempDirURI);
+            cached = new CachedIndex(indexFile, index, lastModified);
+            return index;
+        } catch (final IOException e) {
+            throw new XPathException("Failed to read element index " + indexFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static final class CachedIndex {
+        final URI file;
+        final ElementIndex index;
+        final long lastModified;
+
+        CachedIndex(final URI file, final ElementIndex index, final long lastModified) {
+            this.file = file;
+            this.index = index;
+            this.lastModified = lastModified;
+        }
+    }
+}
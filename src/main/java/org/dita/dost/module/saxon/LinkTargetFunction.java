@@ -0,0 +1,148 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module.saxon;
+
+import net.sf.saxon.Configuration;
+import net.sf.saxon.expr.StaticProperty;
+import net.sf.saxon.expr.XPathContext;
+import net.sf.saxon.lib.ExtensionFunctionCall;
+import net.sf.saxon.lib.ExtensionFunctionDefinition;
+import net.sf.saxon.om.Sequence;
+import net.sf.saxon.om.StructuredQName;
+import net.sf.saxon.pattern.NodeKindTest;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.trans.XPathException;
+import net.sf.saxon.value.EmptySequence;
+import net.sf.saxon.value.SequenceType;
+import org.dita.dost.module.XsltModule;
+import org.dita.dost.store.Store;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.LinkTargetTable;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.dita.dost.util.Constants.DITA_OT_NS;
+import static org.dita.dost.util.Constants.DITA_OT_NS_PREFIX;
+import static org.dita.dost.util.URLUtils.setFragment;
+import static org.dita.dost.util.URLUtils.stripFragment;
+import static org.dita.dost.util.URLUtils.toURI;
+
+/**
+ * Look up link target topic from {@link LinkTargetTable} without parsing the target document.
+ *
+ * <pre>{@code dita-ot:link-target($href as xs:string) as element()?}</pre>
+ *
+ * <p>Argument is an absolute URI of a temporary file with an optional topic ID fragment. Result is a topic element
+ * that only contains the title and short description of the target topic. Empty sequence is returned if the topic
+ * is not in the table, in which case callers should fall back to loading the document.</p>
+ *
+ * <p>The table is read through the job store from {@link LinkTargetTable#FILE_NAME} in the temporary directory of
+ * the job that runs the transformation; files outside the temporary directory are not in the table. The most
+ * recently read table is cached by the function instance, and thereby by the build, until the table file
+ * changes.</p>
+ *
+ * @since 3.7
+ */
+public class LinkTargetFunction extends ExtensionFunctionDefinition {
+
+    private static final StructuredQName NAME = new StructuredQName(DITA_OT_NS_PREFIX, DITA_OT_NS, "link-target");
+
+    private CachedTable cached;
+
+    @Override
+    public StructuredQName getFunctionQName() {
+        return NAME;
+    }
+
+    @Override
+    public SequenceType[] getArgumentTypes() {
+        return new SequenceType[] {SequenceType.SINGLE_STRING};
+    }
+
+    @Override
+    public SequenceType getResultType(final SequenceType[] suppliedArgumentTypes) {
+        return SequenceType.makeSequenceType(NodeKindTest.ELEMENT, StaticProperty.ALLOWS_ZERO_OR_ONE);
+    }
+
+    @Override
+    public ExtensionFunctionCall makeCallExpression() {
+        return new ExtensionFunctionCall() {
+            @Override
+            @SuppressWarnings("rawtypes") // Argument type is defined raw by ExtensionFunctionCall
+            public Sequence<?> call(final XPathContext context, final Sequence[] arguments) throws XPathException {
+                final URI href = toURI(arguments[0].head().getStringValue());
+                final Job job = XsltModule.getJob(context);
+                if (job == null || href == null
+                        || (href.getFragment() != null && href.getFragment().contains("/"))) {
+                    return EmptySequence.getInstance();
+                }
+                final XdmNode target = find(job, href, context.getConfiguration());
+                return target != null ? target.getUnderlyingNode() : EmptySequence.getInstance();
+            }
+        };
+    }
+
+    /**
+     * Find topic from table of the job temporary directory.
+     *
+     * @param job job of the calling transformation
+     * @param href absolute file URI
+     * @param configuration configuration of the calling transformation
+     * @return topic element, {@code null} if not found
+     */
+    private XdmNode find(final Job job, final URI href, final Configuration configuration) throws XPathException {
+        final URI rel = job.tempDirURI.relativize(stripFragment(href));
+        if (rel.isAbsolute()) {
+            return null;
+        }
+        final Map<URI, XdmNode> targets = getTable(job, configuration);
+        return targets != null ? targets.get(setFragment(rel, href.getFragment())) : null;
+    }
+
+    private synchronized Map<URI, XdmNode> getTable(final Job job, final Configuration configuration)
+            throws XPathException {
+        final Store store = job.getStore();
+        final URI tableFile = job.tempDirURI.resolve(LinkTargetTable.FILE_NAME);
+        if (!store.exists(tableFile)) {
+            cached = null;
+            return null;
+        }
+        final long lastModified = store.getLastModified(tableFile);
+        if (cached != null && cached.file.equals(tableFile) && cached.lastModified == lastModified
+                && cached.configuration == configuration) {
+            return cached.targets;
+        }
+        try {
+            final XdmNode doc = new Processor(configuration).newDocumentBuilder().build(store.getSource(tableFile));
+            final Map<URI, XdmNode> targets = LinkTargetTable.index(doc);
+            cached = new CachedTable(tableFile, targets, lastModified, configuration);
+            return targets;
+        } catch (final SaxonApiException e) {
+            throw new XPathException("Failed to read link target table " + tableFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static final class CachedTable {
+        final URI file;
+        final Map<URI, XdmNode> targets;
+        final long lastModified;
+        /** Configuration the table nodes belong to. */
+        final Configuration configuration;
+
+        CachedTable(final URI file, final Map<URI, XdmNode> targets, final long lastModified,
+                    final Configuration configuration) {
+            this.file = file;
+            this.targets = targets;
+            this.lastModified = lastModified;
+            this.configuration = configuration;
+        }
+    }
+}
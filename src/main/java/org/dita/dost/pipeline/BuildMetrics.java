@@ -0,0 +1,393 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pipeline;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide build metrics, exposed as MXBeans in the platform MBean server.
+ *
+ * <p>Metrics are cumulative over all builds run in the JVM, except for current stage and file progress that
+ * describe the most recently started pipeline stage. Registered MBeans are</p>
+ * <ul>
+ *   <li>{@code org.dita.dost:type=Pipeline} for pipeline progress, module times and stylesheet compilation,</li>
+ *   <li>{@code org.dita.dost:type=Store} for store reads and writes, recorded only when profiling is enabled,</li>
+ *   <li>{@code org.dita.dost:type=Cache,name=<cache>} for each cache, and</li>
+ *   <li>{@code org.dita.dost:type=Messages} for error and warning counts by message ID.</li>
+ * </ul>
+ *
+ * <p>If the MBeans cannot be registered, metrics are still collected but are not visible over JMX.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class BuildMetrics {
+
+    /** JMX domain of registered MBeans. */
+    public static final String DOMAIN = "org.dita.dost";
+
+    /** Cache name for in-memory store. */
+    public static final String CACHE_STORE = "CacheStore";
+    /** Cache name for parsed temporary document pool. */
+    public static final String CACHE_DOCUMENT_POOL = "DocumentPool";
+    /** Cache name for catalog resolutions. */
+    public static final String CACHE_CATALOG = "Catalog";
+    /** Cache name for DTD grammar pool. */
+    public static final String CACHE_GRAMMAR_POOL = "GrammarPool";
+    /** Cache name for decoded code reference files. */
+    public static final String CACHE_CODE_FILE = "CodeFile";
+
+    private static final BuildMetrics instance = new BuildMetrics();
+
+    private final Pipeline pipeline = new Pipeline();
+    private final Store store = new Store();
+    private final Messages messages = new Messages();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private BuildMetrics() {
+        register(pipeline, "type=Pipeline");
+        register(store, "type=Store");
+        register(messages, "type=Messages");
+    }
+
+    /**
+     * Get process wide build metrics.
+     */
+    public static BuildMetrics get() {
+        return instance;
+    }
+
+    /**
+     * Register MBean, replacing an MBean of the same name registered e.g. by another class loader.
+     */
+    private static void register(final Object mbean, final String properties) {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (final JMException | SecurityException e) {
+            // Metrics are collected but not exposed
+        }
+    }
+
+    /**
+     * Start pipeline stage. File progress is reset.
+     *
+     * @param name stage name
+     */
+    public void startStage(final String name) {
+        pipeline.stage = name;
+        pipeline.filesTotal.set(0);
+        pipeline.filesDone.set(0);
+    }
+
+    /**
+     * End pipeline stage.
+     *
+     * @param module module name
+     * @param millis stage duration in milliseconds
+     */
+    public void endStage(final String module, final long millis) {
+        pipeline.stage = null;
+        pipeline.moduleTimes.computeIfAbsent(module, k -> new LongAdder()).add(millis);
+    }
+
+    /**
+     * Add files to process in current stage.
+     *
+     * @param count number of files
+     */
+    public void addFiles(final int count) {
+        pipeline.filesTotal.addAndGet(count);
+    }
+
+    /**
+     * Mark file processed in current stage.
+     */
+    public void fileDone() {
+        pipeline.filesDone.incrementAndGet();
+    }
+
+    /**
+     * Record stylesheet compilation.
+     *
+     * @param millis compilation duration in milliseconds
+     */
+    public void stylesheetCompiled(final long millis) {
+        pipeline.stylesheetCompiles.increment();
+        pipeline.stylesheetCompileTime.add(millis);
+    }
+
+    /**
+     * Record store read.
+     *
+     * @param bytes number of bytes read, zero if unknown
+     */
+    public void read(final long bytes) {
+        store.reads.increment();
+        store.bytesRead.add(bytes);
+    }
+
+    /**
+     * Record store write.
+     *
+     * @param bytes number of bytes written, zero if unknown
+     */
+    public void write(final long bytes) {
+        store.writes.increment();
+        store.bytesWritten.add(bytes);
+    }
+
+    /**
+     * Record logged error or warning message.
+     *
+     * @param id message ID, {@code null} if message has no ID
+     * @param error {@code true} for error or fatal message, {@code false} for warning
+     */
+    public void message(final String id, final boolean error) {
+        (error ? messages.errors : messages.warnings).increment();
+        if (id != null) {
+            (error ? messages.errorsById : messages.warningsById).computeIfAbsent(id, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Get cache metrics, registering an MBean for the cache on first use.
+     *
+     * @param name cache name
+     * @return cache metrics
+     */
+    public Cache getCache(final String name) {
+        return caches.computeIfAbsent(name, k -> {
+            final Cache cache = new Cache();
+            register(cache, "type=Cache,name=" + k);
+            return cache;
+        });
+    }
+
+    private static Map<String, Long> toMap(final Map<String, LongAdder> counters) {
+        final Map<String, Long> res = new TreeMap<>();
+        for (final Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            res.put(e.getKey(), e.getValue().sum());
+        }
+        return res;
+    }
+
+    /**
+     * Pipeline progress metrics.
+     */
+    public interface PipelineMXBean {
+        /** Current stage name, {@code null} if no stage is running. */
+        String getStage();
+        /** Number of files processed in current stage. */
+        long getFilesDone();
+        /** Number of files remaining in current stage. */
+        long getFilesRemaining();
+        /** Cumulative time by module in milliseconds. */
+        Map<String, Long> getModuleTimes();
+        /** Number of stylesheet compilations. */
+        long getStylesheetCompileCount();
+        /** Cumulative stylesheet compilation time in milliseconds. */
+        long getStylesheetCompileTime();
+    }
+
+    /**
+     * Store I/O metrics.
+     */
+    public interface StoreMXBean {
+        long getReadCount();
+        long getWriteCount();
+        long getBytesRead();
+        long getBytesWritten();
+    }
+
+    /**
+     * Cache metrics.
+     */
+    public interface CacheMXBean {
+        long getHitCount();
+        long getMissCount();
+        /** Number of entries dropped to make room for other entries. */
+        long getEvictionCount();
+        /** Number of entries removed because the cached resource was deleted. */
+        long getDeleteCount();
+        /** Ratio of hits to lookups, zero if there have been no lookups. */
+        double getHitRate();
+    }
+
+    /**
+     * Logged message metrics.
+     */
+    public interface MessagesMXBean {
+        long getErrorCount();
+        long getWarningCount();
+        /** Error and fatal message counts by message ID. */
+        Map<String, Long> getErrorCounts();
+        /** Warning message counts by message ID. */
+        Map<String, Long> getWarningCounts();
+    }
+
+    private static final class Pipeline implements PipelineMXBean {
+        volatile String stage;
+        final AtomicLong filesTotal = new AtomicLong();
+        final AtomicLong filesDone = new AtomicLong();
+        final Map<String, LongAdder> moduleTimes = new ConcurrentHashMap<>();
+        final LongAdder stylesheetCompiles = new LongAdder();
+        final LongAdder stylesheetCompileTime = new LongAdder();
+
+        @Override
+        public String getStage() {
+            return stage;
+        }
+
+        @Override
+        public long getFilesDone() {
+            return filesDone.get();
+        }
+
+        @Override
+        public long getFilesRemaining() {
+            return Math.max(0, filesTotal.get() - filesDone.get());
+        }
+
+        @Override
+        public Map<String, Long> getModuleTimes() {
+            return toMap(moduleTimes);
+        }
+
+        @Override
+        public long getStylesheetCompileCount() {
+            return stylesheetCompiles.sum();
+        }
+
+        @Override
+        public long getStylesheetCompileTime() {
+            return stylesheetCompileTime.sum();
+        }
+    }
+
+    private static final class Store implements StoreMXBean {
+        final LongAdder reads = new LongAdder();
+        final LongAdder writes = new LongAdder();
+        final LongAdder bytesRead = new LongAdder();
+        final LongAdder bytesWritten = new LongAdder();
+
+        @Override
+        public long getReadCount() {
+            return reads.sum();
+        }
+
+        @Override
+        public long getWriteCount() {
+            return writes.sum();
+        }
+
+        @Override
+        public long getBytesRead() {
+            return bytesRead.sum();
+        }
+
+        @Override
+        public long getBytesWritten() {
+            return bytesWritten.sum();
+        }
+    }
+
+    private static final class Messages implements MessagesMXBean {
+        final LongAdder errors = new LongAdder();
+        final LongAdder warnings = new LongAdder();
+        final Map<String, LongAdder> errorsById = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> warningsById = new ConcurrentHashMap<>();
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public long getWarningCount() {
+            return warnings.sum();
+        }
+
+        @Override
+        public Map<String, Long> getErrorCounts() {
+            return toMap(errorsById);
+        }
+
+        @Override
+        public Map<String, Long> getWarningCounts() {
+            return toMap(warningsById);
+        }
+    }
+
+    /**
+     * Hit, miss, eviction and delete counters of a cache.
+     */
+    public static final class Cache implements CacheMXBean {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder deletes = new LongAdder();
+
+        private Cache() {
+        }
+
+        public void hit() {
+            hits.increment();
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+
+        public void evict() {
+            evictions.increment();
+        }
+
+        public void delete() {
+            deletes.increment();
+        }
+
+        @Override
+        public long getHitCount() {
+            return hits.sum();
+        }
+
+        @Override
+        public long getMissCount() {
+            return misses.sum();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return evictions.sum();
+        }
+
+        @Override
+        public long getDeleteCount() {
+            return deletes.sum();
+        }
+
+        @Override
+        public double getHitRate() {
+            final long h = hits.sum();
+            final long total = h + misses.sum();
+            return total > 0 ? (double) h / total : 0.0;
+        }
+    }
+}
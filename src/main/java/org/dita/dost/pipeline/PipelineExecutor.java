@@ -0,0 +1,266 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pipeline;
+
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.exception.UncheckedDITAOTException;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Executor for parallel pipeline modules.
+ *
+ * <p>Work items are run on a thread pool that is shared by all modules in a build. The number of items processed
+ * concurrently is given by parallelism, and {@link #withParallelism(int)} returns a view with different parallelism
+ * that shares the same threads. Items are started in descending order of their weight, e.g. file size, so that
+ * the largest items don't end up running alone at the end of the batch.</p>
+ *
+ * <p>All items are processed even if some of them fail. Failures are rethrown after the batch has completed: the
+ * failure of the first item in input order is thrown and the other failures are added to it as suppressed
+ * exceptions. The thrown exception is independent of thread scheduling.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class PipelineExecutor implements AutoCloseable {
+
+    /**
+     * Work item action.
+     *
+     * @param <T> item type
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    public interface Action<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    /**
+     * Work item action without a result.
+     *
+     * @param <T> item type
+     */
+    @FunctionalInterface
+    public interface Consumer<T> {
+        void accept(T item) throws Exception;
+    }
+
+    private static volatile PipelineExecutor defaultExecutor;
+
+    private final ExecutorService pool;
+    private final int parallelism;
+    private final boolean virtualThreads;
+    /** Executor shares thread pool with another executor. */
+    private final boolean view;
+
+    /**
+     * Create new executor.
+     *
+     * @param parallelism maximum number of items processed concurrently
+     * @param virtualThreads use virtual threads if supported by the JVM
+     */
+    public PipelineExecutor(final int parallelism, final boolean virtualThreads) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        final ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.pool = virtual != null ? virtual : newPlatformThreadExecutor();
+        this.view = false;
+    }
+
+    private PipelineExecutor(final PipelineExecutor parent, final int parallelism) {
+        this.parallelism = parallelism;
+        this.virtualThreads = parent.virtualThreads;
+        this.pool = parent.pool;
+        this.view = true;
+    }
+
+    /**
+     * Get default executor with parallelism equal to the number of available processors. Used when no executor
+     * has been configured for the build.
+     */
+    public static PipelineExecutor getDefault() {
+        PipelineExecutor res = defaultExecutor;
+        if (res == null) {
+            synchronized (PipelineExecutor.class) {
+                res = defaultExecutor;
+                if (res == null) {
+                    res = new PipelineExecutor(Runtime.getRuntime().availableProcessors(), false);
+                    defaultExecutor = res;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get view of this executor with different parallelism. The returned executor shares the thread pool
+     * with this executor and closing it has no effect.
+     *
+     * @param parallelism maximum number of items processed concurrently
+     * @return executor with given parallelism
+     */
+    public PipelineExecutor withParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (parallelism == this.parallelism) {
+            return this;
+        }
+        return new PipelineExecutor(this, parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Process items in parallel.
+     *
+     * @param items items to process
+     * @param weight item weight, heavier items are started first
+     * @param action item action
+     * @throws DITAOTException if processing of any item failed
+     */
+    public <T> void forEach(final Collection<T> items, final ToLongFunction<? super T> weight,
+                            final Consumer<? super T> action) throws DITAOTException {
+        map(items, weight, item -> {
+            action.accept(item);
+            return null;
+        });
+    }
+
+    /**
+     * Process items in parallel and collect results.
+     *
+     * @param items items to process
+     * @param weight item weight, heavier items are started first
+     * @param action item action
+     * @return results in input order
+     * @throws DITAOTException if processing of any item failed
+     */
+    public <T, R> List<R> map(final Collection<T> items, final ToLongFunction<? super T> weight,
+                              final Action<? super T, ? extends R> action) throws DITAOTException {
+        final List<T> in = new ArrayList<>(items);
+        final int size = in.size();
+        final Object[] results = new Object[size];
+        final Exception[] failures = new Exception[size];
+        final Integer[] order = new Integer[size];
+        final long[] weights = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            weights[i] = weight != null ? weight.applyAsLong(in.get(i)) : 0L;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(weights[b], weights[a]));
+
+        final BuildMetrics metrics = BuildMetrics.get();
+        metrics.addFiles(size);
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable worker = () -> {
+            int n;
+            while ((n = next.getAndIncrement()) < size) {
+                final int i = order[n];
+                try {
+                    results[i] = action.apply(in.get(i));
+                } catch (final Exception e) {
+                    failures[i] = e;
+                }
+                metrics.fileDone();
+            }
+        };
+        final int workers = Math.min(parallelism, size);
+        final List<Future<?>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(pool.submit(worker));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DITAOTException("Interrupted while waiting for parallel processing", e);
+        } catch (final ExecutionException e) {
+            throw new DITAOTException("Parallel processing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        DITAOTException failure = null;
+        for (final Exception e : failures) {
+            if (e == null) {
+                continue;
+            }
+            if (failure == null) {
+                failure = toDITAOTException(e);
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        @SuppressWarnings("unchecked")
+        final List<R> res = (List<R>) Arrays.asList(results);
+        return res;
+    }
+
+    private static DITAOTException toDITAOTException(final Exception e) {
+        if (e instanceof DITAOTException) {
+            return (DITAOTException) e;
+        } else if (e instanceof UncheckedDITAOTException) {
+            return ((UncheckedDITAOTException) e).getDITAOTException();
+        }
+        return new DITAOTException(e.getMessage(), e);
+    }
+
+    /**
+     * Shut down thread pool. Views created with {@link #withParallelism(int)} and the default executor
+     * are not shut down.
+     */
+    @Override
+    public void close() {
+        if (this != defaultExecutor && !view) {
+            pool.shutdown();
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            final Thread thread = new Thread(r, "dita-ot-pipeline-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create virtual thread per task executor using reflection, because virtual threads are not available in
+     * the Java version the code is compiled against.
+     *
+     * @return virtual thread executor, {@code null} if not supported
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
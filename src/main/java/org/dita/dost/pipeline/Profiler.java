@@ -0,0 +1,298 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pipeline;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Pipeline execution profiler.
+ *
+ * <p>Records wall time of pipeline stages and timing and I/O of store operations per file. Results can be
+ * exported as a Chrome trace event file and as a plain text summary table.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class Profiler {
+
+    /** Store operation type. */
+    public enum Operation {
+        /** Read resource without parsing, e.g. open a stream or source. */
+        READ,
+        /** Parse resource into a tree. */
+        PARSE,
+        /** Serialize tree into a resource. */
+        SERIALIZE,
+        /** Read, process and write resource. */
+        TRANSFORM,
+        /** Write resource without serializing, e.g. open a stream. */
+        WRITE
+    }
+
+    private static final int TOP_FILES = 10;
+    private static final long PID = 1;
+    private static final long PIPELINE_TID = 0;
+
+    private final long origin = System.nanoTime();
+    private final Queue<FileEvent> events = new ConcurrentLinkedQueue<>();
+    private final List<StageEvent> stages = new ArrayList<>();
+    private volatile StageEvent current;
+
+    /**
+     * Start pipeline stage. Previous stage, if any, is ended.
+     *
+     * @param name stage name
+     */
+    public synchronized void startStage(final String name) {
+        if (current != null) {
+            endStage();
+        }
+        current = new StageEvent(name, System.nanoTime() - origin);
+    }
+
+    /**
+     * End current pipeline stage.
+     */
+    public synchronized void endStage() {
+        if (current != null) {
+            current.duration = System.nanoTime() - origin - current.start;
+            stages.add(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Record file operation.
+     *
+     * @param file file URI
+     * @param operation operation type
+     * @param start operation start time from {@link System#nanoTime()}
+     * @param bytesRead number of bytes read, zero if unknown
+     * @param bytesWritten number of bytes written, zero if unknown
+     */
+    public void record(final URI file, final Operation operation, final long start,
+                       final long bytesRead, final long bytesWritten) {
+        final long end = System.nanoTime();
+        final StageEvent stage = current;
+        events.add(new FileEvent(stage != null ? stage.name : "", file.toString(), operation,
+                Thread.currentThread().getId(), start - origin, end - start, bytesRead, bytesWritten));
+    }
+
+    /**
+     * Write Chrome trace event JSON file.
+     *
+     * @param file output file
+     * @throws IOException if writing fails
+     */
+    public void writeTrace(final File file) throws IOException {
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir.getAbsolutePath());
+        }
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            writeTrace(out);
+        }
+    }
+
+    /**
+     * Write Chrome trace event JSON.
+     *
+     * @param out output stream, will not be closed
+     * @throws IOException if writing fails
+     */
+    public void writeTrace(final OutputStream out) throws IOException {
+        final JsonGenerator gen = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.writeStartObject();
+        gen.writeStringField("displayTimeUnit", "ms");
+        gen.writeArrayFieldStart("traceEvents");
+
+        gen.writeStartObject();
+        gen.writeStringField("name", "thread_name");
+        gen.writeStringField("ph", "M");
+        gen.writeNumberField("pid", PID);
+        gen.writeNumberField("tid", PIPELINE_TID);
+        gen.writeObjectFieldStart("args");
+        gen.writeStringField("name", "pipeline");
+        gen.writeEndObject();
+        gen.writeEndObject();
+
+        for (final StageEvent stage : getStages()) {
+            gen.writeStartObject();
+            gen.writeStringField("name", stage.name);
+            gen.writeStringField("cat", "stage");
+            gen.writeStringField("ph", "X");
+            gen.writeNumberField("ts", toMicros(stage.start));
+            gen.writeNumberField("dur", toMicros(stage.duration));
+            gen.writeNumberField("pid", PID);
+            gen.writeNumberField("tid", PIPELINE_TID);
+            gen.writeEndObject();
+        }
+        for (final FileEvent event : events) {
+            gen.writeStartObject();
+            gen.writeStringField("name", event.file);
+            gen.writeStringField("cat", event.operation.name().toLowerCase());
+            gen.writeStringField("ph", "X");
+            gen.writeNumberField("ts", toMicros(event.start));
+            gen.writeNumberField("dur", toMicros(event.duration));
+            gen.writeNumberField("pid", PID);
+            gen.writeNumberField("tid", event.thread);
+            gen.writeObjectFieldStart("args");
+            gen.writeStringField("stage", event.stage);
+            gen.writeNumberField("bytesRead", event.bytesRead);
+            gen.writeNumberField("bytesWritten", event.bytesWritten);
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.flush();
+    }
+
+    /**
+     * Get summary table of stages and slowest files.
+     *
+     * @return plain text table
+     */
+    public String getSummary() {
+        final Map<String, Stats> byStage = new LinkedHashMap<>();
+        final Map<String, Long> stageTime = new HashMap<>();
+        for (final StageEvent stage : getStages()) {
+            byStage.computeIfAbsent(stage.name, Stats::new);
+            stageTime.merge(stage.name, stage.duration, Long::sum);
+        }
+        final Map<List<String>, Stats> byFile = new HashMap<>();
+        for (final FileEvent event : events) {
+            byStage.computeIfAbsent(event.stage, Stats::new).add(event);
+            byFile.computeIfAbsent(Arrays.asList(event.stage, event.file), k -> new Stats(k.get(1))).add(event);
+        }
+        for (final Map.Entry<List<String>, Stats> e : byFile.entrySet()) {
+            byStage.get(e.getKey().get(0)).files++;
+        }
+
+        final Formatter buf = new Formatter(new StringBuilder(), Locale.ROOT);
+        final String row = "%-48s %10s %7s %7s %11s %15s %11s %14s%n";
+        buf.format(row, "Stage", "Time (ms)", "Files", "Reads", "Parse (ms)", "Serialize (ms)", "Read (KiB)", "Written (KiB)");
+        for (final Stats stats : byStage.values()) {
+            buf.format(row, truncate(stats.name, 48), toMillis(stageTime.getOrDefault(stats.name, stats.wall)), stats.files, stats.reads,
+                    toMillis(stats.parse), toMillis(stats.serialize), stats.bytesRead / 1024, stats.bytesWritten / 1024);
+        }
+        final List<Map.Entry<List<String>, Stats>> slowest = byFile.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<List<String>, Stats> e) -> e.getValue().wall).reversed())
+                .limit(TOP_FILES)
+                .collect(Collectors.toList());
+        if (!slowest.isEmpty()) {
+            buf.format("%n");
+            final String fileRow = "%10s %-32s %s%n";
+            buf.format(fileRow, "Time (ms)", "Stage", "File");
+            for (final Map.Entry<List<String>, Stats> e : slowest) {
+                buf.format(fileRow, toMillis(e.getValue().wall), truncate(e.getKey().get(0), 32), e.getKey().get(1));
+            }
+        }
+        return buf.toString();
+    }
+
+    private synchronized List<StageEvent> getStages() {
+        return new ArrayList<>(stages);
+    }
+
+    private static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String truncate(final String value, final int length) {
+        return value.length() > length ? "..." + value.substring(value.length() - length + 3) : value;
+    }
+
+    private static final class StageEvent {
+        final String name;
+        final long start;
+        long duration;
+
+        StageEvent(final String name, final long start) {
+            this.name = name;
+            this.start = start;
+        }
+    }
+
+    private static final class FileEvent {
+        final String stage;
+        final String file;
+        final Operation operation;
+        final long thread;
+        final long start;
+        final long duration;
+        final long bytesRead;
+        final long bytesWritten;
+
+        FileEvent(final String stage, final String file, final Operation operation, final long thread,
+                  final long start, final long duration, final long bytesRead, final long bytesWritten) {
+            this.stage = stage;
+            this.file = file;
+            this.operation = operation;
+            this.thread = thread;
+            this.start = start;
+            this.duration = duration;
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+        }
+    }
+
+    private static final class Stats {
+        final String name;
+        long wall;
+        long parse;
+        long serialize;
+        long bytesRead;
+        long bytesWritten;
+        int reads;
+        int files;
+
+        Stats(final String name) {
+            this.name = name;
+        }
+
+        void add(final FileEvent event) {
+            switch (event.operation) {
+                case PARSE:
+                    parse += event.duration;
+                    reads++;
+                    break;
+                case SERIALIZE:
+                    serialize += event.duration;
+                    break;
+                case READ:
+                case TRANSFORM:
+                    reads++;
+                    break;
+                default:
+                    break;
+            }
+            wall += event.duration;
+            bytesRead += event.bytesRead;
+            bytesWritten += event.bytesWritten;
+        }
+    }
+}
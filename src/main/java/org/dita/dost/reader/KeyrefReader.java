@@ -29,7 +29,6 @@ import org.dita.dost.util.KeyDef;
 import org.dita.dost.util.KeyScope;
 import org.dita.dost.util.XMLUtils;
 
-import javax.xml.parsers.DocumentBuilder;
 import java.io.File;
 import java.net.URI;
 import java.util.*;
@@ -76,7 +75,6 @@ public final class KeyrefReader implements AbstractReader {
 
     private DITAOTLogger logger;
     private Job job;
-    private final DocumentBuilder builder;
     private KeyScope rootScope;
     private URI currentFile;
     private XMLUtils xmlUtils;
@@ -85,7 +83,6 @@ public final class KeyrefReader implements AbstractReader {
      * Constructor.
      */
     public KeyrefReader() {
-        builder = XMLUtils.getDocumentBuilder();
     }
 
     @Override
@@ -129,8 +126,7 @@ public final class KeyrefReader implements AbstractReader {
         final KeyScope keyScope = readScopes(doc);
         final KeyScope keyScopeWithChildren = cascadeChildKeys(keyScope);
         // TODO: determine effective key definitions here
-        final KeyScope keyScopeWithParents = inheritParentKeys(keyScopeWithChildren);
-        rootScope = resolveIntermediate(keyScopeWithParents);
+        rootScope = inheritParentKeys(keyScopeWithChildren);
     }
 
     /**
@@ -280,50 +276,87 @@ public final class KeyrefReader implements AbstractReader {
 
 
     /**
-     * Inherit parent keys to child key scopes.
+     * Inherit parent keys to child key scopes and resolve intermediate key references.
      */
     private KeyScope inheritParentKeys(final KeyScope rootScope) {
-        return inheritParentKeys(rootScope, Collections.emptyMap());
+        return inheritParentKeys(rootScope, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList());
     }
 
-    private KeyScope inheritParentKeys(final KeyScope current, final Map<String, KeyDef> parent) {
-        if (parent.keySet().isEmpty() && current.childScopes.isEmpty()) {
-            return current;
-        } else {
-            final Map<String, KeyDef> resKeys = new HashMap<>();
-            resKeys.putAll(current.keyDefinition);
-            resKeys.putAll(parent);
-            final List<KeyScope> resChildren = new ArrayList<>();
-            for (final KeyScope child : current.childScopes) {
-                final KeyScope resChild = inheritParentKeys(child, resKeys);
-                resChildren.add(resChild);
+    /**
+     * Inherit parent keys to child key scopes and resolve intermediate key references. Parent key definitions are
+     * shared with child scopes instead of copied.
+     *
+     * @param current scope with local key definitions
+     * @param parent effective key definitions of parent scope
+     * @param parentResolved resolved effective key definitions of parent scope
+     * @param parentKeyrefs key definitions in parent scope that refer to another key
+     * @return scope with effective resolved key definitions
+     */
+    private KeyScope inheritParentKeys(final KeyScope current,
+                                       final Map<String, KeyDef> parent,
+                                       final Map<String, KeyDef> parentResolved,
+                                       final List<KeyDef> parentKeyrefs) {
+        final Map<String, KeyDef> keys = KeyScope.overlay(asList(parent, current.keyDefinition));
+
+        final Map<String, KeyDef> local = new HashMap<>();
+        List<KeyDef> keyrefs = parentKeyrefs;
+        for (final Map.Entry<String, KeyDef> e : current.keyDefinition.entrySet()) {
+            if (!parent.containsKey(e.getKey())) {
+                final KeyDef keyDef = e.getValue();
+                local.put(e.getKey(), resolveIntermediate(keys, keyDef, Collections.singletonList(keyDef)));
+                if (hasKeyref(keyDef)) {
+                    if (keyrefs == parentKeyrefs) {
+                        keyrefs = new ArrayList<>(parentKeyrefs);
+                    }
+                    keyrefs.add(keyDef);
+                }
+            }
+        }
+        // Inherited key definitions only need to be resolved again if the reference chain reaches a local key
+        final Map<String, KeyDef> overrides = new HashMap<>();
+        for (final KeyDef keyDef : parentKeyrefs) {
+            if (refersToLocal(keyDef, parent, current.keyDefinition)) {
+                overrides.put(keyDef.keys, resolveIntermediate(keys, keyDef, Collections.singletonList(keyDef)));
             }
-            return new KeyScope(current.id, current.name, resKeys, resChildren);
         }
+        final Map<String, KeyDef> resolved = KeyScope.overlay(asList(overrides, parentResolved, local));
+
+        final List<KeyScope> resChildren = new ArrayList<>();
+        for (final KeyScope child : current.childScopes) {
+            resChildren.add(inheritParentKeys(child, keys, resolved, keyrefs));
+        }
+        return new KeyScope(current.id, current.name, resolved, resChildren);
+    }
+
+    private boolean hasKeyref(final KeyDef keyDef) {
+        final String keyref = keyDef.element.attribute(ATTRIBUTE_NAME_KEYREF);
+        return keyref != null && !keyref.trim().isEmpty();
     }
 
     /**
-     * Resolve intermediate key references.
+     * Test if key reference chain of an inherited key definition reaches a key that is only defined in local scope.
      */
-    private KeyScope resolveIntermediate(final KeyScope scope) {
-        final Map<String, KeyDef> keys = new HashMap<>(scope.keyDefinition);
-        for (final Map.Entry<String, KeyDef> e : scope.keyDefinition.entrySet()) {
-            final KeyDef res = resolveIntermediate(scope, e.getValue(), Collections.singletonList(e.getValue()));
-            keys.put(e.getKey(), res);
-        }
-        final List<KeyScope> children = new ArrayList<>();
-        for (final KeyScope child : scope.childScopes) {
-            final KeyScope resolvedChild = resolveIntermediate(child);
-            children.add(resolvedChild);
+    private boolean refersToLocal(final KeyDef keyDef, final Map<String, KeyDef> parent, final Map<String, KeyDef> local) {
+        final Set<KeyDef> visited = new HashSet<>();
+        KeyDef current = keyDef;
+        while (current != null && visited.add(current)) {
+            final String keyref = current.element.attribute(ATTRIBUTE_NAME_KEYREF);
+            if (keyref == null || keyref.trim().isEmpty()) {
+                return false;
+            }
+            current = parent.get(keyref);
+            if (current == null) {
+                return local.containsKey(keyref);
+            }
         }
-        return new KeyScope(scope.id, scope.name, keys, children);
+        return false;
     }
 
-    private KeyDef resolveIntermediate(final KeyScope scope, final KeyDef keyDef, final List<KeyDef> circularityTracker) {
+    private KeyDef resolveIntermediate(final Map<String, KeyDef> keys, final KeyDef keyDef, final List<KeyDef> circularityTracker) {
         final XdmNode elem = keyDef.element;
         final String keyref = elem.attribute(ATTRIBUTE_NAME_KEYREF);
-        if (keyref != null && !keyref.trim().isEmpty() && scope.keyDefinition.containsKey(keyref)) {
-            KeyDef keyRefDef = scope.keyDefinition.get(keyref);
+        if (keyref != null && !keyref.trim().isEmpty() && keys.containsKey(keyref)) {
+            KeyDef keyRefDef = keys.get(keyref);
             if (circularityTracker.contains(keyRefDef)) {
                 handleCircularDefinitionException(circularityTracker);
                 return keyDef;
@@ -335,7 +368,7 @@ public final class KeyrefReader implements AbstractReader {
                 final List<KeyDef> ct = new ArrayList<>(circularityTracker.size() + 1);
                 ct.addAll(circularityTracker);
                 ct.add(keyRefDef);
-                keyRefDef = resolveIntermediate(scope, keyRefDef, ct);
+                keyRefDef = resolveIntermediate(keys, keyRefDef, ct);
             }
             final XdmNode res = mergeMetadata(keyRefDef.element, elem);
             return new KeyDef(keyDef.keys, keyRefDef.href, keyRefDef.scope, keyRefDef.format, keyRefDef.source, res);
@@ -10,9 +10,15 @@ package org.dita.dost.store;
 
 import net.sf.saxon.s9api.XsltTransformer;
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.util.ParserPool;
 import org.dita.dost.util.XMLUtils;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLFilter;
 
+import javax.xml.parsers.DocumentBuilder;
+
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -27,6 +33,8 @@ import static org.dita.dost.util.URLUtils.toURI;
 public abstract class AbstractStore implements Store {
 
     static final boolean LOG = false;
+    /** Configuration for DOM document builders, same as {@link XMLUtils#getDocumentBuilder()}. */
+    static final ParserPool.Config DOCUMENT_BUILDER_CONFIG = XMLUtils.DOCUMENT_BUILDER_CONFIG;
 
     protected final XMLUtils xmlUtils;
     public final File tempDir;
@@ -62,6 +70,21 @@ public abstract class AbstractStore implements Store {
         return f.toString().startsWith(tempDirUri.toString());
     }
 
+    /**
+     * Parse DOM document with a pooled document builder that resolves entities using catalog.
+     *
+     * @param inputSource input source
+     * @return parsed document
+     */
+    protected Document parseDocument(final InputSource inputSource) throws IOException, SAXException {
+        final DocumentBuilder builder = ParserPool.borrowDocumentBuilder(DOCUMENT_BUILDER_CONFIG);
+        try {
+            return builder.parse(inputSource);
+        } finally {
+            ParserPool.returnDocumentBuilder(DOCUMENT_BUILDER_CONFIG, builder);
+        }
+    }
+
 //    @Override
 //    public void transform(final URI src, final ContentHandler dst) throws DITAOTException {
 //        try {
@@ -22,6 +22,8 @@ import net.sf.saxon.trans.UncheckedXPathException;
 import net.sf.saxon.trans.XPathException;
 import net.sf.saxon.tree.wrapper.RebasedDocument;
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.pipeline.BuildMetrics;
+import org.dita.dost.util.SaxBuffer;
 import org.dita.dost.util.XMLUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -38,6 +40,7 @@ import javax.xml.transform.stream.StreamSource;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.dita.dost.util.Constants.FILE_EXTENSION_TEMP;
 import static org.dita.dost.util.URLUtils.stripFragment;
@@ -50,11 +53,20 @@ public class CacheStore extends AbstractStore implements Store {
 
     private final StreamStore fallback;
     private final Map<URI, Entry> cache;
+    /** Cache metrics. The cache has no capacity limit, so entries are never evicted, only deleted. */
+    private final BuildMetrics.Cache metrics = BuildMetrics.get().getCache(BuildMetrics.CACHE_STORE);
 
     public CacheStore(final File tempDir, final XMLUtils xmlUtils) {
         super(tempDir, xmlUtils);
         fallback = new StreamStore(tempDir, xmlUtils);
-        this.cache = new HashMap<>();
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get pool of parsed temporary documents shared by transformations that resolve documents with this store.
+     */
+    public DocumentPool getDocumentPool() {
+        return fallback.getDocumentPool();
     }
 
     @Override
@@ -63,6 +75,7 @@ public class CacheStore extends AbstractStore implements Store {
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
                 remove(f);
+                metrics.delete();
                 return;
             }
         }
@@ -126,6 +139,7 @@ public class CacheStore extends AbstractStore implements Store {
         if (LOG) System.err.println("Cache resolve: " + f);
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 final Entry entry = get(f);
                 return toSource(entry, f);
             }
@@ -140,6 +154,7 @@ public class CacheStore extends AbstractStore implements Store {
         if (LOG) System.err.println("Cache getSource: " + f);
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 final Entry entry = get(f);
                 return toSource(entry, f);
             }
@@ -154,18 +169,21 @@ public class CacheStore extends AbstractStore implements Store {
         if (LOG) System.err.println("getImmutableDocument:" + f);
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 final Entry entry = cache.get(f);
                 if (entry.doc != null) {
                     return entry.doc;
                 } else if (entry.node != null) {
                     final NodeInfo nodeInfo = entry.node.getUnderlyingNode();
                     final Document doc = (Document) NodeOverNodeInfo.wrap(nodeInfo);
-                    put(f, new Entry(doc, entry.node, null));
+                    put(f, new Entry(doc, entry.node, null, entry.events));
                     return doc;
                 } else if (entry.bytes != null) {
                     try (InputStream in = new ByteArrayInputStream(entry.bytes)) {
-                        final Document doc = XMLUtils.getDocumentBuilder().parse(in, f.toString());
-                        put(f, new Entry(doc, null, entry.bytes));
+                        final InputSource inputSource = new InputSource(in);
+                        inputSource.setSystemId(f.toString());
+                        final Document doc = parseDocument(inputSource);
+                        put(f, new Entry(doc, null, entry.bytes, entry.events));
                         return doc;
                     } catch (SAXException e) {
                         throw new IOException(e);
@@ -185,19 +203,21 @@ public class CacheStore extends AbstractStore implements Store {
         if (LOG) System.err.println("getImmutableNode:" + f);
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 final Entry entry = cache.get(f);
                 if (entry.node != null) {
                     return entry.node;
                 } else if (entry.doc != null) {
                     final XdmNode node = xmlUtils.getProcessor().newDocumentBuilder().wrap(entry.doc);
-                    put(f, new Entry(entry.doc, node, entry.bytes));
+                    put(f, new Entry(entry.doc, node, entry.bytes, entry.events));
                     return node;
                 } else if (entry.bytes != null) {
                     try (InputStream in = new ByteArrayInputStream(entry.bytes)) {
                         final StreamSource source = new StreamSource(in);
                         source.setSystemId(f.toString());
                         final XdmNode node = xmlUtils.getProcessor().newDocumentBuilder().build(source);
-                        put(f, new Entry(entry.doc, node, entry.bytes));
+                        put(f, new Entry(entry.doc, node, entry.bytes, entry.events));
+                        return node;
                     } catch (SaxonApiException e) {
                         throw new IOException(e);
                     }
@@ -216,6 +236,7 @@ public class CacheStore extends AbstractStore implements Store {
         if (LOG) System.err.println("getDocument:" + f);
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 final Entry entry = get(f);
                 if (entry.doc != null) {
                     return (Document) entry.doc.cloneNode(true);
@@ -225,7 +246,7 @@ public class CacheStore extends AbstractStore implements Store {
                     try (InputStream in = new ByteArrayInputStream(entry.bytes)) {
                         final InputSource inputSource = new InputSource(in);
                         inputSource.setSystemId(f.toString());
-                        final Document doc = XMLUtils.getDocumentBuilder().parse(inputSource);
+                        final Document doc = parseDocument(inputSource);
                         put(f, new Entry(doc, entry.node, entry.bytes));
                         return doc;
                     } catch (SAXException e) {
@@ -314,10 +335,9 @@ public class CacheStore extends AbstractStore implements Store {
         final URI f = src.normalize();
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 try {
-                    final Source source = getSource(src);
-                    final Receiver receiver = getReceiver(dst);
-                    Sender.send(source, receiver, new ParseOptions());
+                    getEvents(f).replay(dst, f.toString());
                 } catch (final RuntimeException e) {
                     throw e;
                 } catch (final Exception e) {
@@ -325,10 +345,31 @@ public class CacheStore extends AbstractStore implements Store {
                 }
                 return;
             }
+            cacheMiss(f);
         }
         fallback.transform(src, dst);
     }
 
+    /**
+     * Get recorded SAX events of a cached file. Events are recorded on first read and stored in the cache entry, so
+     * following streaming reads replay the recording without parsing or walking the tree.
+     *
+     * @param f absolute normalized temporary file URI
+     * @return recorded SAX events
+     */
+    private SaxBuffer getEvents(final URI f) throws XPathException {
+        final Entry entry = get(f);
+        if (entry.events != null) {
+            return entry.events;
+        }
+        final SaxBuffer.Recorder recorder = new SaxBuffer.Recorder();
+        Sender.send(toSource(entry, f), getReceiver(recorder), new ParseOptions());
+        final SaxBuffer events = recorder.build();
+        // Entry may have been replaced while recording
+        cache.replace(f, entry, new Entry(entry.doc, entry.node, entry.bytes, events, entry.lastModified));
+        return events;
+    }
+
     @Override
     public void transform(final URI input, final List<XMLFilter> filters) throws DITAOTException {
         final URI src = input.normalize();
@@ -423,6 +464,7 @@ public class CacheStore extends AbstractStore implements Store {
         final URI f = path.normalize();
         if (isTempFile(f)) {
             if (cache.containsKey(f)) {
+                metrics.hit();
                 final Entry entry = cache.get(f);
                 if (entry.bytes != null) {
                     return new ByteArrayInputStream(entry.bytes);
@@ -432,7 +474,7 @@ public class CacheStore extends AbstractStore implements Store {
                         final Serializer serializer = xmlUtils.getProcessor().newSerializer(buf);
                         serializer.serializeNode(source);
                         final byte[] bytes = buf.toByteArray();
-                        cache.put(f, new Entry(entry.doc, entry.node, bytes));
+                        cache.put(f, new Entry(entry.doc, entry.node, bytes, entry.events));
                         return new ByteArrayInputStream(bytes);
                     } catch (SaxonApiException e) {
                         throw new IOException(e);
@@ -443,13 +485,14 @@ public class CacheStore extends AbstractStore implements Store {
                         final Serializer serializer = xmlUtils.getProcessor().newSerializer(buf);
                         serializer.serializeNode(source);
                         final byte[] bytes = buf.toByteArray();
-                        cache.put(f, new Entry(entry.doc, entry.node, bytes));
+                        cache.put(f, new Entry(entry.doc, entry.node, bytes, entry.events));
                         return new ByteArrayInputStream(bytes);
                     } catch (SaxonApiException e) {
                         throw new IOException(e);
                     }
                 }
             }
+            cacheMiss(f);
         }
         return fallback.getInputStream(path);
     }
@@ -500,6 +543,7 @@ public class CacheStore extends AbstractStore implements Store {
     }
 
     private void cacheMiss(final URI f) {
+        metrics.miss();
 //        System.err.println("Cache miss: " + f);
 //        throw new IllegalStateException("Cache miss: " + f);
     }
@@ -514,6 +558,7 @@ public class CacheStore extends AbstractStore implements Store {
             final Document doc = entry.doc;
             assert doc.getBaseURI() != null && !doc.getBaseURI().isEmpty();
         }
+        fallback.getDocumentPool().invalidate(path);
         return cache.put(path, entry);
     }
 
@@ -531,6 +576,7 @@ public class CacheStore extends AbstractStore implements Store {
     }
 
     private Entry remove(URI f) {
+        fallback.getDocumentPool().invalidate(f);
         final Entry entry = cache.remove(f);
         if (entry.node != null) {
             final XdmNode node = entry.node;
@@ -569,7 +615,7 @@ public class CacheStore extends AbstractStore implements Store {
             remove.doc.setDocumentURI(d.toString());
             doc = remove.doc;
         }
-        return new Entry(doc, node, remove.bytes);
+        return new Entry(doc, node, remove.bytes, remove.events, System.currentTimeMillis());
     }
 
     private Source toSource(final Entry entry, final URI path) {
@@ -616,16 +662,24 @@ public class CacheStore extends AbstractStore implements Store {
         private final Document doc;
         private final XdmNode node;
         private final byte[] bytes;
+        /** Recorded SAX events, {@code null} if not read as a stream yet. */
+        private final SaxBuffer events;
         private long lastModified;
 
         private Entry(final Document doc, final XdmNode node, final byte[] bytes) {
-            this(doc, node, bytes, System.currentTimeMillis());
+            this(doc, node, bytes, null);
+        }
+
+        private Entry(final Document doc, final XdmNode node, final byte[] bytes, final SaxBuffer events) {
+            this(doc, node, bytes, events, System.currentTimeMillis());
         }
 
-        private Entry(final Document doc, final XdmNode node, final byte[] bytes, final long lastModified) {
+        private Entry(final Document doc, final XdmNode node, final byte[] bytes, final SaxBuffer events,
+                      final long lastModified) {
             this.doc = doc;
             this.node = node;
             this.bytes = bytes;
+            this.events = events;
             this.lastModified = lastModified;
         }
     }
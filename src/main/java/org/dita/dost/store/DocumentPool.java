@@ -0,0 +1,181 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.store;
+
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import org.dita.dost.pipeline.BuildMetrics;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of parsed immutable documents shared by all transformations that use the same store.
+ *
+ * <p>Documents are keyed by absolute URI and the store version of the file, i.e. its last modification time. A pooled
+ * document is only returned if the version matches, and stores invalidate documents they rewrite, so a transformation
+ * never sees a stale tree. The least recently used documents are evicted once the pool is full.</p>
+ *
+ * <p>Instances are thread-safe. Loading is done outside the pool lock, so two threads may parse the same document
+ * concurrently; the result of either is pooled.</p>
+ *
+ * @since 3.7
+ */
+public final class DocumentPool {
+
+    /** Document loader. */
+    @FunctionalInterface
+    public interface Loader {
+        XdmNode load(URI uri) throws SaxonApiException;
+    }
+
+    private final int capacity;
+    /** Pooled documents in access order, guarded by this. */
+    private final LruMap documents;
+    /** Invalidation generations, guarded by this. */
+    private final Map<URI, Long> generations = new HashMap<>();
+    /** Number of times pool has been cleared, guarded by this. */
+    private long epoch;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final BuildMetrics.Cache metrics = BuildMetrics.get().getCache(BuildMetrics.CACHE_DOCUMENT_POOL);
+
+    /**
+     * Create new pool.
+     *
+     * @param capacity maximum number of pooled documents, {@code 0} disables pooling
+     */
+    public DocumentPool(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.documents = new LruMap(capacity, metrics);
+    }
+
+    /**
+     * Get pooled document or load and pool it.
+     *
+     * @param uri absolute document URI
+     * @param version store version of the document
+     * @param loader loader used if document is not pooled or pooled version differs
+     * @return document
+     * @throws SaxonApiException if loading document failed
+     */
+    public XdmNode get(final URI uri, final long version, final Loader loader) throws SaxonApiException {
+        if (capacity == 0) {
+            return loader.load(uri);
+        }
+        final long generation;
+        final long loadEpoch;
+        synchronized (this) {
+            final PooledDocument entry = documents.get(uri);
+            if (entry != null && entry.version == version) {
+                hits.incrementAndGet();
+                metrics.hit();
+                return entry.node;
+            }
+            generation = generations.getOrDefault(uri, 0L);
+            loadEpoch = epoch;
+        }
+        misses.incrementAndGet();
+        metrics.miss();
+        final XdmNode node = loader.load(uri);
+        synchronized (this) {
+            if (loadEpoch == epoch && generation == generations.getOrDefault(uri, 0L)) {
+                documents.put(uri, new PooledDocument(node, version));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Remove document from pool. Documents being loaded concurrently are not pooled.
+     *
+     * @param uri absolute document URI
+     */
+    public synchronized void invalidate(final URI uri) {
+        documents.remove(uri);
+        generations.merge(uri, 1L, Long::sum);
+    }
+
+    /**
+     * Remove all documents from pool.
+     */
+    public synchronized void clear() {
+        documents.clear();
+        generations.clear();
+        epoch++;
+    }
+
+    /**
+     * Get number of pooled documents.
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Get maximum number of pooled documents.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get number of lookups that returned a pooled document.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get number of lookups that loaded the document.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static final class PooledDocument {
+        final XdmNode node;
+        final long version;
+
+        PooledDocument(final XdmNode node, final long version) {
+            this.node = node;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Access ordered map that evicts the least recently used document once capacity is exceeded.
+     */
+    private static final class LruMap extends LinkedHashMap<URI, PooledDocument> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final transient BuildMetrics.Cache metrics;
+
+        LruMap(final int capacity, final BuildMetrics.Cache metrics) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<URI, PooledDocument> eldest) {
+            final boolean evict = size() > capacity;
+            if (evict) {
+                metrics.evict();
+            }
+            return evict;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+
+package org.dita.dost.store;
+
+import net.sf.saxon.s9api.Destination;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XsltTransformer;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.pipeline.BuildMetrics;
+import org.dita.dost.pipeline.Profiler;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.XMLFilter;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+
+import static org.dita.dost.pipeline.Profiler.Operation.*;
+
+/**
+ * Store decorator that records store operations into a {@link Profiler} and into store {@link BuildMetrics}.
+ *
+ * <p>Byte counts are only available for resources read and written as streams with {@link #getInputStream(URI)}
+ * and {@link #getOutputStream(URI)}. Other operations are recorded with zero bytes, because the decorated store
+ * reads and writes them internally.</p>
+ *
+ * @since 3.7
+ */
+public class ProfilingStore implements Store {
+
+    private final Store store;
+    private final Profiler profiler;
+    private final BuildMetrics metrics = BuildMetrics.get();
+
+    /**
+     * Create new profiling store.
+     *
+     * @param store store to decorate
+     * @param profiler profiler to record operations into
+     */
+    public ProfilingStore(final Store store, final Profiler profiler) {
+        this.store = store;
+        this.profiler = Objects.requireNonNull(profiler);
+    }
+
+    @Override
+    public void transform(final URI src, final ContentHandler contentHandler) throws DITAOTException {
+        final long start = System.nanoTime();
+        try {
+            store.transform(src, contentHandler);
+        } finally {
+            record(src, TRANSFORM, start, 0, 0);
+        }
+    }
+
+    @Override
+    public void transform(final URI src, final List<XMLFilter> filters) throws DITAOTException {
+        final long start = System.nanoTime();
+        try {
+            store.transform(src, filters);
+        } finally {
+            record(src, TRANSFORM, start, 0, 0);
+        }
+    }
+
+    @Override
+    public void transform(final URI src, final URI dst, final List<XMLFilter> filters) throws DITAOTException {
+        final long start = System.nanoTime();
+        try {
+            store.transform(src, dst, filters);
+        } finally {
+            record(src, TRANSFORM, start, 0, 0);
+        }
+    }
+
+    @Override
+    public void transform(final URI src, final XsltTransformer transformer) throws DITAOTException {
+        final long start = System.nanoTime();
+        try {
+            store.transform(src, transformer);
+        } finally {
+            record(src, TRANSFORM, start, 0, 0);
+        }
+    }
+
+    @Override
+    public void transform(final URI src, final URI dst, final XsltTransformer transformer) throws DITAOTException {
+        final long start = System.nanoTime();
+        try {
+            store.transform(src, dst, transformer);
+        } finally {
+            record(src, TRANSFORM, start, 0, 0);
+        }
+    }
+
+    @Override
+    public Source getSource(final URI path) {
+        final long start = System.nanoTime();
+        final Source source = store.getSource(path);
+        record(path, READ, start, 0, 0);
+        return source;
+    }
+
+    @Override
+    public Document getImmutableDocument(final URI path) throws IOException {
+        final long start = System.nanoTime();
+        final Document doc = store.getImmutableDocument(path);
+        record(path, PARSE, start, 0, 0);
+        return doc;
+    }
+
+    @Override
+    public XdmNode getImmutableNode(final URI path) throws IOException {
+        final long start = System.nanoTime();
+        final XdmNode node = store.getImmutableNode(path);
+        record(path, PARSE, start, 0, 0);
+        return node;
+    }
+
+    @Override
+    public Document getDocument(final URI path) throws IOException {
+        final long start = System.nanoTime();
+        final Document doc = store.getDocument(path);
+        record(path, PARSE, start, 0, 0);
+        return doc;
+    }
+
+    @Override
+    public void writeDocument(final Document doc, final URI dst) throws IOException {
+        final long start = System.nanoTime();
+        store.writeDocument(doc, dst);
+        record(dst, SERIALIZE, start, 0, 0);
+    }
+
+    @Override
+    public void writeDocument(final Node doc, final ContentHandler dst) throws IOException {
+        store.writeDocument(doc, dst);
+    }
+
+    @Override
+    public void writeDocument(final XdmNode node, final ContentHandler dst) throws IOException {
+        store.writeDocument(node, dst);
+    }
+
+    @Override
+    public void writeDocument(final XdmNode node, final URI dst) throws IOException {
+        final long start = System.nanoTime();
+        store.writeDocument(node, dst);
+        record(dst, SERIALIZE, start, 0, 0);
+    }
+
+    @Override
+    public Destination getDestination(final URI path) throws IOException {
+        return store.getDestination(path);
+    }
+
+    @Override
+    public ContentHandler getContentHandler(final URI path) throws SaxonApiException, IOException {
+        return store.getContentHandler(path);
+    }
+
+    @Override
+    public URI getUri(final URI path) {
+        return store.getUri(path);
+    }
+
+    @Override
+    public void delete(final URI file) throws IOException {
+        store.delete(file);
+    }
+
+    @Override
+    public void copy(final URI src, final URI dst) throws IOException {
+        store.copy(src, dst);
+    }
+
+    @Override
+    public boolean exists(final URI path) {
+        return store.exists(path);
+    }
+
+    @Override
+    public long getLastModified(final URI path) {
+        return store.getLastModified(path);
+    }
+
+    @Override
+    public void move(final URI src, final URI dst) throws IOException {
+        store.move(src, dst);
+    }
+
+    @Override
+    public InputStream getInputStream(final URI path) throws IOException {
+        final long start = System.nanoTime();
+        return new CountingInputStream(store.getInputStream(path)) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                if (!closed) {
+                    closed = true;
+                    record(path, READ, start, getByteCount(), 0);
+                }
+            }
+        };
+    }
+
+    @Override
+    public OutputStream getOutputStream(final URI path) throws IOException {
+        final long start = System.nanoTime();
+        return new CountingOutputStream(store.getOutputStream(path)) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                if (!closed) {
+                    closed = true;
+                    record(path, WRITE, start, 0, getByteCount());
+                }
+            }
+        };
+    }
+
+    @Override
+    public Source resolve(final String href, final String base) throws TransformerException {
+        return store.resolve(href, base);
+    }
+
+    private void record(final URI file, final Profiler.Operation operation, final long start,
+                        final long bytesRead, final long bytesWritten) {
+        profiler.record(file, operation, start, bytesRead, bytesWritten);
+        switch (operation) {
+            case READ:
+            case PARSE:
+                metrics.read(bytesRead);
+                break;
+            case SERIALIZE:
+            case WRITE:
+                metrics.write(bytesWritten);
+                break;
+            case TRANSFORM:
+                metrics.read(bytesRead);
+                break;
+            default:
+                break;
+        }
+    }
+}
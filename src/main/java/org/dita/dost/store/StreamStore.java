@@ -16,6 +16,9 @@ import net.sf.saxon.s9api.*;
 import net.sf.saxon.serialize.SerializationProperties;
 import net.sf.saxon.trans.UncheckedXPathException;
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.util.Configuration;
+import org.dita.dost.util.ParserPool;
+import org.dita.dost.util.ParserPool.Config;
 import org.dita.dost.util.URLUtils;
 import org.dita.dost.util.XMLUtils;
 import org.w3c.dom.Document;
@@ -27,12 +30,17 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.stream.StreamSource;
 import java.io.*;
 import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.apache.commons.io.FileUtils.*;
 import static org.dita.dost.util.Constants.FILE_EXTENSION_TEMP;
+import static org.dita.dost.util.URLUtils.stripFragment;
 import static org.dita.dost.util.URLUtils.toFile;
 import static org.dita.dost.util.URLUtils.toURI;
 
@@ -43,8 +51,34 @@ import static org.dita.dost.util.URLUtils.toURI;
  */
 public class StreamStore extends AbstractStore implements Store {
 
+    /** Configuration property for maximum number of pooled documents. */
+    public static final String CONF_DOCUMENT_POOL_SIZE = "store.document-pool.size";
+    private static final int DEFAULT_DOCUMENT_POOL_SIZE = 1000;
+
+    private final DocumentPool documentPool;
+
     public StreamStore(final File tempDir, final XMLUtils xmlUtils) {
         super(tempDir, xmlUtils);
+        documentPool = new DocumentPool(getDocumentPoolSize());
+    }
+
+    private static int getDocumentPoolSize() {
+        final String size = Configuration.configuration.get(CONF_DOCUMENT_POOL_SIZE);
+        if (size != null && !size.trim().isEmpty()) {
+            try {
+                return Integer.parseInt(size.trim());
+            } catch (final NumberFormatException e) {
+                // Fall through to default
+            }
+        }
+        return DEFAULT_DOCUMENT_POOL_SIZE;
+    }
+
+    /**
+     * Get pool of parsed temporary documents shared by transformations that resolve documents with this store.
+     */
+    public DocumentPool getDocumentPool() {
+        return documentPool;
     }
 
     @Override
@@ -66,7 +100,7 @@ public class StreamStore extends AbstractStore implements Store {
     public Document getDocument(final URI path) throws IOException {
         if (LOG) System.err.println("  getDocument:" + path);
         try {
-            return XMLUtils.getDocumentBuilder().parse(path.toString());
+            return parseDocument(new InputSource(path.toString()));
         } catch (final Exception e) {
             throw new IOException("Failed to read document: " + e.getMessage(), e);
         }
@@ -77,6 +111,7 @@ public class StreamStore extends AbstractStore implements Store {
         final URI f = getUri(file.normalize());
         if ("file".equals(f.getScheme())) {
             final File ff = new File(getUri(f.isAbsolute() ? f : tempDirUri.resolve(f)));
+            documentPool.invalidate(ff.toURI());
             if (ff.exists() && !ff.delete()) {
                 throw new IOException("Deleting " + file + " failed");
             }
@@ -124,15 +159,43 @@ public class StreamStore extends AbstractStore implements Store {
             throw new IllegalArgumentException("Only file URI scheme supported: " + input);
         }
 
-        try {
-            final XMLReader xmlReader = XMLUtils.getXMLReader();
+        final Config config = getParserConfig(input);
+        XMLReader xmlReader = null;
+        try (InputStream in = openInputStream(input, config)) {
+            xmlReader = ParserPool.borrowXMLReader(config);
             xmlReader.setContentHandler(contentHandler);
-            xmlReader.parse(input.toString());
+            xmlReader.parse(getInputSource(input, in));
         } catch (SAXException | IOException e) {
             throw new DITAOTException(e);
+        } finally {
+            ParserPool.returnXMLReader(config, xmlReader);
         }
     }
 
+    /**
+     * Get parser configuration for file. Temporary files have been normalized by preprocessing, so they are parsed
+     * without loading DTDs or external entities.
+     */
+    private Config getParserConfig(final URI input) {
+        return isTempFile(input) ? Config.TEMPORARY : Config.DEFAULT;
+    }
+
+    /**
+     * Open temporary file input stream backed by a file channel, so the parser's own large input buffer is filled
+     * directly from the channel. Fragment identifier of the input URI is ignored.
+     *
+     * @return input stream, {@code null} if parser should open the system ID itself
+     */
+    private static InputStream openInputStream(final URI input, final Config config) throws IOException {
+        return config.temporary ? Files.newInputStream(Paths.get(stripFragment(input))) : null;
+    }
+
+    private static InputSource getInputSource(final URI input, final InputStream in) {
+        final InputSource inputSource = new InputSource(input.toString());
+        inputSource.setByteStream(in);
+        return inputSource;
+    }
+
 //    @Override
 //    public void transform(final URI input, final List<XMLFilter> filters) throws DITAOTException {
 //        assert input.isAbsolute();
@@ -167,8 +230,11 @@ public class StreamStore extends AbstractStore implements Store {
             throw new DITAOTException("Failed to create output directory " + outputFile.getParentFile().getAbsolutePath());
         }
 
-        try {
-            XMLReader reader = xmlUtils.getXMLReader();
+        final Config config = getParserConfig(input);
+        XMLReader xmlReader = null;
+        try (InputStream in = openInputStream(input, config)) {
+            xmlReader = ParserPool.borrowXMLReader(config);
+            XMLReader reader = xmlReader;
             for (final XMLFilter filter : filters) {
                 // ContentHandler must be reset so e.g. Saxon 9.1 will reassign ContentHandler
                 // when reusing filter with multiple Transformers.
@@ -181,13 +247,13 @@ public class StreamStore extends AbstractStore implements Store {
             final ContentHandler serializer = result.getContentHandler();
             reader.setContentHandler(serializer);
 
-            final InputSource inputSource = new InputSource(input.toString());
-
-            reader.parse(inputSource);
+            reader.parse(getInputSource(input, in));
         } catch (final RuntimeException e) {
             throw e;
         } catch (final Exception e) {
             throw new DITAOTException("Failed to transform " + input + ": " + e.getMessage(), e);
+        } finally {
+            ParserPool.returnXMLReader(config, xmlReader);
         }
     }
 
@@ -235,6 +301,7 @@ public class StreamStore extends AbstractStore implements Store {
     @VisibleForTesting
     Serializer getSerializer(final URI dst) throws IOException {
         final File outputFile = new File(dst);
+        documentPool.invalidate(outputFile.toURI());
         final File dir = outputFile.getParentFile();
         if (!dir.exists() && !dir.mkdirs()) {
             throw new IOException("Failed to create directory " + dir.getAbsolutePath());
@@ -282,17 +349,32 @@ public class StreamStore extends AbstractStore implements Store {
     public void copy(final URI src, final URI dst) throws IOException {
         final File s = new File(getUri((src.isAbsolute() ? src : tempDirUri.resolve(src)).normalize()));
         final File d = new File(getUri((dst.isAbsolute() ? dst : tempDirUri.resolve(dst)).normalize()));
-        copyFile(s, d);
+        final File dir = d.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir.getAbsolutePath());
+        }
+        documentPool.invalidate(d.toURI());
+        Files.copy(s.toPath(), d.toPath(), REPLACE_EXISTING, COPY_ATTRIBUTES);
     }
 
     @Override
     public void move(final URI src, final URI dst) throws IOException {
         final File s = new File(getUri((src.isAbsolute() ? src : tempDirUri.resolve(src)).normalize()));
         final File d = new File(getUri((dst.isAbsolute() ? dst : tempDirUri.resolve(dst)).normalize()));
-        if (d.exists()) {
+        if (d.isDirectory()) {
             forceDelete(d);
         }
-        moveFile(s, d);
+        documentPool.invalidate(s.toURI());
+        documentPool.invalidate(d.toURI());
+        final File dir = d.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir.getAbsolutePath());
+        }
+        try {
+            Files.move(s.toPath(), d.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(s.toPath(), d.toPath(), REPLACE_EXISTING);
+        }
     }
 
     @Override
@@ -313,11 +395,26 @@ public class StreamStore extends AbstractStore implements Store {
         final URI f = h.isAbsolute() ? h : toURI(base).resolve(h);
         if (LOG) System.err.println("  resolve: " + f);
         if (isTempFile(f)) {
-            return new StreamSource(f.toString());
+            final File file = toFile(URLUtils.setFragment(f, null));
+            final long version = file.lastModified();
+            if (version == 0L) {
+                return new StreamSource(f.toString());
+            }
+            try {
+                return documentPool.get(file.toURI(), version, this::buildDocument).getUnderlyingNode();
+            } catch (final SaxonApiException e) {
+                throw new TransformerException("Failed to parse " + file + ": " + e.getMessage(), e);
+            }
         }
         return null;
     }
 
+    private XdmNode buildDocument(final URI file) throws SaxonApiException {
+        final DocumentBuilder builder = xmlUtils.getProcessor().newDocumentBuilder();
+        builder.setLineNumbering(xmlUtils.getProcessor().getUnderlyingConfiguration().isLineNumbering());
+        return builder.build(new StreamSource(file.toString()));
+    }
+
     @Override
     public InputStream getInputStream(final URI path) throws IOException {
         final URI f = getUri(path);
@@ -338,6 +435,7 @@ public class StreamStore extends AbstractStore implements Store {
         final URI f = getUri(path);
         if (isTempFile(f)) {
             if (LOG) System.err.println("  getOutputStream:" + f);
+            documentPool.invalidate(toFile(f).toURI());
             return Files.newOutputStream(Paths.get(f));
         } else if ("file".equals(path.getScheme())) {
             if (LOG) System.err.println("  getOutputStream:" + path);
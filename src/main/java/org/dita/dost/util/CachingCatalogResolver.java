@@ -0,0 +1,149 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.apache.xml.resolver.CatalogManager;
+import org.apache.xml.resolver.tools.CatalogResolver;
+import org.dita.dost.pipeline.BuildMetrics;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.sax.SAXSource;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catalog resolver that memoizes public ID, system ID and URI lookups.
+ *
+ * <p>Catalog lookups are done at most once per identifier. Cached resolutions are returned without locking,
+ * only lookups for new identifiers are serialized, because the underlying catalog loads delegate catalogs
+ * lazily and is not thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class CachingCatalogResolver extends CatalogResolver {
+
+    private final Map<Map.Entry<String, String>, Optional<String>> entities = new ConcurrentHashMap<>();
+    private final Map<String, Optional<String>> uris = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final BuildMetrics.Cache metrics = BuildMetrics.get().getCache(BuildMetrics.CACHE_CATALOG);
+
+    public CachingCatalogResolver(final CatalogManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public String getResolvedEntity(final String publicId, final String systemId) {
+        final Map.Entry<String, String> key = new SimpleImmutableEntry<>(publicId, systemId);
+        Optional<String> resolved = entities.get(key);
+        if (resolved != null) {
+            hits.increment();
+            metrics.hit();
+        } else {
+            misses.increment();
+            metrics.miss();
+            synchronized (lock) {
+                resolved = Optional.ofNullable(super.getResolvedEntity(publicId, systemId));
+            }
+            entities.putIfAbsent(key, resolved);
+        }
+        return resolved.orElse(null);
+    }
+
+    @Override
+    public Source resolve(final String href, final String base) throws TransformerException {
+        String result = resolveUri(href);
+        if (result == null) {
+            final int hashPos = href.indexOf('#');
+            final String uri = hashPos != -1 ? href.substring(0, hashPos) : href;
+            try {
+                if (base == null) {
+                    result = new URL(uri).toString();
+                } else {
+                    final URL baseUrl = new URL(base);
+                    result = (href.isEmpty() ? baseUrl : new URL(baseUrl, uri)).toString();
+                }
+            } catch (final MalformedURLException e) {
+                return super.resolve(href, base);
+            }
+        }
+        final XMLReader reader;
+        try {
+            reader = XMLUtils.getXMLReader();
+        } catch (final SAXException e) {
+            throw new TransformerException(e);
+        }
+        reader.setEntityResolver(this);
+        return new SAXSource(reader, new InputSource(result));
+    }
+
+    /**
+     * Resolve URI using catalog.
+     *
+     * @param href URI reference
+     * @return resolved URI, {@code null} if catalog has no mapping
+     */
+    private String resolveUri(final String href) {
+        Optional<String> resolved = uris.get(href);
+        if (resolved != null) {
+            hits.increment();
+            metrics.hit();
+        } else {
+            misses.increment();
+            metrics.miss();
+            String res = null;
+            synchronized (lock) {
+                try {
+                    res = getCatalog().resolveURI(href);
+                } catch (final IOException | RuntimeException e) {
+                    // Same as CatalogResolver, fall back to resolving against base
+                }
+            }
+            resolved = Optional.ofNullable(res);
+            uris.putIfAbsent(href, resolved);
+        }
+        return resolved.orElse(null);
+    }
+
+    /**
+     * Get number of lookups served from cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get number of lookups that required a catalog lookup.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get number of cached resolutions.
+     */
+    public int size() {
+        return entities.size() + uris.size();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingCatalogResolver{hits=" + getHitCount() + ", misses=" + getMissCount() + ", size=" + size() + "}";
+    }
+}
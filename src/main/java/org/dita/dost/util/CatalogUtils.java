@@ -24,7 +24,7 @@ import org.apache.xml.resolver.tools.CatalogResolver;
 public final class CatalogUtils {
 
     /**apache catalogResolver.*/
-    private static CatalogResolver catalogResolver = null;
+    private static volatile CachingCatalogResolver catalogResolver = null;
     /** Absolute directory to find catalog-dita.xml.*/
     private static File ditaDir;
     /**
@@ -44,10 +44,18 @@ public final class CatalogUtils {
     }
 
     /**
-     * Get CatalogResolver.
+     * Get CatalogResolver. The returned resolver is shared and thread-safe.
      * @return CatalogResolver
      */
-    public static synchronized CatalogResolver getCatalogResolver() {
+    public static CatalogResolver getCatalogResolver() {
+        final CachingCatalogResolver resolver = catalogResolver;
+        if (resolver != null) {
+            return resolver;
+        }
+        return createCatalogResolver();
+    }
+
+    private static synchronized CatalogResolver createCatalogResolver() {
         if (catalogResolver == null) {
             final CatalogManager manager = new CatalogManager();
             manager.setIgnoreMissingProperties(true);
@@ -56,7 +64,7 @@ public final class CatalogUtils {
             final File catalogFilePath = new File(ditaDir, Configuration.pluginResourceDirs.get("org.dita.base") + File.separator + FILE_NAME_CATALOG);
             manager.setCatalogFiles(catalogFilePath.toURI().toASCIIString());
             //manager.setVerbosity(10);
-            catalogResolver = new CatalogResolver(manager);
+            catalogResolver = new CachingCatalogResolver(manager);
         }
 
         return catalogResolver;
@@ -1112,6 +1112,20 @@ public final class Constants {
     /** Project reference name for XML utils object. */
     public static final String ANT_REFERENCE_XML_UTILS = "xmlutils";
     public static final String ANT_REFERENCE_STORE = "store";
+    /** Project reference name for pipeline profiler object. */
+    public static final String ANT_REFERENCE_PROFILER = "profiler";
+    /** Pipeline profiler trace file Ant property name. */
+    public static final String ANT_PROFILER_FILE = "profiler.file";
+    /** Project reference name for pipeline executor object. */
+    public static final String ANT_REFERENCE_EXECUTOR = "pipeline-executor";
+    /** Parallel processing thread count Ant property name. */
+    public static final String ANT_PARALLEL_THREADS = "parallel.threads";
+    /** Parallel processing virtual threads Ant property name. */
+    public static final String ANT_PARALLEL_VIRTUAL_THREADS = "parallel.virtual-threads";
+    /** Shard index Ant property name, set for worker processes of a sharded build. */
+    public static final String ANT_SHARD_INDEX = "dita.shard.index";
+    /** Shard count Ant property name, set for worker processes of a sharded build. */
+    public static final String ANT_SHARD_COUNT = "dita.shard.count";
     /** Temporary directory Ant property name. */
     public static final String ANT_TEMP_DIR = "dita.temp.dir";
 
@@ -0,0 +1,324 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.store.Store;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dita.dost.util.URLUtils.toURI;
+
+/**
+ * Index of elements with IDs in temporary files. Lets processing stages find an element by
+ * {@code topicid/elementid} fragment without parsing the target file.
+ *
+ * <p>Files are keyed by URI relative to the temporary directory, i.e. {@link Job.FileInfo#uri}. Topics are indexed
+ * with their topic ID and elements inside topics with {@code topicid/elementid}. Elements in maps are indexed with
+ * their ID. Each element is stored with its class, a title snippet and its offset, the position of the element in
+ * document order when the temporary file was written.</p>
+ *
+ * <p>The index is stored in {@link #FILE_NAME} in the temporary directory. The default preprocessing pipeline does
+ * not write the index, because titles and offsets collected when a temporary file is first written go stale once
+ * later stages such as conref resolution rewrite the file. A stage that needs the index must write it after the
+ * last rewrite of the files it covers. Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class ElementIndex {
+
+    /** Index file name in temporary directory. */
+    public static final String FILE_NAME = ".element-index.xml";
+    /** Maximum length of title snippet. */
+    public static final int MAX_TITLE_LENGTH = 128;
+
+    private static final String ELEMENT_INDEX = "element-index";
+    private static final String ELEMENT_FILE = "file";
+    private static final String ELEMENT_ELEMENT = "element";
+    private static final String ATTRIBUTE_URI = "uri";
+    private static final String ATTRIBUTE_ID = "id";
+    private static final String ATTRIBUTE_CLASS = "class";
+    private static final String ATTRIBUTE_TITLE = "title";
+    private static final String ATTRIBUTE_OFFSET = "offset";
+
+    private final Map<URI, Map<String, Element>> files = new ConcurrentHashMap<>();
+
+    /** Indexed element. */
+    public static final class Element {
+        /** Topic ID or {@code topicid/elementid} fragment. */
+        public final String id;
+        /** Class attribute value, may be {@code null}. */
+        public final String cls;
+        /** Title or navigation title snippet, may be {@code null}. */
+        public final String title;
+        /** Position of element start in document order, starting from {@code 0} for the root element. */
+        public final int offset;
+
+        public Element(final String id, final String cls, final String title, final int offset) {
+            this.id = id;
+            this.cls = cls;
+            this.title = title;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Element element = (Element) o;
+            return offset == element.offset &&
+                    id.equals(element.id) &&
+                    Objects.equals(cls, element.cls) &&
+                    Objects.equals(title, element.title);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, cls, title, offset);
+        }
+
+        @Override
+        public String toString() {
+            return "Element{id=" + id + ", class=" + cls + ", title=" + title + ", offset=" + offset + "}";
+        }
+    }
+
+    /**
+     * Set elements of a file, replacing previous elements of the file.
+     *
+     * @param file file URI relative to temporary directory
+     * @param elements elements in document order
+     */
+    public void put(final URI file, final Collection<Element> elements) {
+        final Map<String, Element> ids = new LinkedHashMap<>(elements.size());
+        for (final Element element : elements) {
+            ids.putIfAbsent(element.id, element);
+        }
+        files.put(file, Collections.unmodifiableMap(ids));
+    }
+
+    /**
+     * Add all files of another index, replacing elements of files in both indexes.
+     *
+     * @param index index to add
+     */
+    public void putAll(final ElementIndex index) {
+        files.putAll(index.files);
+    }
+
+    /**
+     * Remove file from index.
+     *
+     * @param file file URI relative to temporary directory
+     */
+    public void remove(final URI file) {
+        files.remove(file);
+    }
+
+    /**
+     * Test if file is indexed.
+     *
+     * @param file file URI relative to temporary directory
+     */
+    public boolean contains(final URI file) {
+        return files.containsKey(file);
+    }
+
+    /**
+     * Get elements of a file.
+     *
+     * @param file file URI relative to temporary directory
+     * @return elements in document order, empty if file is not indexed
+     */
+    public Collection<Element> get(final URI file) {
+        final Map<String, Element> ids = files.get(file);
+        return ids != null ? ids.values() : Collections.emptyList();
+    }
+
+    /**
+     * Find element by fragment.
+     *
+     * @param file file URI relative to temporary directory
+     * @param fragment topic ID or {@code topicid/elementid} fragment
+     * @return element, {@code null} if file is not indexed or has no matching element
+     */
+    public Element find(final URI file, final String fragment) {
+        final Map<String, Element> ids = files.get(file);
+        return ids != null ? ids.get(fragment) : null;
+    }
+
+    /**
+     * Find element by reference.
+     *
+     * @param href file URI relative to temporary directory with a fragment
+     * @return element, {@code null} if reference has no fragment, file is not indexed or has no matching element
+     */
+    public Element find(final URI href) {
+        final String fragment = href.getFragment();
+        if (fragment == null) {
+            return null;
+        }
+        return find(URLUtils.stripFragment(href), fragment);
+    }
+
+    /**
+     * Get indexed files.
+     */
+    public Set<URI> getFiles() {
+        return Collections.unmodifiableSet(files.keySet());
+    }
+
+    /**
+     * Read index from temporary directory.
+     *
+     * @param store store to read with
+     * @param tempDir temporary directory URI
+     * @return read index, empty if index file doesn't exist
+     * @throws IOException if reading index failed
+     */
+    public static ElementIndex read(final Store store, final URI tempDir) throws IOException {
+        final ElementIndex index = new ElementIndex();
+        final URI indexFile = tempDir.resolve(FILE_NAME);
+        if (store.exists(indexFile)) {
+            try {
+                store.transform(indexFile, index.getHandler());
+            } catch (final DITAOTException e) {
+                throw new IOException("Failed to read element index: " + e.getMessage(), e);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Read index from input source.
+     *
+     * @param in index input source
+     * @return read index
+     * @throws IOException if reading index failed
+     */
+    public static ElementIndex read(final InputSource in) throws IOException {
+        final ElementIndex index = new ElementIndex();
+        final XMLReader reader;
+        try {
+            reader = ParserPool.borrowXMLReader(ParserPool.Config.TEMPORARY);
+        } catch (final SAXException e) {
+            throw new IOException("Failed to create XML reader: " + e.getMessage(), e);
+        }
+        try {
+            reader.setContentHandler(index.getHandler());
+            reader.parse(in);
+        } catch (final SAXException e) {
+            throw new IOException("Failed to read element index: " + e.getMessage(), e);
+        } finally {
+            ParserPool.returnXMLReader(ParserPool.Config.TEMPORARY, reader);
+        }
+        return index;
+    }
+
+    /**
+     * Write index to temporary directory.
+     *
+     * @param store store to write with
+     * @param tempDir temporary directory URI
+     * @throws IOException if writing index failed
+     */
+    public void write(final Store store, final URI tempDir) throws IOException {
+        final URI indexFile = tempDir.resolve(FILE_NAME);
+        try (Writer outStream = new BufferedWriter(new OutputStreamWriter(store.getOutputStream(indexFile), "UTF-8"))) {
+            XMLStreamWriter out = null;
+            try {
+                out = XMLOutputFactory.newInstance().createXMLStreamWriter(outStream);
+                serialize(out);
+            } catch (final XMLStreamException e) {
+                throw new IOException("Failed to serialize element index: " + e.getMessage(), e);
+            } finally {
+                if (out != null) {
+                    try {
+                        out.close();
+                    } catch (final XMLStreamException e) {
+                        throw new IOException("Failed to close file: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void serialize(final XMLStreamWriter out) throws XMLStreamException {
+        out.writeStartDocument("UTF-8", "1.0");
+        out.writeStartElement(ELEMENT_INDEX);
+        final List<URI> uris = new ArrayList<>(files.keySet());
+        uris.sort(Comparator.comparing(URI::toString));
+        for (final URI uri : uris) {
+            out.writeStartElement(ELEMENT_FILE);
+            out.writeAttribute(ATTRIBUTE_URI, uri.toString());
+            for (final Element element : files.get(uri).values()) {
+                out.writeEmptyElement(ELEMENT_ELEMENT);
+                out.writeAttribute(ATTRIBUTE_ID, element.id);
+                if (element.cls != null) {
+                    out.writeAttribute(ATTRIBUTE_CLASS, element.cls);
+                }
+                if (element.title != null) {
+                    out.writeAttribute(ATTRIBUTE_TITLE, element.title);
+                }
+                out.writeAttribute(ATTRIBUTE_OFFSET, Integer.toString(element.offset));
+            }
+            out.writeEndElement();
+        }
+        out.writeEndElement();
+        out.writeEndDocument();
+    }
+
+    private ContentHandler getHandler() {
+        return new DefaultHandler() {
+            private URI file;
+            private List<Element> elements;
+
+            @Override
+            public void startElement(final String ns, final String localName, final String qName,
+                                     final Attributes atts) {
+                switch (qName) {
+                    case ELEMENT_FILE:
+                        file = toURI(atts.getValue(ATTRIBUTE_URI));
+                        elements = new ArrayList<>();
+                        break;
+                    case ELEMENT_ELEMENT:
+                        elements.add(new Element(atts.getValue(ATTRIBUTE_ID),
+                                atts.getValue(ATTRIBUTE_CLASS),
+                                atts.getValue(ATTRIBUTE_TITLE),
+                                Integer.parseInt(atts.getValue(ATTRIBUTE_OFFSET))));
+                        break;
+                }
+            }
+
+            @Override
+            public void endElement(final String ns, final String localName, final String qName) {
+                if (qName.equals(ELEMENT_FILE)) {
+                    put(file, elements);
+                    file = null;
+                    elements = null;
+                }
+            }
+        };
+    }
+}
@@ -16,6 +16,7 @@ import static org.dita.dost.util.Constants.*;
 import java.io.IOException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -57,7 +58,7 @@ public final class FilterUtils {
     /** Actions for filter keys. */
     private final Map<FilterKey, Action> filterMap;
     /** Set of filter keys for which an error has already been thrown. */
-    private final Set<FilterKey> notMappingRules = new HashSet<>();
+    private final Set<FilterKey> notMappingRules = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private boolean logMissingAction;
     private final String foregroundConflictColor;
     private final String backgroundConflictColor;
@@ -127,6 +128,32 @@ public final class FilterUtils {
         return filterMap.toString();
     }
 
+    /**
+     * Filters are equal if they have the same filter rules, conflict colors and filter and flag attributes. Logger
+     * and logging state are not compared.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final FilterUtils that = (FilterUtils) o;
+        return filterMap.equals(that.filterMap)
+                && Objects.equals(foregroundConflictColor, that.foregroundConflictColor)
+                && Objects.equals(backgroundConflictColor, that.backgroundConflictColor)
+                && Objects.equals(filterAttributes, that.filterAttributes)
+                && Objects.equals(flagAttributes, that.flagAttributes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filterMap, foregroundConflictColor, backgroundConflictColor, filterAttributes,
+                flagAttributes);
+    }
+
     private static Set<QName> getProfileAttributes(final String conf) {
         final ImmutableSet.Builder<QName> res = ImmutableSet.<QName>builder()
                 .add(QName.valueOf(ATTRIBUTE_NAME_AUDIENCE),
@@ -482,11 +509,7 @@ public final class FilterUtils {
     }
 
     private boolean alreadyShowed(final FilterKey notMappingKey) {
-        if (!notMappingRules.contains(notMappingKey)) {
-            notMappingRules.add(notMappingKey);
-            return false;
-        }
-        return true;
+        return !notMappingRules.add(notMappingKey);
     }
 
     /**
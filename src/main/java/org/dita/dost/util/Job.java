@@ -48,7 +48,8 @@ import static org.dita.dost.util.URLUtils.*;
  */
 public final class Job {
 
-    private static final String JOB_FILE = ".job.xml";
+    /** Default job configuration file name. */
+    public static final String JOB_FILE = ".job.xml";
 
     private static final String ELEMENT_JOB = "job";
     private static final String ATTRIBUTE_KEY = "key";
@@ -123,8 +124,14 @@ public final class Job {
     public final URI tempDirURI;
     private final File jobFile;
     private final Map<URI, FileInfo> files = new ConcurrentHashMap<>();
+    /** Interned source and result URIs of file info objects. */
+    private final PathTable paths = new PathTable();
     private long lastModified;
     private final Store store;
+    /** Job has been modified after it was read or last written. */
+    private volatile boolean modified;
+    /** Defer writes until {@link #flush()} is called. */
+    private boolean deferWrite;
 
     /**
      * Create new job configuration instance. Initialise by reading temporary configuration files.
@@ -135,6 +142,19 @@ public final class Job {
      * @throws IllegalStateException if configuration files are missing
      */
     public Job(final File tempDir, final Store store) throws IOException {
+        this(tempDir, store, JOB_FILE);
+    }
+
+    /**
+     * Create new job configuration instance that reads and writes an alternative job configuration file.
+     *
+     * @param tempDir temporary directory
+     * @param store IO store
+     * @param jobFileName job configuration file name in temporary directory
+     * @throws IOException if reading configuration files failed
+     * @since 3.7
+     */
+    public Job(final File tempDir, final Store store, final String jobFileName) throws IOException {
         if (!tempDir.isAbsolute()) {
             throw new IllegalArgumentException("Temporary directory " + tempDir + " must be absolute");
         }
@@ -142,12 +162,13 @@ public final class Job {
         this.store = store;
         final URI tmpDirUri = tempDir.toURI();
         tempDirURI = tmpDirUri.toString().endsWith("/") ? tmpDirUri : URI.create(tmpDirUri + "/");
-        jobFile = new File(tempDir, JOB_FILE);
+        jobFile = new File(tempDir, jobFileName);
         prop = new HashMap<>();
         read();
         for (Map.Entry<String, String> e : configuration.entrySet()) {
             if (!prop.containsKey(e.getKey())) {
                 prop.put(e.getKey(), e.getValue());
+                modified = true;
             }
         }
     }
@@ -159,6 +180,8 @@ public final class Job {
         this.jobFile = new File(tempDir, JOB_FILE);
         this.prop = prop;
         this.files.putAll(files.stream().collect(Collectors.toMap(fi -> fi.uri, Function.identity())));
+        this.files.values().forEach(this::intern);
+        this.modified = true;
     }
 
     public Store getStore() {
@@ -188,11 +211,14 @@ public final class Job {
             } catch (final DITAOTException e) {
                 throw new IOException("Failed to read job file: " + e.getMessage());
             }
+            files.values().forEach(this::intern);
+            modified = false;
         } else {
             // defaults
             prop.put(PROPERTY_GENERATE_COPY_OUTER, Generate.NOT_GENERATEOUTTER.toString());
             prop.put(PROPERTY_ONLY_TOPIC_IN_MAP, Boolean.toString(false));
             prop.put(PROPERTY_OUTER_CONTROL, OutterControl.WARN.toString());
+            modified = true;
         }
     }
 
@@ -305,11 +331,28 @@ public final class Job {
     }
 
     /**
-     * Store job into temporary configuration files.
+     * Store job into temporary configuration files. Write is skipped if neither properties nor file info objects
+     * have been modified since the job was read or last written, or if writes are deferred.
+     *
+     * @throws IOException if writing configuration files failed
+     * @see #setDeferWrite(boolean)
+     */
+    public synchronized void write() throws IOException {
+        if (!deferWrite) {
+            flush();
+        }
+    }
+
+    /**
+     * Store job into temporary configuration files if it has been modified, regardless of whether writes
+     * are deferred.
      *
      * @throws IOException if writing configuration files failed
      */
-    public void write() throws IOException {
+    public synchronized void flush() throws IOException {
+        if (!isModified() && !isStale()) {
+            return;
+        }
         try (Writer outStream = new BufferedWriter(new OutputStreamWriter(getStore().getOutputStream(jobFile.toURI())))) {
             XMLStreamWriter out = null;
             try {
@@ -330,6 +373,28 @@ public final class Job {
             throw new IOException("Failed to write file: " + e.getMessage());
         }
         lastModified = getStore().getLastModified(jobFile.toURI());
+        modified = false;
+    }
+
+    /**
+     * Defer writes. While writes are deferred, {@link #write()} doesn't store the job and modifications are
+     * coalesced until {@link #flush()} is called. Used to avoid rewriting the job file after every module in
+     * a pipeline.
+     *
+     * @param deferWrite {@code true} to defer writes, {@code false} to write immediately
+     */
+    public synchronized void setDeferWrite(final boolean deferWrite) {
+        this.deferWrite = deferWrite;
+    }
+
+    /**
+     * Test if job has been modified after it was read or last written. Changes to file info fields are only
+     * detected after the file info has been added back with {@link #add(FileInfo)}.
+     *
+     * @return {@code true} if job has unwritten modifications
+     */
+    public boolean isModified() {
+        return modified;
     }
 
     public Document serialize() throws IOException {
@@ -414,10 +479,21 @@ public final class Job {
     }
 
     /**
-     * Add file info. If file info with the same file already exists, it will be replaced.
+     * Add file info. If file info with the same file already exists, it will be replaced. Add file info again
+     * after changing its fields to mark the job modified.
      */
     public void add(final FileInfo fileInfo) {
+        intern(fileInfo);
         files.put(fileInfo.uri, fileInfo);
+        modified = true;
+    }
+
+    /**
+     * Replace source and result URIs with interned instances, so that file info objects share equal URIs.
+     */
+    private void intern(final FileInfo fileInfo) {
+        fileInfo.src = paths.intern(fileInfo.src);
+        fileInfo.result = paths.intern(fileInfo.result);
     }
 
     /**
@@ -426,7 +502,11 @@ public final class Job {
      * @return removed file info, {@code null} if not found
      */
     public FileInfo remove(final FileInfo fileInfo) {
-        return files.remove(fileInfo.uri);
+        final FileInfo removed = files.remove(fileInfo.uri);
+        if (removed != null) {
+            modified = true;
+        }
+        return removed;
     }
 
     /**
@@ -462,9 +542,25 @@ public final class Job {
      * @return the previous value of the specified key in this property list, or {@code null} if it did not have one
      */
     public Object setProperty(final String key, final String value) {
+        modified = true;
         return prop.put(key, value);
     }
 
+    /**
+     * Remove property.
+     *
+     * @param key property key
+     * @return the previous value of the specified key in this property list, or {@code null} if it did not have one
+     * @since 3.7
+     */
+    public Object removeProperty(final String key) {
+        final Object removed = prop.remove(key);
+        if (removed != null) {
+            modified = true;
+        }
+        return removed;
+    }
+
     /**
      * Get input file
      *
@@ -911,7 +1007,7 @@ public final class Job {
      * @param control control
      */
     public void setOutterControl(final String control) {
-        prop.put(PROPERTY_OUTER_CONTROL, OutterControl.valueOf(control.toUpperCase()).toString());
+        setProperty(PROPERTY_OUTER_CONTROL, OutterControl.valueOf(control.toUpperCase()).toString());
     }
 
     /**
@@ -938,7 +1034,7 @@ public final class Job {
      * @param flag onlytopicinmap flag
      */
     public void setOnlyTopicInMap(final boolean flag) {
-        prop.put(PROPERTY_ONLY_TOPIC_IN_MAP, Boolean.toString(flag));
+        setProperty(PROPERTY_ONLY_TOPIC_IN_MAP, Boolean.toString(flag));
     }
     
     /**
@@ -947,7 +1043,7 @@ public final class Job {
      */
     public void setCrawl(final String crawlvalue) {
         if (crawlvalue != null) {
-            prop.put(PROPERTY_LINK_CRAWLER, crawlvalue);
+            setProperty(PROPERTY_LINK_CRAWLER, crawlvalue);
         }
     }
 
@@ -968,7 +1064,7 @@ public final class Job {
      * @param flag generatecopyouter flag
      */
     public void setGeneratecopyouter(final Generate flag) {
-        prop.put(PROPERTY_GENERATE_COPY_OUTER, flag.toString());
+        setProperty(PROPERTY_GENERATE_COPY_OUTER, flag.toString());
     }
 
     /**
@@ -987,7 +1083,7 @@ public final class Job {
      * @param outputDir absolute output dir
      */
     public void setOutputDir(final File outputDir) {
-        prop.put(PROPERTY_OUTPUT_DIR, outputDir.getAbsolutePath());
+        setProperty(PROPERTY_OUTPUT_DIR, outputDir.getAbsolutePath());
     }
 
     /**
@@ -1015,10 +1111,10 @@ public final class Job {
      */
     public void setInputFile(final URI inputFile) {
         assert inputFile.isAbsolute();
-        prop.put(PROPERTY_INPUT_MAP_URI, inputFile.toString());
+        setProperty(PROPERTY_INPUT_MAP_URI, inputFile.toString());
         // Deprecated since 2.1
         if (inputFile.getScheme().equals("file")) {
-            prop.put(PROPERTY_INPUT_MAP, new File(inputFile).getAbsolutePath());
+            setProperty(PROPERTY_INPUT_MAP, new File(inputFile).getAbsolutePath());
         }
     }
 
@@ -7,11 +7,10 @@
  */
 package org.dita.dost.util;
 
-import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
@@ -19,6 +18,10 @@ import static java.util.Collections.unmodifiableMap;
 /**
  * Immutable key store for keys and child key scopes.
  *
+ * <p>Key definitions inherited from ancestor scopes should be passed as an {@link #overlay(List) overlay} of the
+ * parent key definitions and local key definitions. The overlay shares the parent definitions instead of copying
+ * them, so memory use grows with the number of key definitions, not with the number of scopes.</p>
+ *
  * @since 2.2
  */
 public class KeyScope {
@@ -30,12 +33,24 @@ public class KeyScope {
     public final String name;
     public final Map<String, KeyDef> keyDefinition;
     public final List<KeyScope> childScopes;
+    private final Map<String, KeyScope> childScopeIndex;
 
     public KeyScope(final String id, final String name, final Map<String, KeyDef> keyDefinition, final List<KeyScope> childScopes) {
         this.id = id;
         this.name = name;
-        this.keyDefinition = unmodifiableMap(keyDefinition);
+        this.keyDefinition = keyDefinition instanceof OverlayMap ? keyDefinition : unmodifiableMap(keyDefinition);
         this.childScopes = unmodifiableList(new ArrayList<>(childScopes));
+        if (childScopes.isEmpty()) {
+            this.childScopeIndex = Collections.emptyMap();
+        } else {
+            final Map<String, KeyScope> index = new HashMap<>(childScopes.size() * 2);
+            for (final KeyScope childScope : childScopes) {
+                if (childScope.name != null) {
+                    index.putIfAbsent(childScope.name, childScope);
+                }
+            }
+            this.childScopeIndex = index;
+        }
     }
 
     public KeyDef get(final String key) {
@@ -47,7 +62,7 @@ public class KeyScope {
     }
 
     public KeyScope getChildScope(final String scope) {
-        return childScopes.stream().filter(s -> s.name.equals(scope)).findFirst().orElse(null);
+        return childScopeIndex.get(scope);
     }
 
     @Override
@@ -87,4 +102,112 @@ public class KeyScope {
                         .build()
         );
     }
+
+    /**
+     * Create a read-only view of key definitions that layers multiple key definition maps. A key definition in an
+     * earlier layer takes precedence over a definition in a later layer. The layers are not copied and must not be
+     * modified after the view has been created.
+     *
+     * @param layers key definition maps in order of precedence
+     * @return key definition view
+     * @since 3.7
+     */
+    public static Map<String, KeyDef> overlay(final List<Map<String, KeyDef>> layers) {
+        final List<Map<String, KeyDef>> nonEmpty = new ArrayList<>(layers.size());
+        for (final Map<String, KeyDef> layer : layers) {
+            if (!layer.isEmpty()) {
+                nonEmpty.add(layer);
+            }
+        }
+        switch (nonEmpty.size()) {
+            case 0:
+                return Collections.emptyMap();
+            case 1:
+                return nonEmpty.get(0);
+            default:
+                return new OverlayMap(nonEmpty);
+        }
+    }
+
+    /**
+     * Read-only layered key definition map.
+     */
+    private static final class OverlayMap extends AbstractMap<String, KeyDef> {
+
+        private final List<Map<String, KeyDef>> layers;
+        private Set<Entry<String, KeyDef>> entrySet;
+        private int size = -1;
+
+        private OverlayMap(final List<Map<String, KeyDef>> layers) {
+            this.layers = layers;
+        }
+
+        @Override
+        public KeyDef get(final Object key) {
+            for (final Map<String, KeyDef> layer : layers) {
+                final KeyDef value = layer.get(key);
+                if (value != null || layer.containsKey(key)) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            for (final Map<String, KeyDef> layer : layers) {
+                if (layer.containsKey(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            if (size == -1) {
+                int count = 0;
+                for (int i = 0; i < layers.size(); i++) {
+                    for (final String key : layers.get(i).keySet()) {
+                        if (!isShadowed(key, i)) {
+                            count++;
+                        }
+                    }
+                }
+                size = count;
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, KeyDef>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new AbstractSet<Entry<String, KeyDef>>() {
+                    @Override
+                    public Iterator<Entry<String, KeyDef>> iterator() {
+                        return IntStream.range(0, layers.size()).boxed()
+                                .flatMap(i -> layers.get(i).entrySet().stream()
+                                        .filter(e -> !isShadowed(e.getKey(), i)))
+                                .map(e -> (Entry<String, KeyDef>) new SimpleImmutableEntry<>(e))
+                                .iterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return OverlayMap.this.size();
+                    }
+                };
+            }
+            return entrySet;
+        }
+
+        private boolean isShadowed(final String key, final int layer) {
+            for (int i = 0; i < layer; i++) {
+                if (layers.get(i).containsKey(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,213 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import org.dita.dost.store.Store;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dita.dost.util.Constants.ATTRIBUTE_NAME_CLASS;
+import static org.dita.dost.util.Constants.ATTRIBUTE_NAME_ID;
+import static org.dita.dost.util.URLUtils.setFragment;
+import static org.dita.dost.util.URLUtils.toURI;
+
+/**
+ * Table of link target topics for link text and short description retrieval.
+ *
+ * <p>Only topics whose title and short description are plain text are stored. Each topic is stored as a minimal
+ * topic element that only contains the title and the short description, so it can be used in place of the
+ * original topic when generating link text. Files are keyed by URI relative to the temporary directory, i.e.
+ * {@link Job.FileInfo#uri}.</p>
+ *
+ * <p>The table is stored in {@link #FILE_NAME} in the temporary directory. Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class LinkTargetTable {
+
+    /** Table file name in temporary directory. */
+    public static final String FILE_NAME = ".link-targets.xml";
+
+    private static final String ELEMENT_LINK_TARGETS = "link-targets";
+    private static final String ELEMENT_FILE = "file";
+    private static final String ELEMENT_TITLE = "title";
+    private static final String ELEMENT_SHORTDESC = "shortdesc";
+    private static final String ATTRIBUTE_URI = "uri";
+    private static final String ATTRIBUTE_FIRST = "first";
+
+    private final Map<URI, FileEntry> files = new ConcurrentHashMap<>();
+
+    /** Link target topic. */
+    public static final class Target {
+        /** Topic ID. */
+        public final String id;
+        /** Topic element name. */
+        public final String name;
+        /** Topic class attribute value. */
+        public final String cls;
+        /** Title text. */
+        public final String title;
+        /** Title class attribute value. */
+        public final String titleClass;
+        /** Short description text, {@code null} if topic has no short description. */
+        public final String shortdesc;
+        /** Short description class attribute value, {@code null} if topic has no short description. */
+        public final String shortdescClass;
+
+        public Target(final String id, final String name, final String cls,
+                      final String title, final String titleClass,
+                      final String shortdesc, final String shortdescClass) {
+            this.id = id;
+            this.name = name;
+            this.cls = cls;
+            this.title = title;
+            this.titleClass = titleClass;
+            this.shortdesc = shortdesc;
+            this.shortdescClass = shortdescClass;
+        }
+    }
+
+    private static final class FileEntry {
+        final String first;
+        final Collection<Target> targets;
+
+        FileEntry(final String first, final Collection<Target> targets) {
+            this.first = first;
+            this.targets = targets;
+        }
+    }
+
+    /**
+     * Set target topics of a file, replacing previous topics of the file.
+     *
+     * @param file file URI relative to temporary directory
+     * @param first ID of the first topic in the file, may be {@code null}
+     * @param targets topics in document order, duplicate IDs are ignored
+     */
+    public void put(final URI file, final String first, final Collection<Target> targets) {
+        final Map<String, Target> ids = new LinkedHashMap<>(targets.size());
+        for (final Target target : targets) {
+            ids.putIfAbsent(target.id, target);
+        }
+        files.put(file, new FileEntry(first, new ArrayList<>(ids.values())));
+    }
+
+    /**
+     * Get number of files in table.
+     */
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * Write table to temporary directory.
+     *
+     * @param store store to write with
+     * @param tempDir temporary directory URI
+     * @throws IOException if writing table failed
+     */
+    public void write(final Store store, final URI tempDir) throws IOException {
+        final URI tableFile = tempDir.resolve(FILE_NAME);
+        try (Writer outStream = new BufferedWriter(new OutputStreamWriter(store.getOutputStream(tableFile), "UTF-8"))) {
+            XMLStreamWriter out = null;
+            try {
+                out = XMLOutputFactory.newInstance().createXMLStreamWriter(outStream);
+                serialize(out);
+            } catch (final XMLStreamException e) {
+                throw new IOException("Failed to serialize link target table: " + e.getMessage(), e);
+            } finally {
+                if (out != null) {
+                    try {
+                        out.close();
+                    } catch (final XMLStreamException e) {
+                        throw new IOException("Failed to close file: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void serialize(final XMLStreamWriter out) throws XMLStreamException {
+        out.writeStartDocument("UTF-8", "1.0");
+        out.writeStartElement(ELEMENT_LINK_TARGETS);
+        final List<URI> uris = new ArrayList<>(files.keySet());
+        uris.sort(Comparator.comparing(URI::toString));
+        for (final URI uri : uris) {
+            final FileEntry file = files.get(uri);
+            out.writeStartElement(ELEMENT_FILE);
+            out.writeAttribute(ATTRIBUTE_URI, uri.toString());
+            if (file.first != null) {
+                out.writeAttribute(ATTRIBUTE_FIRST, file.first);
+            }
+            for (final Target target : file.targets) {
+                out.writeStartElement(target.name);
+                out.writeAttribute(ATTRIBUTE_NAME_CLASS, target.cls);
+                out.writeAttribute(ATTRIBUTE_NAME_ID, target.id);
+                out.writeStartElement(ELEMENT_TITLE);
+                out.writeAttribute(ATTRIBUTE_NAME_CLASS, target.titleClass);
+                out.writeCharacters(target.title);
+                out.writeEndElement();
+                if (target.shortdesc != null) {
+                    out.writeStartElement(ELEMENT_SHORTDESC);
+                    out.writeAttribute(ATTRIBUTE_NAME_CLASS, target.shortdescClass);
+                    out.writeCharacters(target.shortdesc);
+                    out.writeEndElement();
+                }
+                out.writeEndElement();
+            }
+            out.writeEndElement();
+        }
+        out.writeEndElement();
+        out.writeEndDocument();
+    }
+
+    /**
+     * Index parsed table document. Topics are keyed by {@code file#topicid} and the first topic of a file also by
+     * {@code file}, where file is relative to the temporary directory.
+     *
+     * @param doc table document
+     * @return topic elements by reference
+     */
+    public static Map<URI, XdmNode> index(final XdmNode doc) {
+        final Map<URI, XdmNode> res = new HashMap<>();
+        for (final XdmNode root : doc.children()) {
+            if (root.getNodeKind() != XdmNodeKind.ELEMENT) {
+                continue;
+            }
+            for (final XdmNode file : root.children()) {
+                if (file.getNodeKind() != XdmNodeKind.ELEMENT) {
+                    continue;
+                }
+                final URI uri = toURI(file.attribute(ATTRIBUTE_URI));
+                final String first = file.attribute(ATTRIBUTE_FIRST);
+                for (final XdmNode topic : file.children()) {
+                    if (topic.getNodeKind() != XdmNodeKind.ELEMENT) {
+                        continue;
+                    }
+                    final String id = topic.attribute(ATTRIBUTE_NAME_ID);
+                    res.put(setFragment(uri, id), topic);
+                    if (id.equals(first)) {
+                        res.put(uri, topic);
+                    }
+                }
+            }
+        }
+        return res;
+    }
+}
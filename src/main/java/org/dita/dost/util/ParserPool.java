@@ -0,0 +1,367 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.dita.dost.reader.GrammarPoolManager;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dita.dost.util.Constants.*;
+
+/**
+ * Pools of preconfigured SAX parsers and DOM document builders.
+ *
+ * <p>Parsers and builders are pooled per {@link Config configuration}. A borrowed instance is configured according
+ * to its configuration and must be returned with the same configuration. Returned instances are reset: handlers,
+ * entity resolver and lexical handler are restored, so state set by the borrower does not leak to the next borrower.
+ * Borrowers must not change features or properties that are not part of the configuration.</p>
+ *
+ * <pre>{@code
+ * final XMLReader reader = ParserPool.borrowXMLReader(Config.DEFAULT);
+ * try {
+ *     reader.setContentHandler(handler);
+ *     reader.parse(systemId);
+ * } finally {
+ *     ParserPool.returnXMLReader(Config.DEFAULT, reader);
+ * }
+ * }</pre>
+ *
+ * @since 3.7
+ */
+public final class ParserPool {
+
+    private static final String PROPERTY_LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+    private static final String PROPERTY_GRAMMAR_POOL = "http://apache.org/xml/properties/internal/grammar-pool";
+    private static final String PROPERTY_INPUT_BUFFER_SIZE = "http://apache.org/xml/properties/input-buffer-size";
+    private static final String FEATURE_LOAD_EXTERNAL_DTD = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+    private static final String FEATURE_EXTERNAL_GENERAL_ENTITIES = "http://xml.org/sax/features/external-general-entities";
+    private static final String FEATURE_EXTERNAL_PARAMETER_ENTITIES = "http://xml.org/sax/features/external-parameter-entities";
+    /** Input buffer size in bytes for temporary file parsers. */
+    public static final int TEMPORARY_INPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<Config, Pool<XMLReader>> readers = new ConcurrentHashMap<>();
+    private static final Map<Config, Pool<DocumentBuilder>> builders = new ConcurrentHashMap<>();
+
+    private ParserPool() {
+    }
+
+    /**
+     * Parser configuration.
+     */
+    public static final class Config {
+
+        /** Namespace-aware, non-validating parser without entity resolver. */
+        public static final Config DEFAULT = new Config(false, true, false, false, false, false, null,
+                Collections.emptyMap());
+        /** Namespace-aware parser for normalized temporary files. */
+        public static final Config TEMPORARY = DEFAULT.temporary(true);
+
+        public final boolean validating;
+        public final boolean namespaceAware;
+        public final boolean grammarPool;
+        public final boolean catalog;
+        public final boolean temporary;
+        public final boolean namespacePrefixes;
+        /** Parser class name, {@code null} for JAXP default parser. */
+        public final String parser;
+        /** Additional parser features. */
+        public final Map<String, Boolean> features;
+
+        private Config(final boolean validating, final boolean namespaceAware, final boolean grammarPool,
+                       final boolean catalog, final boolean temporary, final boolean namespacePrefixes,
+                       final String parser, final Map<String, Boolean> features) {
+            this.validating = validating;
+            this.namespaceAware = namespaceAware;
+            this.grammarPool = grammarPool;
+            this.catalog = catalog;
+            this.temporary = temporary;
+            this.namespacePrefixes = namespacePrefixes;
+            this.parser = parser;
+            this.features = features;
+        }
+
+        /** Validate against DTD or schema. */
+        public Config validating(final boolean validating) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /** Namespace-aware parsing. */
+        public Config namespaceAware(final boolean namespaceAware) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /** Cache DTD and schema grammars in Xerces grammar pool. */
+        public Config grammarPool(final boolean grammarPool) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /** Resolve entities with catalog resolver. */
+        public Config catalog(final boolean catalog) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /**
+         * Parse trusted, normalized temporary files. External DTD and external entities are not loaded, so DTD
+         * default attributes are not added, and input is read with {@link #TEMPORARY_INPUT_BUFFER_SIZE large
+         * buffers}. Not to be used with validation or source files.
+         */
+        public Config temporary(final boolean temporary) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /** Report namespace declarations as attributes. */
+        public Config namespacePrefixes(final boolean namespacePrefixes) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /**
+         * SAX parser implementation. Instances are created with the public no-argument constructor of the class
+         * instead of JAXP. Not used for document builders.
+         *
+         * @param parser parser class name, {@code null} for JAXP default parser
+         */
+        public Config parser(final String parser) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        /**
+         * Additional SAX parser features. Features not recognized or supported by the parser are ignored. Not used
+         * for document builders.
+         *
+         * @param features feature values by feature name
+         */
+        public Config features(final Map<String, Boolean> features) {
+            return new Config(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, Collections.unmodifiableMap(new HashMap<>(features)));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Config config = (Config) o;
+            return validating == config.validating &&
+                    namespaceAware == config.namespaceAware &&
+                    grammarPool == config.grammarPool &&
+                    catalog == config.catalog &&
+                    temporary == config.temporary &&
+                    namespacePrefixes == config.namespacePrefixes &&
+                    Objects.equals(parser, config.parser) &&
+                    features.equals(config.features);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(validating, namespaceAware, grammarPool, catalog, temporary, namespacePrefixes,
+                    parser, features);
+        }
+
+        @Override
+        public String toString() {
+            return "Config{validating=" + validating + ", namespaceAware=" + namespaceAware
+                    + ", grammarPool=" + grammarPool + ", catalog=" + catalog + ", temporary=" + temporary
+                    + ", namespacePrefixes=" + namespacePrefixes + ", parser=" + parser + ", features=" + features
+                    + "}";
+        }
+    }
+
+    /**
+     * Borrow SAX parser from pool.
+     *
+     * @param config parser configuration
+     * @return configured parser
+     * @throws SAXException if creating parser failed
+     */
+    public static XMLReader borrowXMLReader(final Config config) throws SAXException {
+        final XMLReader reader;
+        try {
+            reader = readers.computeIfAbsent(config, ParserPool::createReaderPool).borrowObject();
+        } catch (final IllegalStateException e) {
+            throw new SAXException(e.getMessage(), e.getCause() instanceof Exception ? (Exception) e.getCause() : null);
+        }
+        if (config.grammarPool) {
+            setGrammarPool(reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Return SAX parser to pool. Parser is reset before it's made available to other borrowers.
+     *
+     * @param config parser configuration used to borrow the parser
+     * @param reader parser to return
+     */
+    public static void returnXMLReader(final Config config, final XMLReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.setContentHandler(null);
+            reader.setDTDHandler(null);
+            reader.setErrorHandler(null);
+            reader.setEntityResolver(config.catalog ? CatalogUtils.getCatalogResolver() : null);
+            setProperty(reader, PROPERTY_LEXICAL_HANDLER, null);
+        } catch (final RuntimeException e) {
+            // Parser cannot be reset, let it be garbage collected
+            return;
+        }
+        readers.get(config).returnObject(reader);
+    }
+
+    /**
+     * Borrow DOM document builder from pool.
+     *
+     * @param config builder configuration
+     * @return configured document builder
+     */
+    public static DocumentBuilder borrowDocumentBuilder(final Config config) {
+        return builders.computeIfAbsent(config, ParserPool::createBuilderPool).borrowObject();
+    }
+
+    /**
+     * Return DOM document builder to pool. Builder is reset before it's made available to other borrowers.
+     *
+     * @param config builder configuration used to borrow the builder
+     * @param builder document builder to return
+     */
+    public static void returnDocumentBuilder(final Config config, final DocumentBuilder builder) {
+        if (builder == null) {
+            return;
+        }
+        try {
+            builder.reset();
+            builder.setErrorHandler(null);
+            builder.setEntityResolver(config.catalog ? CatalogUtils.getCatalogResolver() : null);
+        } catch (final RuntimeException e) {
+            // Builder cannot be reset, let it be garbage collected
+            return;
+        }
+        builders.get(config).returnObject(builder);
+    }
+
+    private static Pool<XMLReader> createReaderPool(final Config config) {
+        final SAXParserFactory factory;
+        if (config.parser == null) {
+            factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(config.namespaceAware);
+            factory.setValidating(config.validating);
+        } else {
+            factory = null;
+        }
+        return new Pool<>(() -> {
+            try {
+                XMLReader reader;
+                if (factory != null) {
+                    reader = factory.newSAXParser().getXMLReader();
+                } else {
+                    reader = (XMLReader) Class.forName(config.parser).newInstance();
+                    setFeature(reader, FEATURE_NAMESPACE, config.namespaceAware);
+                    setFeature(reader, FEATURE_VALIDATION, config.validating);
+                }
+                if (config.validating) {
+                    setFeature(reader, FEATURE_VALIDATION_SCHEMA, true);
+                }
+                if (config.namespacePrefixes) {
+                    setFeature(reader, FEATURE_NAMESPACE_PREFIX, true);
+                }
+                for (final Map.Entry<String, Boolean> feature : config.features.entrySet()) {
+                    setFeature(reader, feature.getKey(), feature.getValue());
+                }
+                if (config.catalog) {
+                    reader.setEntityResolver(CatalogUtils.getCatalogResolver());
+                }
+                if (config.temporary) {
+                    setFeature(reader, FEATURE_LOAD_EXTERNAL_DTD, false);
+                    setFeature(reader, FEATURE_EXTERNAL_GENERAL_ENTITIES, false);
+                    setFeature(reader, FEATURE_EXTERNAL_PARAMETER_ENTITIES, false);
+                    setProperty(reader, PROPERTY_INPUT_BUFFER_SIZE, TEMPORARY_INPUT_BUFFER_SIZE);
+                }
+                if (Configuration.DEBUG) {
+                    reader = new XMLUtils.DebugXMLReader(reader);
+                }
+                return reader;
+            } catch (final ParserConfigurationException | SAXException e) {
+                throw new IllegalStateException("Failed to create XML reader: " + e.getMessage(), e);
+            } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException
+                    | ClassCastException e) {
+                throw new IllegalStateException("Failed to create XML reader " + config.parser + ": "
+                        + e.getMessage(), e);
+            }
+        });
+    }
+
+    private static Pool<DocumentBuilder> createBuilderPool(final Config config) {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(config.namespaceAware);
+        factory.setValidating(config.validating);
+        return new Pool<>(() -> {
+            try {
+                DocumentBuilder builder = factory.newDocumentBuilder();
+                if (Configuration.DEBUG) {
+                    builder = new XMLUtils.DebugDocumentBuilder(builder);
+                }
+                if (config.catalog) {
+                    builder.setEntityResolver(CatalogUtils.getCatalogResolver());
+                }
+                return builder;
+            } catch (final ParserConfigurationException e) {
+                throw new IllegalStateException("Failed to create document builder: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Set current thread's grammar pool, because grammar pools are managed per thread.
+     */
+    private static void setGrammarPool(final XMLReader reader) {
+        try {
+            reader.setProperty(PROPERTY_GRAMMAR_POOL, GrammarPoolManager.getGrammarPool());
+        } catch (final NoClassDefFoundError | SAXNotRecognizedException | SAXNotSupportedException e) {
+            // Xerces not available, not using grammar caching
+        }
+    }
+
+    private static void setFeature(final XMLReader reader, final String name, final boolean value) {
+        try {
+            reader.setFeature(name, value);
+        } catch (final SAXNotRecognizedException | SAXNotSupportedException e) {
+            // Not Xerces, ignore exception
+        }
+    }
+
+    private static void setProperty(final XMLReader reader, final String name, final Object value) {
+        try {
+            reader.setProperty(name, value);
+        } catch (final SAXNotRecognizedException | SAXNotSupportedException e) {
+            // Not Xerces, ignore exception
+        }
+    }
+}
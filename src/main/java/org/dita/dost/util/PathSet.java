@@ -0,0 +1,137 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import java.net.URI;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of paths stored as a bit set of {@link PathTable} IDs. Sets that share a path table store each path once,
+ * and membership costs a single bit per path in the table.
+ *
+ * <p>Iteration order is the order in which paths were added to the path table. Iterators work on a snapshot
+ * of the set and never throw {@link java.util.ConcurrentModificationException}. Null elements are not
+ * supported.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class PathSet extends AbstractSet<URI> {
+
+    private final PathTable table;
+    /** Path IDs, guarded by this. */
+    private final BitSet ids = new BitSet();
+    /** Number of paths, guarded by this. */
+    private int size;
+
+    /**
+     * Create new empty set.
+     *
+     * @param table path table shared by sets
+     */
+    public PathSet(final PathTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public boolean add(final URI path) {
+        final int id = table.id(path);
+        synchronized (this) {
+            if (ids.get(id)) {
+                return false;
+            }
+            ids.set(id);
+            size++;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if (!(o instanceof URI)) {
+            return false;
+        }
+        final int id = table.find((URI) o);
+        if (id == -1) {
+            return false;
+        }
+        synchronized (this) {
+            return ids.get(id);
+        }
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (!(o instanceof URI)) {
+            return false;
+        }
+        final int id = table.find((URI) o);
+        if (id == -1) {
+            return false;
+        }
+        synchronized (this) {
+            if (!ids.get(id)) {
+                return false;
+            }
+            ids.clear(id);
+            size--;
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        ids.clear();
+        size = 0;
+    }
+
+    @Override
+    public Iterator<URI> iterator() {
+        final BitSet snapshot;
+        synchronized (this) {
+            snapshot = (BitSet) ids.clone();
+        }
+        return new Iterator<URI>() {
+            private int next = snapshot.nextSetBit(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public URI next() {
+                if (next == -1) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = snapshot.nextSetBit(next + 1);
+                return table.get(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == -1) {
+                    throw new IllegalStateException();
+                }
+                PathSet.this.remove(table.get(last));
+                last = -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of interned paths. Each distinct path is stored once and assigned a dense integer ID, so that sets of paths
+ * can be stored as bit sets and equal paths share a single {@link URI} instance.
+ *
+ * <p>IDs are never reused or removed, the table lives as long as its owner, e.g. a pipeline module or job.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class PathTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<URI, Integer> ids = new ConcurrentHashMap<>();
+    private volatile URI[] paths = new URI[INITIAL_CAPACITY];
+    /** Number of paths, guarded by this. */
+    private int size;
+
+    /**
+     * Get ID of path, adding the path to the table if it's not already in it.
+     *
+     * @param path path to intern
+     * @return path ID
+     */
+    public int id(final URI path) {
+        final Integer id = ids.get(path);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            Integer res = ids.get(path);
+            if (res == null) {
+                if (size == paths.length) {
+                    paths = Arrays.copyOf(paths, size * 2);
+                }
+                paths[size] = path;
+                res = size++;
+                ids.put(path, res);
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Find ID of path without adding it to the table.
+     *
+     * @param path path to find
+     * @return path ID, {@code -1} if path is not in the table
+     */
+    public int find(final URI path) {
+        final Integer id = ids.get(path);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Get path by ID.
+     *
+     * @param id path ID
+     * @return interned path
+     */
+    public URI get(final int id) {
+        return paths[id];
+    }
+
+    /**
+     * Get interned instance of path.
+     *
+     * @param path path to intern, may be {@code null}
+     * @return interned path equal to argument, {@code null} if argument was {@code null}
+     */
+    public URI intern(final URI path) {
+        return path != null ? get(id(path)) : null;
+    }
+
+    /**
+     * Get number of paths in table.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+
+package org.dita.dost.util;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.LocatorImpl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact recording of a SAX event stream.
+ *
+ * <p>Unlike {@link SaxCache}, which stores an object per event, events are stored in a single integer array. Names,
+ * namespace URIs and attribute values are stored once in a shared string table, and character data in a single
+ * character array. Replaying doesn't allocate objects per event: attributes are passed to the handler as a view over
+ * the recording.</p>
+ *
+ * <p>Comments are recorded and replayed to handlers that implement {@link LexicalHandler}. DTD events, entity
+ * boundaries and CDATA section boundaries are not recorded.</p>
+ *
+ * <p>Instances are immutable and can be replayed concurrently.</p>
+ *
+ * @since 3.7
+ */
+public final class SaxBuffer {
+
+    private static final int START_DOCUMENT = 0;
+    private static final int END_DOCUMENT = 1;
+    private static final int START_PREFIX_MAPPING = 2;
+    private static final int END_PREFIX_MAPPING = 3;
+    private static final int START_ELEMENT = 4;
+    private static final int END_ELEMENT = 5;
+    private static final int CHARACTERS = 6;
+    private static final int IGNORABLE_WHITESPACE = 7;
+    private static final int PROCESSING_INSTRUCTION = 8;
+    private static final int COMMENT = 9;
+
+    /** String table index for {@code null}. */
+    private static final int NULL = -1;
+    /** Number of integers per attribute: URI, local name, qualified name, type, and value. */
+    private static final int ATTRIBUTE_SIZE = 5;
+
+    /** Event codes and operands. */
+    private final int[] events;
+    private final int eventsLength;
+    private final String[] strings;
+    private final char[] text;
+
+    private SaxBuffer(final Recorder recorder) {
+        events = recorder.events;
+        eventsLength = recorder.eventsLength;
+        strings = recorder.strings;
+        text = recorder.text;
+    }
+
+    /**
+     * Replay recorded events.
+     *
+     * @param handler handler to send events to
+     * @param systemId system ID of the document, may be {@code null}
+     * @throws SAXException if handler throws an exception
+     */
+    public void replay(final ContentHandler handler, final String systemId) throws SAXException {
+        final LexicalHandler lexicalHandler = handler instanceof LexicalHandler ? (LexicalHandler) handler : null;
+        final LocatorImpl locator = new LocatorImpl();
+        locator.setSystemId(systemId);
+        handler.setDocumentLocator(locator);
+        final BufferAttributes atts = new BufferAttributes();
+        int i = 0;
+        while (i < eventsLength) {
+            switch (events[i++]) {
+                case START_DOCUMENT:
+                    handler.startDocument();
+                    break;
+                case END_DOCUMENT:
+                    handler.endDocument();
+                    break;
+                case START_PREFIX_MAPPING:
+                    handler.startPrefixMapping(string(events[i]), string(events[i + 1]));
+                    i += 2;
+                    break;
+                case END_PREFIX_MAPPING:
+                    handler.endPrefixMapping(string(events[i]));
+                    i += 1;
+                    break;
+                case START_ELEMENT: {
+                    final int count = events[i + 3];
+                    atts.offset = i + 4;
+                    atts.length = count;
+                    handler.startElement(string(events[i]), string(events[i + 1]), string(events[i + 2]), atts);
+                    i += 4 + count * ATTRIBUTE_SIZE;
+                    break;
+                }
+                case END_ELEMENT:
+                    handler.endElement(string(events[i]), string(events[i + 1]), string(events[i + 2]));
+                    i += 3;
+                    break;
+                case CHARACTERS:
+                    handler.characters(text, events[i], events[i + 1]);
+                    i += 2;
+                    break;
+                case IGNORABLE_WHITESPACE:
+                    handler.ignorableWhitespace(text, events[i], events[i + 1]);
+                    i += 2;
+                    break;
+                case PROCESSING_INSTRUCTION:
+                    handler.processingInstruction(string(events[i]), string(events[i + 1]));
+                    i += 2;
+                    break;
+                case COMMENT:
+                    if (lexicalHandler != null) {
+                        lexicalHandler.comment(text, events[i], events[i + 1]);
+                    }
+                    i += 2;
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported event " + events[i - 1]);
+            }
+        }
+    }
+
+    /**
+     * Get approximate memory use of the recording in bytes.
+     */
+    public long getSize() {
+        long size = 4L * eventsLength + 2L * text.length;
+        for (final String string : strings) {
+            size += 2L * string.length();
+        }
+        return size;
+    }
+
+    private String string(final int index) {
+        return index == NULL ? null : strings[index];
+    }
+
+    /**
+     * Attributes view over a start element event.
+     */
+    private final class BufferAttributes implements Attributes {
+
+        int offset;
+        int length;
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        private String get(final int index, final int field) {
+            if (index < 0 || index >= length) {
+                return null;
+            }
+            return string(events[offset + index * ATTRIBUTE_SIZE + field]);
+        }
+
+        @Override
+        public String getURI(final int index) {
+            return get(index, 0);
+        }
+
+        @Override
+        public String getLocalName(final int index) {
+            return get(index, 1);
+        }
+
+        @Override
+        public String getQName(final int index) {
+            return get(index, 2);
+        }
+
+        @Override
+        public String getType(final int index) {
+            return get(index, 3);
+        }
+
+        @Override
+        public String getValue(final int index) {
+            return get(index, 4);
+        }
+
+        @Override
+        public int getIndex(final String uri, final String localName) {
+            for (int i = 0; i < length; i++) {
+                if (localName.equals(getLocalName(i)) && uri.equals(nullToEmpty(getURI(i)))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int getIndex(final String qName) {
+            for (int i = 0; i < length; i++) {
+                if (qName.equals(getQName(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String getType(final String uri, final String localName) {
+            return getType(getIndex(uri, localName));
+        }
+
+        @Override
+        public String getType(final String qName) {
+            return getType(getIndex(qName));
+        }
+
+        @Override
+        public String getValue(final String uri, final String localName) {
+            return getValue(getIndex(uri, localName));
+        }
+
+        @Override
+        public String getValue(final String qName) {
+            return getValue(getIndex(qName));
+        }
+
+        private String nullToEmpty(final String value) {
+            return value != null ? value : "";
+        }
+    }
+
+    /**
+     * Content handler that records events. Call {@link #build()} after the document has ended to get the recording.
+     */
+    public static final class Recorder implements ContentHandler, LexicalHandler {
+
+        private int[] events = new int[1024];
+        private int eventsLength;
+        private String[] strings = new String[64];
+        private int stringsLength;
+        private final Map<String, Integer> stringIndex = new HashMap<>();
+        private char[] text = new char[4096];
+        private int textLength;
+
+        /**
+         * Get recording of events received so far.
+         *
+         * @return recorded events
+         */
+        public SaxBuffer build() {
+            events = Arrays.copyOf(events, eventsLength);
+            strings = Arrays.copyOf(strings, stringsLength);
+            text = Arrays.copyOf(text, textLength);
+            stringIndex.clear();
+            return new SaxBuffer(this);
+        }
+
+        private void ensureEvents(final int size) {
+            if (eventsLength + size > events.length) {
+                events = Arrays.copyOf(events, Math.max(events.length * 2, eventsLength + size));
+            }
+        }
+
+        private void add(final int value) {
+            events[eventsLength++] = value;
+        }
+
+        private void addString(final String value) {
+            if (value == null) {
+                add(NULL);
+                return;
+            }
+            Integer index = stringIndex.get(value);
+            if (index == null) {
+                if (stringsLength == strings.length) {
+                    strings = Arrays.copyOf(strings, stringsLength * 2);
+                }
+                index = stringsLength;
+                strings[stringsLength++] = value;
+                stringIndex.put(value, index);
+            }
+            add(index);
+        }
+
+        private void addText(final char[] ch, final int start, final int length) {
+            if (textLength + length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+            }
+            System.arraycopy(ch, start, text, textLength, length);
+            add(textLength);
+            add(length);
+            textLength += length;
+        }
+
+        @Override
+        public void setDocumentLocator(final Locator locator) {
+            // NOOP
+        }
+
+        @Override
+        public void startDocument() {
+            ensureEvents(1);
+            add(START_DOCUMENT);
+        }
+
+        @Override
+        public void endDocument() {
+            ensureEvents(1);
+            add(END_DOCUMENT);
+        }
+
+        @Override
+        public void startPrefixMapping(final String prefix, final String uri) {
+            ensureEvents(3);
+            add(START_PREFIX_MAPPING);
+            addString(prefix);
+            addString(uri);
+        }
+
+        @Override
+        public void endPrefixMapping(final String prefix) {
+            ensureEvents(2);
+            add(END_PREFIX_MAPPING);
+            addString(prefix);
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName,
+                                 final Attributes atts) {
+            final int count = atts.getLength();
+            ensureEvents(5 + count * ATTRIBUTE_SIZE);
+            add(START_ELEMENT);
+            addString(uri);
+            addString(localName);
+            addString(qName);
+            add(count);
+            for (int i = 0; i < count; i++) {
+                addString(atts.getURI(i));
+                addString(atts.getLocalName(i));
+                addString(atts.getQName(i));
+                addString(atts.getType(i));
+                addString(atts.getValue(i));
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            ensureEvents(4);
+            add(END_ELEMENT);
+            addString(uri);
+            addString(localName);
+            addString(qName);
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            ensureEvents(3);
+            add(CHARACTERS);
+            addText(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(final char[] ch, final int start, final int length) {
+            ensureEvents(3);
+            add(IGNORABLE_WHITESPACE);
+            addText(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(final String target, final String data) {
+            ensureEvents(3);
+            add(PROCESSING_INSTRUCTION);
+            addString(target);
+            addString(data);
+        }
+
+        @Override
+        public void skippedEntity(final String name) {
+            // NOOP
+        }
+
+        @Override
+        public void comment(final char[] ch, final int start, final int length) {
+            ensureEvents(3);
+            add(COMMENT);
+            addText(ch, start, length);
+        }
+
+        @Override
+        public void startDTD(final String name, final String publicId, final String systemId) {
+            // NOOP
+        }
+
+        @Override
+        public void endDTD() {
+            // NOOP
+        }
+
+        @Override
+        public void startEntity(final String name) {
+            // NOOP
+        }
+
+        @Override
+        public void endEntity(final String name) {
+            // NOOP
+        }
+
+        @Override
+        public void startCDATA() {
+            // NOOP
+        }
+
+        @Override
+        public void endCDATA() {
+            // NOOP
+        }
+    }
+}
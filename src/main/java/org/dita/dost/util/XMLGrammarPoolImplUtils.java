@@ -12,6 +12,7 @@ import org.apache.xerces.impl.xs.XSDDescription;
 import org.apache.xerces.util.XMLGrammarPoolImpl;
 import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.dita.dost.pipeline.BuildMetrics;
 
 /**
  * Self implemented XML Grammar pool for grammar(schema/dtd) caching.
@@ -22,6 +23,8 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
 
     private static final Grammar[] INITIAL_GRAMMAR_SET = new Grammar[0];
 
+    private final BuildMetrics.Cache metrics = BuildMetrics.get().getCache(BuildMetrics.CACHE_GRAMMAR_POOL);
+
 
     /** Constructs a grammar pool with a default number of buckets. */
     public XMLGrammarPoolImplUtils() {
@@ -41,6 +44,20 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
         return INITIAL_GRAMMAR_SET;
     }
 
+    /**
+     * @see org.apache.xerces.util.XMLGrammarPoolImpl#retrieveGrammar(XMLGrammarDescription)
+     */
+    @Override
+    public Grammar retrieveGrammar(final XMLGrammarDescription desc) {
+        final Grammar grammar = super.retrieveGrammar(desc);
+        if (grammar != null) {
+            metrics.hit();
+        } else {
+            metrics.miss();
+        }
+        return grammar;
+    }
+
     /**
      * @see org.apache.xerces.util.XMLGrammarPoolImpl#putGrammar(org.apache.xerces.xni.grammars.Grammar)
      */
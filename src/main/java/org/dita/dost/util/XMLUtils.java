@@ -25,9 +25,6 @@ import org.xml.sax.helpers.AttributesImpl;
 
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.*;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -53,16 +50,8 @@ import static org.dita.dost.util.Constants.*;
  */
 public final class XMLUtils {
 
-    private static final DocumentBuilderFactory factory;
-    static {
-        factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-    }
-    private static final SAXParserFactory saxParserFactory;
-    static {
-        saxParserFactory = SAXParserFactory.newInstance();
-        saxParserFactory.setNamespaceAware(true);
-    }
+    /** Parser pool configuration for DOM document builders returned by {@link #getDocumentBuilder()}. */
+    public static final ParserPool.Config DOCUMENT_BUILDER_CONFIG = ParserPool.Config.DEFAULT.catalog(true);
     private DITAOTLogger logger;
     private final CatalogResolver catalogResolver;
     private final Processor processor;
@@ -833,38 +822,27 @@ public final class XMLUtils {
     }
 
     /**
-     * Get preferred SAX parser.
+     * Get preferred SAX parser. Parser is borrowed from {@link ParserPool} with {@link ParserPool.Config#DEFAULT}
+     * configuration. Callers that don't change parser features or properties should return it to the pool after use,
+     * otherwise the parser is left to be garbage collected.
      *
      * @return XML parser instance.
      * @throws org.xml.sax.SAXException if instantiating XMLReader failed
      */
     public static XMLReader getXMLReader() throws SAXException {
-        try {
-            final XMLReader reader = saxParserFactory.newSAXParser().getXMLReader();
-            return Configuration.DEBUG ? new DebugXMLReader(reader) : reader;
-        } catch (ParserConfigurationException e) {
-            throw new SAXException(e);
-        }
+        return ParserPool.borrowXMLReader(ParserPool.Config.DEFAULT);
     }
 
     /**
-     * Get DOM parser.
+     * Get DOM parser. Document builder is borrowed from {@link ParserPool} with {@link #DOCUMENT_BUILDER_CONFIG}
+     * configuration. Callers should return it to the pool after use, otherwise the builder is left to be garbage
+     * collected.
      *
      * @return DOM document builder instance.
      * @throws RuntimeException if instantiating DocumentBuilder failed
      */
     public static DocumentBuilder getDocumentBuilder() {
-        DocumentBuilder builder;
-        try {
-            builder = factory.newDocumentBuilder();
-        } catch (final ParserConfigurationException e) {
-            throw new RuntimeException(e);
-        }
-        if (Configuration.DEBUG) {
-            builder = new DebugDocumentBuilder(builder);
-        }
-        builder.setEntityResolver(CatalogUtils.getCatalogResolver());
-        return builder;
+        return ParserPool.borrowDocumentBuilder(DOCUMENT_BUILDER_CONFIG);
     }
 
     /**
@@ -1050,7 +1028,7 @@ public final class XMLUtils {
     /**
      * Debug XMLReader wrapper that logs calls to parse, not intended for end users.
      */
-    private final static class DebugXMLReader implements XMLReader {
+    final static class DebugXMLReader implements XMLReader {
         private final XMLReader r;
         DebugXMLReader(final XMLReader r) {
             this.r = r;
@@ -1132,7 +1110,7 @@ public final class XMLUtils {
     /**
      * Debug DocumentBuilder wrapper that logs calls to parse, not intended for end users.
      */
-    private static final class DebugDocumentBuilder extends DocumentBuilder {
+    static final class DebugDocumentBuilder extends DocumentBuilder {
         private final DocumentBuilder b;
         public DebugDocumentBuilder(final DocumentBuilder b) {
             this.b = b;
@@ -1173,6 +1151,11 @@ public final class XMLUtils {
         public DOMImplementation getDOMImplementation() {
             return b.getDOMImplementation();
         }
+
+        @Override
+        public void reset() {
+            b.reset();
+        }
     }
 
     /**
@@ -20,6 +20,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import org.dita.dost.exception.DITAOTXMLErrorHandler;
+import org.dita.dost.util.ParserPool;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
@@ -36,6 +37,8 @@ import org.xml.sax.XMLReader;
  */
 public final class DitaIndexWriter extends AbstractXMLWriter {
 
+    private static final ParserPool.Config READER_CONFIG = ParserPool.Config.DEFAULT.namespacePrefixes(true);
+
     /** whether we have met <metadata> in <prolog> element */
     private boolean hasMetadataTillNow;
     /** whether we have met <prolog> in this topic we want */
@@ -45,7 +48,6 @@ public final class DitaIndexWriter extends AbstractXMLWriter {
     /** topic path that topicIdList need to match */
     private List<String> matchList;
     private OutputStreamWriter output;
-    private final XMLReader reader;
     /** whether to insert links at this topic */
     private boolean startTopic;
     /** array list that is used to keep the hierarchy of topic id */
@@ -67,15 +69,6 @@ public final class DitaIndexWriter extends AbstractXMLWriter {
         output = null;
         startTopic = false;
         hasWritten = false;
-
-        try {
-            reader = getXMLReader();
-            reader.setContentHandler(this);
-            reader.setFeature(FEATURE_NAMESPACE_PREFIX, true);
-        } catch (final Exception e) {
-            throw new RuntimeException("Failed to initialize XML parser: " + e.getMessage(), e);
-        }
-
     }
 
 
@@ -285,6 +278,7 @@ public final class DitaIndexWriter extends AbstractXMLWriter {
         String topic;
         File inputFile = null;
         File outputFile = null;
+        XMLReader reader = null;
 
         try {
             if (filename.endsWith(SHARP)) {
@@ -309,6 +303,8 @@ public final class DitaIndexWriter extends AbstractXMLWriter {
             output = new OutputStreamWriter(job.getStore().getOutputStream(outputFile.toURI()), StandardCharsets.UTF_8);
 
             topicIdList.clear();
+            reader = ParserPool.borrowXMLReader(READER_CONFIG);
+            reader.setContentHandler(this);
             reader.setErrorHandler(new DITAOTXMLErrorHandler(file, logger));
             reader.parse(file);
         } catch (final RuntimeException e) {
@@ -316,6 +312,7 @@ public final class DitaIndexWriter extends AbstractXMLWriter {
         } catch (final Exception e) {
             logger.error(e.getMessage(), e) ;
         }finally {
+            ParserPool.returnXMLReader(READER_CONFIG, reader);
             if (output != null) {
                 try {
                     output.close();
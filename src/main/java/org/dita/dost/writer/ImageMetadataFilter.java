@@ -13,6 +13,7 @@ import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.reader.SvgMetadataReader;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.util.ParserPool;
 import org.dita.dost.util.XMLUtils;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -56,7 +57,6 @@ public final class ImageMetadataFilter extends AbstractXMLFilter {
     private int depth = 0;
     private final Map<URI, Attributes> cache;
     private final Job job;
-    private final XMLReader reader;
     private final SvgMetadataReader svgMetadataReader;
 
     // Constructors ------------------------------------------------------------
@@ -71,13 +71,6 @@ public final class ImageMetadataFilter extends AbstractXMLFilter {
         this.uplevels = job.getProperty("uplevels");
         this.cache = cache;
         svgMetadataReader = new SvgMetadataReader();
-        try {
-            reader = XMLUtils.getXMLReader();
-        } catch (final SAXException e) {
-            throw new RuntimeException(e);
-        }
-        reader.setContentHandler(svgMetadataReader);
-        reader.setEntityResolver(new SvgMetadataReader.EmptyEntityResolver());
     }
 
     // AbstractWriter methods --------------------------------------------------
@@ -185,11 +178,17 @@ public final class ImageMetadataFilter extends AbstractXMLFilter {
     }
 
     private Attributes readSvgMetadata(final URI imgInput) {
+        XMLReader reader = null;
         try (final InputStream in = getInputStream(imgInput)) {
+            reader = ParserPool.borrowXMLReader(ParserPool.Config.DEFAULT);
+            reader.setContentHandler(svgMetadataReader);
+            reader.setEntityResolver(new SvgMetadataReader.EmptyEntityResolver());
             reader.parse(new InputSource(in));
             return svgMetadataReader.getDimensions().getAttributes();
         } catch (final IOException | SAXException e) {
             logger.error("Failed to read image " + imgInput + " metadata: " + e.getMessage(), e);
+        } finally {
+            ParserPool.returnXMLReader(ParserPool.Config.DEFAULT, reader);
         }
         return EMPTY_ATTR;
     }
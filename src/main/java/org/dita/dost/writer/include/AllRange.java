@@ -26,17 +26,35 @@ public class AllRange implements Range {
     }
 
     @Override
-    public void copyLines(BufferedReader codeReader) throws IOException, SAXException {
-        boolean first = true;
-        String line;
-        while ((line = codeReader.readLine()) != null) {
-            if (first) {
-                first = false;
+    public void copyLines(final BufferedReader codeReader) throws IOException, SAXException {
+        copyLines(CodeFile.read(codeReader));
+    }
+
+    @Override
+    public void copyLines(final CodeFile codeFile) throws SAXException {
+        copyLines(codeFile, 0, codeFile.getLineCount(), true);
+    }
+
+    /**
+     * Copy line slices to target handler.
+     *
+     * @param codeFile decoded code file
+     * @param from first zero-based line number, inclusive
+     * @param to last zero-based line number, exclusive
+     * @param first first line written to handler
+     * @return {@code first} if no lines were written, otherwise {@code false}
+     */
+    boolean copyLines(final CodeFile codeFile, final int from, final int to, final boolean first) throws SAXException {
+        final char[] ch = codeFile.getChars();
+        boolean res = first;
+        for (int i = from; i < to; i++) {
+            if (res) {
+                res = false;
             } else {
                 handler.characters(CoderefResolver.XML_NEWLINE, 0, CoderefResolver.XML_NEWLINE.length);
             }
-            final char[] ch = line.toCharArray();
-            handler.characters(ch, 0, ch.length);
+            handler.characters(ch, codeFile.getStart(i), codeFile.getLength(i));
         }
+        return res;
     }
 }
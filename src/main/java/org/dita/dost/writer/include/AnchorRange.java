@@ -8,46 +8,43 @@
 
 package org.dita.dost.writer.include;
 
-import org.dita.dost.writer.CoderefResolver;
 import org.xml.sax.SAXException;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-
 public class AnchorRange extends AllRange implements Range {
 
     private final String start;
     private final String end;
-    private int include;
 
     public AnchorRange(final String start, final String end) {
         this.start = start;
         this.end = end;
-        include = start != null ? -1 : 1;
     }
 
     @Override
-    public void copyLines(final BufferedReader codeReader) throws IOException, SAXException {
-        boolean first = true;
-        String line;
-        while ((line = codeReader.readLine()) != null) {
-            if (include == -1 && start != null) {
-                include = line.contains(start) ? 0 : -1;
-            } else if (include > -1 && end != null) {
-                include = line.contains(end) ? -1 : include;
+    public void copyLines(final CodeFile codeFile) throws SAXException {
+        final int lineCount = codeFile.getLineCount();
+        int from;
+        if (start != null) {
+            final int s = codeFile.findLine(start, 0);
+            if (s == -1) {
+                return;
             }
-            if (include > 0) {
-                if (first) {
-                    first = false;
-                } else {
-                    handler.characters(CoderefResolver.XML_NEWLINE, 0, CoderefResolver.XML_NEWLINE.length);
-                }
-                final char[] ch = line.toCharArray();
-                handler.characters(ch, 0, ch.length);
+            from = s + 1;
+        } else {
+            from = 0;
+        }
+        boolean first = true;
+        while (from < lineCount) {
+            final int e = end != null ? codeFile.findLine(end, from) : -1;
+            first = copyLines(codeFile, from, e != -1 ? e : lineCount, first);
+            if (e == -1 || start == null) {
+                return;
             }
-            if (include >= 0) {
-                include++;
+            final int s = codeFile.findLine(start, e + 1);
+            if (s == -1) {
+                return;
             }
+            from = s + 1;
         }
     }
 }
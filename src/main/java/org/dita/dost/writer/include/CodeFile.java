@@ -0,0 +1,234 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+
+package org.dita.dost.writer.include;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoded code file with a line index.
+ *
+ * <p>Lines are split the same way as {@link java.io.BufferedReader#readLine()} splits them, i.e. on line feed,
+ * carriage return, or carriage return followed by line feed. Line contents are slices of a single character array,
+ * so ranges can be copied without reading the file again. Lines that contain an anchor token are indexed on first
+ * use.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @since 3.7
+ */
+public final class CodeFile {
+
+    /** Files larger than this are memory-mapped instead of read into a byte array. */
+    static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private final char[] chars;
+    /** Line start offsets in {@link #chars}. */
+    private final int[] starts;
+    /** Line end offsets in {@link #chars}, excluding line terminators. */
+    private final int[] ends;
+    private final int lineCount;
+    /** Lines that contain a token, by token. */
+    private final Map<String, int[]> tokens = new ConcurrentHashMap<>();
+
+    private CodeFile(final char[] chars, final int length) {
+        this.chars = chars;
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = chars[i];
+            if (c == '\n' || c == '\r') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                starts[count] = start;
+                ends[count] = i;
+                count++;
+                if (c == '\r' && i + 1 < length && chars[i + 1] == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count + 1);
+                ends = Arrays.copyOf(ends, count + 1);
+            }
+            starts[count] = start;
+            ends[count] = length;
+            count++;
+        }
+        this.starts = starts;
+        this.ends = ends;
+        this.lineCount = count;
+    }
+
+    /**
+     * Read and decode code file. Files larger than {@link #MAP_THRESHOLD} are decoded directly from a memory-mapped
+     * buffer.
+     *
+     * @param file code file
+     * @param charset code file charset
+     * @return decoded code file
+     * @throws IOException if reading failed or file is not valid in the charset
+     */
+    public static CodeFile read(final File file, final Charset charset) throws IOException {
+        final CharBuffer buf;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer bytes = size > MAP_THRESHOLD
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    : ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            buf = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(bytes);
+        }
+        if (buf.hasArray() && buf.arrayOffset() == 0 && buf.position() == 0) {
+            return new CodeFile(buf.array(), buf.limit());
+        }
+        final char[] chars = new char[buf.remaining()];
+        buf.get(chars);
+        return new CodeFile(chars, chars.length);
+    }
+
+    /**
+     * Read code file from reader.
+     *
+     * @param reader code file reader
+     * @return code file
+     * @throws IOException if reading failed
+     */
+    public static CodeFile read(final Reader reader) throws IOException {
+        char[] chars = new char[8192];
+        int length = 0;
+        int n;
+        while ((n = reader.read(chars, length, chars.length - length)) != -1) {
+            length += n;
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+        }
+        return new CodeFile(chars, length);
+    }
+
+    /**
+     * Get number of lines.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Get character array that contains line contents. The array must not be modified.
+     */
+    char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Get line start offset in {@link #getChars()}.
+     *
+     * @param line zero-based line number
+     */
+    int getStart(final int line) {
+        return starts[line];
+    }
+
+    /**
+     * Get line length, excluding line terminator.
+     *
+     * @param line zero-based line number
+     */
+    int getLength(final int line) {
+        return ends[line] - starts[line];
+    }
+
+    /**
+     * Get line contents, excluding line terminator.
+     *
+     * @param line zero-based line number
+     */
+    public String getLine(final int line) {
+        return new String(chars, starts[line], ends[line] - starts[line]);
+    }
+
+    /**
+     * Get reader over lines, each line terminated by a line feed.
+     */
+    BufferedReader getReader() {
+        final StringBuilder buf = new StringBuilder(chars.length);
+        for (int line = 0; line < lineCount; line++) {
+            buf.append(chars, starts[line], ends[line] - starts[line]).append('\n');
+        }
+        return new BufferedReader(new StringReader(buf.toString()));
+    }
+
+    /**
+     * Find next line that contains a token.
+     *
+     * @param token token to search for
+     * @param from zero-based line number to start search from
+     * @return zero-based line number, or {@code -1} if no following line contains the token
+     */
+    public int findLine(final String token, final int from) {
+        final int[] lines = tokens.computeIfAbsent(token, this::indexToken);
+        int i = Arrays.binarySearch(lines, from);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return i < lines.length ? lines[i] : -1;
+    }
+
+    private int[] indexToken(final String token) {
+        int[] lines = new int[4];
+        int count = 0;
+        for (int line = 0; line < lineCount; line++) {
+            if (contains(line, token)) {
+                if (count == lines.length) {
+                    lines = Arrays.copyOf(lines, count * 2);
+                }
+                lines[count++] = line;
+            }
+        }
+        return Arrays.copyOf(lines, count);
+    }
+
+    private boolean contains(final int line, final String token) {
+        final int length = token.length();
+        final int last = ends[line] - length;
+        outer:
+        for (int i = starts[line]; i <= last; i++) {
+            for (int j = 0; j < length; j++) {
+                if (chars[i + j] != token.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
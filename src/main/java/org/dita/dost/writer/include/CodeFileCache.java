@@ -0,0 +1,186 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+
+package org.dita.dost.writer.include;
+
+import org.dita.dost.pipeline.BuildMetrics;
+import org.dita.dost.store.Store;
+import org.dita.dost.util.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of decoded code files shared by all include resolvers of a build.
+ *
+ * <p>Files are keyed by path and charset, and a cached file is only returned if the file's last modification time
+ * and length are unchanged. The least recently used files are evicted once the total number of cached characters
+ * exceeds the capacity; files larger than the capacity are not cached.</p>
+ *
+ * <p>Instances are thread-safe. Reading is done outside the cache lock, so two threads may read the same file
+ * concurrently; the result of either is cached.</p>
+ *
+ * @since 3.7
+ */
+public final class CodeFileCache {
+
+    /** Configuration property for maximum number of cached characters. */
+    public static final String CONF_CODE_CACHE_SIZE = "include.code-cache.size";
+    private static final long DEFAULT_CODE_CACHE_SIZE = 16 * 1024 * 1024;
+
+    /** Caches by build store. */
+    private static final Map<Store, CodeFileCache> caches = new WeakHashMap<>();
+
+    private final long capacity;
+    private final BuildMetrics.Cache metrics = BuildMetrics.get().getCache(BuildMetrics.CACHE_CODE_FILE);
+    /** Cached files in access order, guarded by this. */
+    private final LinkedHashMap<Key, Entry> files = new LinkedHashMap<>(16, 0.75f, true);
+    /** Number of cached characters, guarded by this. */
+    private long size;
+
+    /**
+     * Create new cache.
+     *
+     * @param capacity maximum number of cached characters, {@code 0} disables caching
+     */
+    public CodeFileCache(final long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get cache for a build. Builds are identified by their store, so the cache lives as long as the store.
+     *
+     * @param store build store
+     * @return code file cache
+     */
+    public static CodeFileCache get(final Store store) {
+        synchronized (caches) {
+            return caches.computeIfAbsent(store, s -> new CodeFileCache(getCodeCacheSize()));
+        }
+    }
+
+    private static long getCodeCacheSize() {
+        final String size = Configuration.configuration.get(CONF_CODE_CACHE_SIZE);
+        if (size != null && !size.trim().isEmpty()) {
+            try {
+                return Long.parseLong(size.trim());
+            } catch (final NumberFormatException e) {
+                // Fall through to default
+            }
+        }
+        return DEFAULT_CODE_CACHE_SIZE;
+    }
+
+    /**
+     * Get decoded code file, reading it if not cached or changed since it was cached.
+     *
+     * @param file code file
+     * @param charset code file charset
+     * @return decoded code file
+     * @throws IOException if reading failed or file is not valid in the charset
+     */
+    public CodeFile get(final File file, final Charset charset) throws IOException {
+        final Key key = new Key(file.getAbsoluteFile(), charset);
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        synchronized (this) {
+            final Entry entry = files.get(key);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                metrics.hit();
+                return entry.codeFile;
+            }
+        }
+        metrics.miss();
+        final CodeFile codeFile = CodeFile.read(file, charset);
+        final long weight = codeFile.getChars().length;
+        if (weight <= capacity) {
+            synchronized (this) {
+                final Entry previous = files.put(key, new Entry(codeFile, lastModified, length, weight));
+                if (previous != null) {
+                    size -= previous.weight;
+                }
+                size += weight;
+                evict();
+            }
+        }
+        return codeFile;
+    }
+
+    private void evict() {
+        while (size > capacity) {
+            final Map.Entry<Key, Entry> eldest = files.entrySet().iterator().next();
+            size -= eldest.getValue().weight;
+            files.remove(eldest.getKey());
+            metrics.evict();
+        }
+    }
+
+    /**
+     * Get number of cached files.
+     */
+    public synchronized int size() {
+        return files.size();
+    }
+
+    /**
+     * Remove all cached files.
+     */
+    public synchronized void clear() {
+        files.clear();
+        size = 0;
+    }
+
+    private static final class Key {
+        final File file;
+        final Charset charset;
+
+        Key(final File file, final Charset charset) {
+            this.file = file;
+            this.charset = charset;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return file.equals(key.file) && charset.equals(key.charset);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, charset);
+        }
+    }
+
+    private static final class Entry {
+        final CodeFile codeFile;
+        final long lastModified;
+        final long length;
+        final long weight;
+
+        Entry(final CodeFile codeFile, final long lastModified, final long length, final long weight) {
+            this.codeFile = codeFile;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.weight = weight;
+        }
+    }
+}
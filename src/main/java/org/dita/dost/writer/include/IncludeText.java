@@ -15,11 +15,9 @@ import org.dita.dost.util.Job;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,8 +44,8 @@ final class IncludeText {
         final Range range = getRange(hrefValue);
         final File codeFile = getFile(hrefValue);
         if (codeFile != null) {
-            try (BufferedReader codeReader = Files.newBufferedReader(codeFile.toPath(), charset)) {
-                range.copyLines(codeReader);
+            try {
+                range.copyLines(CodeFileCache.get(job.getStore()).get(codeFile, charset));
             } catch (final Exception e) {
                 logger.error("Failed to process include {0}", codeFile, e);
                 return false;
@@ -8,12 +8,8 @@
 
 package org.dita.dost.writer.include;
 
-import org.dita.dost.writer.CoderefResolver;
 import org.xml.sax.SAXException;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-
 public class LineNumberRange extends AllRange implements Range {
 
     private final int start;
@@ -25,20 +21,9 @@ public class LineNumberRange extends AllRange implements Range {
     }
 
     @Override
-    public void copyLines(final BufferedReader codeReader) throws IOException, SAXException {
-        boolean first = true;
-        String line = codeReader.readLine();
-        for (int i = 0; line != null; i++) {
-            if (i >= start && i <= end) {
-                if (first) {
-                    first = false;
-                } else {
-                    handler.characters(CoderefResolver.XML_NEWLINE, 0, CoderefResolver.XML_NEWLINE.length);
-                }
-                final char[] ch = line.toCharArray();
-                handler.characters(ch, 0, ch.length);
-            }
-            line = codeReader.readLine();
-        }
+    public void copyLines(final CodeFile codeFile) throws SAXException {
+        final int from = Math.max(start, 0);
+        final int to = (int) Math.min((long) end + 1, codeFile.getLineCount());
+        copyLines(codeFile, from, to, true);
     }
 }
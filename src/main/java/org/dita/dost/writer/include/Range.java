@@ -22,6 +22,22 @@ public interface Range {
      */
     void copyLines(final BufferedReader codeReader) throws IOException, SAXException;
 
+    /**
+     * Copy lines from code file to target handler. Default implementation reads the lines again with
+     * {@link #copyLines(BufferedReader)}, implementations should override it to copy lines from the code file
+     * directly.
+     *
+     * @param codeFile decoded code file
+     * @since 3.7
+     */
+    default void copyLines(final CodeFile codeFile) throws SAXException {
+        try {
+            copyLines(codeFile.getReader());
+        } catch (final IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
     /**
      * Set target handler
      */
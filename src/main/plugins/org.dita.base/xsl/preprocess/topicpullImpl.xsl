@@ -254,10 +254,15 @@ mode="topicpull:figure-linktext" and mode="topicpull:table-linktext"
          in order to reflect any @xml:base attributes, not the root
          of the current document.
       -->
+    <xsl:variable name="tableTarget" as="element()?"
+      select="dita-ot:getLinkTarget($linkElement, $baseContextElement)"/>
     <xsl:variable name="doc" 
-      select="dita-ot:getTargetDoc($linkElement, $baseContextElement)" as="document-node()?"/>
+      select="if (exists($tableTarget)) then () else dita-ot:getTargetDoc($linkElement, $baseContextElement)" as="document-node()?"/>
     
     <xsl:choose>
+      <xsl:when test="exists($tableTarget)">
+        <xsl:sequence select="$tableTarget"/>
+      </xsl:when>
       <xsl:when test="exists($doc)">
         <!-- If we have a doc then the scope must be local (or maybe peer)
              and the format must be dita or ditamap.
@@ -290,6 +295,30 @@ mode="topicpull:figure-linktext" and mode="topicpull:table-linktext"
     
   </xsl:function>
 
+  <!-- Given a linking element to a topic in another document, look up the target
+       topic from the link target table.
+       
+       @return Topic element that only contains the title and short description of
+               the target topic, or empty sequence if the target is not in the table.
+    -->
+  <xsl:function name="dita-ot:getLinkTarget" as="element()?">
+    <xsl:param name="linkElement" as="element()"/>
+    <xsl:param name="baseContextElement" as="element()?"/>
+    
+    <xsl:variable name="href" as="xs:string" select="string($linkElement/@href)"/>
+    <xsl:variable name="resourcePart" as="xs:string?" select="tokenize($href, '#')[1]"/>
+    <xsl:if test="normalize-space($resourcePart) != '' and
+                  not(dita-ot:has-element-id($href)) and
+                  dita-ot:get-link-scope($linkElement, 'local') = 'local' and
+                  dita-ot:get-link-format($linkElement, 'dita') = 'dita'">
+      <xsl:variable name="base" as="node()"
+        select="root(if (exists($baseContextElement)) then $baseContextElement else $linkElement)"/>
+      <xsl:sequence use-when="function-available('dita-ot:link-target', 1)"
+        select="dita-ot:link-target(concat(resolve-uri($resourcePart, base-uri($base)),
+                                           if (contains($href, '#')) then concat('#', substring-after($href, '#')) else ''))"/>
+    </xsl:if>
+  </xsl:function>
+
   <xsl:function name="dita-ot:is-topic" as="xs:boolean">
     <xsl:param name="element" as="element()"/>
     <xsl:variable name="result" as="xs:boolean"
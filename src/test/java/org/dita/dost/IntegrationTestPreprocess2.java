@@ -9,14 +9,21 @@
 package org.dita.dost;
 
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.nio.file.Paths;
 
 import static org.dita.dost.AbstractIntegrationTest.Transtype.*;
+import static org.junit.Assert.assertTrue;
 
 public class IntegrationTestPreprocess2 extends IntegrationTest {
 
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
     public IntegrationTestPreprocess2 builder() {
         return new IntegrationTestPreprocess2();
     }
@@ -190,4 +197,20 @@ public class IntegrationTestPreprocess2 extends IntegrationTest {
                 .put("outer.control", "quiet")
                 .test();
     }
+
+    @Test
+    public void testconref_shard() throws Throwable {
+        final File trace = new File(tempDir.getRoot(), "trace.json");
+        builder().name("conref")
+                .transtype(PREPROCESS)
+                .input(Paths.get("lang-common1.dita"))
+                .put("validate", "false")
+                .put("store-type", "file")
+                .put("shard.count", "2")
+                .put("profiler.file", trace.getAbsolutePath())
+                .warnCount(2)
+                .test();
+        assertTrue(new File(tempDir.getRoot(), "trace-shard-0.json").exists());
+        assertTrue(new File(tempDir.getRoot(), "trace-shard-1.json").exists());
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.ant;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.FileSet;
+import org.dita.dost.ant.DITAOTCopy.Result;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.*;
+
+public class DITAOTCopyTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path src;
+    private Path dst;
+
+    @Before
+    public void setUp() throws Exception {
+        src = temporaryFolder.newFolder("src").toPath();
+        dst = temporaryFolder.newFolder("dst").toPath();
+    }
+
+    @Test
+    public void copy() throws Exception {
+        final Path s = write(src.resolve("a.png"), "foo");
+        final Path d = dst.resolve("images").resolve("a.png");
+
+        assertEquals(Result.COPIED, DITAOTCopy.copy(s, d, false, true));
+        assertEquals("foo", read(d));
+        assertEquals(Files.getLastModifiedTime(s).toMillis(), Files.getLastModifiedTime(d).toMillis());
+        assertFalse(Files.isSameFile(s, d));
+    }
+
+    @Test
+    public void copySkipUnchanged() throws Exception {
+        final Path s = write(src.resolve("a.png"), "foo");
+        final Path d = dst.resolve("a.png");
+
+        assertEquals(Result.COPIED, DITAOTCopy.copy(s, d, false, true));
+        assertEquals(Result.SKIPPED, DITAOTCopy.copy(s, d, false, true));
+        assertEquals(Result.COPIED, DITAOTCopy.copy(s, d, false, false));
+
+        write(s, "bar");
+        Files.setLastModifiedTime(s, FileTime.fromMillis(Files.getLastModifiedTime(d).toMillis() + 2000));
+        assertEquals(Result.COPIED, DITAOTCopy.copy(s, d, false, true));
+        assertEquals("bar", read(d));
+    }
+
+    @Test
+    public void copyLink() throws Exception {
+        final Path s = write(src.resolve("a.png"), "foo");
+        final Path d = write(dst.resolve("a.png"), "stale content");
+
+        final Result act = DITAOTCopy.copy(s, d, true, true);
+        assertEquals("foo", read(d));
+        if (act == Result.LINKED) {
+            assertTrue(Files.isSameFile(s, d));
+            assertEquals(Result.SKIPPED, DITAOTCopy.copy(s, d, true, true));
+        } else {
+            assertEquals(Result.COPIED, act);
+        }
+    }
+
+    @Test
+    public void execute() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            write(src.resolve("dir" + (i % 3)).resolve(i + ".png"), Integer.toString(i));
+        }
+        final Project project = new Project();
+        project.init();
+        final FileSet fileSet = new FileSet();
+        fileSet.setProject(project);
+        fileSet.setDir(src.toFile());
+        final DITAOTCopy task = new DITAOTCopy();
+        task.setProject(project);
+        task.setTodir(dst.toFile());
+        task.setThreads(3);
+        task.add(fileSet);
+
+        task.execute();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.toString(i), read(dst.resolve("dir" + (i % 3)).resolve(i + ".png")));
+        }
+    }
+
+    @Test
+    public void executeOverwrite() throws Exception {
+        final Path s = write(src.resolve("a.png"), "foo");
+        final Path d = write(dst.resolve("a.png"), "bar");
+        Files.setLastModifiedTime(d, Files.getLastModifiedTime(s));
+        final Project project = new Project();
+        project.init();
+        final FileSet fileSet = new FileSet();
+        fileSet.setProject(project);
+        fileSet.setDir(src.toFile());
+        final DITAOTCopy task = new DITAOTCopy();
+        task.setProject(project);
+        task.setTodir(dst.toFile());
+        task.add(fileSet);
+
+        task.execute();
+        assertEquals("foo", read(d));
+
+        write(d, "bar");
+        Files.setLastModifiedTime(d, Files.getLastModifiedTime(s));
+        task.setSkipUnchanged(true);
+        task.execute();
+        assertEquals("bar", read(d));
+    }
+
+    @Test
+    public void executeIncludes() throws Exception {
+        final Path s = write(src.resolve("flag.png"), "foo");
+        final File out = new File(dst.toFile(), "out");
+        final DITAOTCopy task = new DITAOTCopy();
+        task.setProject(new Project());
+        task.setTodir(out);
+        task.setIncludes(s.toString());
+
+        task.execute();
+
+        assertEquals("foo", read(out.toPath().resolve("flag.png")));
+    }
+
+    private static Path write(final Path file, final String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.ant;
+
+import org.apache.tools.ant.BuildException;
+import org.dita.dost.TestUtils;
+import org.dita.dost.store.StreamStore;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.util.XMLUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ShardTaskTest {
+
+    private File tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = TestUtils.createTempDir(ShardTaskTest.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        TestUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void isInShard() {
+        final int count = 3;
+        for (int i = 0; i < 100; i++) {
+            final FileInfo fi = new FileInfo.Builder().uri(URI.create("topic" + i + ".dita")).build();
+            int shards = 0;
+            for (int index = 0; index < count; index++) {
+                if (ShardTask.isInShard(fi, index, count)) {
+                    shards++;
+                }
+            }
+            assertEquals(1, shards);
+        }
+    }
+
+    @Test
+    public void getShardFileName() {
+        assertEquals("trace-shard-1.json", ShardTask.getShardFileName("trace.json", 1));
+        assertEquals("out" + File.separator + "trace-shard-0", ShardTask.getShardFileName("out" + File.separator + "trace", 0));
+        assertEquals("a.b" + File.separator + "trace-shard-2", ShardTask.getShardFileName("a.b" + File.separator + "trace", 2));
+    }
+
+    @Test
+    public void merge() throws IOException {
+        final Job job = new Job(tempDir, new StreamStore(tempDir, new XMLUtils()));
+        job.add(new FileInfo.Builder().uri(URI.create("a.dita")).format("dita").build());
+        job.add(new FileInfo.Builder().uri(URI.create("b.dita")).format("dita").build());
+        job.add(new FileInfo.Builder().uri(URI.create("c.dita")).format("dita").build());
+        job.setProperty("foo", "bar");
+        job.setProperty("qux", "quux");
+        final Map<String, String> baseProps = new HashMap<>(job.getProperties());
+        final Map<URI, FileInfo> baseFiles = new HashMap<>();
+        for (final FileInfo fi : job.getFileInfo()) {
+            baseFiles.put(fi.uri, FileInfo.builder(fi).build());
+        }
+
+        final Job shard = new Job(tempDir, job.getStore(), ".job-shard-0.xml");
+        for (final FileInfo fi : baseFiles.values()) {
+            shard.add(FileInfo.builder(fi).build());
+        }
+        shard.setProperty("qux", "quux");
+        shard.getFileInfo(URI.create("a.dita")).hasConref = true;
+        shard.remove(shard.getFileInfo(URI.create("b.dita")));
+        shard.add(new FileInfo.Builder().uri(URI.create("d.dita")).format("dita").build());
+        shard.setProperty("foo", "baz");
+        shard.removeProperty("qux");
+        job.getFileInfo(URI.create("c.dita")).hasKeyref = true;
+
+        ShardTask.merge(job, baseProps, baseFiles, Collections.singletonList(shard));
+
+        assertTrue(job.getFileInfo(URI.create("a.dita")).hasConref);
+        assertNull(job.getFileInfo(URI.create("b.dita")));
+        assertTrue(job.getFileInfo(URI.create("c.dita")).hasKeyref);
+        assertNotNull(job.getFileInfo(URI.create("d.dita")));
+        assertEquals("baz", job.getProperty("foo"));
+        assertNull(job.getProperty("qux"));
+    }
+
+    @Test(expected = BuildException.class)
+    public void mergeConflict() throws IOException {
+        final Job job = new Job(tempDir, new StreamStore(tempDir, new XMLUtils()));
+        job.add(new FileInfo.Builder().uri(URI.create("a.dita")).format("dita").build());
+        final Map<String, String> baseProps = new HashMap<>(job.getProperties());
+        final Map<URI, FileInfo> baseFiles = new HashMap<>();
+        for (final FileInfo fi : job.getFileInfo()) {
+            baseFiles.put(fi.uri, FileInfo.builder(fi).build());
+        }
+
+        final Job shard0 = new Job(tempDir, job.getStore(), ".job-shard-0.xml");
+        shard0.add(FileInfo.builder(baseFiles.get(URI.create("a.dita"))).hasConref(true).build());
+        final Job shard1 = new Job(tempDir, job.getStore(), ".job-shard-1.xml");
+        shard1.add(FileInfo.builder(baseFiles.get(URI.create("a.dita"))).hasKeyref(true).build());
+
+        ShardTask.merge(job, baseProps, baseFiles, Arrays.asList(shard0, shard1));
+    }
+}
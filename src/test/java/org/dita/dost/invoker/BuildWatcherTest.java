@@ -0,0 +1,90 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+
+package org.dita.dost.invoker;
+
+import org.dita.dost.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BuildWatcherTest {
+
+    private File tempDir;
+    private BuildWatcher<Integer> watcher;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = TestUtils.createTempDir(BuildWatcherTest.class);
+        watcher = new BuildWatcher<>();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        watcher.close();
+        TestUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void getAffected() throws IOException {
+        final Path map = tempDir.toPath().resolve("root.ditamap");
+        final Path topic = tempDir.toPath().resolve("topic.dita");
+        final Path other = tempDir.toPath().resolve("other.dita");
+        watcher.watch(0, new HashSet<>(Arrays.asList(map, topic)));
+        watcher.watch(1, Collections.singleton(other));
+
+        final Map<Integer, Set<Path>> act = watcher.getAffected(new HashSet<>(Arrays.asList(topic, other)), false);
+
+        assertEquals(2, act.size());
+        assertEquals(Collections.singleton(topic), act.get(0));
+        assertEquals(Collections.singleton(other), act.get(1));
+    }
+
+    @Test
+    public void getAffected_untracked() throws IOException {
+        watcher.watch(0, Collections.singleton(tempDir.toPath().resolve("topic.dita")));
+
+        assertTrue(watcher.getAffected(Collections.singleton(tempDir.toPath().resolve("topic.dita~")), false).isEmpty());
+    }
+
+    @Test
+    public void getAffected_overflow() throws IOException {
+        final Path topic = tempDir.toPath().resolve("topic.dita");
+        watcher.watch(0, Collections.singleton(topic));
+        watcher.watch(1, Collections.singleton(tempDir.toPath().resolve("other.dita")));
+
+        final Map<Integer, Set<Path>> act = watcher.getAffected(Collections.singleton(topic), true);
+
+        assertEquals(2, act.size());
+        assertEquals(Collections.singleton(topic), act.get(0));
+        assertTrue(act.get(1).isEmpty());
+    }
+
+    @Test
+    public void watch_replace() throws IOException {
+        final Path first = tempDir.toPath().resolve("first.dita");
+        final Path second = tempDir.toPath().resolve("second.dita");
+        watcher.watch(0, Collections.singleton(first));
+        watcher.watch(0, Collections.singleton(second));
+
+        assertTrue(watcher.getAffected(Collections.singleton(first), false).isEmpty());
+        assertEquals(Collections.singleton(second), watcher.getAffected(Collections.singleton(second), false).get(0));
+    }
+}
@@ -15,6 +15,7 @@ import java.io.File;
 
 import static java.io.File.pathSeparator;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ConversionArgumentsTest {
 
@@ -53,6 +54,20 @@ public class ConversionArgumentsTest {
         assertEquals("html5", arguments.definedProps.get("transtype"));
     }
 
+    @Test
+    public void profile() {
+        arguments.parse(new String[]{"--profile=trace.json"});
+
+        assertEquals(new File("trace.json").getAbsolutePath(), arguments.definedProps.get("profiler.file"));
+    }
+
+    @Test
+    public void threads() {
+        arguments.parse(new String[]{"--threads=8"});
+
+        assertEquals("8", arguments.definedProps.get("parallel.threads"));
+    }
+
     @Test
     public void resource_short_multipleOptions() {
         arguments.parse(new String[]{"-r", "foo.dita", "-r", "bar.dita"});
@@ -86,4 +101,11 @@ public class ConversionArgumentsTest {
                         + new File("bar.ditaval").getAbsolutePath(),
                 arguments.definedProps.get("args.filter"));
     }
+
+    @Test
+    public void watch() {
+        arguments.parse(new String[]{"-i", "foo.dita", "--watch"});
+
+        assertTrue(arguments.watch);
+    }
 }
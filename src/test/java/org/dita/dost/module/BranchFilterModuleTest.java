@@ -9,6 +9,7 @@ package org.dita.dost.module;
 
 import org.dita.dost.TestUtils;
 import org.dita.dost.TestUtils.CachingLogger;
+import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.store.StreamStore;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.XMLUtils;
@@ -132,10 +133,20 @@ public class BranchFilterModuleTest extends BranchFilterModule {
 //    }
 
     @Test
-    public void testProcessMap() throws IOException, SAXException {
+    public void testProcessMap() throws IOException, SAXException, DITAOTException {
+        assertProcessMap(false);
+    }
+
+    @Test
+    public void testProcessMapParallel() throws IOException, SAXException, DITAOTException {
+        assertProcessMap(true);
+    }
+
+    private void assertProcessMap(final boolean parallel) throws IOException, SAXException, DITAOTException {
         final BranchFilterModule m = new BranchFilterModule();
         final Job job = getJob();
         m.setJob(job);
+        m.setParallel(parallel);
         final CachingLogger logger = new CachingLogger();
         m.setLogger(logger);
         m.setXmlUtils(new XMLUtils());
@@ -182,7 +193,7 @@ public class BranchFilterModuleTest extends BranchFilterModule {
     }
     
     @Test
-    public void testUplevelsMap() throws IOException, SAXException {
+    public void testUplevelsMap() throws IOException, SAXException, DITAOTException {
         final File uplevelsExpDir = new File (expDir, "uplevels");
         final File uplevelsTempDir = new File (tempDir, "uplevels"); 
         final BranchFilterModule m = new BranchFilterModule();
@@ -269,7 +280,7 @@ public class BranchFilterModuleTest extends BranchFilterModule {
     }
 
     @Test
-    public void testDuplicateTopic() throws IOException, SAXException {
+    public void testDuplicateTopic() throws IOException, SAXException, DITAOTException {
         final BranchFilterModule m = new BranchFilterModule();
         final Job job = new Job(tempDir, new StreamStore(tempDir, new XMLUtils()));
         job.setInputDir(tempDir.toURI());
@@ -8,21 +8,49 @@
 
 package org.dita.dost.module;
 
+import net.sf.saxon.s9api.XdmNode;
+import org.dita.dost.TestUtils;
+import org.dita.dost.TestUtils.CachingLogger;
+import org.dita.dost.pipeline.PipelineHashIO;
 import org.dita.dost.store.StreamStore;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo.Builder;
 import org.dita.dost.util.XMLUtils;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static java.net.URI.create;
-import static org.junit.Assert.assertEquals;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static net.sf.saxon.s9api.streams.Steps.attribute;
+import static net.sf.saxon.s9api.streams.Steps.descendant;
+import static org.dita.dost.util.Constants.*;
+import static org.junit.Assert.*;
 
 public class CleanPreprocessModuleTest {
 
+    private final File resourceDir = TestUtils.getResourceDir(CleanPreprocessModuleTest.class);
     private final CleanPreprocessModule module = new CleanPreprocessModule();
+    private File tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = TestUtils.createTempDir(getClass());
+        TestUtils.copy(new File(resourceDir, "src"), tempDir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.forceDelete(tempDir);
+    }
 
     @Test
     public void getCommonBase() {
@@ -116,4 +144,98 @@ public class CleanPreprocessModuleTest {
         assertEquals(create("file:/foo/bar/"), module.getBaseDir());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void execute() throws Exception {
+        final Job job = execute(false, new PipelineHashIO());
+
+        assertCleaned(job, "topics/topic.dita");
+    }
+
+    @Test
+    public void execute_parallel() throws Exception {
+        final Job job = execute(true, new PipelineHashIO());
+
+        assertCleaned(job, "topics/topic.dita");
+    }
+
+    @Test
+    public void execute_move() throws Exception {
+        final byte[] exp = Files.readAllBytes(new File(tempDir, "c.html").toPath());
+
+        final Job job = execute(true, new PipelineHashIO());
+
+        assertFalse(new File(tempDir, "c.html").exists());
+        assertArrayEquals(exp, Files.readAllBytes(new File(tempDir, "topics/page.html").toPath()));
+        assertEquals(create("file:/foo/bar/topics/page.html"), job.getFileInfo(create("topics/page.html")).result);
+    }
+
+    @Test
+    public void execute_rewriteRule() throws Exception {
+        final PipelineHashIO input = new PipelineHashIO();
+        input.setAttribute("result.rewrite-rule.xsl", new File(tempDir, "rewrite.xsl").getAbsolutePath());
+
+        final Job job = execute(false, input);
+
+        assertCleaned(job, "rewritten/topics/topic.dita");
+        assertTrue(new File(tempDir, "topics/page.html").exists());
+    }
+
+    private Job execute(final boolean parallel, final PipelineHashIO input) throws Exception {
+        final XMLUtils xmlUtils = new XMLUtils();
+        final Job job = new Job(tempDir, new StreamStore(tempDir, xmlUtils));
+        job.setInputDir(create("file:/foo/bar/"));
+        job.setInputFile(create("file:/foo/bar/map.ditamap"));
+        job.add(new Builder()
+                .src(create("file:/foo/bar/map.ditamap"))
+                .uri(create("a.ditamap"))
+                .result(create("file:/foo/bar/map.ditamap"))
+                .format(ATTR_FORMAT_VALUE_DITAMAP)
+                .isInput(true)
+                .build());
+        job.add(new Builder()
+                .src(create("file:/foo/bar/topics/topic.dita"))
+                .uri(create("b.dita"))
+                .result(create("file:/foo/bar/topics/topic.dita"))
+                .format(ATTR_FORMAT_VALUE_DITA)
+                .build());
+        job.add(new Builder()
+                .src(create("file:/foo/bar/topics/page.html"))
+                .uri(create("c.html"))
+                .result(create("file:/foo/bar/topics/page.html"))
+                .format(ATTR_FORMAT_VALUE_HTML)
+                .build());
+        module.setJob(job);
+        module.setLogger(new CachingLogger(true));
+        module.setXmlUtils(xmlUtils);
+        module.setParallel(parallel);
+        module.setProcessingPipe(emptyList());
+        input.setAttribute("use-result-filename", "true");
+
+        module.execute(input);
+
+        return job;
+    }
+
+    private void assertCleaned(final Job job, final String topic) throws Exception {
+        assertFalse(new File(tempDir, "a.ditamap").exists());
+        assertFalse(new File(tempDir, "b.dita").exists());
+        assertEquals(create("file:/foo/bar/map.ditamap"), job.getFileInfo(create("map.ditamap")).result);
+        assertEquals(create("file:/foo/bar/" + topic), job.getFileInfo(create(topic)).result);
+
+        final XMLUtils xmlUtils = new XMLUtils();
+        final XdmNode map = xmlUtils.getProcessor().newDocumentBuilder()
+                .build(new File(tempDir, "map.ditamap"));
+        assertEquals(asList(topic, "topics/page.html"), getHrefs(map));
+        final XdmNode doc = xmlUtils.getProcessor().newDocumentBuilder()
+                .build(new File(tempDir, topic));
+        final String up = topic.replaceAll("[^/]+/", "../").replaceAll("[^/]+$", "");
+        assertEquals(singletonList(up + "map.ditamap"), getHrefs(doc));
+    }
+
+    private List<String> getHrefs(final XdmNode doc) {
+        return doc.select(descendant().then(attribute(ATTRIBUTE_NAME_HREF)))
+                .map(XdmNode::getStringValue)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import org.dita.dost.TestUtils;
+import org.dita.dost.TestUtils.CachingLogger;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.store.StreamStore;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.XMLUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.dita.dost.TestUtils.CachingLogger.Message.Level.ERROR;
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITA;
+import static org.junit.Assert.*;
+
+public class ConrefModuleTest {
+
+    private final File resourceDir = TestUtils.getResourceDir(ConrefModuleTest.class);
+    private File tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = TestUtils.createTempDir(getClass());
+        TestUtils.copy(new File(resourceDir, "src"), tempDir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        assertExecute(false);
+    }
+
+    @Test
+    public void testExecuteParallel() throws Exception {
+        assertExecute(true);
+    }
+
+    private void assertExecute(final boolean parallel) throws IOException, SAXException, DITAOTException {
+        final Job job = new Job(tempDir, new StreamStore(tempDir, new XMLUtils()));
+        job.setInputDir(tempDir.toURI());
+        job.add(new Job.FileInfo.Builder()
+                .src(new File(tempDir, "topic.dita").toURI())
+                .uri(URI.create("topic.dita"))
+                .format(ATTR_FORMAT_VALUE_DITA)
+                .hasConref(true)
+                .build());
+        job.add(new Job.FileInfo.Builder()
+                .src(new File(tempDir, "sub/target.dita").toURI())
+                .uri(URI.create("sub/target.dita"))
+                .format(ATTR_FORMAT_VALUE_DITA)
+                .build());
+        final ConrefModule module = new ConrefModule();
+        module.setJob(job);
+        module.setParallel(parallel);
+        final CachingLogger logger = new CachingLogger();
+        module.setLogger(logger);
+        module.setXmlUtils(new XMLUtils());
+
+        module.execute(new PipelineHashIO());
+
+        final Document doc = XMLUtils.getDocumentBuilder().parse(new File(tempDir, "topic.dita"));
+        final List<Element> ps = getElements(doc, "p");
+        assertEquals(3, ps.size());
+
+        final Element local = ps.get(0);
+        assertEquals("local", local.getAttribute("id"));
+        assertEquals("local", local.getAttribute("outputclass"));
+        assertEquals("expert", local.getAttribute("audience"));
+        assertFalse(local.hasAttribute("conref"));
+        final List<Element> xrefs = getElements(local, "xref");
+        assertEquals("sub/other.dita", xrefs.get(0).getAttribute("href"));
+        assertEquals("http://example.com/", xrefs.get(1).getAttribute("href"));
+        assertTrue(getElements(local, "codeph").isEmpty());
+        final Element ph = getElements(local, "ph").get(0);
+        assertNotEquals("code", ph.getAttribute("id"));
+
+        final Element same = ps.get(1);
+        assertFalse(same.hasAttribute("conref"));
+        assertEquals(1, getElements(same, "b").size());
+
+        final List<String> lis = getElements(doc, "li").stream()
+                .map(Element::getTextContent)
+                .collect(Collectors.toList());
+        assertEquals(3, lis.size());
+        assertEquals("First", lis.get(0));
+        assertEquals("Second", lis.get(1));
+        assertEquals("Last", lis.get(2));
+
+        final List<String> errors = logger.getMessages().stream()
+                .filter(m -> m.level == ERROR)
+                .map(m -> m.message)
+                .collect(Collectors.toList());
+        assertEquals(2, errors.size());
+        assertTrue(errors.stream().anyMatch(m -> m.contains("DOTX010E")));
+        assertTrue(errors.stream().anyMatch(m -> m.contains("DOTX013E")));
+    }
+
+    private static List<Element> getElements(final Document doc, final String name) {
+        return toList(doc.getElementsByTagName(name));
+    }
+
+    private static List<Element> getElements(final Element elem, final String name) {
+        return toList(elem.getElementsByTagName(name));
+    }
+
+    private static List<Element> toList(final NodeList nodes) {
+        final List<Element> res = new ArrayList<>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            res.add((Element) nodes.item(i));
+        }
+        return res;
+    }
+}
@@ -25,6 +25,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
@@ -39,14 +42,26 @@ import org.dita.dost.util.CatalogUtils;
 import org.dita.dost.util.Constants;
 import org.dita.dost.util.Job;
 
+@RunWith(Parameterized.class)
 public class DebugAndFilterModuleTest {
 
+    @Parameters(name = "parallel={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{{false}, {true}});
+    }
+
+    private final boolean parallel;
+
     final File resourceDir = TestUtils.getResourceDir(DebugAndFilterModuleTest.class);
     private File tempDir;
     private final File ditaDir = new File("src" + File.separator + "main");
     private File tmpDir;
     private File inputDir;
 
+    public DebugAndFilterModuleTest(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @BeforeClass
     public static void setUpClass() {
         CatalogUtils.setDitaDir(new File("src" + File.separator + "main").getAbsoluteFile());
@@ -97,6 +112,7 @@ public class DebugAndFilterModuleTest {
         module.setJob(job);
         module.setXmlUtils(new XMLUtils());
         module.setProcessingPipe(Collections.emptyList());
+        module.setParallel(parallel);
         
         module.execute(pipelineInput);
     }
@@ -40,6 +40,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 
 import static java.net.URI.create;
@@ -47,6 +49,8 @@ import static java.util.Collections.*;
 import static org.dita.dost.TestUtils.assertXMLEqual;
 import static org.dita.dost.TestUtils.createTempDir;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class KeyrefModuleTest {
 
@@ -188,6 +192,110 @@ public class KeyrefModuleTest {
         assertXMLEqual(exp, act);
     }
 
+    @Test
+    public void testWalkMapShareEquivalentScopes() throws IOException, XPathException {
+        inputMapFileInfo = new Builder()
+                .uri(create("test.ditamap"))
+                .src(new File(baseDir, "src" + File.separator + "test.ditamap").toURI())
+                .result(new File(baseDir, "src" + File.separator + "test.ditamap").toURI())
+                .format("ditamap")
+                .isInput(true)
+                .build();
+        job.add(inputMapFileInfo);
+        Files.write(new File(tempDir, "topic.dita").toPath(), ("<topic class='- topic/topic ' id='topic'>" +
+                "<title class='- topic/title '><ph class='- topic/ph ' keyref='VAR'/></title>" +
+                "</topic>").getBytes(StandardCharsets.UTF_8));
+
+        final XdmNode src = parse(inputMapFileInfo.src);
+        final KeyDef var = new KeyDef("VAR", null, "local", "dita", inputMapFileInfo.src, null);
+        final KeyScope childScope = new KeyScope("A", "A",
+                ImmutableMap.of(
+                        "VAR", var,
+                        "OTHER", new KeyDef("OTHER", null, "local", "dita", inputMapFileInfo.src, null)
+                ),
+                EMPTY_LIST
+        );
+        final KeyScope keyScope = new KeyScope("#root", null,
+                ImmutableMap.of("VAR", var),
+                singletonList(childScope)
+        );
+        final List<ResolveTask> res = new ArrayList<>();
+        final XdmDestination destination = new XdmDestination();
+        final Receiver receiver = destination.getReceiver(
+                xmlUtils.getProcessor().getUnderlyingConfiguration().makePipelineConfiguration(),
+                new SerializationProperties());
+        receiver.open();
+        module.walkMap(inputMapFileInfo, src, singletonList(keyScope), res, receiver);
+        receiver.close();
+
+        final long topicTasks = res.stream().filter(r -> r.in.uri.equals(create("topic.dita"))).count();
+        assertEquals(1, topicTasks);
+        final String act = destination.getXdmNode().toString();
+        assertFalse(act.contains("topic-1.dita"));
+    }
+
+    @Test
+    public void testWalkMapDoNotShareScopesWithRenamedKeyTarget() throws IOException, XPathException {
+        inputMapFileInfo = new Builder()
+                .uri(create("test3.ditamap"))
+                .src(new File(baseDir, "src" + File.separator + "test3.ditamap").toURI())
+                .result(new File(baseDir, "src" + File.separator + "test3.ditamap").toURI())
+                .format("ditamap")
+                .isInput(true)
+                .build();
+        job.add(inputMapFileInfo);
+        job.add(new FileInfo.Builder()
+                .uri(create("target.dita"))
+                .src(new File(baseDir, "src" + File.separator + "target.dita").toURI())
+                .result(new File(baseDir, "src" + File.separator + "target.dita").toURI())
+                .format("dita")
+                .hasKeyref(true)
+                .build());
+        Files.write(new File(tempDir, "target.dita").toPath(), ("<topic class='- topic/topic ' id='target'>" +
+                "<title class='- topic/title '><ph class='- topic/ph ' keyref='OTHER'/></title>" +
+                "</topic>").getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(tempDir, "topic.dita").toPath(), ("<topic class='- topic/topic ' id='topic'>" +
+                "<title class='- topic/title '><xref class='- topic/xref ' keyref='VAR'/></title>" +
+                "</topic>").getBytes(StandardCharsets.UTF_8));
+
+        final XdmNode src = parse(inputMapFileInfo.src);
+        final KeyDef var = new KeyDef("VAR", create("target.dita"), "local", "dita", inputMapFileInfo.src, null);
+        final KeyScope childScope = new KeyScope("A", "A",
+                ImmutableMap.of(
+                        "VAR", var,
+                        "OTHER", new KeyDef("OTHER", null, "local", "dita", inputMapFileInfo.src, null)
+                ),
+                EMPTY_LIST
+        );
+        final KeyScope keyScope = new KeyScope("#root", null,
+                ImmutableMap.of("VAR", var),
+                singletonList(childScope)
+        );
+        final List<ResolveTask> res = new ArrayList<>();
+        final XdmDestination destination = new XdmDestination();
+        final Receiver receiver = destination.getReceiver(
+                xmlUtils.getProcessor().getUnderlyingConfiguration().makePipelineConfiguration(),
+                new SerializationProperties());
+        receiver.open();
+        module.walkMap(inputMapFileInfo, src, singletonList(keyScope), res, receiver);
+        receiver.close();
+        final List<ResolveTask> act = module.adjustResourceRenames(res);
+
+        final String map = destination.getXdmNode().toString();
+        assertTrue(map.contains("target-1.dita"));
+        assertTrue(map.contains("topic-1.dita"));
+        final Map<String, URI> hrefs = new HashMap<>();
+        for (final ResolveTask task : act) {
+            if (task.in.uri.equals(create("topic.dita"))) {
+                final URI out = task.out != null ? task.out.uri : task.in.uri;
+                hrefs.put(out.toString(), task.scope.get("VAR").href);
+            }
+        }
+        assertEquals(2, hrefs.size());
+        assertEquals(create("target.dita"), hrefs.get("topic.dita"));
+        assertEquals(create("target-1.dita"), hrefs.get("topic-1.dita"));
+    }
+
 	@Test
 	public void testWalkMapAndRewriteKeydefHref() throws ParserConfigurationException, IOException, SAXException, URISyntaxException, XPathException {
         inputMapFileInfo = new Builder()
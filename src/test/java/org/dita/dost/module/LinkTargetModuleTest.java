@@ -0,0 +1,82 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import net.sf.saxon.s9api.XdmNode;
+import org.dita.dost.TestUtils;
+import org.dita.dost.TestUtils.CachingLogger;
+import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.store.StreamStore;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.LinkTargetTable;
+import org.dita.dost.util.XMLUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Map;
+
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITA;
+import static org.junit.Assert.*;
+
+public class LinkTargetModuleTest {
+
+    private final File resourceDir = TestUtils.getResourceDir(LinkTargetModuleTest.class);
+    private File tempDir;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = TestUtils.createTempDir(getClass());
+        TestUtils.copy(new File(resourceDir, "src"), tempDir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        final XMLUtils xmlUtils = new XMLUtils();
+        final Job job = new Job(tempDir, new StreamStore(tempDir, xmlUtils));
+        for (final String uri : new String[] {"simple.dita", "complex.dita"}) {
+            job.add(new Job.FileInfo.Builder()
+                    .src(new File(tempDir, uri).toURI())
+                    .uri(URI.create(uri))
+                    .format(ATTR_FORMAT_VALUE_DITA)
+                    .build());
+        }
+        final LinkTargetModule module = new LinkTargetModule();
+        module.setJob(job);
+        module.setLogger(new CachingLogger(true));
+        module.setXmlUtils(xmlUtils);
+
+        module.execute(new PipelineHashIO());
+
+        final XdmNode doc = xmlUtils.getProcessor().newDocumentBuilder()
+                .build(new File(tempDir, LinkTargetTable.FILE_NAME));
+        final Map<URI, XdmNode> targets = LinkTargetTable.index(doc);
+
+        final XdmNode simple = targets.get(URI.create("simple.dita#simple"));
+        assertNotNull(simple);
+        assertSame(simple, targets.get(URI.create("simple.dita")));
+        assertEquals("concept", simple.getNodeName().getLocalName());
+        assertEquals("- topic/topic concept/concept ", simple.attribute("class"));
+        assertEquals("Simple  titleSimple short description.", simple.getStringValue());
+
+        final XdmNode nested = targets.get(URI.create("simple.dita#nested"));
+        assertNotNull(nested);
+        assertEquals("Nested", nested.getStringValue());
+
+        assertNull(targets.get(URI.create("simple.dita#abstract")));
+        assertNull(targets.get(URI.create("complex.dita#complex")));
+        assertNull(targets.get(URI.create("complex.dita")));
+    }
+}
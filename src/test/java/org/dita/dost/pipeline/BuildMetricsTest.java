@@ -0,0 +1,87 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pipeline;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class BuildMetricsTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final BuildMetrics metrics = BuildMetrics.get();
+
+    @Test
+    public void pipeline() throws Exception {
+        metrics.startStage("test/Module");
+        metrics.addFiles(3);
+        metrics.fileDone();
+        final ObjectName name = new ObjectName(BuildMetrics.DOMAIN + ":type=Pipeline");
+
+        assertEquals("test/Module", server.getAttribute(name, "Stage"));
+        assertEquals(1L, server.getAttribute(name, "FilesDone"));
+        assertEquals(2L, server.getAttribute(name, "FilesRemaining"));
+
+        metrics.endStage("BuildMetricsTestModule", 10);
+        assertNull(server.getAttribute(name, "Stage"));
+        final TabularData times = (TabularData) server.getAttribute(name, "ModuleTimes");
+        final CompositeData row = times.get(new Object[] {"BuildMetricsTestModule"});
+        assertEquals(10L, row.get("value"));
+    }
+
+    @Test
+    public void store() throws Exception {
+        final ObjectName name = new ObjectName(BuildMetrics.DOMAIN + ":type=Store");
+        final long reads = (Long) server.getAttribute(name, "ReadCount");
+        final long bytes = (Long) server.getAttribute(name, "BytesRead");
+
+        metrics.read(100);
+
+        assertEquals(reads + 1, server.getAttribute(name, "ReadCount"));
+        assertEquals(bytes + 100, server.getAttribute(name, "BytesRead"));
+    }
+
+    @Test
+    public void cache() throws Exception {
+        final BuildMetrics.Cache cache = metrics.getCache("BuildMetricsTest");
+        assertSame(cache, metrics.getCache("BuildMetricsTest"));
+        cache.hit();
+        cache.hit();
+        cache.hit();
+        cache.miss();
+        cache.evict();
+        cache.delete();
+        cache.delete();
+        final ObjectName name = new ObjectName(BuildMetrics.DOMAIN + ":type=Cache,name=BuildMetricsTest");
+
+        assertEquals(3L, server.getAttribute(name, "HitCount"));
+        assertEquals(1L, server.getAttribute(name, "MissCount"));
+        assertEquals(1L, server.getAttribute(name, "EvictionCount"));
+        assertEquals(2L, server.getAttribute(name, "DeleteCount"));
+        assertEquals(0.75, (Double) server.getAttribute(name, "HitRate"), 0.0);
+    }
+
+    @Test
+    public void messages() throws Exception {
+        final ObjectName name = new ObjectName(BuildMetrics.DOMAIN + ":type=Messages");
+        final long errors = (Long) server.getAttribute(name, "ErrorCount");
+
+        metrics.message("TEST001E", true);
+        metrics.message(null, true);
+
+        assertEquals(errors + 2, server.getAttribute(name, "ErrorCount"));
+        final TabularData counts = (TabularData) server.getAttribute(name, "ErrorCounts");
+        assertEquals(1L, counts.get(new Object[] {"TEST001E"}).get("value"));
+    }
+}
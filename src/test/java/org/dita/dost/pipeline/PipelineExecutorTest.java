@@ -0,0 +1,115 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pipeline;
+
+import org.dita.dost.exception.DITAOTException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class PipelineExecutorTest {
+
+    private PipelineExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new PipelineExecutor(4, false);
+    }
+
+    @After
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void map() throws DITAOTException {
+        final List<Integer> act = executor.map(asList(1, 2, 3, 4, 5, 6, 7, 8), i -> i, i -> i * 10);
+
+        assertEquals(asList(10, 20, 30, 40, 50, 60, 70, 80), act);
+    }
+
+    @Test
+    public void forEachLargestFirst() throws DITAOTException {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        executor.withParallelism(1).forEach(asList(3, 10, 1, 7), i -> i, order::add);
+
+        assertEquals(asList(10, 7, 3, 1), order);
+    }
+
+    @Test
+    public void withParallelism() throws DITAOTException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(i);
+        }
+
+        executor.withParallelism(2).forEach(items, null, i -> {
+            max.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+        });
+
+        assertTrue(max.get() <= 2);
+    }
+
+    @Test
+    public void forEachFailure() {
+        final AtomicInteger processed = new AtomicInteger();
+        try {
+            executor.forEach(asList(1, 2, 3, 4, 5), i -> i, i -> {
+                processed.incrementAndGet();
+                if (i == 2) {
+                    throw new DITAOTException("Failed " + i);
+                } else if (i == 4) {
+                    throw new IOException("Failed " + i);
+                }
+            });
+            fail();
+        } catch (final DITAOTException e) {
+            assertEquals("Failed 2", e.getMessage());
+            assertEquals(1, e.getSuppressed().length);
+            assertEquals("Failed 4", e.getSuppressed()[0].getMessage());
+        }
+        assertEquals(5, processed.get());
+    }
+
+    @Test
+    public void forEachUncheckedFailure() {
+        try {
+            executor.forEach(asList(1, 2), null, i -> {
+                throw new IllegalStateException("Failed " + i);
+            });
+            fail();
+        } catch (final DITAOTException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("Failed 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void empty() throws DITAOTException {
+        assertTrue(executor.map(Collections.<Integer>emptyList(), null, i -> i).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidParallelism() {
+        executor.withParallelism(0);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+
+import static org.dita.dost.pipeline.Profiler.Operation.PARSE;
+import static org.dita.dost.pipeline.Profiler.Operation.TRANSFORM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProfilerTest {
+
+    private final Profiler profiler = new Profiler();
+
+    @Test
+    public void writeTrace() throws IOException {
+        profiler.startStage("debug-filter");
+        profiler.record(URI.create("file:/tmp/topic.dita"), TRANSFORM, System.nanoTime(), 100, 200);
+        profiler.record(URI.create("file:/tmp/topic.dita"), PARSE, System.nanoTime(), 100, 0);
+        profiler.endStage();
+
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        profiler.writeTrace(buf);
+
+        final JsonNode events = new ObjectMapper().readTree(buf.toByteArray()).get("traceEvents");
+        assertEquals(4, events.size());
+        assertEquals("M", events.get(0).get("ph").asText());
+        assertEquals("debug-filter", events.get(1).get("name").asText());
+        assertEquals("stage", events.get(1).get("cat").asText());
+        assertEquals("file:/tmp/topic.dita", events.get(2).get("name").asText());
+        assertEquals("transform", events.get(2).get("cat").asText());
+        assertEquals("debug-filter", events.get(2).get("args").get("stage").asText());
+        assertEquals(200, events.get(2).get("args").get("bytesWritten").asLong());
+    }
+
+    @Test
+    public void getSummary() {
+        profiler.startStage("debug-filter");
+        profiler.record(URI.create("file:/tmp/topic.dita"), TRANSFORM, System.nanoTime(), 2048, 4096);
+        profiler.record(URI.create("file:/tmp/task.dita"), TRANSFORM, System.nanoTime(), 2048, 4096);
+        profiler.startStage("topicpull");
+        profiler.record(URI.create("file:/tmp/topic.dita"), PARSE, System.nanoTime(), 1024, 0);
+        profiler.endStage();
+
+        final String[] lines = profiler.getSummary().split("\\R");
+        assertTrue(lines[0].startsWith("Stage"));
+        final String[] debugFilter = lines[1].trim().split("\\s+");
+        assertEquals("debug-filter", debugFilter[0]);
+        assertEquals("2", debugFilter[2]);
+        assertEquals("2", debugFilter[3]);
+        assertEquals("4", debugFilter[6]);
+        assertEquals("8", debugFilter[7]);
+        final String[] topicpull = lines[2].trim().split("\\s+");
+        assertEquals("topicpull", topicpull[0]);
+        assertEquals("1", topicpull[2]);
+        assertEquals("1", topicpull[3]);
+        assertTrue(profiler.getSummary().contains("file:/tmp/topic.dita"));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.store;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DocumentPoolTest {
+
+    private static final URI FIRST = URI.create("file:/tmp/first.dita");
+    private static final URI SECOND = URI.create("file:/tmp/second.dita");
+    private static final URI THIRD = URI.create("file:/tmp/third.dita");
+
+    private final Processor processor = new Processor(false);
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        loads = new AtomicInteger();
+    }
+
+    private XdmNode load(final URI uri) throws SaxonApiException {
+        loads.incrementAndGet();
+        final StreamSource source = new StreamSource(new StringReader("<topic/>"), uri.toString());
+        return processor.newDocumentBuilder().build(source);
+    }
+
+    @Test
+    public void get() throws SaxonApiException {
+        final DocumentPool pool = new DocumentPool(10);
+
+        final XdmNode first = pool.get(FIRST, 1L, this::load);
+        assertSame(first, pool.get(FIRST, 1L, this::load));
+        assertEquals(1, loads.get());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+
+        final XdmNode changed = pool.get(FIRST, 2L, this::load);
+        assertNotSame(first, changed);
+        assertSame(changed, pool.get(FIRST, 2L, this::load));
+        assertEquals(2, loads.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void invalidate() throws SaxonApiException {
+        final DocumentPool pool = new DocumentPool(10);
+
+        final XdmNode first = pool.get(FIRST, 1L, this::load);
+        pool.get(SECOND, 1L, this::load);
+        pool.invalidate(FIRST);
+        assertEquals(1, pool.size());
+        assertNotSame(first, pool.get(FIRST, 1L, this::load));
+        assertEquals(3, loads.get());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void invalidateDuringLoad() throws SaxonApiException {
+        final DocumentPool pool = new DocumentPool(10);
+
+        pool.get(FIRST, 1L, uri -> {
+            pool.invalidate(uri);
+            return load(uri);
+        });
+        assertEquals(0, pool.size());
+        pool.get(FIRST, 1L, this::load);
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void evict() throws SaxonApiException {
+        final DocumentPool pool = new DocumentPool(2);
+
+        pool.get(FIRST, 1L, this::load);
+        pool.get(SECOND, 1L, this::load);
+        pool.get(FIRST, 1L, this::load);
+        pool.get(THIRD, 1L, this::load);
+        assertEquals(2, pool.size());
+        assertEquals(3, loads.get());
+
+        pool.get(FIRST, 1L, this::load);
+        assertEquals(3, loads.get());
+        pool.get(SECOND, 1L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void disabled() throws SaxonApiException {
+        final DocumentPool pool = new DocumentPool(0);
+
+        pool.get(FIRST, 1L, this::load);
+        pool.get(FIRST, 1L, this::load);
+        assertEquals(2, loads.get());
+        assertEquals(0, pool.size());
+    }
+}
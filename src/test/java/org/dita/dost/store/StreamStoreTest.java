@@ -9,7 +9,10 @@
 package org.dita.dost.store;
 
 import com.google.common.io.Files;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.s9api.Axis;
 import net.sf.saxon.s9api.Destination;
+import net.sf.saxon.s9api.QName;
 import net.sf.saxon.s9api.SaxonApiException;
 import net.sf.saxon.s9api.Serializer;
 import net.sf.saxon.s9api.XdmNode;
@@ -19,9 +22,19 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.helpers.DefaultHandler;
 
+import javax.xml.transform.Source;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
 
 public class StreamStoreTest {
 
@@ -46,6 +59,53 @@ public class StreamStoreTest {
         serializer.serializeNode(source);
     }
 
+    @Test
+    public void resolve_pooled() throws Exception {
+        final URI file = new File(tmpDir, "foo.xml").toURI();
+        final Document doc = XMLUtils.getDocumentBuilder().newDocument();
+        doc.appendChild(doc.createElement("foo"));
+        store.writeDocument(doc, file);
+
+        final Source first = store.resolve("foo.xml", tmpDir.toURI().toString());
+        assertTrue(first instanceof NodeInfo);
+        assertSame(first, store.resolve(file.toString(), null));
+        assertEquals(1, store.getDocumentPool().size());
+
+        doc.getDocumentElement().setAttribute("bar", "baz");
+        store.writeDocument(doc, file);
+        assertEquals(0, store.getDocumentPool().size());
+        final NodeInfo second = (NodeInfo) store.resolve(file.toString(), null);
+        assertNotSame(first, second);
+        final XdmNode root = (XdmNode) new XdmNode(second).axisIterator(Axis.CHILD).next();
+        assertEquals("baz", root.getAttributeValue(new QName("bar")));
+    }
+
+    @Test
+    public void transform_fragment() throws Exception {
+        final URI file = new File(tmpDir, "foo.xml").toURI();
+        final Document doc = XMLUtils.getDocumentBuilder().newDocument();
+        doc.appendChild(doc.createElement("foo"));
+        store.writeDocument(doc, file);
+
+        final List<String> elements = new ArrayList<>();
+        final String[] systemId = new String[1];
+        store.transform(file.resolve("#bar"), new DefaultHandler() {
+            @Override
+            public void setDocumentLocator(final Locator locator) {
+                systemId[0] = locator.getSystemId();
+            }
+
+            @Override
+            public void startElement(final String uri, final String localName, final String qName,
+                                     final Attributes atts) {
+                elements.add(localName);
+            }
+        });
+
+        assertEquals(Collections.singletonList("foo"), elements);
+        assertEquals(file.resolve("#bar").toString(), systemId[0]);
+    }
+
     @After
     public void tearDown() throws Exception {
 //        FileUtils.deleteDirectory(tmpDir);
@@ -0,0 +1,81 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.apache.xml.resolver.CatalogManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.transform.Source;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CachingCatalogResolverTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File dir;
+    private CachingCatalogResolver resolver;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = temporaryFolder.newFolder();
+        final File catalog = new File(dir, "catalog.xml");
+        Files.write(catalog.toPath(), ("<catalog xmlns='urn:oasis:names:tc:entity:xmlns:xml:catalog' prefer='public'>" +
+                "<public publicId='-//TEST//DTD Test//EN' uri='test.dtd'/>" +
+                "<system systemId='http://example.com/test.dtd' uri='test.dtd'/>" +
+                "<uri name='plugin:test:test.xsl' uri='test.xsl'/>" +
+                "</catalog>").getBytes(StandardCharsets.UTF_8));
+        final CatalogManager manager = new CatalogManager();
+        manager.setIgnoreMissingProperties(true);
+        manager.setUseStaticCatalog(false);
+        manager.setPreferPublic(true);
+        manager.setCatalogFiles(catalog.toURI().toASCIIString());
+        resolver = new CachingCatalogResolver(manager);
+    }
+
+    @Test
+    public void getResolvedEntity() {
+        final String exp = new File(dir, "test.dtd").toURI().toString();
+
+        assertEquals(exp, normalize(resolver.getResolvedEntity("-//TEST//DTD Test//EN", "test.dtd")));
+        assertEquals(exp, normalize(resolver.getResolvedEntity("-//TEST//DTD Test//EN", "test.dtd")));
+        assertEquals(exp, normalize(resolver.getResolvedEntity(null, "http://example.com/test.dtd")));
+        assertNull(resolver.getResolvedEntity("-//TEST//DTD Missing//EN", "missing.dtd"));
+        assertNull(resolver.getResolvedEntity("-//TEST//DTD Missing//EN", "missing.dtd"));
+
+        assertEquals(2, resolver.getHitCount());
+        assertEquals(3, resolver.getMissCount());
+    }
+
+    @Test
+    public void resolve() throws Exception {
+        final String exp = new File(dir, "test.xsl").toURI().toString();
+
+        final Source first = resolver.resolve("plugin:test:test.xsl", null);
+        assertEquals(exp, normalize(first.getSystemId()));
+        final Source second = resolver.resolve("plugin:test:test.xsl", null);
+        assertEquals(exp, normalize(second.getSystemId()));
+        final Source relative = resolver.resolve("other.xsl", dir.toURI().toString());
+        assertEquals(new File(dir, "other.xsl").toURI().toString(), normalize(relative.getSystemId()));
+
+        assertEquals(1, resolver.getHitCount());
+        assertEquals(2, resolver.getMissCount());
+    }
+
+    private static String normalize(final String uri) {
+        return uri.replace("file:///", "file:/");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.dita.dost.TestUtils;
+import org.dita.dost.store.StreamStore;
+import org.dita.dost.util.ElementIndex.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ElementIndexTest {
+
+    private static final URI TOPIC = URI.create("topics/topic.dita");
+    private static final URI MAP = URI.create("map.ditamap");
+
+    private File tempDir;
+    private StreamStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = TestUtils.createTempDir(getClass());
+        store = new StreamStore(tempDir, new XMLUtils());
+    }
+
+    @Test
+    public void find() {
+        final ElementIndex index = new ElementIndex();
+        index.put(TOPIC, asList(
+                new Element("topic", "- topic/topic ", "Topic title", 0),
+                new Element("topic/p", "- topic/p ", null, 3)));
+
+        assertEquals("Topic title", index.find(TOPIC, "topic").title);
+        assertEquals(3, index.find(URI.create("topics/topic.dita#topic/p")).offset);
+        assertNull(index.find(TOPIC, "topic/missing"));
+        assertNull(index.find(URI.create("topics/topic.dita")));
+        assertNull(index.find(MAP, "topic"));
+        assertTrue(index.get(MAP).isEmpty());
+    }
+
+    @Test
+    public void readWrite() throws IOException {
+        final ElementIndex exp = new ElementIndex();
+        exp.put(TOPIC, asList(
+                new Element("topic", "- topic/topic ", "Title with \"quotes\" & <markup>", 0),
+                new Element("topic/p", "- topic/p ", null, 3)));
+        exp.put(MAP, asList(new Element("ref", "- map/topicref ", "Nav", 1)));
+        exp.write(store, tempDir.toURI());
+
+        final ElementIndex act = ElementIndex.read(store, tempDir.toURI());
+        assertEquals(exp.getFiles(), act.getFiles());
+        assertEquals(new ArrayList<>(exp.get(TOPIC)), new ArrayList<>(act.get(TOPIC)));
+        assertEquals(new ArrayList<>(exp.get(MAP)), new ArrayList<>(act.get(MAP)));
+    }
+
+    @Test
+    public void readMissing() throws IOException {
+        assertTrue(ElementIndex.read(store, tempDir.toURI()).getFiles().isEmpty());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        TestUtils.forceDelete(tempDir);
+    }
+}
@@ -52,6 +52,16 @@ public class FilterUtilsTest {
             .put(new FilterKey(AUDIENCE, "novice"), Action.EXCLUDE)
             .build();
 
+    @Test
+    public void testEquals() {
+        final FilterUtils f = new FilterUtils(false, filterMap, null, null);
+
+        assertEquals(f, new FilterUtils(false, new HashMap<>(filterMap), null, null));
+        assertEquals(f.hashCode(), new FilterUtils(false, new HashMap<>(filterMap), null, null).hashCode());
+        assertNotEquals(f, new FilterUtils(true, filterMap, null, null));
+        assertNotEquals(f, new FilterUtils(false, filterMap, "red", null));
+    }
+
     @Test
     public void testNeedExcludeNoAttribute() {
         final FilterUtils f = new FilterUtils(false, filterMap, null, null);
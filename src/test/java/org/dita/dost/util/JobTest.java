@@ -73,6 +73,42 @@ public final class JobTest {
         assertEquals(new URI("file:/foo/bar"), job.getInputDir());
     }
 
+    @Test
+    public void testWriteModified() throws IOException {
+        final File dir = new File(tempDir, "modified");
+        TestUtils.copy(srcDir, dir);
+        final Job j = new Job(dir, new StreamStore(dir, new XMLUtils()));
+        j.write();
+        assertFalse(j.isModified());
+
+        final Job.FileInfo fi = j.getFileInfo().iterator().next();
+        fi.isTarget = !fi.isTarget;
+        j.add(fi);
+        assertTrue(j.isModified());
+        j.write();
+        assertFalse(j.isModified());
+        assertEquals(fi.isTarget, new Job(dir, j.getStore()).getFileInfo(fi.uri).isTarget);
+
+        j.setProperty("foo", "bar");
+        assertTrue(j.isModified());
+    }
+
+    @Test
+    public void testDeferWrite() throws IOException {
+        final File dir = new File(tempDir, "defer");
+        TestUtils.copy(srcDir, dir);
+        final Job j = new Job(dir, new StreamStore(dir, new XMLUtils()));
+        j.setDeferWrite(true);
+        j.setProperty("foo", "bar");
+        j.write();
+        assertTrue(j.isModified());
+        assertNull(new Job(dir, j.getStore()).getProperty("foo"));
+
+        j.flush();
+        assertFalse(j.isModified());
+        assertEquals("bar", new Job(dir, j.getStore()).getProperty("foo"));
+    }
+
     @Test
     @Ignore
     public void write_performance_large() throws IOException {
@@ -0,0 +1,99 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.dita.dost.util.URLUtils.toURI;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class KeyScopeTest {
+
+    @Test
+    public void getChildScope() {
+        final KeyScope a = new KeyScope("a", "a", emptyMap(), emptyList());
+        final KeyScope b = new KeyScope("b", "b", emptyMap(), emptyList());
+        final KeyScope b2 = new KeyScope("b2", "b", emptyMap(), emptyList());
+        final KeyScope root = new KeyScope(KeyScope.ROOT_ID, null, emptyMap(), asList(a, b, b2));
+
+        assertSame(a, root.getChildScope("a"));
+        assertSame(b, root.getChildScope("b"));
+        assertNull(root.getChildScope("c"));
+    }
+
+    @Test
+    public void overlay() {
+        final Map<String, KeyDef> parent = new HashMap<>();
+        parent.put("a", keyDef("a", "parent"));
+        parent.put("b", keyDef("b", "parent"));
+        final Map<String, KeyDef> local = new HashMap<>();
+        local.put("b", keyDef("b", "local"));
+        local.put("c", keyDef("c", "local"));
+
+        final Map<String, KeyDef> act = KeyScope.overlay(asList(parent, local));
+
+        final Map<String, KeyDef> exp = new HashMap<>();
+        exp.putAll(local);
+        exp.putAll(parent);
+        assertEquals(exp, act);
+        assertEquals(act, exp);
+        assertEquals(exp.hashCode(), act.hashCode());
+        assertEquals(3, act.size());
+        assertEquals(toURI("parent"), act.get("b").href);
+        assertTrue(act.containsKey("c"));
+        assertFalse(act.containsKey("d"));
+    }
+
+    @Test
+    public void overlayNested() {
+        final Map<String, KeyDef> root = new HashMap<>();
+        root.put("a", keyDef("a", "root"));
+        final Map<String, KeyDef> child = new HashMap<>();
+        child.put("a", keyDef("a", "child"));
+        child.put("b", keyDef("b", "child"));
+        final Map<String, KeyDef> grandchild = new HashMap<>();
+        grandchild.put("b", keyDef("b", "grandchild"));
+        grandchild.put("c", keyDef("c", "grandchild"));
+
+        final Map<String, KeyDef> act = KeyScope.overlay(asList(KeyScope.overlay(asList(root, child)), grandchild));
+
+        assertEquals(3, act.size());
+        assertEquals(toURI("root"), act.get("a").href);
+        assertEquals(toURI("child"), act.get("b").href);
+        assertEquals(toURI("grandchild"), act.get("c").href);
+    }
+
+    @Test
+    public void overlayEmpty() {
+        final Map<String, KeyDef> local = new HashMap<>();
+        local.put("a", keyDef("a", "local"));
+
+        assertSame(local, KeyScope.overlay(asList(emptyMap(), local)));
+        assertTrue(KeyScope.overlay(asList(emptyMap(), emptyMap())).isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void overlayUnmodifiable() {
+        final Map<String, KeyDef> parent = new HashMap<>();
+        parent.put("a", keyDef("a", "parent"));
+        final Map<String, KeyDef> local = new HashMap<>();
+        local.put("b", keyDef("b", "local"));
+
+        KeyScope.overlay(asList(parent, local)).put("c", keyDef("c", "local"));
+    }
+
+    private static KeyDef keyDef(final String key, final String href) {
+        return new KeyDef(key, toURI(href), null, null, null, null);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.dita.dost.util.ParserPool.Config;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.DocumentBuilder;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParserPoolTest {
+
+    private static final Config CONFIG = Config.DEFAULT.validating(false);
+
+    @Test
+    public void borrowXMLReader() throws Exception {
+        final XMLReader first = ParserPool.borrowXMLReader(CONFIG);
+        final List<String> elements = new ArrayList<>();
+        first.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(final String uri, final String localName, final String qName,
+                                     final Attributes atts) {
+                elements.add(localName);
+            }
+        });
+        first.setEntityResolver(new DefaultHandler());
+        first.parse(new InputSource(new StringReader("<a xmlns='urn:test'><b/></a>")));
+        ParserPool.returnXMLReader(CONFIG, first);
+
+        assertEquals(2, elements.size());
+        assertEquals("a", elements.get(0));
+        final XMLReader second = ParserPool.borrowXMLReader(CONFIG);
+        try {
+            assertSame(first, second);
+            assertNull(second.getContentHandler());
+            assertNull(second.getEntityResolver());
+            assertTrue(second.getFeature("http://xml.org/sax/features/namespaces"));
+        } finally {
+            ParserPool.returnXMLReader(CONFIG, second);
+        }
+    }
+
+    @Test
+    public void borrowXMLReaderConfig() throws Exception {
+        final XMLReader nonNamespaceAware = ParserPool.borrowXMLReader(CONFIG.namespaceAware(false));
+        final XMLReader namespaceAware = ParserPool.borrowXMLReader(CONFIG);
+        try {
+            assertNotSame(nonNamespaceAware, namespaceAware);
+            assertFalse(nonNamespaceAware.getFeature("http://xml.org/sax/features/namespaces"));
+        } finally {
+            ParserPool.returnXMLReader(CONFIG.namespaceAware(false), nonNamespaceAware);
+            ParserPool.returnXMLReader(CONFIG, namespaceAware);
+        }
+    }
+
+    @Test
+    public void borrowXMLReaderParser() throws Exception {
+        final Config config = CONFIG
+                .parser("org.apache.xerces.parsers.SAXParser")
+                .namespacePrefixes(true)
+                .features(Collections.singletonMap("http://xml.org/sax/features/external-general-entities", false));
+        final XMLReader reader = ParserPool.borrowXMLReader(config);
+        try {
+            assertEquals("org.apache.xerces.parsers.SAXParser", reader.getClass().getName());
+            assertTrue(reader.getFeature("http://xml.org/sax/features/namespaces"));
+            assertTrue(reader.getFeature("http://xml.org/sax/features/namespace-prefixes"));
+            assertFalse(reader.getFeature("http://xml.org/sax/features/external-general-entities"));
+        } finally {
+            ParserPool.returnXMLReader(config, reader);
+        }
+    }
+
+    @Test
+    public void borrowDocumentBuilder() throws Exception {
+        final DocumentBuilder first = ParserPool.borrowDocumentBuilder(CONFIG);
+        final Document doc = first.parse(new InputSource(new StringReader("<a xmlns='urn:test'/>")));
+        ParserPool.returnDocumentBuilder(CONFIG, first);
+
+        assertEquals("urn:test", doc.getDocumentElement().getNamespaceURI());
+        final DocumentBuilder second = ParserPool.borrowDocumentBuilder(CONFIG);
+        try {
+            assertSame(first, second);
+            assertTrue(second.isNamespaceAware());
+        } finally {
+            ParserPool.returnDocumentBuilder(CONFIG, second);
+        }
+    }
+
+    @Test
+    public void borrowXMLReaderTemporary() throws Exception {
+        final XMLReader reader = ParserPool.borrowXMLReader(Config.TEMPORARY);
+        final List<String> elements = new ArrayList<>();
+        try {
+            reader.setContentHandler(new DefaultHandler() {
+                @Override
+                public void startElement(final String uri, final String localName, final String qName,
+                                         final Attributes atts) {
+                    elements.add(localName);
+                }
+            });
+            reader.parse(new InputSource(new StringReader(
+                    "<!DOCTYPE a SYSTEM 'missing.dtd'><a xmlns='urn:test'><b/></a>")));
+        } finally {
+            ParserPool.returnXMLReader(Config.TEMPORARY, reader);
+        }
+
+        assertEquals(2, elements.size());
+        assertNotEquals(Config.DEFAULT, Config.TEMPORARY);
+    }
+
+    @Test
+    public void config() {
+        assertEquals(Config.DEFAULT, Config.DEFAULT.catalog(true).catalog(false));
+        assertEquals(Config.DEFAULT.hashCode(), Config.DEFAULT.grammarPool(true).grammarPool(false).hashCode());
+        assertNotEquals(Config.DEFAULT, Config.DEFAULT.validating(true));
+        assertEquals(Config.DEFAULT.features(Collections.singletonMap("urn:feature", true)),
+                Config.DEFAULT.features(Collections.singletonMap("urn:feature", true)));
+        assertNotEquals(Config.DEFAULT, Config.DEFAULT.parser("org.apache.xerces.parsers.SAXParser"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class PathSetTest {
+
+    private PathTable table;
+
+    @Before
+    public void setUp() {
+        table = new PathTable();
+    }
+
+    @Test
+    public void intern() {
+        final URI a = URI.create("file:/foo/a.dita");
+        final URI b = URI.create("file:/foo/a.dita");
+
+        assertSame(a, table.intern(a));
+        assertSame(a, table.intern(b));
+        assertEquals(table.id(a), table.id(b));
+        assertEquals(1, table.size());
+        assertNull(table.intern(null));
+        assertEquals(-1, table.find(URI.create("file:/foo/b.dita")));
+    }
+
+    @Test
+    public void internGrow() {
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, table.id(URI.create("file:/foo/" + i + ".dita")));
+        }
+        assertEquals(URI.create("file:/foo/4321.dita"), table.get(4321));
+    }
+
+    @Test
+    public void set() {
+        final PathSet first = new PathSet(table);
+        final PathSet second = new PathSet(table);
+
+        assertTrue(first.add(URI.create("b.dita")));
+        assertTrue(first.add(URI.create("a.dita")));
+        assertFalse(first.add(URI.create("b.dita")));
+        assertTrue(second.add(URI.create("a.dita")));
+
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertTrue(first.contains(URI.create("a.dita")));
+        assertFalse(second.contains(URI.create("b.dita")));
+        assertFalse(second.contains(URI.create("c.dita")));
+        assertFalse(first.contains("a.dita"));
+        assertEquals(asList(URI.create("b.dita"), URI.create("a.dita")), new ArrayList<>(first));
+
+        assertTrue(first.remove(URI.create("b.dita")));
+        assertFalse(first.remove(URI.create("b.dita")));
+        assertEquals(1, first.size());
+    }
+
+    @Test
+    public void iteratorSnapshot() {
+        final PathSet set = new PathSet(table);
+        set.addAll(asList(URI.create("a.dita"), URI.create("b.dita")));
+
+        final List<URI> act = new ArrayList<>();
+        for (final URI uri : set) {
+            act.add(uri);
+            set.add(URI.create("c.dita"));
+        }
+        assertEquals(asList(URI.create("a.dita"), URI.create("b.dita")), act);
+
+        final Iterator<URI> it = set.iterator();
+        it.next();
+        it.remove();
+        assertEquals(asList(URI.create("b.dita"), URI.create("c.dita")), new ArrayList<>(set));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SaxBufferTest {
+
+    private static final String DOC = "<?pi data?><a xmlns='urn:a' xmlns:b='urn:b' id='1' b:att='x'>"
+            + "text<!-- comment --><b:b id='1'>more</b:b></a>";
+
+    @Test
+    public void replay() throws Exception {
+        final SaxBuffer buffer = record(DOC);
+
+        final List<String> direct = new ArrayList<>();
+        final XMLReader reader = ParserPool.borrowXMLReader(ParserPool.Config.DEFAULT);
+        try {
+            final EventHandler handler = new EventHandler(direct);
+            reader.setContentHandler(handler);
+            reader.setProperty("http://xml.org/sax/properties/lexical-handler", handler);
+            reader.parse(new InputSource(new StringReader(DOC)));
+        } finally {
+            ParserPool.returnXMLReader(ParserPool.Config.DEFAULT, reader);
+        }
+        final List<String> replayed = new ArrayList<>();
+        buffer.replay(new EventHandler(replayed), "file:/foo.xml");
+
+        assertEquals(direct, replayed);
+    }
+
+    @Test
+    public void replay_attributes() throws Exception {
+        final SaxBuffer buffer = record(DOC);
+        final List<String> values = new ArrayList<>();
+        buffer.replay(new DefaultHandler2() {
+            @Override
+            public void startElement(final String uri, final String localName, final String qName,
+                                     final Attributes atts) {
+                if (localName.equals("a")) {
+                    values.add(atts.getValue("id"));
+                    values.add(atts.getValue("urn:b", "att"));
+                    values.add(atts.getValue("b:att"));
+                    values.add(atts.getValue("missing"));
+                    values.add(atts.getValue(2));
+                }
+            }
+        }, null);
+
+        final List<String> exp = new ArrayList<>();
+        exp.add("1");
+        exp.add("x");
+        exp.add("x");
+        exp.add(null);
+        exp.add(null);
+        assertEquals(exp, values);
+    }
+
+    @Test
+    public void replay_systemId() throws Exception {
+        final SaxBuffer buffer = record(DOC);
+        final List<String> systemIds = new ArrayList<>();
+        buffer.replay(new DefaultHandler2() {
+            @Override
+            public void setDocumentLocator(final org.xml.sax.Locator locator) {
+                systemIds.add(locator.getSystemId());
+            }
+        }, "file:/foo.xml");
+
+        assertEquals("file:/foo.xml", systemIds.get(0));
+    }
+
+    private static SaxBuffer record(final String doc) throws Exception {
+        final SaxBuffer.Recorder recorder = new SaxBuffer.Recorder();
+        final XMLReader reader = ParserPool.borrowXMLReader(ParserPool.Config.DEFAULT);
+        try {
+            reader.setContentHandler(recorder);
+            reader.setProperty("http://xml.org/sax/properties/lexical-handler", recorder);
+            reader.parse(new InputSource(new StringReader(doc)));
+        } finally {
+            ParserPool.returnXMLReader(ParserPool.Config.DEFAULT, reader);
+        }
+        return recorder.build();
+    }
+
+    private static final class EventHandler extends DefaultHandler2 {
+        private final List<String> events;
+
+        EventHandler(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void startDocument() {
+            events.add("startDocument");
+        }
+
+        @Override
+        public void endDocument() {
+            events.add("endDocument");
+        }
+
+        @Override
+        public void startPrefixMapping(final String prefix, final String uri) {
+            events.add("startPrefixMapping " + prefix + " " + uri);
+        }
+
+        @Override
+        public void endPrefixMapping(final String prefix) {
+            events.add("endPrefixMapping " + prefix);
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName,
+                                 final Attributes atts) {
+            final StringBuilder buf = new StringBuilder("startElement {" + uri + "}" + localName + " " + qName);
+            for (int i = 0; i < atts.getLength(); i++) {
+                buf.append(" {").append(atts.getURI(i)).append('}').append(atts.getLocalName(i))
+                        .append(' ').append(atts.getQName(i))
+                        .append('=').append(atts.getValue(i));
+            }
+            events.add(buf.toString());
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            events.add("endElement {" + uri + "}" + localName + " " + qName);
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            events.add("characters " + new String(ch, start, length));
+        }
+
+        @Override
+        public void processingInstruction(final String target, final String data) {
+            events.add("processingInstruction " + target + " " + data);
+        }
+
+        @Override
+        public void comment(final char[] ch, final int start, final int length) {
+            events.add("comment " + new String(ch, start, length));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.writer.include;
+
+import org.dita.dost.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class CodeFileTest {
+
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+    private File tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = TestUtils.createTempDir(CodeFileTest.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        TestUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void lines() throws IOException {
+        final CodeFile codeFile = CodeFile.read(new StringReader("a\nbb\r\nccc\r\rd"));
+        assertEquals(5, codeFile.getLineCount());
+        assertEquals("a", codeFile.getLine(0));
+        assertEquals("bb", codeFile.getLine(1));
+        assertEquals("ccc", codeFile.getLine(2));
+        assertEquals("", codeFile.getLine(3));
+        assertEquals("d", codeFile.getLine(4));
+    }
+
+    @Test
+    public void lines_trailingNewline() throws IOException {
+        assertEquals(2, CodeFile.read(new StringReader("a\nb\n")).getLineCount());
+        assertEquals(0, CodeFile.read(new StringReader("")).getLineCount());
+    }
+
+    @Test
+    public void findLine() throws IOException {
+        final CodeFile codeFile = CodeFile.read(new StringReader("// start\nfoo\n// end\n// start\nbar\n"));
+        assertEquals(0, codeFile.findLine("start", 0));
+        assertEquals(3, codeFile.findLine("start", 1));
+        assertEquals(-1, codeFile.findLine("start", 4));
+        assertEquals(-1, codeFile.findLine("missing", 0));
+    }
+
+    @Test
+    public void read_mapped() throws IOException {
+        final File file = new File(tempDir, "large.txt");
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; buf.length() <= CodeFile.MAP_THRESHOLD; i++) {
+            buf.append("line ").append(i).append('\n');
+        }
+        Files.write(file.toPath(), buf.toString().getBytes(UTF_8));
+
+        final CodeFile codeFile = CodeFile.read(file, UTF_8);
+
+        assertEquals("line 0", codeFile.getLine(0));
+        assertEquals("line " + (codeFile.getLineCount() - 1), codeFile.getLine(codeFile.getLineCount() - 1));
+    }
+
+    @Test
+    public void lineNumberRange() throws Exception {
+        final CodeFile codeFile = CodeFile.read(new StringReader("1\n2\n3\n4"));
+        assertEquals("2\n3", copy(new LineNumberRange(1, 2), codeFile));
+        assertEquals("3\n4", copy(new LineNumberRange(2, Integer.MAX_VALUE), codeFile));
+        assertEquals("", copy(new LineNumberRange(5, 6), codeFile));
+    }
+
+    @Test
+    public void anchorRange() throws Exception {
+        final CodeFile codeFile = CodeFile.read(new StringReader("a\n// start\nb\n// end\nc\n// start\nd\n// end\ne"));
+        assertEquals("b\nd", copy(new AnchorRange("start", "end"), codeFile));
+        assertEquals("b\n// end\nc\n// start\nd\n// end\ne", copy(new AnchorRange("start", null), codeFile));
+        assertEquals("a\n// start\nb", copy(new AnchorRange(null, "end"), codeFile));
+        assertEquals("", copy(new AnchorRange("missing", "end"), codeFile));
+    }
+
+    @Test
+    public void cache() throws IOException {
+        final File file = new File(tempDir, "code.txt");
+        Files.write(file.toPath(), "first".getBytes(UTF_8));
+        final CodeFileCache cache = new CodeFileCache(1024);
+
+        final CodeFile first = cache.get(file, UTF_8);
+        assertSame(first, cache.get(file, UTF_8));
+        assertEquals(1, cache.size());
+
+        Files.write(file.toPath(), "changed".getBytes(UTF_8));
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        final CodeFile changed = cache.get(file, UTF_8);
+        assertNotSame(first, changed);
+        assertEquals("changed", changed.getLine(0));
+    }
+
+    @Test
+    public void cache_disabled() throws IOException {
+        final File file = new File(tempDir, "code.txt");
+        Files.write(file.toPath(), "code".getBytes(UTF_8));
+        final CodeFileCache cache = new CodeFileCache(0);
+
+        assertNotSame(cache.get(file, UTF_8), cache.get(file, UTF_8));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void copyLines_readerRange() throws IOException, SAXException {
+        final CodeFile codeFile = CodeFile.read(new StringReader("a\r\nbb\rccc"));
+        final Range range = new Range() {
+            private ContentHandler handler;
+
+            @Override
+            public void copyLines(final BufferedReader codeReader) throws IOException, SAXException {
+                String line;
+                while ((line = codeReader.readLine()) != null) {
+                    final char[] ch = ("[" + line + "]").toCharArray();
+                    handler.characters(ch, 0, ch.length);
+                }
+            }
+
+            @Override
+            public Range handler(final ContentHandler contentHandler) {
+                handler = contentHandler;
+                return this;
+            }
+        };
+        assertEquals("[a][bb][ccc]", copy(range, codeFile));
+    }
+
+    private static String copy(final Range range, final CodeFile codeFile) throws SAXException {
+        final StringBuilder buf = new StringBuilder();
+        range.handler(new DefaultHandler() {
+            @Override
+            public void characters(final char[] ch, final int start, final int length) {
+                buf.append(ch, start, length);
+            }
+        }).copyLines(codeFile);
+        return buf.toString();
+    }
+}
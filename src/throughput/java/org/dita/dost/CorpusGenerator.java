@@ -0,0 +1,277 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+
+/**
+ * Synthetic DITA corpus generator.
+ *
+ * <p>Generated corpus has the following structure:</p>
+ * <pre>
+ * main.ditamap
+ * keys.ditamap
+ * filter.ditaval
+ * library.dita
+ * images/image{n}.png
+ * topics/{group}/topic{n}.dita
+ * </pre>
+ *
+ * <p>Output is deterministic for the same configuration.</p>
+ */
+public final class CorpusGenerator {
+
+    private static final int TOPICS_PER_DIR = 1000;
+    private static final int TOPICS_PER_SECTION = 20;
+    private static final int LIBRARY_SIZE = 100;
+    /** 1x1 transparent PNG. */
+    private static final byte[] PNG = Base64.getDecoder().decode(
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==");
+    private static final String DITAARCH = "xmlns:ditaarch='http://dita.oasis-open.org/architecture/2005/'"
+            + " ditaarch:DITAArchVersion='1.3'";
+    /** Domains normally defaulted by the DTD, required because documents are written without a document type. */
+    private static final String MAP_DOMAINS = "domains='(map mapgroup-d) a(props deliveryTarget)'";
+    private static final String TOPIC_DOMAINS = "domains='(topic hi-d) a(props deliveryTarget)'";
+
+    private int topics = 1000;
+    private int keys = 100;
+    private int conrefs = 2;
+    private int scopes = 0;
+    private int conditions = 2;
+    private boolean chunk = false;
+    private int images = 10;
+
+    /** Number of topics. */
+    public CorpusGenerator topics(final int topics) {
+        this.topics = topics;
+        return this;
+    }
+
+    /** Number of key definitions, half are variable keys and half link keys. */
+    public CorpusGenerator keys(final int keys) {
+        this.keys = keys;
+        return this;
+    }
+
+    /** Number of content references per topic. */
+    public CorpusGenerator conrefs(final int conrefs) {
+        this.conrefs = conrefs;
+        return this;
+    }
+
+    /** Number of key scopes, topics are distributed evenly among scopes. */
+    public CorpusGenerator scopes(final int scopes) {
+        this.scopes = scopes;
+        return this;
+    }
+
+    /** Number of conditional paragraphs per topic. Every other condition is excluded by the DITAVAL file. */
+    public CorpusGenerator conditions(final int conditions) {
+        this.conditions = conditions;
+        return this;
+    }
+
+    /** Chunk each section into a single output file. */
+    public CorpusGenerator chunk(final boolean chunk) {
+        this.chunk = chunk;
+        return this;
+    }
+
+    /** Number of distinct images. */
+    public CorpusGenerator images(final int images) {
+        this.images = images;
+        return this;
+    }
+
+    /**
+     * Generate corpus.
+     *
+     * @param dir output directory
+     * @return main map file
+     * @throws IOException if writing corpus failed
+     */
+    public File generate(final File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        writeKeyMap(new File(dir, "keys.ditamap"));
+        writeDitaval(new File(dir, "filter.ditaval"));
+        writeLibrary(new File(dir, "library.dita"));
+        writeImages(new File(dir, "images"));
+        for (int i = 0; i < topics; i++) {
+            writeTopic(new File(dir, getTopicPath(i)), i);
+        }
+        final File map = new File(dir, "main.ditamap");
+        writeMap(map);
+        return map;
+    }
+
+    private static String getTopicPath(final int i) {
+        return String.format("topics/d%03d/topic%06d.dita", i / TOPICS_PER_DIR, i);
+    }
+
+    private int getVariableKeys() {
+        return Math.max(1, keys / 2);
+    }
+
+    private int getLinkKeys() {
+        return Math.max(1, keys - getVariableKeys());
+    }
+
+    private void writeMap(final File file) throws IOException {
+        try (Writer w = newWriter(file)) {
+            w.write("<map class='- map/map ' " + DITAARCH + " " + MAP_DOMAINS + ">");
+            w.write("<title class='- topic/title '>Synthetic corpus</title>");
+            w.write("<mapref class='+ map/topicref mapgroup-d/mapref ' href='keys.ditamap' format='ditamap'/>");
+            w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='library' href='library.dita'"
+                    + " processing-role='resource-only'/>");
+            final int scopeCount = Math.max(1, scopes);
+            final int perScope = (topics + scopeCount - 1) / scopeCount;
+            for (int s = 0; s < scopeCount; s++) {
+                if (scopes > 0) {
+                    w.write("<topicgroup class='+ map/topicref mapgroup-d/topicgroup ' keyscope='scope" + s + "'>");
+                    w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='product'>"
+                            + "<topicmeta class='- map/topicmeta '><keywords class='- topic/keywords '>"
+                            + "<keyword class='- topic/keyword '>Product " + s + "</keyword>"
+                            + "</keywords></topicmeta></keydef>");
+                }
+                final int end = Math.min(topics, (s + 1) * perScope);
+                for (int i = s * perScope; i < end; i++) {
+                    if ((i - s * perScope) % TOPICS_PER_SECTION == 0) {
+                        if (i != s * perScope) {
+                            w.write("</topicref>");
+                        }
+                        w.write("<topicref class='- map/topicref ' href='" + getTopicPath(i) + "'"
+                                + (chunk ? " chunk='to-content'" : "") + ">");
+                    } else {
+                        w.write("<topicref class='- map/topicref ' href='" + getTopicPath(i) + "'/>");
+                    }
+                }
+                if (end > s * perScope) {
+                    w.write("</topicref>");
+                }
+                if (scopes > 0) {
+                    w.write("</topicgroup>");
+                }
+            }
+            w.write("</map>");
+        }
+    }
+
+    private void writeKeyMap(final File file) throws IOException {
+        try (Writer w = newWriter(file)) {
+            w.write("<map class='- map/map ' " + DITAARCH + " " + MAP_DOMAINS + ">");
+            if (scopes == 0) {
+                w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='product'>"
+                        + "<topicmeta class='- map/topicmeta '><keywords class='- topic/keywords '>"
+                        + "<keyword class='- topic/keyword '>Product</keyword>"
+                        + "</keywords></topicmeta></keydef>");
+            }
+            for (int i = 0; i < getVariableKeys(); i++) {
+                w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='var" + i + "'>"
+                        + "<topicmeta class='- map/topicmeta '><keywords class='- topic/keywords '>"
+                        + "<keyword class='- topic/keyword '>Variable " + i + "</keyword>"
+                        + "</keywords></topicmeta></keydef>");
+            }
+            for (int i = 0; i < getLinkKeys(); i++) {
+                w.write("<keydef class='+ map/topicref mapgroup-d/keydef ' keys='link" + i + "' href='"
+                        + getTopicPath(i % topics) + "'>"
+                        + "<topicmeta class='- map/topicmeta '><linktext class='- map/linktext '>Link " + i
+                        + "</linktext></topicmeta></keydef>");
+            }
+            w.write("</map>");
+        }
+    }
+
+    private void writeDitaval(final File file) throws IOException {
+        try (Writer w = newWriter(file)) {
+            w.write("<val>");
+            for (int i = 0; i < conditions; i++) {
+                w.write("<prop att='platform' val='p" + i + "' action='" + (i % 2 == 0 ? "include" : "exclude") + "'/>");
+            }
+            w.write("<prop att='audience' val='expert' action='flag' color='red'/>");
+            w.write("</val>");
+        }
+    }
+
+    private void writeLibrary(final File file) throws IOException {
+        try (Writer w = newWriter(file)) {
+            w.write("<topic class='- topic/topic ' id='library' " + DITAARCH + " " + TOPIC_DOMAINS + ">");
+            w.write("<title class='- topic/title '>Library</title><body class='- topic/body '>");
+            for (int i = 0; i < LIBRARY_SIZE; i++) {
+                w.write("<p class='- topic/p ' id='p" + i + "'>Reusable paragraph " + i
+                        + " for <keyword class='- topic/keyword ' keyref='product'/>.</p>");
+            }
+            w.write("</body></topic>");
+        }
+    }
+
+    private void writeImages(final File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        for (int i = 0; i < images; i++) {
+            Files.write(new File(dir, "image" + i + ".png").toPath(), PNG);
+        }
+    }
+
+    private void writeTopic(final File file, final int n) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        final String root = "../../";
+        try (Writer w = newWriter(file)) {
+            w.write("<topic class='- topic/topic ' id='topic" + n + "' " + DITAARCH + " " + TOPIC_DOMAINS + ">");
+            w.write("<title class='- topic/title '>Topic " + n + " for <keyword class='- topic/keyword ' keyref='product'/></title>");
+            w.write("<shortdesc class='- topic/shortdesc '>Short description of topic " + n + ".</shortdesc>");
+            w.write("<body class='- topic/body '>");
+            w.write("<p class='- topic/p ' id='intro'>Uses <ph class='- topic/ph ' keyref='var" + (n % getVariableKeys())
+                    + "'/> and refers to <xref class='- topic/xref ' keyref='link" + ((n + 1) % getLinkKeys()) + "'/>.</p>");
+            for (int i = 0; i < conrefs; i++) {
+                w.write("<p class='- topic/p ' conref='" + root + "library.dita#library/p" + ((n + i) % LIBRARY_SIZE) + "'/>");
+            }
+            for (int i = 0; i < conditions; i++) {
+                w.write("<p class='- topic/p ' platform='p" + i + "'" + (i == 0 ? " audience='expert'" : "")
+                        + ">Conditional paragraph " + i + ".</p>");
+            }
+            if (images > 0) {
+                w.write("<p class='- topic/p '><image class='- topic/image ' href='" + root + "images/image"
+                        + (n % images) + ".png'><alt class='- topic/alt '>Image</alt></image></p>");
+            }
+            w.write("<ul class='- topic/ul '>");
+            for (int i = 1; i <= 3; i++) {
+                final int target = (n + i * 7) % topics;
+                w.write("<li class='- topic/li '><xref class='- topic/xref ' href='" + root + getTopicPath(target)
+                        + "#topic" + target + "'/></li>");
+            }
+            w.write("</ul>");
+            w.write("</body></topic>");
+        }
+    }
+
+    private static Writer newWriter(final File file) throws IOException {
+        final Writer w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        w.write("<?xml version='1.0' encoding='UTF-8'?>\n");
+        return w;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: CorpusGenerator <dir> [topics] [keys] [conrefs] [scopes] [conditions] [chunk] [images]");
+            System.exit(1);
+        }
+        final CorpusGenerator generator = new CorpusGenerator();
+        if (args.length > 1) generator.topics(Integer.parseInt(args[1]));
+        if (args.length > 2) generator.keys(Integer.parseInt(args[2]));
+        if (args.length > 3) generator.conrefs(Integer.parseInt(args[3]));
+        if (args.length > 4) generator.scopes(Integer.parseInt(args[4]));
+        if (args.length > 5) generator.conditions(Integer.parseInt(args[5]));
+        if (args.length > 6) generator.chunk(Boolean.parseBoolean(args[6]));
+        if (args.length > 7) generator.images(Integer.parseInt(args[7]));
+        System.out.println(generator.generate(new File(args[0])));
+    }
+}
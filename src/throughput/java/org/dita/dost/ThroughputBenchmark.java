@@ -0,0 +1,281 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2021 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.dita.dost.exception.DITAOTException;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.dita.dost.util.Constants.ANT_PROFILER_FILE;
+
+/**
+ * End-to-end throughput harness.
+ *
+ * <p>Generates a synthetic corpus for each size and runs each scenario over it in this JVM. For every run
+ * the harness reports wall time, topics per second, peak heap usage and per-stage time taken from the
+ * pipeline profiler trace. Results are written as JSON.</p>
+ *
+ * <p>Each scenario is run twice. Wall time and peak heap are measured from a run with the profiler disabled,
+ * because profiler events are buffered in memory until the end of the build and recording them adds time.
+ * Stage times are taken from a second run with the profiler enabled.</p>
+ *
+ * <p>Scenarios:</p>
+ * <dl>
+ *   <dt>{@code preprocess}</dt>
+ *   <dd>{@code dita} transtype, i.e. preprocessing with normalized output. Requires the
+ *   {@code org.dita.normalize} plugin.</dd>
+ *   <dt>{@code html5}</dt>
+ *   <dd>{@code html5} transtype.</dd>
+ *   <dt>{@code pdf2}</dt>
+ *   <dd>{@code pdf2} transtype measured until the end of the last pipeline stage, i.e. FO generation.
+ *   PDF formatting is excluded from the reported time. Formatting time is taken from the profiled run as the
+ *   time after the end of the last stage.</dd>
+ * </dl>
+ *
+ * <p>System properties:</p>
+ * <dl>
+ *   <dt>{@code dita.dir}</dt><dd>DITA-OT installation directory, defaults to {@code src/main}</dd>
+ *   <dt>{@code topics}</dt><dd>comma separated corpus sizes, defaults to {@code 1000}</dd>
+ *   <dt>{@code scenarios}</dt><dd>comma separated scenarios, defaults to {@code html5}</dd>
+ *   <dt>{@code keys}, {@code conrefs}, {@code scopes}, {@code conditions}, {@code chunk}, {@code images}</dt>
+ *   <dd>corpus configuration, see {@link CorpusGenerator}</dd>
+ *   <dt>{@code work.dir}</dt><dd>working directory, defaults to {@code build/tmp/throughput}</dd>
+ *   <dt>{@code result.file}</dt><dd>JSON result file, defaults to {@code build/reports/throughput/results.json}</dd>
+ * </dl>
+ */
+public final class ThroughputBenchmark {
+
+    private static final Map<String, String> TRANSTYPES = new HashMap<>();
+    static {
+        TRANSTYPES.put("preprocess", "dita");
+        TRANSTYPES.put("html5", "html5");
+        TRANSTYPES.put("pdf2", "pdf2");
+    }
+
+    private final File ditaDir;
+    private final File workDir;
+    private final Map<String, String> properties;
+
+    public ThroughputBenchmark(final File ditaDir, final File workDir, final Map<String, String> properties) {
+        this.ditaDir = ditaDir;
+        this.workDir = workDir;
+        this.properties = properties;
+    }
+
+    /**
+     * Run scenario over corpus.
+     *
+     * @param scenario scenario name
+     * @param input corpus main map
+     * @param topics number of topics in corpus
+     * @return run result
+     */
+    public Result run(final String scenario, final File input, final int topics) throws DITAOTException, IOException {
+        final String transtype = TRANSTYPES.get(scenario);
+        if (transtype == null) {
+            throw new IllegalArgumentException("Unsupported scenario " + scenario);
+        }
+        final File runDir = new File(workDir, scenario + "-" + topics);
+        FileUtils.deleteQuietly(runDir);
+        final Result result = new Result(scenario, topics);
+
+        final long wall = execute(transtype, input, new File(runDir, "measure"), null, result);
+
+        final File profileDir = new File(runDir, "profile");
+        final File trace = new File(profileDir, "trace.json");
+        final long profiledWall = execute(transtype, input, profileDir, trace, null);
+        readTrace(trace, result);
+
+        if (scenario.equals("pdf2") && result.pipelineEnd > 0) {
+            final long formatting = Math.max(0, profiledWall - result.pipelineEnd);
+            result.time = Math.max(0, wall - formatting);
+        } else {
+            result.time = wall;
+        }
+        return result;
+    }
+
+    /**
+     * Run conversion.
+     *
+     * @param transtype transformation type
+     * @param input corpus main map
+     * @param runDir directory for temporary and output files
+     * @param trace profiler trace file, {@code null} to disable profiler
+     * @param result result to record peak heap usage to, {@code null} to not record
+     * @return wall time in nanoseconds
+     */
+    private long execute(final String transtype, final File input, final File runDir, final File trace,
+                         final Result result) throws DITAOTException, IOException {
+        final File tempDir = new File(runDir, "temp");
+        final File outDir = new File(runDir, "out");
+        Files.createDirectories(tempDir.toPath());
+
+        final ProcessorFactory pf = ProcessorFactory.newInstance(ditaDir);
+        pf.setBaseTempDir(tempDir);
+        final Processor processor = pf.newProcessor(transtype)
+                .setInput(input)
+                .setOutputDir(outDir)
+                .setProperty("args.filter", new File(input.getParentFile(), "filter.ditaval").getAbsolutePath())
+                .setProperties(properties)
+                .createDebugLog(false);
+        if (trace != null) {
+            processor.setProperty(ANT_PROFILER_FILE, trace.getAbsolutePath());
+        }
+
+        System.gc();
+        final List<MemoryPoolMXBean> pools = getHeapPools();
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final long start = System.nanoTime();
+        processor.run();
+        final long wall = System.nanoTime() - start;
+        if (result != null) {
+            result.peakHeap = pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        }
+        return wall;
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        final List<MemoryPoolMXBean> res = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                res.add(pool);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Read per-stage time from profiler trace.
+     */
+    private static void readTrace(final File trace, final Result result) throws IOException {
+        if (!trace.exists()) {
+            return;
+        }
+        final JsonNode root = new ObjectMapper().readTree(trace);
+        for (final JsonNode event : root.path("traceEvents")) {
+            if (!"stage".equals(event.path("cat").asText())) {
+                continue;
+            }
+            final long dur = TimeUnit.MICROSECONDS.toNanos(event.path("dur").asLong());
+            final long end = TimeUnit.MICROSECONDS.toNanos(event.path("ts").asLong()) + dur;
+            result.stages.merge(event.path("name").asText(), dur, Long::sum);
+            result.pipelineEnd = Math.max(result.pipelineEnd, end);
+        }
+    }
+
+    /** Single scenario run result. */
+    public static final class Result {
+        public final String scenario;
+        public final int topics;
+        /** Wall time in nanoseconds. */
+        public long time;
+        /** Peak heap usage in bytes. */
+        public long peakHeap;
+        /** Stage time in nanoseconds, in execution order. */
+        public final Map<String, Long> stages = new LinkedHashMap<>();
+        private long pipelineEnd;
+
+        Result(final String scenario, final int topics) {
+            this.scenario = scenario;
+            this.topics = topics;
+        }
+
+        public double getTopicsPerSecond() {
+            return time > 0 ? topics / (time / 1_000_000_000.0) : 0;
+        }
+    }
+
+    private static void writeResults(final File file, final List<Result> results) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (JsonGenerator gen = new JsonFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            gen.useDefaultPrettyPrinter();
+            gen.writeStartArray();
+            for (final Result result : results) {
+                gen.writeStartObject();
+                gen.writeStringField("scenario", result.scenario);
+                gen.writeNumberField("topics", result.topics);
+                gen.writeNumberField("timeMs", TimeUnit.NANOSECONDS.toMillis(result.time));
+                gen.writeNumberField("topicsPerSecond", result.getTopicsPerSecond());
+                gen.writeNumberField("peakHeapBytes", result.peakHeap);
+                gen.writeObjectFieldStart("stagesMs");
+                for (final Map.Entry<String, Long> stage : result.stages.entrySet()) {
+                    gen.writeNumberField(stage.getKey(), TimeUnit.NANOSECONDS.toMillis(stage.getValue()));
+                }
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    private static void printResult(final Result result) {
+        System.out.printf(Locale.ROOT, "%-10s %8d topics %10d ms %10.1f topics/s %8d MiB peak heap%n",
+                result.scenario, result.topics, TimeUnit.NANOSECONDS.toMillis(result.time),
+                result.getTopicsPerSecond(), result.peakHeap / (1024 * 1024));
+        for (final Map.Entry<String, Long> stage : result.stages.entrySet()) {
+            System.out.printf(Locale.ROOT, "    %-60s %10d ms%n", stage.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(stage.getValue()));
+        }
+    }
+
+    private static List<String> getList(final String name, final String defaultValue) {
+        return Arrays.asList(System.getProperty(name, defaultValue).split("\\s*,\\s*"));
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final File ditaDir = new File(System.getProperty("dita.dir", "src" + File.separator + "main")).getAbsoluteFile();
+        final File workDir = new File(System.getProperty("work.dir", "build/tmp/throughput")).getAbsoluteFile();
+        final File resultFile = new File(System.getProperty("result.file", "build/reports/throughput/results.json"));
+        final List<String> scenarios = getList("scenarios", "html5");
+
+        final Map<String, String> properties = new HashMap<>();
+        for (final String arg : args) {
+            final int i = arg.indexOf('=');
+            if (i != -1) {
+                properties.put(arg.substring(0, i), arg.substring(i + 1));
+            }
+        }
+
+        final ThroughputBenchmark benchmark = new ThroughputBenchmark(ditaDir, workDir, properties);
+        final List<Result> results = new ArrayList<>();
+        for (final String size : getList("topics", "1000")) {
+            final int topics = Integer.parseInt(size);
+            final File corpusDir = new File(workDir, "corpus-" + topics);
+            FileUtils.deleteQuietly(corpusDir);
+            final File input = new CorpusGenerator()
+                    .topics(topics)
+                    .keys(Integer.getInteger("keys", Math.max(10, topics / 10)))
+                    .conrefs(Integer.getInteger("conrefs", 2))
+                    .scopes(Integer.getInteger("scopes", 0))
+                    .conditions(Integer.getInteger("conditions", 2))
+                    .chunk(Boolean.getBoolean("chunk"))
+                    .images(Integer.getInteger("images", 10))
+                    .generate(corpusDir);
+            for (final String scenario : scenarios) {
+                final Result result = benchmark.run(scenario, input, topics);
+                printResult(result);
+                results.add(result);
+            }
+        }
+        writeResults(resultFile, results);
+    }
+}